@@ -3,11 +3,17 @@ package com.lahinchgallery.lahinch_art_gallery_backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class LahinchArtGalleryBackendApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(LahinchArtGalleryBackendApplication.class, args);
+		SpringApplication application = new SpringApplication(LahinchArtGalleryBackendApplication.class);
+		// Tomcat runs each request on a virtual thread, so a viewer blocked on a slow socket or on storage doesn't
+		// hold one of a fixed pool of threads. Can still be turned off with spring.threads.virtual.enabled=false.
+		application.setDefaultProperties(Map.of("spring.threads.virtual.enabled", "true"));
+		application.run(args);
 	}
 
 }
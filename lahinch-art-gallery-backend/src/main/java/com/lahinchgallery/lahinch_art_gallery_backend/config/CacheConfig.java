@@ -0,0 +1,50 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+// Bounded in-process caches for the catalog's by-ID lookups.
+// Entries are evicted after commit by CatalogCacheInvalidator; the TTL only bounds staleness
+// for changes made outside this application (e.g. directly in the Supabase dashboard).
+// Stats are recorded so the actuator exposes cache.gets (hit/miss), cache.puts and cache.evictions per cache.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ARTWORKS_CACHE = "artworks";
+    public static final String ARTISTS_CACHE = "artists";
+    public static final String PREMIUM_MEDIA_CACHE = "premiumMedia";
+
+    @Value("${cache.catalog.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${cache.catalog.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered here exist; a typo in a cache name fails instead of creating a new cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ARTWORKS_CACHE, newCache().build());
+        cacheManager.registerCustomCache(ARTISTS_CACHE, newCache().build());
+        cacheManager.registerCustomCache(PREMIUM_MEDIA_CACHE, newCache().build());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats();
+    }
+}
@@ -0,0 +1,55 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.config;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.service.DependencyGuard;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+// One DependencyGuard per remote dependency, so Storage slowing down never uses up the slots Stripe calls need.
+// The timeouts are the longest a single guarded call (retries included) may take; the HTTP clients' own
+// timeouts are cut down to whatever is left of it.
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public DependencyGuard storageGuard(MeterRegistry meterRegistry,
+                                        @Value("${resilience.storage.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                        @Value("${resilience.storage.max-wait:2s}") Duration maxWait,
+                                        @Value("${resilience.storage.timeout:30s}") Duration timeout,
+                                        @Value("${resilience.storage.max-attempts:3}") int maxAttempts,
+                                        @Value("${resilience.storage.backoff:200ms}") Duration backoff,
+                                        @Value("${resilience.storage.open-duration:30s}") Duration openDuration) {
+        // Timeouts, resets, 5xx and rate limiting; any other 4xx is an answer, not an outage
+        return new DependencyGuard("storage", maxConcurrentCalls, maxWait, timeout, maxAttempts, backoff, openDuration,
+                e -> e instanceof ResourceAccessException
+                        || e instanceof HttpServerErrorException
+                        || (e instanceof HttpClientErrorException error && error.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS),
+                meterRegistry);
+    }
+
+    @Bean
+    public DependencyGuard stripeGuard(MeterRegistry meterRegistry,
+                                       @Value("${resilience.stripe.max-concurrent-calls:8}") int maxConcurrentCalls,
+                                       @Value("${resilience.stripe.max-wait:1s}") Duration maxWait,
+                                       @Value("${resilience.stripe.timeout:10s}") Duration timeout,
+                                       @Value("${resilience.stripe.max-attempts:3}") int maxAttempts,
+                                       @Value("${resilience.stripe.backoff:500ms}") Duration backoff,
+                                       @Value("${resilience.stripe.open-duration:30s}") Duration openDuration) {
+        // A card decline or invalid request is a StripeException too, but says nothing about Stripe's health
+        return new DependencyGuard("stripe", maxConcurrentCalls, maxWait, timeout, maxAttempts, backoff, openDuration,
+                e -> e instanceof ApiConnectionException
+                        || e instanceof RateLimitException
+                        || (e instanceof StripeException error && error.getStatusCode() != null && error.getStatusCode() >= 500),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+// Spring Boot's defaults (every request authenticated, form login and HTTP basic), except for the premium media
+// streams: those check the Supabase access token and the stream session token themselves, and a <video> element
+// can't send basic credentials or a CSRF token anyway. The public buckets under /api/files are open to reads as
+// well, since <img> tags send no credentials and the same files are public on Supabase; premium files there
+// (local-storage profile only) are checked against the Supabase access token by LocalStorageFileController.
+@Configuration
+public class SecurityConfig {
+
+    private static final String[] PUBLIC_FILES = {
+            "/api/files/artwork-images/**", "/api/files/artist-images/**", "/api/files/premium-media-thumbnails/**",
+            "/api/files/premium-media-files/**"};
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers("/api/premium-media/*/stream-sessions", "/api/premium-media/streams/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, PUBLIC_FILES).permitAll()
+                        .requestMatchers(HttpMethod.HEAD, PUBLIC_FILES).permitAll()
+                        .anyRequest().authenticated())
+                .csrf(csrf -> csrf.ignoringRequestMatchers("/api/premium-media/*/stream-sessions"))
+                .formLogin(Customizer.withDefaults())
+                .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+}
@@ -1,17 +1,35 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.config;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.service.DependencyGuard;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.util.CollectionUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
 
+// Not needed with the "local-storage" profile, where LocalStorageServiceImpl keeps files on local disk
 @Configuration
+@Profile("!local-storage")
 public class SupabaseConfig {
 
     @Value("${supabase.url}")
@@ -20,24 +38,102 @@ public class SupabaseConfig {
     @Value("${supabase.service-role-key}")
     private String supabaseServiceRoleKey;
 
+    // Connections are kept alive and shared by all storage calls, so only the first call to a host pays for TCP+TLS setup.
+    // Per route is what matters here: every call goes to the one Supabase host.
+    @Value("${supabase.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${supabase.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${supabase.http.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    // Longest silence on an open connection, not a cap on the whole call: a multi-GB upload that keeps
+    // sending is never cut off, while a storage call that hangs is.
+    @Value("${supabase.http.read-timeout:30s}")
+    private Duration readTimeout;
+
+    // How long a call waits for a pooled connection once all of them are in use
+    @Value("${supabase.http.connection-request-timeout:10s}")
+    private Duration connectionRequestTimeout;
+
+    // Closed before the server or a load balancer drops them, so a reused connection is rarely already dead
+    @Value("${supabase.http.idle-timeout:30s}")
+    private Duration idleTimeout;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager supabaseConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    // Exposes httpcomponents.httpclient.pool.* gauges (leased, available and pending connections) through the actuator
     @Bean
-    public RestTemplate supabaseRestTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
-        
-        // Add the Supabase API key to all requests
-        List<ClientHttpRequestInterceptor> interceptors = restTemplate.getInterceptors();
-        if (CollectionUtils.isEmpty(interceptors)) {
-            interceptors = new ArrayList<>();
+    public MeterBinder supabaseConnectionPoolMetrics(@Qualifier("supabaseConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "supabase");
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient supabaseHttpClient(@Qualifier("supabaseConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    private RequestConfig defaultRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build();
+    }
+
+    // Inside a DependencyGuard call, waiting for a pooled connection or for the response never goes past the
+    // guard's deadline. A context carrying its own RequestConfig replaces the client's default entirely, so it
+    // starts from a copy of it.
+    private HttpContext deadlineContext(HttpMethod method, URI uri) {
+        Optional<Duration> remaining = DependencyGuard.remaining();
+        if (remaining.isEmpty()) {
+            return null; // Spring then uses the client's default
         }
-        
-        interceptors.add((request, body, execution) -> {
+        Duration left = remaining.get().isZero() ? Duration.ofMillis(1) : remaining.get();
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaultRequestConfig())
+                .setConnectionRequestTimeout(Timeout.of(min(connectionRequestTimeout, left)))
+                .setResponseTimeout(Timeout.of(min(readTimeout, left)))
+                .build());
+        return context;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Bean
+    public RestTemplate supabaseRestTemplate(@Qualifier("supabaseHttpClient") CloseableHttpClient httpClient) {
+        // Streams request bodies: bodies of unknown length (multipart uploads) go out with chunked transfer encoding
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory(this::deadlineContext);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+        // Add the Supabase API key to all requests.
+        // This is an initializer rather than an interceptor: with any interceptor registered, RestTemplate
+        // buffers every request body into a byte[] first, which would put whole uploads back on the heap.
+        restTemplate.getClientHttpRequestInitializers().add(request -> {
             HttpHeaders headers = request.getHeaders();
             headers.set("apikey", supabaseServiceRoleKey);
             headers.set("Authorization", "Bearer " + supabaseServiceRoleKey);
-            return execution.execute(request, body);
         });
-        
-        restTemplate.setInterceptors(interceptors);
         return restTemplate;
     }
 
@@ -45,4 +141,4 @@ public class SupabaseConfig {
     public String supabaseUrl() {
         return supabaseUrl;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.controller;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.LocalStorageUrlSigner;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.PremiumMediaStreamService;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.RangeNotSatisfiableException;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+
+// Serves the files behind LocalStorageServiceImpl's URLs (storage.local.base-url), which with the local-storage
+// profile take the place of Supabase's public and signed URLs. The public buckets are open to anyone, as on
+// Supabase. premium-media-files needs the ?token= of a URL from getFileUrl, which PremiumMediaService only hands
+// to entitled users, or else the Supabase access token of a subscriber or admin, the same check as starting a
+// stream session. Answers single byte ranges with 206.
+@RestController
+@RequestMapping("/api/files")
+@Profile("local-storage")
+public class LocalStorageFileController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String BEARER = "Bearer ";
+    private static final String PREMIUM_MEDIA_FILES_BUCKET = "premium-media-files";
+    private static final Set<String> PUBLIC_BUCKETS = Set.of(
+            "artwork-images", "artist-images", "premium-media-thumbnails");
+
+    private final StorageService storageService;
+    private final PremiumMediaStreamService streamService;
+    private final LocalStorageUrlSigner urlSigner;
+
+    @Autowired
+    public LocalStorageFileController(StorageService storageService, PremiumMediaStreamService streamService,
+                                      LocalStorageUrlSigner urlSigner) {
+        this.storageService = storageService;
+        this.streamService = streamService;
+        this.urlSigner = urlSigner;
+    }
+
+    @GetMapping("/{bucketName}/{*filePath}")
+    public void getFile(@PathVariable String bucketName, @PathVariable String filePath,
+                        @RequestParam(required = false) String token,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = filePath.substring(1); // {*filePath} keeps the leading slash
+        boolean premium = PREMIUM_MEDIA_FILES_BUCKET.equals(bucketName);
+        if (!premium && !PUBLIC_BUCKETS.contains(bucketName) || path.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (premium && token != null) {
+            if (!urlSigner.verify(bucketName, path, token)) {
+                throw new BadCredentialsException("The file URL is invalid or has expired.");
+            }
+        } else if (premium) {
+            String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+            streamService.checkAccess(authorization != null && authorization.startsWith(BEARER)
+                    ? authorization.substring(BEARER.length()) : null);
+        }
+
+        HttpRange range = singleRange(request.getHeader(HttpHeaders.RANGE));
+        StoredFileRange file;
+        try {
+            file = storageService.openFile(bucketName, path, range);
+        } catch (FileNotFoundException | IllegalArgumentException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value()); // IllegalArgumentException: a path outside the bucket
+            return;
+        } catch (RangeNotSatisfiableException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getLength());
+            response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        try (file; InputStream in = file.content()) {
+            long count = file.end() - file.start() + 1;
+            response.setStatus(range == null ? HttpStatus.OK.value() : HttpStatus.PARTIAL_CONTENT.value());
+            if (range != null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + file.start() + "-" + file.end() + "/" + file.length());
+            }
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (premium) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+            }
+            response.setContentType(file.contentType() != null ? file.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (count > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                if (read < 0) {
+                    break; // Only if the file shrank underneath us
+                }
+                out.write(buffer, 0, read);
+                count -= read;
+            }
+        }
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<String> handleBadCredentials(BadCredentialsException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer").body(e.getMessage());
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<String> handleAccessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+
+    // As in MediaFileController: several ranges or a malformed header get the whole file
+    private static HttpRange singleRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.controller;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.service.ContentAddressedStorage;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.MediaCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+// Serves storage files from the local MediaCache, for clients that would rather not fetch them from the
+// public Supabase URLs. Answers single byte ranges with 206, which is what video players send when seeking.
+// The body is copied from the channel opened here rather than handed to Tomcat's sendfile, which would open the
+// file again by name after this method returns, by which time the cache may have evicted or replaced it.
+// A content-addressed path always names the same bytes, so it is cached for good, with its hash as the ETag;
+// anything else is revalidated against the cached file's size and modification time.
+@RestController
+@RequestMapping("/api/files")
+@ConditionalOnProperty(name = "media.cache.enabled", havingValue = "true")
+@Profile("!local-storage") // The files are on this host already; LocalStorageFileController serves them
+public class MediaFileController {
+
+    // premium-media-files is not here: those files are for subscribers, through PremiumMediaStreamController
+    private static final Set<String> BUCKETS = Set.of(
+            "artwork-images", "artist-images", "premium-media-thumbnails");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+
+    private final MediaCache mediaCache;
+
+    @Autowired
+    public MediaFileController(MediaCache mediaCache) {
+        this.mediaCache = mediaCache;
+    }
+
+    @GetMapping("/{bucketName}/{*filePath}")
+    public void getFile(@PathVariable String bucketName, @PathVariable String filePath,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = filePath.substring(1); // {*filePath} keeps the leading slash
+        if (!BUCKETS.contains(bucketName) || path.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        CachedFile opened;
+        try {
+            opened = open(bucketName, path);
+        } catch (FileNotFoundException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        try (FileChannel channel = opened.channel()) {
+            long length = channel.size();
+            String contentHash = ContentAddressedStorage.contentHash(path);
+            String etag = contentHash != null ? "\"" + contentHash + "\""
+                    : opened.lastModified() < 0 ? null : "W/\"" + length + "-" + opened.lastModified() + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, contentHash != null ? IMMUTABLE : REVALIDATE);
+            // Sets the ETag and Last-Modified headers, and answers 304 when the client's copy is current
+            if (new ServletWebRequest(request, response).checkNotModified(etag, opened.lastModified())) {
+                return;
+            }
+            long start = 0;
+            long end = length - 1;
+            response.setStatus(HttpStatus.OK.value());
+            HttpRange range = singleRange(request.getHeader(HttpHeaders.RANGE));
+            if (range != null) {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            long count = end - start + 1;
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count == 0) {
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (count > 0) {
+                long sent = channel.transferTo(start, count, out);
+                if (sent <= 0) {
+                    break; // Only if the file shrank underneath us
+                }
+                start += sent;
+                count -= sent;
+            }
+        }
+    }
+
+    private record CachedFile(FileChannel channel, long lastModified) { // lastModified: -1 when unknown
+    }
+
+    // An open file keeps its content after eviction deletes it, but the cache can evict it between get() and
+    // the open; it is then downloaded again
+    private CachedFile open(String bucketName, String path) throws IOException {
+        try {
+            return open(mediaCache.get(bucketName, path));
+        } catch (NoSuchFileException e) {
+            return open(mediaCache.get(bucketName, path));
+        }
+    }
+
+    // The modification time is read once the file is open, so it is the served file's unless eviction deleted
+    // the file in between
+    private static CachedFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new CachedFile(channel, Files.getLastModifiedTime(file).toMillis());
+        } catch (NoSuchFileException e) {
+            return new CachedFile(channel, -1);
+        }
+    }
+
+    // A request for several ranges would need a multipart/byteranges body. Players only ask for one,
+    // and ignoring a Range header is allowed, so anything else gets the whole file.
+    private static HttpRange singleRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
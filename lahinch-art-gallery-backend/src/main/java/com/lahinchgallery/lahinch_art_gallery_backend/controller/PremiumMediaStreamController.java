@@ -0,0 +1,128 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.controller;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaStreamSession;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.PremiumMediaStreamService;
+import com.lahinchgallery.lahinch_art_gallery_backend.service.RangeNotSatisfiableException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+// Streaming for premium video and audio. A player first starts a session with the user's Supabase access token,
+// then points a <video>/<audio> element at the returned URL, which answers single byte ranges with 206 so
+// seeking works. Bodies are copied through one fixed-size buffer per stream, so memory per viewer stays flat,
+// and each stream blocks a virtual thread (see LahinchArtGalleryBackendApplication), not a platform thread.
+@RestController
+@RequestMapping("/api/premium-media")
+public class PremiumMediaStreamController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String BEARER = "Bearer ";
+
+    private final PremiumMediaStreamService streamService;
+
+    @Autowired
+    public PremiumMediaStreamController(PremiumMediaStreamService streamService) {
+        this.streamService = streamService;
+    }
+
+    @PostMapping("/{mediaId}/stream-sessions")
+    public PremiumMediaStreamSession startSession(@PathVariable UUID mediaId,
+                                                  @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith(BEARER) ? authorization.substring(BEARER.length()) : null;
+        return streamService.startSession(mediaId, accessToken);
+    }
+
+    @GetMapping("/streams/{sessionToken}")
+    public void stream(@PathVariable String sessionToken, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpRange range = singleRange(request.getHeader(HttpHeaders.RANGE));
+        StoredFileRange file;
+        try {
+            file = streamService.openStream(sessionToken, range);
+        } catch (FileNotFoundException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        } catch (RangeNotSatisfiableException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + (e.getLength() < 0 ? "*" : e.getLength()));
+            response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        try (file; InputStream in = file.content()) {
+            long count = file.end() - file.start() + 1;
+            response.setStatus(range == null ? HttpStatus.OK.value() : HttpStatus.PARTIAL_CONTENT.value());
+            if (range != null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + file.start() + "-" + file.end() + "/" + file.length());
+            }
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            // The URL is the credential, so shared caches must not keep the bytes
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+            response.setContentType(file.contentType() != null ? file.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (count > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                if (read < 0) {
+                    break; // Storage sent less than it announced; the client sees a short body
+                }
+                out.write(buffer, 0, read);
+                count -= read;
+            }
+        }
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<String> handleBadCredentials(BadCredentialsException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer").body(e.getMessage());
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<String> handleAccessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    // As in MediaFileController: several ranges or a malformed header get the whole file
+    private static HttpRange singleRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Immutable copy of an artist's profile, safe to keep in the catalog cache (see ArtworkDetail)
+public record ArtistDetail(
+        UUID id,
+        String name,
+        String specialty,
+        String location,
+        String born,
+        String education,
+        String website,
+        String bio,
+        String additionalBio,
+        String profileImageUrl,
+        String profileThumbnailUrl,
+        String profileCardUrl,
+        String profileDetailUrl,
+        boolean featured,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    public static ArtistDetail from(Artist artist) {
+        return new ArtistDetail(artist.getId(), artist.getName(), artist.getSpecialty(), artist.getLocation(),
+                artist.getBorn(), artist.getEducation(), artist.getWebsite(), artist.getBio(), artist.getAdditionalBio(),
+                artist.getProfileImageUrl(), artist.getProfileThumbnailUrl(), artist.getProfileCardUrl(),
+                artist.getProfileDetailUrl(), artist.isFeatured(), artist.getCreatedAt(), artist.getUpdatedAt());
+    }
+}
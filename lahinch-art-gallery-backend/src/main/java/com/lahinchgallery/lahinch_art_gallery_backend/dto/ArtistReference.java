@@ -0,0 +1,6 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.UUID;
+
+public record ArtistReference(UUID id, String name) {
+}
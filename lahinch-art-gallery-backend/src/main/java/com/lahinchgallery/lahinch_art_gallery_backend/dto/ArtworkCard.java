@@ -0,0 +1,22 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Read-only row for artwork grids (catalog, artist page). Selected column by column, so it carries
+// no TEXT description and is never managed by the persistence context.
+public record ArtworkCard(
+        UUID id,
+        String title,
+        String medium,
+        Integer yearCreated,
+        BigDecimal price,
+        ArtworkAvailabilityStatus availabilityStatus,
+        String artworkImageUrl,
+        String artworkCardUrl, // Grid-sized copy; null until it exists, so fall back to artworkImageUrl
+        UUID artistId,
+        String artistName
+) {
+}
@@ -0,0 +1,8 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import org.springframework.data.domain.Page;
+
+// A catalog page together with the facet counts for the same filters and search term
+public record ArtworkCatalogPage(Page<Artwork> artworks, ArtworkFacets facets) {
+}
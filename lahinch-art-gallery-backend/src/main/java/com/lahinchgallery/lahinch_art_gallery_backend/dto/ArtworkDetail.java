@@ -0,0 +1,38 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Immutable copy of an artwork for the detail page, safe to keep in the catalog cache:
+// unlike the entity it holds no lazy associations and cannot be changed by whoever reads it.
+public record ArtworkDetail(
+        UUID id,
+        String title,
+        String description,
+        String medium,
+        String dimensions,
+        Integer yearCreated,
+        BigDecimal price,
+        ArtworkAvailabilityStatus availabilityStatus,
+        String artworkImageUrl,
+        String artworkThumbnailUrl,
+        String artworkCardUrl,
+        String artworkDetailUrl,
+        ArtistReference artist,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    // The artist must already be loaded (ArtworkRepository.findWithArtistById)
+    public static ArtworkDetail from(Artwork artwork) {
+        return new ArtworkDetail(artwork.getId(), artwork.getTitle(), artwork.getDescription(), artwork.getMedium(),
+                artwork.getDimensions(), artwork.getYearCreated(), artwork.getPrice(), artwork.getAvailabilityStatus(),
+                artwork.getArtworkImageUrl(), artwork.getArtworkThumbnailUrl(), artwork.getArtworkCardUrl(),
+                artwork.getArtworkDetailUrl(), new ArtistReference(artwork.getArtist().getId(), artwork.getArtist().getName()),
+                artwork.getCreatedAt(), artwork.getUpdatedAt());
+    }
+}
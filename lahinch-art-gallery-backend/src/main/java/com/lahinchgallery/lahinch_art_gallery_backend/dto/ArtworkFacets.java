@@ -0,0 +1,17 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.Map;
+
+// Per-value artwork counts for the catalog filter chips. Each facet is counted with every
+// active filter applied except its own, so selecting a medium still shows the other mediums.
+public record ArtworkFacets(
+        Map<String, Long> mediums,
+        Map<String, Long> availabilityStatuses,
+        Map<String, Long> priceRanges,
+        Map<String, Long> yearRanges
+) {
+
+    public static ArtworkFacets empty() {
+        return new ArtworkFacets(Map.of(), Map.of(), Map.of(), Map.of());
+    }
+}
@@ -0,0 +1,99 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Catalog filters parsed from the request parameter map passed to ArtworkService.getAllArtworks.
+// Multi-valued filters are comma separated (medium=Oil,Watercolour); ranges are inclusive.
+// Unknown keys are left alone since the map usually carries paging parameters as well,
+// but a known key with a malformed value is rejected rather than silently ignored.
+public record ArtworkFilter(
+        UUID artistId,
+        Set<String> mediums, // lower-cased for case-insensitive matching
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minYear,
+        Integer maxYear,
+        Set<ArtworkAvailabilityStatus> availabilityStatuses
+) {
+
+    public static final ArtworkFilter NONE = new ArtworkFilter(null, Set.of(), null, null, null, null, Set.of());
+
+    public static ArtworkFilter fromParams(Map<String, String> params) {
+        if (params == null || params.isEmpty()) {
+            return NONE;
+        }
+        return new ArtworkFilter(
+                parse(params, "artistId", UUID::fromString),
+                parseMediums(params.get("medium")),
+                parse(params, "minPrice", BigDecimal::new),
+                parse(params, "maxPrice", BigDecimal::new),
+                parse(params, "minYear", Integer::valueOf),
+                parse(params, "maxYear", Integer::valueOf),
+                parseStatuses(params.get("availabilityStatus"))
+        );
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean hasYearRange() {
+        return minYear != null || maxYear != null;
+    }
+
+    // Just the artist and medium filters, for narrowing results that already satisfy the others
+    public ArtworkFilter artistAndMediumsOnly() {
+        return new ArtworkFilter(artistId, mediums, null, null, null, null, Set.of());
+    }
+
+    private static <T> T parse(Map<String, String> params, String key, Function<String, T> parser) {
+        String value = params.get(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + key + " filter: " + value, e);
+        }
+    }
+
+    private static Set<String> parseMediums(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(medium -> !medium.isEmpty())
+                .map(medium -> medium.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Set<ArtworkAvailabilityStatus> parseStatuses(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        EnumSet<ArtworkAvailabilityStatus> statuses = EnumSet.noneOf(ArtworkAvailabilityStatus.class);
+        for (String status : value.split(",")) {
+            if (!status.isBlank()) {
+                try {
+                    statuses.add(ArtworkAvailabilityStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid availabilityStatus filter: " + status, e);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(statuses);
+    }
+}
@@ -0,0 +1,11 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.List;
+
+public record ArtworkImportResult(int importedRows, int failedRows, List<ArtworkImportRowResult> rows) {
+
+    public static ArtworkImportResult of(List<ArtworkImportRowResult> rows) {
+        int imported = (int) rows.stream().filter(ArtworkImportRowResult::imported).count();
+        return new ArtworkImportResult(imported, rows.size() - imported, List.copyOf(rows));
+    }
+}
@@ -0,0 +1,15 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.UUID;
+
+// Outcome of one manifest row; rowNumber counts data rows from 1 (a CSV header is not counted)
+public record ArtworkImportRowResult(int rowNumber, String title, UUID artworkId, boolean imported, String error) {
+
+    public static ArtworkImportRowResult imported(int rowNumber, String title, UUID artworkId) {
+        return new ArtworkImportRowResult(rowNumber, title, artworkId, true, null);
+    }
+
+    public static ArtworkImportRowResult failed(int rowNumber, String title, String error) {
+        return new ArtworkImportRowResult(rowNumber, title, null, false, error);
+    }
+}
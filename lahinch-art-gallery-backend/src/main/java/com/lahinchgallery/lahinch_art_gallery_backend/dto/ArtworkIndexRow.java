@@ -0,0 +1,20 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Flat row used to feed the in-memory artwork indexes without hydrating full entities.
+public record ArtworkIndexRow(
+        UUID id,
+        String title,
+        String description,
+        String medium,
+        UUID artistId,
+        String artistName,
+        BigDecimal price,
+        Integer yearCreated,
+        ArtworkAvailabilityStatus availabilityStatus
+) {
+}
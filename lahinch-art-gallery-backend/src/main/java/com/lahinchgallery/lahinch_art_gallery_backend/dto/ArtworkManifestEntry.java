@@ -0,0 +1,22 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// One row of a bulk import manifest (a CSV with a header row, or a JSON array / newline-delimited JSON).
+// Everything is read as text and validated by ArtworkImportServiceImpl, so one bad value fails its row
+// rather than the whole manifest. The artist is given by artistId, or by artistName when that name is unique.
+// imageFile names an entry in the accompanying zip.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ArtworkManifestEntry(
+        String artistId,
+        String artistName,
+        String title,
+        String description,
+        String medium,
+        String dimensions,
+        String yearCreated,
+        String price,
+        String availabilityStatus,
+        String imageFile
+) {
+}
@@ -0,0 +1,17 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Read-only row for the admin's recent sales list; shipping address and notes stay on ArtworkSale.
+public record ArtworkSaleSummary(
+        UUID id,
+        UUID artworkId,
+        String artworkTitle,
+        String buyerName,
+        String buyerEmail,
+        BigDecimal salePrice,
+        OffsetDateTime saleDate
+) {
+}
@@ -0,0 +1,23 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// The artworks a bulk edit applies to: an explicit ID list, or every artwork matching the catalog
+// filters and search term (the same parameters getAllArtworks takes; see ArtworkFilter).
+public record ArtworkSelection(Set<UUID> artworkIds, Map<String, String> filters, String searchTerm) {
+
+    public static ArtworkSelection ofIds(Collection<UUID> artworkIds) {
+        return new ArtworkSelection(Set.copyOf(artworkIds), null, null);
+    }
+
+    public static ArtworkSelection matching(Map<String, String> filters, String searchTerm) {
+        return new ArtworkSelection(null, filters == null ? Map.of() : Map.copyOf(filters), searchTerm);
+    }
+
+    public boolean byIds() {
+        return artworkIds != null;
+    }
+}
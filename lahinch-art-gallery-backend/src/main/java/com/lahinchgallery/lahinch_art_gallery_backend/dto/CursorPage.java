@@ -0,0 +1,12 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.List;
+
+// One window of a keyset-paginated listing. nextCursor is an opaque token to pass back for the
+// following window and is null on the last one. There is deliberately no total count.
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext) {
+
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(List.of(), null, false);
+    }
+}
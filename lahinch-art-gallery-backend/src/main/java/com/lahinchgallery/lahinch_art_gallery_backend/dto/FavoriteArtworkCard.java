@@ -0,0 +1,22 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Read-only row for a user's favorites grid: the artwork card plus when it was favorited.
+public record FavoriteArtworkCard(
+        UUID artworkId,
+        String title,
+        String medium,
+        BigDecimal price,
+        ArtworkAvailabilityStatus availabilityStatus,
+        String artworkImageUrl,
+        String artworkCardUrl, // Grid-sized copy; null until it exists, so fall back to artworkImageUrl
+        UUID artistId,
+        String artistName,
+        OffsetDateTime favoritedAt
+) {
+}
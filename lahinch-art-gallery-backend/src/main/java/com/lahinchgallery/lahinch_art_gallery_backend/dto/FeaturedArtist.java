@@ -0,0 +1,14 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.UUID;
+
+// What the homepage shows for a featured artist; deliberately leaves out the TEXT bio columns.
+public record FeaturedArtist(
+        UUID id,
+        String name,
+        String specialty,
+        String location,
+        String profileImageUrl,
+        String profileCardUrl // Card-sized copy; null until it exists, so fall back to profileImageUrl
+) {
+}
@@ -0,0 +1,19 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Read-only row for listing an artist's or artwork's premium media. Leaves out the description
+// and the file URL; the file itself is fetched through PremiumMediaService.getSignedFileUrl.
+// thumbnailUrl is a short-lived signed URL once it leaves PremiumMediaService.
+public record PremiumMediaCard(
+        UUID id,
+        String title,
+        MediaType mediaType,
+        String thumbnailUrl,
+        Integer durationSeconds,
+        OffsetDateTime createdAt
+) {
+}
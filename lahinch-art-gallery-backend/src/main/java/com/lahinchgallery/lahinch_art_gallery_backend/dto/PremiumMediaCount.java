@@ -0,0 +1,10 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.UUID;
+
+// Number of premium media items attached to one artist or artwork
+public record PremiumMediaCount(
+        UUID relatedEntityId,
+        long mediaCount
+) {
+}
@@ -0,0 +1,31 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Immutable copy of a premium media row, safe to keep in the catalog cache (see ArtworkDetail).
+// fileUrl and thumbnailUrl are the stored public URLs; they are signed per request by PremiumMediaService.
+public record PremiumMediaDetail(
+        UUID id,
+        String title,
+        String description,
+        MediaType mediaType,
+        String fileUrl,
+        String thumbnailUrl,
+        Integer durationSeconds,
+        RelatedEntityType relatedToEntityType,
+        UUID relatedEntityId,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    public static PremiumMediaDetail from(PremiumMedia media) {
+        return new PremiumMediaDetail(media.getId(), media.getTitle(), media.getDescription(), media.getMediaType(),
+                media.getFileUrl(), media.getThumbnailUrl(), media.getDurationSeconds(), media.getRelatedToEntityType(),
+                media.getRelatedEntityId(), media.getCreatedAt(), media.getUpdatedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+
+import java.time.OffsetDateTime;
+
+// What a subscriber's player needs to start playback: streamUrl can be handed straight to a <video> or
+// <audio> element, since it carries its own credentials, and works until expiresAt
+public record PremiumMediaStreamSession(
+        String streamUrl,
+        OffsetDateTime expiresAt,
+        MediaType mediaType,
+        Integer durationSeconds
+) {
+}
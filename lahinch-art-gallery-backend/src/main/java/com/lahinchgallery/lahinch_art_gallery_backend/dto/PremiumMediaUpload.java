@@ -0,0 +1,16 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// State of a resumable premium media upload. A client that lost its connection asks for this,
+// re-sends the parts missing from uploadedParts, then completes the upload.
+public record PremiumMediaUpload(
+        UUID uploadId,
+        String fileName,
+        List<Integer> uploadedParts, // ascending part numbers, starting from 1
+        long uploadedBytes,
+        OffsetDateTime expiresAt // untouched uploads are discarded after this
+) {
+}
@@ -0,0 +1,19 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// A PremiumMediaCard together with the artist or artwork it belongs to, so cards loaded for many entities
+// at once can be grouped again. The flat constructor is the one the repository query calls.
+public record RelatedPremiumMediaCard(
+        UUID relatedEntityId,
+        PremiumMediaCard card
+) {
+
+    public RelatedPremiumMediaCard(UUID relatedEntityId, UUID id, String title, MediaType mediaType, String thumbnailUrl,
+                                   Integer durationSeconds, OffsetDateTime createdAt) {
+        this(relatedEntityId, new PremiumMediaCard(id, title, mediaType, thumbnailUrl, durationSeconds, createdAt));
+    }
+}
@@ -0,0 +1,10 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.util.UUID;
+
+// One type-ahead suggestion for the search box. id is the artist or artwork to link to; it is null
+// for a medium, which the frontend turns into a medium filter instead.
+public record SearchSuggestion(Type type, String text, UUID id) {
+
+    public enum Type { ARTIST, ARTWORK, MEDIUM }
+}
@@ -0,0 +1,7 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.nio.file.Path;
+
+// A multipart file copied to this node's staging directory, with the content-addressed path it will be stored at
+public record StagedUpload(Path stagedPath, String filePath, String fileName, String contentType) {
+}
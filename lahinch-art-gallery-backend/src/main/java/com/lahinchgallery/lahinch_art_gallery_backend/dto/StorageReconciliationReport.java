@@ -0,0 +1,7 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+// Result of reconciling one bucket with the columns that point into it. Orphaned files are in the bucket but
+// referenced by nothing (and queued for deletion if purged is set); missing files are referenced but not in the bucket.
+public record StorageReconciliationReport(String bucketName, long files, long orphanedFiles, long orphanedBytes,
+                                          long missingFiles, boolean purged) {
+}
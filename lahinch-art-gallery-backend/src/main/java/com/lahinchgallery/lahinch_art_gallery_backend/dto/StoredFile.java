@@ -0,0 +1,7 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.time.OffsetDateTime;
+
+// One file in a bucket listing. updatedAt is null if the storage backend doesn't report it.
+public record StoredFile(String path, long size, OffsetDateTime updatedAt) {
+}
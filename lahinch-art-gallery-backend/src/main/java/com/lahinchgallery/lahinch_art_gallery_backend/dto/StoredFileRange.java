@@ -0,0 +1,22 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.dto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+// A stored file opened for streaming, from start to end (both inclusive) of a file that is length bytes long.
+// content starts at byte start and may run on past end, so readers stop after end - start + 1 bytes.
+// Whoever opened it closes it.
+public record StoredFileRange(
+        InputStream content,
+        long start,
+        long end,
+        long length,
+        String contentType
+) implements Closeable {
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
@@ -0,0 +1,7 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.event;
+
+import java.util.UUID;
+
+// Artist edits matter to artwork read models too, since the artist name is indexed with each artwork.
+public record ArtistChangedEvent(UUID artistId, EntityChangeType changeType) {
+}
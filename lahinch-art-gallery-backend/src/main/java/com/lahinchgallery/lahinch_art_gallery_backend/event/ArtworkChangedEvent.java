@@ -0,0 +1,13 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.event;
+
+import java.util.Set;
+import java.util.UUID;
+
+// Published by the write paths so derived read models (search index, caches, ...) can catch up
+// once the surrounding transaction has committed.
+public record ArtworkChangedEvent(Set<UUID> artworkIds, EntityChangeType changeType) {
+
+    public static ArtworkChangedEvent of(UUID artworkId, EntityChangeType changeType) {
+        return new ArtworkChangedEvent(Set.of(artworkId), changeType);
+    }
+}
@@ -0,0 +1,7 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.event;
+
+public enum EntityChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,6 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.event;
+
+import java.util.UUID;
+
+public record PremiumMediaChangedEvent(UUID mediaId, EntityChangeType changeType) {
+}
@@ -0,0 +1,8 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.event;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+// Lets the upload worker start as soon as the job's transaction commits, or remove the staged file if it rolls back
+public record UploadJobCreatedEvent(UUID jobId, Path stagedPath) {
+}
@@ -2,8 +2,11 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.GenericGenerator;
@@ -15,6 +18,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "artists")
+@BatchSize(size = 50) // Artist proxies outside a fetch plan are initialised in batches rather than one by one
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,6 +57,16 @@ public class Artist {
     @Column(name = "profile_image_url")
     private String profileImageUrl; // Path in Supabase Storage
 
+    // Resized copies of the profile image, as for artworks
+    @Column(name = "profile_thumbnail_url")
+    private String profileThumbnailUrl;
+
+    @Column(name = "profile_card_url")
+    private String profileCardUrl;
+
+    @Column(name = "profile_detail_url")
+    private String profileDetailUrl;
+
     @Column(name = "is_featured", nullable = false)
     private boolean isFeatured = false; // Default value
 
@@ -66,9 +80,14 @@ public class Artist {
 
     // --- Relationships ---
     // One Artist can have many Artworks
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "artist", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<Artwork> artworks;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_entity_id", referencedColumnName = "id", insertable = false, updatable = false)
     @Where(clause = "related_to_entity_type = 'ARTIST'") // Ensures only media related to artists are fetched
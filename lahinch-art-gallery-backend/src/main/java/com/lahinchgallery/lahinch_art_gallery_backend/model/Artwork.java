@@ -2,8 +2,11 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.GenericGenerator;
@@ -16,11 +19,20 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "artworks")
+// Fetch plan for anything that renders artwork cards: the artist is shown on every card, and the
+// inverse one-to-one sale cannot be proxied, so Hibernate would otherwise select it once per artwork
+@NamedEntityGraph(name = Artwork.CARD_GRAPH, attributeNodes = {
+        @NamedAttributeNode("artist"),
+        @NamedAttributeNode("sale")
+})
+@BatchSize(size = 50)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Artwork {
 
+    public static final String CARD_GRAPH = "Artwork.card";
+
     @Id
     @GeneratedValue(generator = "UUID")
     @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
@@ -30,6 +42,8 @@ public class Artwork {
     @Column(name = "title", nullable = false)
     private String title;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY) // Many Artworks can belong to one Artist
     @JoinColumn(name = "artist_id", nullable = false) // Foreign key column in the artworks table
     private Artist artist;
@@ -56,6 +70,17 @@ public class Artwork {
     @Column(name = "artwork_image_url")
     private String artworkImageUrl; // Path in Supabase Storage
 
+    // Resized copies of the image for thumbnails, grid cards and the detail page (see ImageVariant).
+    // Null until the upload completes, or if the image couldn't be decoded; the original is the fallback.
+    @Column(name = "artwork_thumbnail_url")
+    private String artworkThumbnailUrl;
+
+    @Column(name = "artwork_card_url")
+    private String artworkCardUrl;
+
+    @Column(name = "artwork_detail_url")
+    private String artworkDetailUrl;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -68,6 +93,8 @@ public class Artwork {
 
     // One Artwork can have many PremiumMedia items related to it
     // This assumes PremiumMedia has an 'artwork' field mapped by @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_entity_id", referencedColumnName = "id", insertable = false, updatable = false)
     @Where(clause = "related_to_entity_type = 'ARTWORK'") // Ensures only media related to artworks are fetched
@@ -75,10 +102,14 @@ public class Artwork {
 
     // One Artwork can be favorited by many Users (Profiles)
     // This is the inverse side of the many-to-many relationship, managed by UserFavoriteArtwork
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "artwork", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<UserFavoriteArtwork> userFavorites;
 
     // If an artwork is sold, it will have one sale record
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToOne(mappedBy = "artwork", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = true)
     private ArtworkSale sale;
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -25,10 +27,14 @@ public class ArtworkSale {
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToOne(fetch = FetchType.LAZY) // An artwork can only be sold once
     @JoinColumn(name = "artwork_id", nullable = false, unique = true)
     private Artwork artwork;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "buyer_user_id") // Nullable, as buyer might not be a registered user
     private Profile buyerUser; // Links to the profiles table
@@ -0,0 +1,18 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.model;
+
+// Resized copies stored next to each uploaded artwork and artist image. maxEdge is the longest side in pixels.
+public enum ImageVariant {
+    THUMBNAIL(320),
+    CARD(800),
+    DETAIL(1600);
+
+    private final int maxEdge;
+
+    ImageVariant(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int maxEdge() {
+        return maxEdge;
+    }
+}
@@ -2,7 +2,9 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -12,7 +14,9 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "premium_media")
+// Every media lookup filters on the related entity, one ID or a page's worth of them
+@Table(name = "premium_media", indexes = @Index(name = "idx_premium_media_related_entity",
+        columnList = "related_to_entity_type, related_entity_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +24,7 @@ public class PremiumMedia {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", type = AssignableUuidGenerator.class) // completeUpload gives the row its upload's ID
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -34,8 +38,8 @@ public class PremiumMedia {
     @Column(name = "media_type", nullable = false)
     private MediaType mediaType; // Updated to include TEXT
 
-    @Column(name = "file_url", nullable = false)
-    private String fileUrl;
+    @Column(name = "file_url")
+    private String fileUrl; // Null until UploadJobWorker has stored the file
 
     @Column(name = "thumbnail_url")
     private String thumbnailUrl;
@@ -52,10 +56,14 @@ public class PremiumMedia {
 
     // For JPA's convenience in querying, not for direct insertion/updation of foreign key via these fields
     // The actual link is via relatedEntityId and relatedToEntityType
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_entity_id", referencedColumnName = "id", insertable = false, updatable = false)
     private Artist artist; // Populated if relatedToEntityType is ARTIST
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_entity_id", referencedColumnName = "id", insertable = false, updatable = false)
     private Artwork artwork; // Populated if relatedToEntityType is ARTWORK
@@ -71,9 +79,11 @@ public class PremiumMedia {
     // This callback helps ensure that only one of 'artist' or 'artwork' is non-null in the entity object
     // based on 'relatedToEntityType', if they were somehow populated.
     // However, primary management of the relationship is via relatedEntityId and relatedToEntityType.
-    @PostLoad // Called after an entity is loaded
+    // Not run on load: clearing a loaded association marks the row dirty, and every read in a read-write
+    // transaction would then end in an UPDATE of each row (and a new updated_at).
+    // Nor on update: a loaded row holds a proxy of the other type for the same ID, and clearing it makes the
+    // flush compare that proxy, which then fails to load. Both columns are read-only mappings anyway.
     @PrePersist // Called before an entity is persisted
-    @PreUpdate // Called before an entity is updated
     public void reconcileRelationships() {
         if (this.relatedToEntityType != null) {
             if (this.relatedToEntityType == RelatedEntityType.ARTIST) {
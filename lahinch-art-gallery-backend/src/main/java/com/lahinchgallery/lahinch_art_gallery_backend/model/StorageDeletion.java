@@ -0,0 +1,49 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// A file in Supabase Storage that is no longer referenced and waits to be deleted. Written in the same
+// transaction that drops the reference, so a rolled-back delete keeps its file and a committed one never leaks it.
+@Entity
+@Table(name = "storage_deletions", indexes = @Index(name = "idx_storage_deletions_next_attempt", columnList = "next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageDeletion {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "bucket_name", nullable = false, updatable = false)
+    private String bucketName;
+
+    @Column(name = "file_path", nullable = false, updatable = false)
+    private String filePath;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "claimed_until")
+    private OffsetDateTime claimedUntil; // Set while StorageDeletionWorker's delete request for the file may be in flight
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+}
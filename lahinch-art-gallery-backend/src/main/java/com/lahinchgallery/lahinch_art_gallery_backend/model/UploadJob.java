@@ -0,0 +1,75 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// A file waiting to be copied to Supabase Storage. Written in the same transaction as the entity it
+// belongs to, so an upload is never lost to a restart and never runs for an entity that was rolled back.
+// The frontend polls the status to know when the entity's image or file URL is ready.
+@Entity
+@Table(name = "upload_jobs", indexes = @Index(name = "idx_upload_jobs_target", columnList = "target_type, target_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadJob {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, updatable = false)
+    private UploadTarget targetType;
+
+    @Column(name = "target_id", nullable = false, updatable = false)
+    private UUID targetId; // ID of the artwork, artist or premium media
+
+    @Column(name = "bucket_name", nullable = false, updatable = false)
+    private String bucketName;
+
+    @Column(name = "file_path", nullable = false, updatable = false)
+    private String filePath; // Destination path in the bucket
+
+    @Column(name = "file_name")
+    private String fileName; // Original file name, sent along with the upload
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "staged_path", nullable = false, updatable = false)
+    private String stagedPath; // Local copy of the file until it is uploaded
+
+    @Column(name = "owner", updatable = false)
+    private String owner; // Node whose disk holds stagedPath; only that node runs the job
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private UploadStatus status = UploadStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
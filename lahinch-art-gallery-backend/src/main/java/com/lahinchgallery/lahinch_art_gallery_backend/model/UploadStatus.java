@@ -0,0 +1,9 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.model;
+
+public enum UploadStatus {
+    PENDING,
+    UPLOADING,
+    COMPLETED,
+    FAILED, // gave up after the last retry; the entity keeps its previous file
+    CANCELLED // the entity was deleted, or a newer upload replaced this one, before it finished
+}
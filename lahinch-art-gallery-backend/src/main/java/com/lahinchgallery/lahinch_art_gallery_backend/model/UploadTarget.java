@@ -0,0 +1,9 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.model;
+
+// The entity column an upload job fills in once its file is in storage
+public enum UploadTarget {
+    ARTWORK_IMAGE,
+    ARTIST_IMAGE,
+    PREMIUM_MEDIA_FILE,
+    PREMIUM_MEDIA_THUMBNAIL
+}
@@ -2,7 +2,9 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -10,19 +12,32 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "user_favorite_artworks")
+// A user's favorites page renders the same cards as the catalog (see Artwork.CARD_GRAPH)
+@NamedEntityGraph(name = UserFavoriteArtwork.WITH_ARTWORK_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "artwork", subgraph = "artwork"),
+        subgraphs = @NamedSubgraph(name = "artwork", attributeNodes = {
+                @NamedAttributeNode("artist"),
+                @NamedAttributeNode("sale")
+        }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserFavoriteArtwork {
 
+    public static final String WITH_ARTWORK_GRAPH = "UserFavoriteArtwork.withArtwork";
+
     @EmbeddedId // Marks the composite key
     private UserFavoriteArtworkId id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("userId") // Maps the userId field of the EmbeddedId to this relationship
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private Profile profile;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("artworkId") // Maps the artworkId field of the EmbeddedId to this relationship
     @JoinColumn(name = "artwork_id", insertable = false, updatable = false)
@@ -2,7 +2,9 @@ package com.lahinchgallery.lahinch_art_gallery_backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
@@ -20,6 +22,8 @@ public class UserSubscription {
     @Column(name = "user_id")
     private UUID userId;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToOne(fetch = FetchType.LAZY) // Establishes a one-to-one relationship with Profile
     @MapsId // Maps the userId field (which is the ID of this entity) to the ID of the Profile entity
     @JoinColumn(name = "user_id") // This column is both PK and FK
@@ -1,10 +1,20 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.repository;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistReference;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FeaturedArtist;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -13,4 +23,26 @@ public interface ArtistRepository extends JpaRepository<Artist, UUID> {
     // Custom query method to find featured artists, as mentioned in description.md
     // Spring Data JPA will automatically generate the query based on the method name.
     List<Artist> findByIsFeaturedTrue(); //
+
+    // Rows for FeaturedArtistsSnapshot
+    String FEATURED_ARTIST_QUERY = "select new com.lahinchgallery.lahinch_art_gallery_backend.dto.FeaturedArtist(" +
+            "a.id, a.name, a.specialty, a.location, a.profileImageUrl, a.profileCardUrl) from Artist a where a.isFeatured = true";
+
+    @Query(FEATURED_ARTIST_QUERY)
+    List<FeaturedArtist> findFeaturedArtists();
+
+    // Empty when the artist does not exist or is not featured
+    @Query(FEATURED_ARTIST_QUERY + " and a.id = :artistId")
+    Optional<FeaturedArtist> findFeaturedArtistById(@Param("artistId") UUID artistId);
+
+    // Bulk import lookups (see ArtworkImportServiceImpl)
+    @Query("select a.id from Artist a where a.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistReference(a.id, a.name) " +
+            "from Artist a where lower(a.name) in :names")
+    List<ArtistReference> findReferencesByLowerNameIn(@Param("names") Collection<String> names);
+
+    // Keyset-paginated listing of all artists (see ArtistService.scrollArtists)
+    Window<Artist> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
@@ -0,0 +1,25 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.repository;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Repository fragment: Specification-filtered artwork queries that return projections rather than entities.
+// JpaSpecificationExecutor only returns entities, so this builds the Criteria queries itself.
+public interface ArtworkCardQueries {
+
+    Page<ArtworkCard> findCards(Specification<Artwork> spec, Pageable pageable);
+
+    // Just the IDs of the matching artworks, e.g. to target a bulk update
+    List<UUID> findIds(Specification<Artwork> spec);
+
+    // For ordering IDs in memory: one row per artwork, its ID followed by the value of each of sort's properties
+    List<Object[]> findSortKeys(Collection<UUID> ids, Sort sort);
+}
@@ -0,0 +1,111 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.repository;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public class ArtworkCardQueriesImpl implements ArtworkCardQueries {
+
+    private final EntityManager entityManager;
+
+    public ArtworkCardQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ArtworkCard> findCards(Specification<Artwork> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ArtworkCard> query = criteriaBuilder.createQuery(ArtworkCard.class);
+        Root<Artwork> root = query.from(Artwork.class);
+        Join<Artwork, Artist> artist = root.join("artist");
+        query.select(criteriaBuilder.construct(ArtworkCard.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("medium"),
+                root.get("yearCreated"),
+                root.get("price"),
+                root.get("availabilityStatus"),
+                root.get("artworkImageUrl"),
+                root.get("artworkCardUrl"),
+                artist.get("id"),
+                artist.get("name")));
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        TypedQuery<ArtworkCard> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ArtworkCard> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Artwork> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = criteriaBuilder.createQuery(UUID.class);
+        Root<Artwork> root = query.from(Artwork.class);
+        query.select(root.get("id"));
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findSortKeys(Collection<UUID> ids, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<Artwork> root = query.from(Artwork.class);
+        List<Expression<?>> columns = new ArrayList<>();
+        columns.add(root.get("id"));
+        for (Sort.Order order : sort) {
+            // Same path resolution as the ORDER BY of a sorted query, joins for "artist.name" included
+            columns.add(QueryUtils.toExpressionRecursively(root, PropertyPath.from(order.getProperty(), Artwork.class), true));
+        }
+        query.select(criteriaBuilder.array(columns.toArray(Expression[]::new)));
+        query.where(root.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private long count(Specification<Artwork> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Artwork> root = query.from(Artwork.class);
+        query.select(criteriaBuilder.count(root));
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,22 +1,110 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.repository;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Repository
-public interface ArtworkRepository extends JpaRepository<Artwork, UUID>, JpaSpecificationExecutor<Artwork> {
+public interface ArtworkRepository extends JpaRepository<Artwork, UUID>, JpaSpecificationExecutor<Artwork>, ArtworkCardQueries {
 
     // Custom query to find artworks by artist ID with pagination
     // as mentioned in description.md ("getArtworksByArtist(artistId, pagination)")
+    @EntityGraph(Artwork.CARD_GRAPH)
     Page<Artwork> findByArtistId(UUID artistId, Pageable pageable); //
 
+    // Catalog listing (filters and search); the count query is unaffected by the fetch plan
+    @Override
+    @EntityGraph(Artwork.CARD_GRAPH)
+    Page<Artwork> findAll(Specification<Artwork> spec, Pageable pageable);
+
+    // Keyset-scrolled catalog (see ArtworkService.scrollArtworks)
+    @Override
+    @EntityGraph(Artwork.CARD_GRAPH)
+    <S extends Artwork, R> R findBy(Specification<Artwork> spec, Function<? super SpecificationFluentQuery<S>, R> queryFunction);
+
+    // Hydrates a page of search hits in one query
+    @EntityGraph(Artwork.CARD_GRAPH)
+    List<Artwork> findAllByIdIn(Collection<UUID> ids);
+
+    // Loads the artist in the same query so the artwork can be cached and used outside the session
+    @EntityGraph(Artwork.CARD_GRAPH)
+    Optional<Artwork> findWithArtistById(UUID id);
+
+    @Query("select a.id from Artwork a where a.artist.id = :artistId")
+    List<UUID> findIdsByArtistId(@Param("artistId") UUID artistId);
+
     // JpaSpecificationExecutor allows for dynamic queries using the Criteria API,
     // which will be useful for "getAllArtworks(pagination, filters, searchParams)"
-}
\ No newline at end of file
+
+    // Read-only card rows for artwork grids; the Specification-based variant lives in ArtworkCardQueries
+    String ARTWORK_CARD_QUERY = "select new com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard(" +
+            "a.id, a.title, a.medium, a.yearCreated, a.price, a.availabilityStatus, a.artworkImageUrl, a.artworkCardUrl, ar.id, ar.name) " +
+            "from Artwork a join a.artist ar";
+
+    @Query(value = ARTWORK_CARD_QUERY + " where ar.id = :artistId",
+            countQuery = "select count(a) from Artwork a where a.artist.id = :artistId")
+    Page<ArtworkCard> findCardsByArtistId(@Param("artistId") UUID artistId, Pageable pageable);
+
+    @Query(ARTWORK_CARD_QUERY + " where a.id in :ids")
+    List<ArtworkCard> findCardsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Rows for the in-memory artwork indexes (see ArtworkIndexMaintainer)
+    String INDEX_ROW_QUERY = "select new com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow(" +
+            "a.id, a.title, a.description, a.medium, ar.id, ar.name, a.price, a.yearCreated, a.availabilityStatus) " +
+            "from Artwork a join a.artist ar";
+
+    @Query(INDEX_ROW_QUERY)
+    List<ArtworkIndexRow> findAllIndexRows();
+
+    @Query(INDEX_ROW_QUERY + " where a.id in :ids")
+    List<ArtworkIndexRow> findIndexRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(INDEX_ROW_QUERY + " where ar.id = :artistId")
+    List<ArtworkIndexRow> findIndexRowsByArtistId(@Param("artistId") UUID artistId);
+
+    String SOLD_STATUS = "com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus.SOLD";
+
+    // Set-based bulk edits (see ArtworkService.bulkUpdateAvailability and friends). They write past the
+    // persistence context, so it is flushed before and cleared after to keep later reads from seeing stale entities.
+    // Sold artworks are never touched: a concurrent sale may have completed after the IDs were selected.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Artwork a set a.availabilityStatus = :status, a.updatedAt = :updatedAt " +
+            "where a.id in :ids and a.availabilityStatus <> " + SOLD_STATUS)
+    int updateAvailability(@Param("ids") Collection<UUID> ids,
+                           @Param("status") ArtworkAvailabilityStatus status,
+                           @Param("updatedAt") OffsetDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Artwork a set a.price = :price, a.updatedAt = :updatedAt " +
+            "where a.id in :ids and a.availabilityStatus <> " + SOLD_STATUS)
+    int updatePrice(@Param("ids") Collection<UUID> ids,
+                    @Param("price") BigDecimal price,
+                    @Param("updatedAt") OffsetDateTime updatedAt);
+
+    // Multiplies each price by factor, rounded to the cent; artworks without a price stay unpriced
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Artwork a set a.price = round(a.price * :factor, 2), a.updatedAt = :updatedAt " +
+            "where a.id in :ids and a.price is not null and a.availabilityStatus <> " + SOLD_STATUS)
+    int scalePrice(@Param("ids") Collection<UUID> ids,
+                   @Param("factor") BigDecimal factor,
+                   @Param("updatedAt") OffsetDateTime updatedAt);
+}
@@ -1,7 +1,11 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.repository;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleSummary;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkSale;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,8 +18,15 @@ public interface ArtworkSaleRepository extends JpaRepository<ArtworkSale, UUID>
     List<ArtworkSale> findByArtworkId(UUID artworkId); //
 
     // "getSalesByUser(userId)" - assumes buyerUser is the Profile entity, and we query by its userId.
-    List<ArtworkSale> findByBuyerUserProfileUserId(UUID userId); //
+    List<ArtworkSale> findByBuyerUserUserId(UUID userId); //
 
     // For "getRecentSales(limit)", you'd typically use Pageable in the service layer:
     // e.g., findAll(PageRequest.of(0, limit, Sort.by("saleDate").descending()))
+
+    // Read-only summary rows for the recent sales list
+    @Query(value = "select new com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleSummary(" +
+            "s.id, a.id, a.title, s.buyerName, s.buyerEmail, s.salePrice, s.saleDate) " +
+            "from ArtworkSale s join s.artwork a",
+            countQuery = "select count(s) from ArtworkSale s")
+    Page<ArtworkSaleSummary> findSummaries(Pageable pageable);
 }
\ No newline at end of file
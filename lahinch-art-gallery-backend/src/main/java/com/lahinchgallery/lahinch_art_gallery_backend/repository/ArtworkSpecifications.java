@@ -0,0 +1,140 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.repository;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.mapping.PropertyPath;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Criteria building blocks for ArtworkRepository's JpaSpecificationExecutor methods
+public final class ArtworkSpecifications {
+
+    private ArtworkSpecifications() {
+    }
+
+    public static Specification<Artwork> matching(ArtworkFilter filter) {
+        Specification<Artwork> spec = (root, query, criteriaBuilder) -> null; // No restriction until a filter adds one
+
+        if (filter.artistId() != null) {
+            UUID artistId = filter.artistId();
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.equal(root.get("artist").get("id"), artistId));
+        }
+        if (!filter.mediums().isEmpty()) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.lower(criteriaBuilder.trim(root.get("medium"))).in(filter.mediums()));
+        }
+        if (filter.minPrice() != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+        }
+        if (filter.minYear() != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.greaterThanOrEqualTo(root.get("yearCreated"), filter.minYear()));
+        }
+        if (filter.maxYear() != null) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.lessThanOrEqualTo(root.get("yearCreated"), filter.maxYear()));
+        }
+        if (!filter.availabilityStatuses().isEmpty()) {
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    root.get("availabilityStatus").in(filter.availabilityStatuses()));
+        }
+        return spec;
+    }
+
+    public static Specification<Artwork> byArtist(UUID artistId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("artist").get("id"), artistId);
+    }
+
+    // Rows after a keyset position (the values of sort's properties, which must end with the ID), in sort's order
+    // with nulls where PostgreSQL puts them: last ascending, first descending. "key > ?" alone is never true for a
+    // null, so a null in the position is followed by the non-null keys when nulls come first, and the nulls follow
+    // every value when they come last. Term i of the disjunction: ties on the first i keys and later on key i.
+    public static Specification<Artwork> after(Sort sort, Map<String, Object> keys) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> ties = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Expression<Comparable> key = key(root, criteriaBuilder, order);
+                Comparable value = (Comparable) keys.get(order.getProperty());
+                if (value != null && order.isIgnoreCase() && value instanceof String text) {
+                    value = text.toLowerCase();
+                }
+                Predicate later = later(criteriaBuilder, key, value, order);
+                if (later != null) {
+                    List<Predicate> alternative = new ArrayList<>(ties);
+                    alternative.add(later);
+                    alternatives.add(criteriaBuilder.and(alternative.toArray(Predicate[]::new)));
+                }
+                ties.add(value == null ? criteriaBuilder.isNull(key) : criteriaBuilder.equal(key, value));
+            }
+            return criteriaBuilder.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<Comparable> key(Root<Artwork> root, CriteriaBuilder criteriaBuilder, Sort.Order order) {
+        Expression key = QueryUtils.toExpressionRecursively(root, PropertyPath.from(order.getProperty(), Artwork.class), true);
+        return order.isIgnoreCase() ? (Expression) criteriaBuilder.lower(key) : key;
+    }
+
+    // Null when nothing can come after the value on this key alone
+    @SuppressWarnings("unchecked")
+    private static Predicate later(CriteriaBuilder criteriaBuilder, Expression<Comparable> key, Comparable value, Sort.Order order) {
+        boolean nullsFirst = order.isDescending();
+        if (value == null) {
+            return nullsFirst ? criteriaBuilder.isNotNull(key) : null;
+        }
+        Predicate beyond = order.isDescending() ? criteriaBuilder.lessThan(key, value) : criteriaBuilder.greaterThan(key, value);
+        return nullsFirst ? beyond : criteriaBuilder.or(beyond, criteriaBuilder.isNull(key));
+    }
+
+    public static Specification<Artwork> idIn(Collection<UUID> artworkIds) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(artworkIds);
+    }
+
+    public static Specification<Artwork> statusIsNot(ArtworkAvailabilityStatus status) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("availabilityStatus"), status);
+    }
+
+    public static Specification<Artwork> hasPrice() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("price"));
+    }
+
+    // Unpriced artworks count as having a different price
+    public static Specification<Artwork> priceIsNot(BigDecimal price) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.isNull(root.get("price")),
+                criteriaBuilder.notEqual(root.get("price"), price));
+    }
+
+    // Substring search fallback, used only while the in-memory search index is being built
+    public static Specification<Artwork> containsText(String searchTerm) {
+        String likePattern = "%" + searchTerm.toLowerCase() + "%";
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), likePattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), likePattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("medium")), likePattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("artist").get("name")), likePattern)
+                );
+    }
+}
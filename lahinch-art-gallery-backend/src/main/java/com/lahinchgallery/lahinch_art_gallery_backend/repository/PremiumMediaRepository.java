@@ -1,10 +1,16 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.repository;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCount;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.RelatedPremiumMediaCard;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,6 +21,33 @@ public interface PremiumMediaRepository extends JpaRepository<PremiumMedia, UUID
     // "getMediaForArtist(artistId)" and "getMediaForArtwork(artworkId)"
     List<PremiumMedia> findByRelatedToEntityTypeAndRelatedEntityId(RelatedEntityType entityType, UUID entityId); //
 
+    // Read-only card rows for media listings, oldest first
+    @Query("select new com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCard(" +
+            "m.id, m.title, m.mediaType, m.thumbnailUrl, m.durationSeconds, m.createdAt) from PremiumMedia m " +
+            "where m.relatedToEntityType = :entityType and m.relatedEntityId = :entityId order by m.createdAt, m.id")
+    List<PremiumMediaCard> findCardsByRelatedEntity(@Param("entityType") RelatedEntityType entityType,
+                                                    @Param("entityId") UUID entityId);
+
+    // Batch versions of the two lookups above for listings that show media on every card: one query for all the
+    // artists or artworks on a page instead of one per card. Callers must not pass an empty collection.
+    @Query("select m from PremiumMedia m where m.relatedToEntityType = :entityType and m.relatedEntityId in :entityIds " +
+            "order by m.createdAt, m.id")
+    List<PremiumMedia> findByRelatedEntities(@Param("entityType") RelatedEntityType entityType,
+                                             @Param("entityIds") Collection<UUID> entityIds);
+
+    @Query("select new com.lahinchgallery.lahinch_art_gallery_backend.dto.RelatedPremiumMediaCard(m.relatedEntityId, " +
+            "m.id, m.title, m.mediaType, m.thumbnailUrl, m.durationSeconds, m.createdAt) from PremiumMedia m " +
+            "where m.relatedToEntityType = :entityType and m.relatedEntityId in :entityIds order by m.createdAt, m.id")
+    List<RelatedPremiumMediaCard> findCardsByRelatedEntities(@Param("entityType") RelatedEntityType entityType,
+                                                             @Param("entityIds") Collection<UUID> entityIds);
+
+    // Media counts for badges; answered from the index alone. Entities without media have no row.
+    @Query("select new com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCount(m.relatedEntityId, count(m)) " +
+            "from PremiumMedia m where m.relatedToEntityType = :entityType and m.relatedEntityId in :entityIds " +
+            "group by m.relatedEntityId")
+    List<PremiumMediaCount> countByRelatedEntities(@Param("entityType") RelatedEntityType entityType,
+                                                   @Param("entityIds") Collection<UUID> entityIds);
+
     // Alternatively, if you prefer separate methods:
     // List<PremiumMedia> findByRelatedToEntityTypeAndArtistId(RelatedEntityType entityType, UUID artistId);
     // List<PremiumMedia> findByRelatedToEntityTypeAndArtworkId(RelatedEntityType entityType, UUID artworkId);
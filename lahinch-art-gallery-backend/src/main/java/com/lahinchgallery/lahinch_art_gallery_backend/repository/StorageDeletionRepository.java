@@ -0,0 +1,39 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.repository;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.StorageDeletion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, UUID> {
+
+    // Locked only while the batch is claimed, so two workers can't claim the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StorageDeletion> findByNextAttemptAtLessThanEqualOrderByNextAttemptAt(OffsetDateTime now, Limit limit);
+
+    // Locked, so an upload re-using a path waits for a claim being written to commit and then sees it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StorageDeletion> findByBucketNameAndFilePath(String bucketName, String filePath);
+
+    // A claimed row is not due again until the claim runs out, in case the worker dies before settling it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StorageDeletion d set d.claimedUntil = :claimedUntil, d.nextAttemptAt = :claimedUntil where d.id in :ids")
+    int claim(@Param("ids") Collection<UUID> ids, @Param("claimedUntil") OffsetDateTime claimedUntil);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StorageDeletion d set d.attempts = d.attempts + 1, d.nextAttemptAt = :nextAttemptAt, d.lastError = :lastError, " +
+            "d.claimedUntil = null where d.id in :ids")
+    int recordFailure(@Param("ids") Collection<UUID> ids, @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+}
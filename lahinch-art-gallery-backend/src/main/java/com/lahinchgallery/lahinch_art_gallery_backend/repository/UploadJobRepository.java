@@ -0,0 +1,46 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.repository;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadJob;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadJobRepository extends JpaRepository<UploadJob, UUID> {
+
+    List<UploadJob> findByTargetTypeAndTargetIdOrderByCreatedAtDesc(UploadTarget targetType, UUID targetId);
+
+    List<UploadJob> findByStatusAndOwner(UploadStatus status, String owner);
+
+    // True once a later upload has been queued for the same column; the older one must not overwrite it
+    boolean existsByTargetTypeAndTargetIdAndCreatedAtAfter(UploadTarget targetType, UUID targetId, OffsetDateTime createdAt);
+
+    String PENDING_STATUS = "com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus.PENDING";
+    String UPLOADING_STATUS = "com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus.UPLOADING";
+
+    // Moves a job from PENDING to UPLOADING; 0 means another worker got there first or it isn't due yet
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UploadJob j set j.status = " + UPLOADING_STATUS + ", j.attempts = j.attempts + 1, j.updatedAt = :now " +
+            "where j.id = :id and j.status = " + PENDING_STATUS + " and j.nextAttemptAt <= :now")
+    int claim(@Param("id") UUID id, @Param("now") OffsetDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UploadJob j set j.status = :to, j.updatedAt = :now where j.status = :from and j.owner = :owner")
+    int updateStatus(@Param("owner") String owner, @Param("from") UploadStatus from, @Param("to") UploadStatus to,
+                     @Param("now") OffsetDateTime now);
+
+    // Ends a claim no worker is processing any more, unless the job has moved on since it was last touched
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UploadJob j set j.status = :to, j.nextAttemptAt = :now, j.lastError = :error, j.updatedAt = :now " +
+            "where j.id = :id and j.status = " + UPLOADING_STATUS + " and j.updatedAt < :staleBefore")
+    int releaseClaim(@Param("id") UUID id, @Param("to") UploadStatus to, @Param("error") String error,
+                     @Param("staleBefore") OffsetDateTime staleBefore, @Param("now") OffsetDateTime now);
+}
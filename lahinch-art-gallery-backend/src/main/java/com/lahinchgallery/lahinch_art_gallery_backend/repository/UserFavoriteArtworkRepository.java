@@ -1,12 +1,19 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.repository;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FavoriteArtworkCard;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtwork;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtworkId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
@@ -15,8 +22,32 @@ public interface UserFavoriteArtworkRepository extends JpaRepository<UserFavorit
     // "getUserFavoriteArtworks(userId, pagination)"
     // Spring Data JPA can create queries based on fields in the composite ID.
     // 'Id' refers to the @EmbeddedId field, 'UserId' is the property within UserFavoriteArtworkId.
+    @EntityGraph(UserFavoriteArtwork.WITH_ARTWORK_GRAPH)
     Page<UserFavoriteArtwork> findByIdUserId(UUID userId, Pageable pageable); //
 
+    // Keyset (seek) variant of the above for infinite scroll, newest first.
+    // Written out by hand because Spring Data's keyset scrolling cannot compare the embedded ID.
+    @EntityGraph(UserFavoriteArtwork.WITH_ARTWORK_GRAPH)
+    @Query("select f from UserFavoriteArtwork f where f.id.userId = :userId " +
+            "order by f.favoritedAt desc, f.id.artworkId desc")
+    List<UserFavoriteArtwork> findLatestByUserId(@Param("userId") UUID userId, Limit limit);
+
+    @EntityGraph(UserFavoriteArtwork.WITH_ARTWORK_GRAPH)
+    @Query("select f from UserFavoriteArtwork f where f.id.userId = :userId and " +
+            "(f.favoritedAt < :favoritedAt or (f.favoritedAt = :favoritedAt and f.id.artworkId < :artworkId)) " +
+            "order by f.favoritedAt desc, f.id.artworkId desc")
+    List<UserFavoriteArtwork> findLatestByUserIdBefore(@Param("userId") UUID userId,
+                                                       @Param("favoritedAt") OffsetDateTime favoritedAt,
+                                                       @Param("artworkId") UUID artworkId,
+                                                       Limit limit);
+
+    // Read-only card rows for the favorites grid
+    @Query(value = "select new com.lahinchgallery.lahinch_art_gallery_backend.dto.FavoriteArtworkCard(" +
+            "a.id, a.title, a.medium, a.price, a.availabilityStatus, a.artworkImageUrl, a.artworkCardUrl, ar.id, ar.name, f.favoritedAt) " +
+            "from UserFavoriteArtwork f join f.artwork a join a.artist ar where f.id.userId = :userId",
+            countQuery = "select count(f) from UserFavoriteArtwork f where f.id.userId = :userId")
+    Page<FavoriteArtworkCard> findCardsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
     // For "isArtworkFavoritedByUser(userId, artworkId)"
     // You can use existsById(UserFavoriteArtworkId id) directly from JpaRepository.
     // boolean existsById_UserIdAndId_ArtworkId(UUID userId, UUID artworkId); // Alternative naming
@@ -1,8 +1,12 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FeaturedArtist;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -12,9 +16,10 @@ import java.util.UUID;
 
 public interface ArtistService {
     Page<Artist> getAllArtists(Pageable pageable); // Basic pagination, filters can be added later
-    Optional<Artist> getArtistById(UUID artistId);
+    CursorPage<Artist> scrollArtists(Sort sort, int limit, String cursor); // Keyset pagination, no count query
+    Optional<ArtistDetail> getArtistById(UUID artistId); // Cached, hence a read-only copy
     Artist createArtist(Artist artist, MultipartFile profileImageFile) throws IOException;
     Artist updateArtist(UUID artistId, Artist artistDetails, MultipartFile profileImageFile) throws IOException;
     void deleteArtist(UUID artistId) throws IOException;
-    List<Artist> getFeaturedArtists();
+    List<FeaturedArtist> getFeaturedArtists(); // Served from FeaturedArtistsSnapshot, not the database
 }
\ No newline at end of file
@@ -1,35 +1,68 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.config.CacheConfig;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FeaturedArtist;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StagedUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtistChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ArtistServiceImpl implements ArtistService {
 
     private final ArtistRepository artistRepository;
+    private final StorageCleanupService storageCleanupService;
+    private final UploadJobService uploadJobService;
+    private final FeaturedArtistsSnapshot featuredArtistsSnapshot;
+    private final ApplicationEventPublisher eventPublisher;
     private final StorageService storageService;
-    private final String supabaseUrl;
+    private final CursorCodec cursorCodec;
+    private final TransactionTemplate transactionTemplate;
 
     private static final String ARTIST_IMAGES_BUCKET = "artist-images";
+    private static final String ARTWORK_IMAGES_BUCKET = "artwork-images";
+    private static final Sort DEFAULT_SCROLL_SORT = Sort.by(Sort.Direction.ASC, "name");
 
     @Autowired
-    public ArtistServiceImpl(ArtistRepository artistRepository, StorageService storageService, String supabaseUrl) {
+    public ArtistServiceImpl(ArtistRepository artistRepository, StorageCleanupService storageCleanupService,
+                             UploadJobService uploadJobService,
+                             FeaturedArtistsSnapshot featuredArtistsSnapshot,
+                             ApplicationEventPublisher eventPublisher, StorageService storageService,
+                             CursorCodec cursorCodec, TransactionTemplate transactionTemplate) {
         this.artistRepository = artistRepository;
+        this.storageCleanupService = storageCleanupService;
+        this.uploadJobService = uploadJobService;
+        this.featuredArtistsSnapshot = featuredArtistsSnapshot;
+        this.eventPublisher = eventPublisher;
         this.storageService = storageService;
-        this.supabaseUrl = supabaseUrl;
+        this.cursorCodec = cursorCodec;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
@@ -38,39 +71,63 @@ public class ArtistServiceImpl implements ArtistService {
     }
 
     @Override
-    public Optional<Artist> getArtistById(UUID artistId) {
-        return artistRepository.findById(artistId);
+    public CursorPage<Artist> scrollArtists(Sort sort, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, got: " + limit);
+        }
+        // Spring Data appends the primary key to keyset sorts, so artists sharing a name stay in order
+        Sort sortToUse = sort == null || sort.isUnsorted() ? DEFAULT_SCROLL_SORT : sort;
+        return cursorCodec.toPage(artistRepository.findAllBy(cursorCodec.decode(cursor, CursorCodec.keysFor(sortToUse)),
+                sortToUse, Limit.of(limit)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ARTISTS_CACHE, key = "#artistId", unless = "#result == null")
+    public Optional<ArtistDetail> getArtistById(UUID artistId) {
+        return artistRepository.findById(artistId).map(ArtistDetail::from);
     }
 
     @Override
-    @Transactional
     public Artist createArtist(Artist artist, MultipartFile profileImageFile) throws IOException {
-        // Ensure ID is null for a new entity if it's auto-generated,
-        // or set it if it comes from elsewhere (though UUIDs are usually generated by JPA or DB)
-        if (artist.getId() == null) {
-            artist.setId(UUID.randomUUID()); // Or let JPA/DB handle it if @GeneratedValue is set
+        // Staged before the transaction opens, so copying and hashing the file doesn't hold a connection
+        StagedUpload image = uploadJobService.stage(profileImageFile);
+        try {
+            return transactionTemplate.execute(status -> insertArtist(artist, image));
+        } catch (RuntimeException e) {
+            uploadJobService.discard(image);
+            throw e;
         }
+    }
+
+    private Artist insertArtist(Artist artist, StagedUpload image) {
+        // The ID is generated on insert. A preset one makes save() merge instead, which fails for a row that doesn't exist yet.
+        artist.setId(null);
         artist.setCreatedAt(OffsetDateTime.now());
         artist.setUpdatedAt(OffsetDateTime.now());
 
-        Artist savedArtist = artistRepository.save(artist); // Save first to get the ID if it's DB generated
-
-        if (profileImageFile != null && !profileImageFile.isEmpty()) {
-            String fileName = "profile_" + savedArtist.getId() + "_" + profileImageFile.getOriginalFilename();
-            String filePath = savedArtist.getId() + "/" + fileName; // Store in a folder per artist
+        Artist savedArtist = artistRepository.save(artist); // Save first to get the generated ID
 
-            storageService.uploadFile(ARTIST_IMAGES_BUCKET, filePath, profileImageFile);
-            String fileUrl = storageService.getPublicFileUrl(ARTIST_IMAGES_BUCKET, filePath);
-            savedArtist.setProfileImageUrl(fileUrl);
-            savedArtist.setUpdatedAt(OffsetDateTime.now()); // Update timestamp after image URL update
-            return artistRepository.save(savedArtist);
+        if (image != null) {
+            // Uploaded after commit; UploadJobWorker fills in profileImageUrl and the job's status can be polled via UploadJobService
+            uploadJobService.enqueue(UploadTarget.ARTIST_IMAGE, savedArtist.getId(), ARTIST_IMAGES_BUCKET, image);
         }
+        eventPublisher.publishEvent(new ArtistChangedEvent(savedArtist.getId(), EntityChangeType.CREATED));
         return savedArtist;
     }
 
     @Override
-    @Transactional
     public Artist updateArtist(UUID artistId, Artist artistDetails, MultipartFile profileImageFile) throws IOException {
+        // Staged before the transaction opens, so copying and hashing the file doesn't hold a connection
+        StagedUpload image = uploadJobService.stage(profileImageFile);
+        try {
+            return transactionTemplate.execute(status -> saveArtist(artistId, artistDetails, image));
+        } catch (RuntimeException e) {
+            uploadJobService.discard(image);
+            throw e;
+        }
+    }
+
+    private Artist saveArtist(UUID artistId, Artist artistDetails, StagedUpload image) {
         Artist existingArtist = artistRepository.findById(artistId)
                 .orElseThrow(() -> new EntityNotFoundException("Artist not found with ID: " + artistId));
 
@@ -86,30 +143,14 @@ public class ArtistServiceImpl implements ArtistService {
         existingArtist.setFeatured(artistDetails.isFeatured());
         existingArtist.setUpdatedAt(OffsetDateTime.now());
 
-        if (profileImageFile != null && !profileImageFile.isEmpty()) {
-            // Optionally, delete old image first if it exists and if paths are not versioned
-            if (existingArtist.getProfileImageUrl() != null && !existingArtist.getProfileImageUrl().isEmpty()) {
-                try {
-                    // Extracting path from URL to delete
-                    String existingFilePath = extractFilePathFromUrl(existingArtist.getProfileImageUrl(), ARTIST_IMAGES_BUCKET);
-                    if (existingFilePath != null) {
-                        storageService.deleteFile(ARTIST_IMAGES_BUCKET, existingFilePath);
-                    }
-                } catch (Exception e) {
-                    // Log error but continue, e.g., old file might not exist or URL format changed
-                    System.err.println("Could not delete old profile image: " + e.getMessage());
-                }
-            }
-
-            String fileName = "profile_" + existingArtist.getId() + "_" + profileImageFile.getOriginalFilename();
-            String filePath = existingArtist.getId() + "/" + fileName;
-
-            storageService.uploadFile(ARTIST_IMAGES_BUCKET, filePath, profileImageFile);
-            String fileUrl = storageService.getPublicFileUrl(ARTIST_IMAGES_BUCKET, filePath);
-            existingArtist.setProfileImageUrl(fileUrl);
+        // The current image stays until the new one is in storage; UploadJobWorker then swaps the URL and deletes the old file
+        if (image != null) {
+            uploadJobService.enqueue(UploadTarget.ARTIST_IMAGE, existingArtist.getId(), ARTIST_IMAGES_BUCKET, image);
         }
 
-        return artistRepository.save(existingArtist);
+        Artist savedArtist = artistRepository.save(existingArtist);
+        eventPublisher.publishEvent(new ArtistChangedEvent(artistId, EntityChangeType.UPDATED));
+        return savedArtist;
     }
 
     @Override
@@ -118,28 +159,39 @@ public class ArtistServiceImpl implements ArtistService {
         Artist artist = artistRepository.findById(artistId)
                 .orElseThrow(() -> new EntityNotFoundException("Artist not found with ID: " + artistId));
 
-        if (artist.getProfileImageUrl() != null && !artist.getProfileImageUrl().isEmpty()) {
-            try {
-                String filePath = extractFilePathFromUrl(artist.getProfileImageUrl(), ARTIST_IMAGES_BUCKET);
-                if (filePath != null) {
-                    storageService.deleteFile(ARTIST_IMAGES_BUCKET, filePath);
-                }
-            } catch (Exception e) {
-                System.err.println("Could not delete profile image during artist deletion: " + e.getMessage());
-                // Decide if this should prevent artist deletion or just be logged
-            }
+        // Images and their resized copies are deleted from storage in the background once this commits
+        scheduleDeletions(ARTIST_IMAGES_BUCKET, artist.getProfileImageUrl(), artist.getProfileThumbnailUrl(),
+                artist.getProfileCardUrl(), artist.getProfileDetailUrl());
+        // Artworks go with the artist (cascade), so their IDs and images are captured before the delete
+        List<Artwork> artworks = artist.getArtworks() == null ? List.of() : artist.getArtworks();
+        Set<UUID> artworkIds = artworks.stream()
+                .map(Artwork::getId)
+                .collect(Collectors.toSet());
+        for (Artwork artwork : artworks) {
+            scheduleDeletions(ARTWORK_IMAGES_BUCKET, artwork.getArtworkImageUrl(), artwork.getArtworkThumbnailUrl(),
+                    artwork.getArtworkCardUrl(), artwork.getArtworkDetailUrl());
         }
         artistRepository.delete(artist);
+        eventPublisher.publishEvent(new ArtworkChangedEvent(artworkIds, EntityChangeType.DELETED));
+        eventPublisher.publishEvent(new ArtistChangedEvent(artistId, EntityChangeType.DELETED));
     }
 
     @Override
-    public List<Artist> getFeaturedArtists() {
-        return artistRepository.findByIsFeaturedTrue();
+    public List<FeaturedArtist> getFeaturedArtists() {
+        return featuredArtistsSnapshot.get();
+    }
+
+    private void scheduleDeletions(String bucketName, String... fileUrls) {
+        for (String fileUrl : fileUrls) {
+            if (fileUrl != null && !fileUrl.isEmpty()) {
+                storageCleanupService.scheduleDeletion(bucketName, extractFilePathFromUrl(fileUrl, bucketName));
+            }
+        }
     }
 
-    // Helper method to extract file path from Supabase public URL
+    // Helper method to extract file path from the storage backend's public URL
     private String extractFilePathFromUrl(String fileUrl, String bucketName) {
-        String prefix = supabaseUrl + "/storage/v1/object/public/" + bucketName + "/";
+        String prefix = storageService.getPublicFileUrl(bucketName, "");
         if (fileUrl != null && fileUrl.startsWith(prefix)) {
             return fileUrl.substring(prefix.length());
         }
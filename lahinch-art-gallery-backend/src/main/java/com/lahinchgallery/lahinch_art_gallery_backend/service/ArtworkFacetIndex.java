@@ -0,0 +1,368 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFacets;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Bitmap index over the catalog facets (medium, availability, price band, decade).
+// Every artwork gets a dense ordinal; a facet value is a BitSet of ordinals, so a facet count
+// is the cardinality of a few ANDed bitmaps instead of one count query per facet value.
+@Component
+public class ArtworkFacetIndex implements ArtworkIndex {
+
+    // Lower bounds of the price bands shown as filter chips, in whole euros
+    private static final long[] PRICE_BAND_LOWER_BOUNDS = {0, 500, 1_000, 2_500, 5_000, 10_000};
+    private static final long NO_PRICE = -1;
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private UUID[] artistIds = new UUID[1024];
+    private long[] priceCents = new long[1024];
+    private int[] years = new int[1024];
+    private String[] mediumKeys = new String[1024];
+    private ArtworkAvailabilityStatus[] statuses = new ArtworkAvailabilityStatus[1024];
+
+    private final Map<UUID, BitSet> byArtist = new HashMap<>();
+    private final Map<String, BitSet> byMedium = new HashMap<>();
+    private final Map<String, String> mediumLabels = new HashMap<>();
+    private final Map<ArtworkAvailabilityStatus, BitSet> byStatus = new EnumMap<>(ArtworkAvailabilityStatus.class);
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void rebuild(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            live.clear();
+            byArtist.clear();
+            byMedium.clear();
+            mediumLabels.clear();
+            byStatus.clear();
+            rows.forEach(this::add);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            for (ArtworkIndexRow row : rows) {
+                removeOrdinal(row.id());
+                add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> artworkIds) {
+        lock.writeLock().lock();
+        try {
+            artworkIds.forEach(this::removeOrdinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Narrows an ordered candidate list (e.g. ranked search hits) to the artworks matching the filter
+    public List<UUID> filter(List<UUID> candidates, ArtworkFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(filter);
+            return candidates.stream()
+                    .filter(id -> {
+                        Integer ordinal = ordinals.get(id);
+                        return ordinal != null && matches.get(ordinal);
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Facet counts for the given filters. If searchMatches is non-null, counting is further
+    // restricted to those artworks (the hits of a full-text search).
+    public ArtworkFacets facets(ArtworkFilter filter, Collection<UUID> searchMatches) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (filter.artistId() != null) {
+                base.and(artistMask(filter.artistId()));
+            }
+            if (searchMatches != null) {
+                base.and(toBitSet(searchMatches));
+            }
+
+            BitSet mediumMask = filter.mediums().isEmpty() ? null : mediumMask(filter);
+            BitSet statusMask = filter.availabilityStatuses().isEmpty() ? null : statusMask(filter);
+            BitSet priceMask = filter.hasPriceRange() ? priceMask(filter) : null;
+            BitSet yearMask = filter.hasYearRange() ? yearMask(filter) : null;
+
+            BitSet forMediums = intersect(base, statusMask, priceMask, yearMask);
+            Map<String, Long> mediumCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            byMedium.forEach((key, bits) -> {
+                long count = andCardinality(forMediums, bits);
+                if (count > 0) {
+                    mediumCounts.put(mediumLabels.get(key), count);
+                }
+            });
+
+            BitSet forStatuses = intersect(base, mediumMask, priceMask, yearMask);
+            Map<String, Long> statusCounts = new LinkedHashMap<>();
+            for (ArtworkAvailabilityStatus status : ArtworkAvailabilityStatus.values()) {
+                BitSet bits = byStatus.get(status);
+                long count = bits == null ? 0 : andCardinality(forStatuses, bits);
+                if (count > 0) {
+                    statusCounts.put(status.name(), count);
+                }
+            }
+
+            BitSet forPrices = intersect(base, mediumMask, statusMask, yearMask);
+            long[] bandCounts = new long[PRICE_BAND_LOWER_BOUNDS.length];
+            for (int ordinal = forPrices.nextSetBit(0); ordinal >= 0; ordinal = forPrices.nextSetBit(ordinal + 1)) {
+                if (priceCents[ordinal] != NO_PRICE) {
+                    bandCounts[priceBand(priceCents[ordinal])]++;
+                }
+            }
+            Map<String, Long> priceCounts = new LinkedHashMap<>();
+            for (int band = 0; band < bandCounts.length; band++) {
+                if (bandCounts[band] > 0) {
+                    priceCounts.put(priceBandLabel(band), bandCounts[band]);
+                }
+            }
+
+            BitSet forYears = intersect(base, mediumMask, statusMask, priceMask);
+            Map<Integer, Long> decadeCounts = new TreeMap<>();
+            for (int ordinal = forYears.nextSetBit(0); ordinal >= 0; ordinal = forYears.nextSetBit(ordinal + 1)) {
+                if (years[ordinal] != NO_YEAR) {
+                    decadeCounts.merge(Math.floorDiv(years[ordinal], 10) * 10, 1L, Long::sum);
+                }
+            }
+            Map<String, Long> yearCounts = new LinkedHashMap<>();
+            decadeCounts.forEach((decade, count) -> yearCounts.put(decade + "s", count));
+
+            return new ArtworkFacets(mediumCounts, statusCounts, priceCounts, yearCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matching(ArtworkFilter filter) {
+        BitSet result = (BitSet) live.clone();
+        if (filter.artistId() != null) {
+            result.and(artistMask(filter.artistId()));
+        }
+        if (!filter.mediums().isEmpty()) {
+            result.and(mediumMask(filter));
+        }
+        if (!filter.availabilityStatuses().isEmpty()) {
+            result.and(statusMask(filter));
+        }
+        if (filter.hasPriceRange()) {
+            result.and(priceMask(filter));
+        }
+        if (filter.hasYearRange()) {
+            result.and(yearMask(filter));
+        }
+        return result;
+    }
+
+    private BitSet artistMask(UUID artistId) {
+        BitSet bits = byArtist.get(artistId);
+        return bits == null ? new BitSet() : bits;
+    }
+
+    private BitSet mediumMask(ArtworkFilter filter) {
+        BitSet mask = new BitSet();
+        for (String medium : filter.mediums()) {
+            BitSet bits = byMedium.get(medium);
+            if (bits != null) {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet statusMask(ArtworkFilter filter) {
+        BitSet mask = new BitSet();
+        for (ArtworkAvailabilityStatus status : filter.availabilityStatuses()) {
+            BitSet bits = byStatus.get(status);
+            if (bits != null) {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet priceMask(ArtworkFilter filter) {
+        long min = filter.minPrice() == null ? Long.MIN_VALUE : toCents(filter.minPrice());
+        long max = filter.maxPrice() == null ? Long.MAX_VALUE : toCents(filter.maxPrice());
+        BitSet mask = new BitSet();
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            long price = priceCents[ordinal];
+            if (price != NO_PRICE && price >= min && price <= max) {
+                mask.set(ordinal);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet yearMask(ArtworkFilter filter) {
+        int min = filter.minYear() == null ? Integer.MIN_VALUE + 1 : filter.minYear();
+        int max = filter.maxYear() == null ? Integer.MAX_VALUE : filter.maxYear();
+        BitSet mask = new BitSet();
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            int year = years[ordinal];
+            if (year != NO_YEAR && year >= min && year <= max) {
+                mask.set(ordinal);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet toBitSet(Collection<UUID> ids) {
+        BitSet bits = new BitSet();
+        for (UUID id : ids) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                bits.set(ordinal);
+            }
+        }
+        return bits;
+    }
+
+    private void add(ArtworkIndexRow row) {
+        int ordinal = freeOrdinals.isEmpty() ? ordinals.size() : freeOrdinals.pop();
+        ensureCapacity(ordinal + 1);
+
+        ordinals.put(row.id(), ordinal);
+        live.set(ordinal);
+        artistIds[ordinal] = row.artistId();
+        byArtist.computeIfAbsent(row.artistId(), a -> new BitSet()).set(ordinal);
+        priceCents[ordinal] = row.price() == null ? NO_PRICE : toCents(row.price());
+        years[ordinal] = row.yearCreated() == null ? NO_YEAR : row.yearCreated();
+
+        String medium = row.medium() == null ? "" : row.medium().trim();
+        if (!medium.isEmpty()) {
+            String key = medium.toLowerCase(Locale.ROOT);
+            mediumKeys[ordinal] = key;
+            mediumLabels.putIfAbsent(key, medium);
+            byMedium.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        } else {
+            mediumKeys[ordinal] = null;
+        }
+
+        statuses[ordinal] = row.availabilityStatus();
+        if (row.availabilityStatus() != null) {
+            byStatus.computeIfAbsent(row.availabilityStatus(), s -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void removeOrdinal(UUID artworkId) {
+        Integer ordinal = ordinals.remove(artworkId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        BitSet artistBits = byArtist.get(artistIds[ordinal]);
+        artistBits.clear(ordinal);
+        if (artistBits.isEmpty()) {
+            byArtist.remove(artistIds[ordinal]);
+        }
+        artistIds[ordinal] = null;
+
+        String key = mediumKeys[ordinal];
+        if (key != null) {
+            BitSet bits = byMedium.get(key);
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                byMedium.remove(key);
+                mediumLabels.remove(key);
+            }
+            mediumKeys[ordinal] = null;
+        }
+        if (statuses[ordinal] != null) {
+            byStatus.get(statuses[ordinal]).clear(ordinal);
+            statuses[ordinal] = null;
+        }
+        freeOrdinals.push(ordinal);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= artistIds.length) {
+            return;
+        }
+        int capacity = Math.max(size, artistIds.length * 2);
+        artistIds = Arrays.copyOf(artistIds, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        years = Arrays.copyOf(years, capacity);
+        mediumKeys = Arrays.copyOf(mediumKeys, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static long andCardinality(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    private static int priceBand(long cents) {
+        int band = 0;
+        while (band + 1 < PRICE_BAND_LOWER_BOUNDS.length && cents >= PRICE_BAND_LOWER_BOUNDS[band + 1] * 100) {
+            band++;
+        }
+        return band;
+    }
+
+    private static String priceBandLabel(int band) {
+        if (band + 1 == PRICE_BAND_LOWER_BOUNDS.length) {
+            return PRICE_BAND_LOWER_BOUNDS[band] + "+";
+        }
+        return PRICE_BAND_LOWER_BOUNDS[band] + "-" + PRICE_BAND_LOWER_BOUNDS[band + 1];
+    }
+}
@@ -0,0 +1,13 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkImportResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface ArtworkImportService {
+    // Bulk-creates artworks from a manifest (.csv with a header row, .json array or .ndjson; see ArtworkManifestEntry)
+    // and an optional zip holding the images it names. Every row gets its own outcome: a bad row is reported
+    // and skipped, it never fails the rest of the import. imagesZip may be null when no row has an image.
+    ArtworkImportResult importArtworks(MultipartFile manifest, MultipartFile imagesZip) throws IOException;
+}
@@ -0,0 +1,459 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistReference;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkImportResult;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkImportRowResult;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkManifestEntry;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Streams the manifest in chunks so memory stays flat however many rows it has. Per chunk:
+// rows are parsed, their artists resolved with one query, images uploaded in parallel (bounded by a
+// semaphore shared by all imports), and the rows inserted with one JDBC batch in one transaction.
+// Inserting through JDBC skips the persistence context, which would otherwise hold every imported entity.
+@Service
+public class ArtworkImportServiceImpl implements ArtworkImportService {
+
+    private static final String ARTWORK_IMAGES_BUCKET = "artwork-images";
+
+    private static final String INSERT_ARTWORK_SQL = "insert into artworks (id, title, artist_id, description, medium, " +
+            "dimensions, year_created, price, availability_status, artwork_image_url, created_at, updated_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // The artworks columns' limits: varchar(255) text and NUMERIC(10, 2) prices
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int PRICE_PRECISION = 10;
+    private static final int PRICE_SCALE = 2;
+
+    private static final ObjectReader JSON_READER = JsonMapper.builder().build().readerFor(ArtworkManifestEntry.class);
+    private static final ObjectReader CSV_READER = new CsvMapper().readerFor(ArtworkManifestEntry.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .with(CsvParser.Feature.TRIM_SPACES);
+
+    private final ArtistRepository artistRepository;
+    private final StorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Semaphore uploadPermits;
+
+    @Autowired
+    public ArtworkImportServiceImpl(ArtistRepository artistRepository,
+                                    StorageService storageService,
+                                    StorageCleanupService storageCleanupService,
+                                    ContentAddressedStorage contentAddressedStorage,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${import.batch-size:500}") int batchSize,
+                                    @Value("${import.upload-concurrency:8}") int uploadConcurrency) {
+        this.artistRepository = artistRepository;
+        this.storageService = storageService;
+        this.storageCleanupService = storageCleanupService;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.uploadPermits = new Semaphore(uploadConcurrency);
+    }
+
+    @Override
+    public ArtworkImportResult importArtworks(MultipartFile manifest, MultipartFile imagesZip) throws IOException {
+        if (manifest == null || manifest.isEmpty()) {
+            throw new IllegalArgumentException("An import manifest must be provided.");
+        }
+        ObjectReader reader = manifestReader(manifest);
+
+        // ZipFile needs random access, so the upload is spooled to disk rather than read into memory
+        Path zipPath = null;
+        ZipFile zip = null;
+        try (InputStream manifestStream = manifest.getInputStream();
+             MappingIterator<ArtworkManifestEntry> entries = reader.readValues(manifestStream)) {
+            if (imagesZip != null && !imagesZip.isEmpty()) {
+                zipPath = Files.createTempFile("artwork-import-", ".zip");
+                imagesZip.transferTo(zipPath);
+                zip = new ZipFile(zipPath.toFile());
+            }
+
+            ArtistResolver artists = new ArtistResolver();
+            List<ArtworkImportRowResult> results = new ArrayList<>();
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+            int rowNumber = 0;
+            while (true) {
+                ArtworkManifestEntry entry;
+                try {
+                    if (!entries.hasNextValue()) {
+                        break;
+                    }
+                    entry = entries.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    // The parser can't resynchronise after malformed input, so the rest of the manifest is unreadable
+                    results.add(ArtworkImportRowResult.failed(rowNumber + 1, null, "Malformed manifest: " + e.getMessage()));
+                    break;
+                }
+                chunk.add(parse(++rowNumber, entry, zip));
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, artists, zip, results);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, artists, zip, results);
+
+            results.sort(Comparator.comparingInt(ArtworkImportRowResult::rowNumber));
+            return ArtworkImportResult.of(results);
+        } finally {
+            if (zip != null) {
+                zip.close();
+            }
+            if (zipPath != null) {
+                Files.deleteIfExists(zipPath);
+            }
+        }
+    }
+
+    private static ObjectReader manifestReader(MultipartFile manifest) {
+        String fileName = String.valueOf(manifest.getOriginalFilename()).toLowerCase(Locale.ROOT);
+        String contentType = String.valueOf(manifest.getContentType()).toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".csv") || contentType.contains("csv")) {
+            return CSV_READER;
+        }
+        // A top-level JSON array is iterated element by element, as are newline-delimited objects
+        if (fileName.endsWith(".json") || fileName.endsWith(".ndjson") || contentType.contains("json")) {
+            return JSON_READER;
+        }
+        throw new IllegalArgumentException("Unsupported manifest format; expected a .csv, .json or .ndjson file.");
+    }
+
+    private void importChunk(List<ImportRow> chunk, ArtistResolver artists, ZipFile zip, List<ArtworkImportRowResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        artists.resolve(chunk);
+        uploadImages(chunk, zip);
+
+        List<ImportRow> valid = chunk.stream().filter(row -> row.error == null).toList();
+        if (!valid.isEmpty()) {
+            insert(valid);
+        }
+        for (ImportRow row : chunk) {
+            results.add(row.error == null
+                    ? ArtworkImportRowResult.imported(row.rowNumber, row.entry.title(), row.artworkId)
+                    : ArtworkImportRowResult.failed(row.rowNumber, row.entry.title(), row.error));
+        }
+    }
+
+    // parse() catches the values the columns would reject, so a failed batch is unexpected; it is retried row
+    // by row so that only the rows the database still refuses are reported
+    private void insert(List<ImportRow> rows) {
+        DataAccessException failure = tryInsert(rows);
+        if (failure == null) {
+            return;
+        }
+        System.err.println("Bulk import batch of " + rows.size() + " artworks failed: " + failure.getMessage());
+        for (ImportRow row : rows) {
+            DataAccessException rowFailure = rows.size() == 1 ? failure : tryInsert(List.of(row));
+            if (rowFailure != null) {
+                row.error = "Could not save artwork: " + rowFailure.getMostSpecificCause().getMessage();
+                deleteUploadedImage(row);
+            }
+        }
+    }
+
+    // Null once the rows are committed
+    private DataAccessException tryInsert(List<ImportRow> rows) {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_ARTWORK_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setObject(1, row.artworkId);
+                    ps.setString(2, row.entry.title().trim());
+                    ps.setObject(3, row.artistId);
+                    ps.setString(4, row.entry.description());
+                    ps.setString(5, row.entry.medium());
+                    ps.setString(6, row.entry.dimensions());
+                    ps.setObject(7, row.yearCreated);
+                    ps.setBigDecimal(8, row.price);
+                    ps.setString(9, row.availabilityStatus.name());
+                    ps.setString(10, row.imageUrl);
+                    ps.setObject(11, now);
+                    ps.setObject(12, now);
+                });
+                // One event for the whole chunk; the caches and indexes pick the rows up after commit
+                Set<UUID> ids = rows.stream().map(row -> row.artworkId).collect(Collectors.toSet());
+                eventPublisher.publishEvent(new ArtworkChangedEvent(ids, EntityChangeType.CREATED));
+            });
+            return null;
+        } catch (DataAccessException e) {
+            return e;
+        }
+    }
+
+    // Uploads the chunk's images on virtual threads; the shared semaphore caps how many run at once
+    private void uploadImages(List<ImportRow> chunk, ZipFile zip) {
+        Map<ImportRow, Future<String>> uploads = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ImportRow row : chunk) {
+                if (row.error == null && row.imageEntry != null) {
+                    uploads.put(row, executor.submit(() -> upload(row, zip)));
+                }
+            }
+            for (Map.Entry<ImportRow, Future<String>> upload : uploads.entrySet()) {
+                ImportRow row = upload.getKey();
+                try {
+                    row.imageUrl = upload.getValue().get();
+                } catch (ExecutionException e) {
+                    row.error = "Image upload failed: " + e.getCause().getMessage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    row.error = "Import interrupted before the image was uploaded";
+                }
+            }
+        }
+    }
+
+    private String upload(ImportRow row, ZipFile zip) throws IOException, InterruptedException {
+        String fileName = StringUtils.getFilename(row.imageEntry.getName());
+        String contentType = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null);
+
+        // Content-addressed, so an image already in the bucket (e.g. from an earlier run of the same import) isn't sent again
+        String filePath;
+        uploadPermits.acquire();
+        try {
+            filePath = contentAddressedStorage.store(ARTWORK_IMAGES_BUCKET, zipEntryResource(zip, row.imageEntry), fileName, contentType);
+        } finally {
+            uploadPermits.release();
+        }
+        row.imagePath = filePath;
+        return storageService.getPublicFileUrl(ARTWORK_IMAGES_BUCKET, filePath);
+    }
+
+    private void deleteUploadedImage(ImportRow row) {
+        if (row.imagePath == null) {
+            return;
+        }
+        try {
+            storageCleanupService.scheduleDeletion(ARTWORK_IMAGES_BUCKET, row.imagePath);
+        } catch (RuntimeException e) {
+            System.err.println("Could not queue deletion of orphaned import image " + row.imagePath + ": " + e.getMessage());
+        }
+    }
+
+    // Streams a zip entry straight into the upload; the size comes from the zip's central directory
+    private static Resource zipEntryResource(ZipFile zip, ZipEntry entry) {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "zip entry [" + entry.getName() + "]";
+            }
+
+            @Override
+            public String getFilename() {
+                return StringUtils.getFilename(entry.getName());
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return zip.getInputStream(entry);
+            }
+
+            @Override
+            public long contentLength() throws IOException {
+                return entry.getSize() >= 0 ? entry.getSize() : super.contentLength();
+            }
+        };
+    }
+
+    private static ImportRow parse(int rowNumber, ArtworkManifestEntry entry, ZipFile zip) {
+        ImportRow row = new ImportRow(rowNumber, entry);
+        try {
+            if (!StringUtils.hasText(entry.title())) {
+                throw new IllegalArgumentException("Title is required.");
+            }
+            requireFits("title", entry.title().trim());
+            requireFits("medium", entry.medium());
+            requireFits("dimensions", entry.dimensions());
+            if (StringUtils.hasText(entry.artistId())) {
+                row.artistId = UUID.fromString(entry.artistId().trim());
+            } else if (!StringUtils.hasText(entry.artistName())) {
+                throw new IllegalArgumentException("Either artistId or artistName is required.");
+            }
+            row.yearCreated = parseField("yearCreated", entry.yearCreated(), Integer::valueOf);
+            row.price = parseField("price", entry.price(), BigDecimal::new);
+            if (row.price != null && row.price.signum() < 0) {
+                throw new IllegalArgumentException("Price cannot be negative.");
+            }
+            if (row.price != null && row.price.stripTrailingZeros().scale() > PRICE_SCALE) {
+                throw new IllegalArgumentException("Price cannot have more than " + PRICE_SCALE + " decimal places.");
+            }
+            if (row.price != null && row.price.setScale(PRICE_SCALE).precision() > PRICE_PRECISION) {
+                throw new IllegalArgumentException("Price cannot have more than " + (PRICE_PRECISION - PRICE_SCALE)
+                        + " digits before the decimal point.");
+            }
+            row.availabilityStatus = parseField("availabilityStatus", entry.availabilityStatus(),
+                    value -> ArtworkAvailabilityStatus.valueOf(value.toUpperCase(Locale.ROOT)));
+            if (row.availabilityStatus == null) {
+                row.availabilityStatus = ArtworkAvailabilityStatus.AVAILABLE;
+            }
+            if (StringUtils.hasText(entry.imageFile())) {
+                row.imageEntry = zip == null ? null : zip.getEntry(entry.imageFile().trim());
+                if (row.imageEntry == null || row.imageEntry.isDirectory()) {
+                    throw new IllegalArgumentException("Image not found in the zip: " + entry.imageFile());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+        }
+        return row;
+    }
+
+    private static void requireFits(String column, String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " cannot be longer than " + MAX_TEXT_LENGTH + " characters.");
+        }
+    }
+
+    // Null for a blank value; any parse failure is reported against the manifest column
+    private static <T> T parseField(String column, String value, Function<String, T> parser) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    // Resolves artists with one query per chunk for the IDs and names it hasn't seen yet;
+    // answers are remembered for the rest of the import, since manifests tend to repeat the same artists.
+    private final class ArtistResolver {
+
+        private final Set<UUID> existingIds = new HashSet<>();
+        private final Set<UUID> missingIds = new HashSet<>();
+        private final Map<String, List<UUID>> idsByName = new HashMap<>(); // lower-cased name -> matching artists
+
+        void resolve(List<ImportRow> chunk) {
+            Set<UUID> unknownIds = new LinkedHashSet<>();
+            Set<String> unknownNames = new LinkedHashSet<>();
+            for (ImportRow row : chunk) {
+                if (row.error != null) {
+                    continue;
+                }
+                if (row.artistId != null) {
+                    if (!existingIds.contains(row.artistId) && !missingIds.contains(row.artistId)) {
+                        unknownIds.add(row.artistId);
+                    }
+                } else if (!idsByName.containsKey(nameKey(row))) {
+                    unknownNames.add(nameKey(row));
+                }
+            }
+
+            if (!unknownIds.isEmpty()) {
+                existingIds.addAll(artistRepository.findExistingIds(unknownIds));
+                unknownIds.stream().filter(id -> !existingIds.contains(id)).forEach(missingIds::add);
+            }
+            if (!unknownNames.isEmpty()) {
+                unknownNames.forEach(name -> idsByName.put(name, new ArrayList<>()));
+                for (ArtistReference artist : artistRepository.findReferencesByLowerNameIn(unknownNames)) {
+                    idsByName.get(artist.name().toLowerCase(Locale.ROOT)).add(artist.id());
+                }
+            }
+
+            for (ImportRow row : chunk) {
+                if (row.error != null) {
+                    continue;
+                }
+                if (row.artistId != null) {
+                    if (missingIds.contains(row.artistId)) {
+                        row.error = "Artist not found with ID: " + row.artistId;
+                    }
+                    continue;
+                }
+                List<UUID> matches = idsByName.get(nameKey(row));
+                if (matches.size() == 1) {
+                    row.artistId = matches.get(0);
+                } else {
+                    row.error = matches.isEmpty()
+                            ? "Artist not found with name: " + row.entry.artistName()
+                            : "Artist name is ambiguous, use artistId instead: " + row.entry.artistName();
+                }
+            }
+        }
+
+        private static String nameKey(ImportRow row) {
+            return row.entry.artistName().trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class ImportRow {
+        final int rowNumber;
+        final ArtworkManifestEntry entry;
+        final UUID artworkId = UUID.randomUUID();
+        UUID artistId;
+        Integer yearCreated;
+        BigDecimal price;
+        ArtworkAvailabilityStatus availabilityStatus;
+        ZipEntry imageEntry;
+        String imagePath; // set once the image is uploaded
+        String imageUrl;
+        String error; // the first problem found; the row is skipped from then on
+
+        ImportRow(int rowNumber, ArtworkManifestEntry entry) {
+            this.rowNumber = rowNumber;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+
+import java.util.Collection;
+import java.util.UUID;
+
+// An in-memory read model over the artwork catalog. Implementations are discovered and kept
+// up to date by ArtworkIndexMaintainer, so a new index only has to implement these three methods.
+public interface ArtworkIndex {
+    void rebuild(Collection<ArtworkIndexRow> rows);
+    void upsert(Collection<ArtworkIndexRow> rows);
+    void remove(Collection<UUID> artworkIds);
+}
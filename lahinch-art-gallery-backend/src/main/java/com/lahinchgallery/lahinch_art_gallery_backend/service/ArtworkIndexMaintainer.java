@@ -0,0 +1,59 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtistChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+// Builds every ArtworkIndex at startup and applies artwork/artist changes to them after commit,
+// loading the affected rows once and handing the same rows to each index.
+@Component
+public class ArtworkIndexMaintainer {
+
+    private final ArtworkRepository artworkRepository;
+    private final List<ArtworkIndex> indexes;
+
+    @Autowired
+    public ArtworkIndexMaintainer(ArtworkRepository artworkRepository, List<ArtworkIndex> indexes) {
+        this.artworkRepository = artworkRepository;
+        this.indexes = indexes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        List<ArtworkIndexRow> rows = artworkRepository.findAllIndexRows();
+        indexes.forEach(index -> index.rebuild(rows));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        if (event.artworkIds().isEmpty()) {
+            return;
+        }
+        if (event.changeType() == EntityChangeType.DELETED) {
+            indexes.forEach(index -> index.remove(event.artworkIds()));
+            return;
+        }
+        List<ArtworkIndexRow> rows = IdBatches.query(event.artworkIds(), artworkRepository::findIndexRowsByIdIn);
+        indexes.forEach(index -> index.upsert(rows));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtistChanged(ArtistChangedEvent event) {
+        // Deleting an artist cascades to its artworks; ArtistServiceImpl publishes those as
+        // ArtworkChangedEvent deletions, so only renames and other edits need handling here.
+        if (event.changeType() != EntityChangeType.UPDATED) {
+            return;
+        }
+        List<ArtworkIndexRow> rows = artworkRepository.findIndexRowsByArtistId(event.artistId());
+        indexes.forEach(index -> index.upsert(rows));
+    }
+}
@@ -0,0 +1,450 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Columnar index over price and year, answering range filters and price/year sorts without touching the database.
+// Every artwork gets a dense ordinal into primitive columns (the two halves of its ID, price in cents, year, status).
+// Per column the ordinals are also kept sorted, packed as (value << ORDINAL_BITS | ordinal) in a long[], so a
+// range is two binary searches and a sort is a walk along the array. Nothing is boxed: a million artworks measured
+// about 52 MB (45 bytes each in the columns and sorted keys, plus the ordinal table's slots).
+@Component
+public class ArtworkRangeIndex implements ArtworkIndex {
+
+    public enum SortBy { PRICE, YEAR }
+
+    // Prices are NUMERIC(10, 2), so cents fit in 34 bits and the packed keys never overflow
+    private static final int ORDINAL_BITS = 24;
+    private static final int MAX_ARTWORKS = 1 << ORDINAL_BITS;
+    private static final long ORDINAL_MASK = MAX_ARTWORKS - 1;
+    private static final byte FREE = -1; // status of an unused ordinal
+    private static final byte NO_STATUS = -2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final OrdinalTable ordinals = new OrdinalTable();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int ordinalCount = 0; // ordinals handed out so far, free or not
+    private long[] idHigh = new long[1024];
+    private long[] idLow = new long[1024];
+    private long[] priceCents = new long[1024];
+    private int[] years = new int[1024];
+    private byte[] statuses = new byte[1024];
+    private final BitSet unpriced = new BitSet();
+    private final BitSet undated = new BitSet();
+
+    // Packed keys in ascending order; artworks without a price (year) are only in unpriced (undated)
+    private long[] byPrice = new long[0];
+    private long[] byYear = new long[0];
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void rebuild(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(1024, rows.size());
+            idHigh = new long[capacity];
+            idLow = new long[capacity];
+            priceCents = new long[capacity];
+            years = new int[capacity];
+            statuses = new byte[capacity];
+            ordinals.clear(capacity);
+            freeOrdinals.clear();
+            ordinalCount = 0;
+            unpriced.clear();
+            undated.clear();
+
+            BitSet all = new BitSet(rows.size());
+            for (ArtworkIndexRow row : rows) {
+                int ordinal = allocate(row.id());
+                set(ordinal, row);
+                all.set(ordinal);
+            }
+            byPrice = merge(new long[0], all, SortBy.PRICE);
+            byYear = merge(new long[0], all, SortBy.YEAR);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            BitSet changed = new BitSet();
+            for (ArtworkIndexRow row : rows) {
+                int ordinal = ordinals.get(row.id().getMostSignificantBits(), row.id().getLeastSignificantBits());
+                if (ordinal < 0) {
+                    ordinal = allocate(row.id());
+                }
+                set(ordinal, row);
+                changed.set(ordinal);
+            }
+            byPrice = merge(byPrice, changed, SortBy.PRICE);
+            byYear = merge(byYear, changed, SortBy.YEAR);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> artworkIds) {
+        lock.writeLock().lock();
+        try {
+            BitSet changed = new BitSet();
+            for (UUID id : artworkIds) {
+                int ordinal = ordinals.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                if (ordinal >= 0) {
+                    statuses[ordinal] = FREE;
+                    unpriced.clear(ordinal);
+                    undated.clear(ordinal);
+                    freeOrdinals.push(ordinal);
+                    changed.set(ordinal);
+                }
+            }
+            if (!changed.isEmpty()) {
+                byPrice = merge(byPrice, changed, SortBy.PRICE);
+                byYear = merge(byYear, changed, SortBy.YEAR);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // IDs of the artworks within the filter's price and year ranges and availability statuses, ordered by
+    // sortBy (by whichever range column drives the scan when null). Like Postgres, an ascending sort puts
+    // artworks without a value last and a descending one puts them first. Artist and medium are not
+    // applied here; narrow the result with ArtworkFacetIndex for those.
+    public List<UUID> select(ArtworkFilter filter, SortBy sortBy, boolean descending) {
+        lock.readLock().lock();
+        try {
+            boolean[] allowedStatuses = allowedStatuses(filter);
+            long minPrice = filter.minPrice() == null ? Long.MIN_VALUE : toCents(filter.minPrice());
+            long maxPrice = filter.maxPrice() == null ? Long.MAX_VALUE : toCents(filter.maxPrice());
+            int minYear = filter.minYear() == null ? Integer.MIN_VALUE : filter.minYear();
+            int maxYear = filter.maxYear() == null ? Integer.MAX_VALUE : filter.maxYear();
+
+            // Scan the narrower of the range slices; the other range is checked per artwork from its column
+            int[] priceSlice = filter.hasPriceRange() ? slice(byPrice, minPrice, maxPrice) : null;
+            int[] yearSlice = filter.hasYearRange() ? slice(byYear, minYear, maxYear) : null;
+            SortBy driver;
+            int[] driverSlice;
+            if (priceSlice != null && (yearSlice == null || width(priceSlice) <= width(yearSlice))) {
+                driver = SortBy.PRICE;
+                driverSlice = priceSlice;
+            } else if (yearSlice != null) {
+                driver = SortBy.YEAR;
+                driverSlice = yearSlice;
+            } else {
+                driver = sortBy == null ? SortBy.PRICE : sortBy;
+                driverSlice = new int[]{0, keys(driver).length};
+            }
+
+            long[] driverKeys = keys(driver);
+            int[] matches = new int[width(driverSlice)];
+            int count = 0;
+            for (int i = driverSlice[0]; i < driverSlice[1]; i++) {
+                int ordinal = (int) (driverKeys[i] & ORDINAL_MASK);
+                if (matches(ordinal, allowedStatuses, filter, minPrice, maxPrice, minYear, maxYear)) {
+                    matches[count++] = ordinal;
+                }
+            }
+
+            int[] valued = Arrays.copyOf(matches, count);
+            int[] missing = new int[0];
+            if (!filter.hasPriceRange() && !filter.hasYearRange()) {
+                // Without a range, artworks lacking the driving column's value still match
+                missing = missing(driver, allowedStatuses);
+            }
+            if (sortBy != null && sortBy != driver) {
+                int[] all = concat(valued, missing);
+                BitSet lacking = sortBy == SortBy.PRICE ? unpriced : undated;
+                valued = sorted(Arrays.stream(all).filter(ordinal -> !lacking.get(ordinal)).toArray(), sortBy);
+                missing = Arrays.stream(all).filter(lacking::get).toArray();
+            }
+
+            List<UUID> ids = new ArrayList<>(valued.length + missing.length);
+            if (descending) {
+                addIds(ids, missing);
+                for (int i = valued.length - 1; i >= 0; i--) {
+                    ids.add(new UUID(idHigh[valued[i]], idLow[valued[i]]));
+                }
+            } else {
+                addIds(ids, valued);
+                addIds(ids, missing);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(int ordinal, boolean[] allowedStatuses, ArtworkFilter filter,
+                            long minPrice, long maxPrice, int minYear, int maxYear) {
+        if (allowedStatuses != null && (statuses[ordinal] < 0 || !allowedStatuses[statuses[ordinal]])) {
+            return false;
+        }
+        if (filter.hasPriceRange()
+                && (unpriced.get(ordinal) || priceCents[ordinal] < minPrice || priceCents[ordinal] > maxPrice)) {
+            return false;
+        }
+        return !filter.hasYearRange()
+                || (!undated.get(ordinal) && years[ordinal] >= minYear && years[ordinal] <= maxYear);
+    }
+
+    private int[] missing(SortBy column, boolean[] allowedStatuses) {
+        BitSet lacking = column == SortBy.PRICE ? unpriced : undated;
+        return lacking.stream()
+                .filter(ordinal -> allowedStatuses == null
+                        || (statuses[ordinal] >= 0 && allowedStatuses[statuses[ordinal]]))
+                .toArray();
+    }
+
+    private static boolean[] allowedStatuses(ArtworkFilter filter) {
+        if (filter.availabilityStatuses().isEmpty()) {
+            return null;
+        }
+        boolean[] allowed = new boolean[ArtworkAvailabilityStatus.values().length];
+        filter.availabilityStatuses().forEach(status -> allowed[status.ordinal()] = true);
+        return allowed;
+    }
+
+    private int allocate(UUID id) {
+        int ordinal;
+        if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+        } else {
+            if (ordinalCount == MAX_ARTWORKS) {
+                throw new IllegalStateException("ArtworkRangeIndex is full (" + MAX_ARTWORKS + " artworks)");
+            }
+            ordinal = ordinalCount++;
+            ensureCapacity(ordinalCount);
+        }
+        idHigh[ordinal] = id.getMostSignificantBits();
+        idLow[ordinal] = id.getLeastSignificantBits();
+        ordinals.put(idHigh[ordinal], idLow[ordinal], ordinal);
+        return ordinal;
+    }
+
+    private void set(int ordinal, ArtworkIndexRow row) {
+        statuses[ordinal] = row.availabilityStatus() == null ? NO_STATUS : (byte) row.availabilityStatus().ordinal();
+        unpriced.set(ordinal, row.price() == null);
+        priceCents[ordinal] = row.price() == null ? 0 : toCents(row.price());
+        undated.set(ordinal, row.yearCreated() == null);
+        years[ordinal] = row.yearCreated() == null ? 0 : row.yearCreated();
+    }
+
+    // Drops the changed ordinals' old keys and merges in their current ones: one linear pass over the
+    // column instead of re-sorting it, so a single-artwork write costs a copy of the array.
+    private long[] merge(long[] keys, BitSet changed, SortBy column) {
+        BitSet lacking = column == SortBy.PRICE ? unpriced : undated;
+        long[] fresh = changed.stream()
+                .filter(ordinal -> statuses[ordinal] != FREE && !lacking.get(ordinal))
+                .mapToLong(ordinal -> key(column, ordinal))
+                .sorted()
+                .toArray();
+
+        long[] merged = new long[keys.length + fresh.length];
+        int size = 0;
+        int next = 0;
+        for (long key : keys) {
+            if (changed.get((int) (key & ORDINAL_MASK))) {
+                continue;
+            }
+            while (next < fresh.length && fresh[next] < key) {
+                merged[size++] = fresh[next++];
+            }
+            merged[size++] = key;
+        }
+        while (next < fresh.length) {
+            merged[size++] = fresh[next++];
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private int[] sorted(int[] ordinals, SortBy column) {
+        long[] packed = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            packed[i] = key(column, ordinals[i]);
+        }
+        Arrays.sort(packed);
+        int[] result = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            result[i] = (int) (packed[i] & ORDINAL_MASK);
+        }
+        return result;
+    }
+
+    private long key(SortBy column, int ordinal) {
+        long value = column == SortBy.PRICE ? priceCents[ordinal] : years[ordinal];
+        return value << ORDINAL_BITS | ordinal;
+    }
+
+    private long[] keys(SortBy column) {
+        return column == SortBy.PRICE ? byPrice : byYear;
+    }
+
+    // [from, to) of the keys whose value lies within [min, max]
+    private static int[] slice(long[] keys, long min, long max) {
+        long lowest = Long.MIN_VALUE >> ORDINAL_BITS;
+        long highest = Long.MAX_VALUE >> ORDINAL_BITS;
+        long fromKey = Math.max(min, lowest) << ORDINAL_BITS;
+        long toKey = Math.min(max, highest) << ORDINAL_BITS | ORDINAL_MASK;
+        if (fromKey > toKey) {
+            return new int[]{0, 0};
+        }
+        return new int[]{firstIndex(keys, fromKey, false), firstIndex(keys, toKey, true)};
+    }
+
+    // Binary search for the first key >= key, or > key when strictlyAbove
+    private static int firstIndex(long[] keys, long key, boolean strictlyAbove) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key || (strictlyAbove && keys[mid] == key)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int width(int[] slice) {
+        return slice[1] - slice[0];
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private void addIds(List<UUID> ids, int[] ordinals) {
+        for (int ordinal : ordinals) {
+            ids.add(new UUID(idHigh[ordinal], idLow[ordinal]));
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= statuses.length) {
+            return;
+        }
+        int capacity = Math.max(size, statuses.length * 2);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        years = Arrays.copyOf(years, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    // Open-addressing UUID -> ordinal map that stores only ordinals and compares against the ID columns,
+    // so it costs a few bytes per artwork where a HashMap<UUID, Integer> would cost around 80.
+    private final class OrdinalTable {
+
+        private int[] slots = new int[2048]; // ordinal + 1; 0 marks an empty slot
+        private int size = 0;
+
+        void clear(int expectedSize) {
+            slots = new int[Math.max(2048, Integer.highestOneBit(Math.max(1, expectedSize)) << 2)];
+            size = 0;
+        }
+
+        int get(long high, long low) {
+            int mask = slots.length - 1;
+            for (int slot = home(high, low, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+                int ordinal = slots[slot] - 1;
+                if (idHigh[ordinal] == high && idLow[ordinal] == low) {
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+
+        // The ID columns must already hold the ordinal's ID
+        void put(long high, long low, int ordinal) {
+            if ((size + 1) * 2 > slots.length) {
+                resize();
+            }
+            int mask = slots.length - 1;
+            int slot = home(high, low, mask);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = ordinal + 1;
+            size++;
+        }
+
+        int remove(long high, long low) {
+            int mask = slots.length - 1;
+            for (int slot = home(high, low, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+                int ordinal = slots[slot] - 1;
+                if (idHigh[ordinal] == high && idLow[ordinal] == low) {
+                    closeGap(slot, mask);
+                    size--;
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+
+        // Backward-shift deletion: moves later entries of the probe run into the gap, so lookups never need tombstones
+        private void closeGap(int gap, int mask) {
+            slots[gap] = 0;
+            for (int slot = (gap + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                int ordinal = slots[slot] - 1;
+                int home = home(idHigh[ordinal], idLow[ordinal], mask);
+                boolean homeInGapToSlot = gap <= slot ? (home > gap && home <= slot) : (home > gap || home <= slot);
+                if (!homeInGapToSlot) {
+                    slots[gap] = slots[slot];
+                    slots[slot] = 0;
+                    gap = slot;
+                }
+            }
+        }
+
+        private void resize() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            int mask = slots.length - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    int ordinal = entry - 1;
+                    int slot = home(idHigh[ordinal], idLow[ordinal], mask);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = entry;
+                }
+            }
+        }
+
+        private static int home(long high, long low, int mask) {
+            long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+}
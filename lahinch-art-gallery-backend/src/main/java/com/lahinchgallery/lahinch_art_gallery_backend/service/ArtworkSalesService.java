@@ -1,6 +1,7 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
 import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleDto; // We'll define this DTO
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleSummary;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkSale;
 import com.stripe.exception.StripeException;
 import org.springframework.data.domain.Page;
@@ -18,4 +19,5 @@ public interface ArtworkSalesService {
     List<ArtworkSale> getSalesByArtwork(UUID artworkId);
     List<ArtworkSale> getSalesByBuyer(UUID userId); // Assuming userId refers to Profile.userId
     Page<ArtworkSale> getRecentSales(Pageable pageable); // Use Pageable for limit and sorting
+    Page<ArtworkSaleSummary> getRecentSaleSummaries(Pageable pageable); // Read-only rows for the sales list
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
 import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleDto;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSaleSummary;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkSale;
@@ -33,21 +34,24 @@ public class ArtworkSalesServiceImpl implements ArtworkSalesService {
     private final ArtworkRepository artworkRepository;
     private final ProfileRepository profileRepository;
     private final ArtworkService artworkService; // To update artwork availability
-
+    private final StripePayments stripePayments;
 
     @Autowired
     public ArtworkSalesServiceImpl(ArtworkSaleRepository artworkSaleRepository,
                                    ArtworkRepository artworkRepository,
                                    ProfileRepository profileRepository,
-                                   ArtworkService artworkService) {
+                                   ArtworkService artworkService,
+                                   StripePayments stripePayments) {
         this.artworkSaleRepository = artworkSaleRepository;
         this.artworkRepository = artworkRepository;
         this.profileRepository = profileRepository;
         this.artworkService = artworkService;
+        this.stripePayments = stripePayments;
     }
 
+    // Not transactional: a database connection held open for the whole Stripe call would let a slow Stripe
+    // use up the connection pool
     @Override
-    @Transactional(readOnly = true) // Read-only as it doesn't change our DB state before Stripe call
     public String createPaymentIntentForArtwork(UUID artworkId, Optional<UUID> userIdOpt) throws StripeException {
         Artwork artwork = artworkRepository.findById(artworkId)
                 .orElseThrow(() -> new EntityNotFoundException("Artwork not found with ID: " + artworkId));
@@ -71,7 +75,7 @@ public class ArtworkSalesServiceImpl implements ArtworkSalesService {
 
         userIdOpt.ifPresent(userId -> paramsBuilder.putMetadata("user_id", userId.toString()));
 
-        PaymentIntent paymentIntent = PaymentIntent.create(paramsBuilder.build());
+        PaymentIntent paymentIntent = stripePayments.createPaymentIntent(paramsBuilder.build());
         return paymentIntent.getClientSecret();
     }
 
@@ -126,15 +130,24 @@ public class ArtworkSalesServiceImpl implements ArtworkSalesService {
 
     @Override
     public List<ArtworkSale> getSalesByBuyer(UUID userId) {
-        return artworkSaleRepository.findByBuyerUserProfileUserId(userId);
+        return artworkSaleRepository.findByBuyerUserUserId(userId);
     }
 
     @Override
     public Page<ArtworkSale> getRecentSales(Pageable pageable) {
-        // Ensure sorting by saleDate descending if not specified
+        return artworkSaleRepository.findAll(recentFirst(pageable));
+    }
+
+    @Override
+    public Page<ArtworkSaleSummary> getRecentSaleSummaries(Pageable pageable) {
+        return artworkSaleRepository.findSummaries(recentFirst(pageable));
+    }
+
+    // Ensure sorting by saleDate descending if not specified
+    private static Pageable recentFirst(Pageable pageable) {
         if (pageable.getSort().isUnsorted()) {
-            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("saleDate").descending());
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("saleDate").descending());
         }
-        return artworkSaleRepository.findAll(pageable);
+        return pageable;
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Tokenized inverted index over artwork title, description, medium and artist name.
+// Replaces the lower(...) LIKE '%term%' scans for catalog search: every query token is matched
+// against the term dictionary (exactly or as a prefix, for type-ahead) and documents are ranked
+// by field-weighted term frequency times inverse document frequency.
+@Component
+public class ArtworkSearchIndex implements ArtworkIndex {
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float ARTIST_NAME_WEIGHT = 2.5f;
+    private static final float MEDIUM_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // A prefix hit ("mon" -> "monet") counts for less than an exact token match
+    private static final float PREFIX_MATCH_FACTOR = 0.6f;
+    // Keeps one-letter queries from fanning out over the whole dictionary
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (artwork ID -> weighted term frequency)
+    private final NavigableMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    private final Map<UUID, IndexedArtwork> documents = new HashMap<>();
+    private volatile boolean ready = false;
+
+    private record IndexedArtwork(UUID artistId, Map<String, Float> termWeights) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void rebuild(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            rows.forEach(this::index);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            for (ArtworkIndexRow row : rows) {
+                unindex(row.id());
+                index(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> artworkIds) {
+        lock.writeLock().lock();
+        try {
+            artworkIds.forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the IDs of all artworks matching every token of the query, best match first.
+    // If artistId is given, only that artist's artworks are returned.
+    public List<UUID> search(String query, UUID artistId) {
+        List<String> queryTokens = SearchTokenizer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Float> scores = null;
+            for (String token : queryTokens) {
+                Map<UUID, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: a document must match every query token
+                    Map<UUID, Float> intersection = new HashMap<>();
+                    for (Map.Entry<UUID, Float> entry : scores.entrySet()) {
+                        Float tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<UUID, Float>> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<UUID, Float> entry : scores.entrySet()) {
+                if (artistId == null || artistId.equals(documents.get(entry.getKey()).artistId())) {
+                    ranked.add(entry);
+                }
+            }
+            ranked.sort(Map.Entry.<UUID, Float>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            return ranked.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best score per document for a single query token, over the exact term and its prefix expansions
+    private Map<UUID, Float> scoreToken(String token) {
+        Map<UUID, Float> tokenScores = new HashMap<>();
+        int expansions = 0;
+        for (Map.Entry<String, Map<UUID, Float>> term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            boolean exact = term.getKey().equals(token);
+            if (!exact && ++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<UUID, Float> posting = term.getValue();
+            float idf = (float) Math.log(1.0 + (double) documents.size() / posting.size());
+            float factor = exact ? idf : idf * PREFIX_MATCH_FACTOR;
+            for (Map.Entry<UUID, Float> hit : posting.entrySet()) {
+                tokenScores.merge(hit.getKey(), hit.getValue() * factor, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private void index(ArtworkIndexRow row) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addField(termWeights, row.title(), TITLE_WEIGHT);
+        addField(termWeights, row.artistName(), ARTIST_NAME_WEIGHT);
+        addField(termWeights, row.medium(), MEDIUM_WEIGHT);
+        addField(termWeights, row.description(), DESCRIPTION_WEIGHT);
+
+        documents.put(row.id(), new IndexedArtwork(row.artistId(), termWeights));
+        termWeights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(row.id(), weight));
+    }
+
+    private void unindex(UUID artworkId) {
+        IndexedArtwork existing = documents.remove(artworkId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.termWeights().keySet()) {
+            Map<UUID, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(artworkId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            termWeights.merge(token, weight, Float::sum);
+        }
+    }
+}
@@ -1,26 +1,58 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCatalogPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSelection;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.SearchSuggestion;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ArtworkService {
     // For "getAllArtworks(pagination, filters, searchParams)"
-    // We'll start with basic pagination and add an example for filtering by artistId
-    // True dynamic filtering using JpaSpecificationExecutor can be implemented later.
+    // Supported filters: artistId, medium (comma separated), minPrice/maxPrice, minYear/maxYear and
+    // availabilityStatus (comma separated); see ArtworkFilter.
     Page<Artwork> getAllArtworks(Pageable pageable, Map<String, String> filters, String searchTerm);
+    // Same page as getAllArtworks plus per-facet counts for the shop's filter chips
+    ArtworkCatalogPage getArtworkCatalog(Pageable pageable, Map<String, String> filters, String searchTerm);
+    // Type-ahead for the search box: matching artists, artwork titles and mediums, best first (typos tolerated)
+    List<SearchSuggestion> getSearchSuggestions(String prefix, int limit);
 
-    Optional<Artwork> getArtworkById(UUID artworkId);
+    Optional<ArtworkDetail> getArtworkById(UUID artworkId); // Cached, hence a read-only copy
     Page<Artwork> getArtworksByArtist(UUID artistId, Pageable pageable);
+
+    // Read-only card projections of the two listings above, for grids that don't need full entities
+    Page<ArtworkCard> getArtworkCards(Pageable pageable, Map<String, String> filters, String searchTerm);
+    Page<ArtworkCard> getArtworkCardsByArtist(UUID artistId, Pageable pageable);
+
     Artwork createArtwork(Artwork artwork, MultipartFile artworkImageFile) throws IOException;
     Artwork updateArtwork(UUID artworkId, Artwork artworkDetails, MultipartFile artworkImageFile) throws IOException;
     void deleteArtwork(UUID artworkId) throws IOException;
     Artwork updateArtworkAvailability(UUID artworkId, ArtworkAvailabilityStatus status);
+
+    // Set-based bulk edits for the admin screens (e.g. closing an exhibition, repricing a collection):
+    // one transaction, one UPDATE statement per 1000 artworks and a single change event for all of them.
+    // Sold artworks are never changed. Each returns the number of artworks that actually changed.
+    int bulkUpdateAvailability(ArtworkSelection selection, ArtworkAvailabilityStatus status);
+    int bulkSetPrice(ArtworkSelection selection, BigDecimal price);
+    // percentChange is relative to each artwork's current price, e.g. 10 for +10% or -15 for 15% off
+    int bulkAdjustPrice(ArtworkSelection selection, BigDecimal percentChange);
+
+    // Keyset ("load more") variants for the gallery: pass the nextCursor of the previous window, or null
+    // for the first one. Sort defaults to newest first; the ID is always used as the final tiebreaker.
+    // The offset-based methods above stay for admin screens that need page numbers and totals.
+    CursorPage<Artwork> scrollArtworks(Map<String, String> filters, String searchTerm, Sort sort, int limit, String cursor);
+    CursorPage<Artwork> scrollArtworksByArtist(UUID artistId, Sort sort, int limit, String cursor);
 }
\ No newline at end of file
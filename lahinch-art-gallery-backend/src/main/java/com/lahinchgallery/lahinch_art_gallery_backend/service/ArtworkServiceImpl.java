@@ -1,86 +1,267 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.config.CacheConfig;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCatalogPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFacets;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSelection;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.SearchSuggestion;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StagedUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkSpecifications;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
 @Service
 public class ArtworkServiceImpl implements ArtworkService {
 
     private final ArtworkRepository artworkRepository;
     private final ArtistRepository artistRepository; // To validate artist existence
+    private final StorageCleanupService storageCleanupService;
+    private final UploadJobService uploadJobService;
+    private final ArtworkSearchIndex artworkSearchIndex;
+    private final ArtworkFacetIndex artworkFacetIndex;
+    private final ArtworkRangeIndex artworkRangeIndex;
+    private final SearchSuggestionIndex searchSuggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final StorageService storageService;
-    private final String supabaseUrl;
-
+    private final CursorCodec cursorCodec;
+    private final TransactionTemplate transactionTemplate;
 
     private static final String ARTWORK_IMAGES_BUCKET = "artwork-images";
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final Sort DEFAULT_SCROLL_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
 
     @Autowired
     public ArtworkServiceImpl(ArtworkRepository artworkRepository,
                               ArtistRepository artistRepository,
+                              StorageCleanupService storageCleanupService,
+                              UploadJobService uploadJobService,
+                              ArtworkSearchIndex artworkSearchIndex,
+                              ArtworkFacetIndex artworkFacetIndex,
+                              ArtworkRangeIndex artworkRangeIndex,
+                              SearchSuggestionIndex searchSuggestionIndex,
+                              ApplicationEventPublisher eventPublisher,
                               StorageService storageService,
-                              @Qualifier("supabaseUrl") String supabaseUrl) {
+                              CursorCodec cursorCodec,
+                              TransactionTemplate transactionTemplate) {
         this.artworkRepository = artworkRepository;
         this.artistRepository = artistRepository;
+        this.storageCleanupService = storageCleanupService;
+        this.uploadJobService = uploadJobService;
+        this.artworkSearchIndex = artworkSearchIndex;
+        this.artworkFacetIndex = artworkFacetIndex;
+        this.artworkRangeIndex = artworkRangeIndex;
+        this.searchSuggestionIndex = searchSuggestionIndex;
+        this.eventPublisher = eventPublisher;
         this.storageService = storageService;
-        this.supabaseUrl = supabaseUrl;
+        this.cursorCodec = cursorCodec;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
     public Page<Artwork> getAllArtworks(Pageable pageable, Map<String, String> filters, String searchTerm) {
-        // Basic implementation: JpaSpecificationExecutor would be used here for dynamic filters
-        // For now, we just return all artworks paginated or filter by artistId if provided in filters
-        // A more complex implementation would build a Specification based on filters and searchTerm.
-
-        Specification<Artwork> spec = Specification.where(null); // Start with a non-restrictive specification
-
-        if (filters != null && filters.containsKey("artistId")) {
-            try {
-                UUID artistId = UUID.fromString(filters.get("artistId"));
-                spec = spec.and((root, query, criteriaBuilder) ->
-                        criteriaBuilder.equal(root.get("artist").get("id"), artistId)
-                );
-            } catch (IllegalArgumentException e) {
-                // Handle invalid UUID format if necessary, or log
+        ArtworkFilter filter = ArtworkFilter.fromParams(filters);
+        return artworkPage(pageable, filter, searchTerm, searchMatches(filter, searchTerm));
+    }
+
+    private Page<Artwork> artworkPage(Pageable pageable, ArtworkFilter filter, String searchTerm, List<UUID> searchMatches) {
+        if (searchMatches != null) {
+            List<UUID> rankedIds = artworkFacetIndex.filter(searchMatches, filter);
+            return searchIndexedPage(rankedIds, pageable, artworkRepository::findAllByIdIn, Artwork::getId);
+        }
+        List<UUID> rangeIds = rangeIndexedIds(filter, searchTerm, pageable.getSort());
+        if (rangeIds != null) {
+            return idOrderedPage(rangeIds, pageable, artworkRepository::findAllByIdIn, Artwork::getId);
+        }
+        return artworkRepository.findAll(catalogSpecification(filter, searchTerm), pageable);
+    }
+
+    @Override
+    public Page<ArtworkCard> getArtworkCards(Pageable pageable, Map<String, String> filters, String searchTerm) {
+        ArtworkFilter filter = ArtworkFilter.fromParams(filters);
+        List<UUID> rankedIds = indexedSearch(filter, searchTerm);
+        if (rankedIds != null) {
+            return searchIndexedPage(rankedIds, pageable, artworkRepository::findCardsByIdIn, ArtworkCard::id);
+        }
+        List<UUID> rangeIds = rangeIndexedIds(filter, searchTerm, pageable.getSort());
+        if (rangeIds != null) {
+            return idOrderedPage(rangeIds, pageable, artworkRepository::findCardsByIdIn, ArtworkCard::id);
+        }
+        return artworkRepository.findCards(catalogSpecification(filter, searchTerm), pageable);
+    }
+
+    @Override
+    public ArtworkCatalogPage getArtworkCatalog(Pageable pageable, Map<String, String> filters, String searchTerm) {
+        ArtworkFilter filter = ArtworkFilter.fromParams(filters);
+        // One search serves both the page and the facet counts
+        List<UUID> searchMatches = searchMatches(filter, searchTerm);
+        Page<Artwork> artworks = artworkPage(pageable, filter, searchTerm, searchMatches);
+        if (!artworkFacetIndex.isReady() || (StringUtils.hasText(searchTerm) && searchMatches == null)) {
+            return new ArtworkCatalogPage(artworks, ArtworkFacets.empty());
+        }
+        return new ArtworkCatalogPage(artworks, artworkFacetIndex.facets(filter, searchMatches));
+    }
+
+    @Override
+    public List<SearchSuggestion> getSearchSuggestions(String prefix, int limit) {
+        if (!searchSuggestionIndex.isReady()) {
+            return List.of(); // only until startup indexing finishes; type-ahead can do without
+        }
+        return searchSuggestionIndex.suggest(prefix, Math.min(requirePositive(limit), MAX_SUGGESTIONS));
+    }
+
+    // Searches are answered from the in-memory inverted index (narrowed by the facet index);
+    // returns null when there is no search term or the indexes are still being built at startup,
+    // in which case the LIKE scan in catalogSpecification is used instead.
+    private List<UUID> indexedSearch(ArtworkFilter filter, String searchTerm) {
+        List<UUID> searchMatches = searchMatches(filter, searchTerm);
+        return searchMatches == null ? null : artworkFacetIndex.filter(searchMatches, filter);
+    }
+
+    // The ranked hits of the search alone, before the other filters; null under the same conditions as indexedSearch
+    private List<UUID> searchMatches(ArtworkFilter filter, String searchTerm) {
+        if (!StringUtils.hasText(searchTerm) || !artworkSearchIndex.isReady() || !artworkFacetIndex.isReady()) {
+            return null;
+        }
+        return artworkSearchIndex.search(searchTerm, filter.artistId());
+    }
+
+    // Price/year range filters and price/year sorts are answered by the columnar range index, narrowed by
+    // the facet index for artist and medium. Returns null when that doesn't apply: with a search term (handled
+    // by indexedSearch), any other sort, nothing to range or sort on, or while the indexes are being built.
+    private List<UUID> rangeIndexedIds(ArtworkFilter filter, String searchTerm, Sort sort) {
+        if (StringUtils.hasText(searchTerm) || !artworkRangeIndex.isReady() || !artworkFacetIndex.isReady()) {
+            return null;
+        }
+        ArtworkRangeIndex.SortBy sortBy = null;
+        boolean descending = false;
+        if (sort.isSorted()) {
+            List<Sort.Order> orders = sort.toList();
+            if (orders.size() != 1 || orders.get(0).getNullHandling() != Sort.NullHandling.NATIVE) {
+                return null;
             }
+            sortBy = switch (orders.get(0).getProperty()) {
+                case "price" -> ArtworkRangeIndex.SortBy.PRICE;
+                case "yearCreated" -> ArtworkRangeIndex.SortBy.YEAR;
+                default -> null;
+            };
+            if (sortBy == null) {
+                return null;
+            }
+            descending = orders.get(0).isDescending();
+        } else if (!filter.hasPriceRange() && !filter.hasYearRange()) {
+            return null;
+        }
+
+        List<UUID> ids = artworkRangeIndex.select(filter, sortBy, descending);
+        if (filter.artistId() != null || !filter.mediums().isEmpty()) {
+            ids = artworkFacetIndex.filter(ids, filter.artistAndMediumsOnly());
         }
+        return ids;
+    }
 
+    private Specification<Artwork> catalogSpecification(ArtworkFilter filter, String searchTerm) {
+        Specification<Artwork> spec = ArtworkSpecifications.matching(filter);
         if (StringUtils.hasText(searchTerm)) {
-            String likePattern = "%" + searchTerm.toLowerCase() + "%";
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.or(
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), likePattern),
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), likePattern),
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("medium")), likePattern),
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("artist").get("name")), likePattern)
-                    )
-            );
+            spec = spec.and(ArtworkSpecifications.containsText(searchTerm));
         }
+        return spec;
+    }
 
-        return artworkRepository.findAll(spec, pageable);
+    // Pages through relevance-ranked search hits. Only the requested slice is loaded, and put back in rank order.
+    private <T> Page<T> searchIndexedPage(List<UUID> rankedIds, Pageable pageable,
+                                          Function<List<UUID>, List<T>> batchLoader,
+                                          Function<T, UUID> idOf) {
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        List<UUID> orderedIds = pageable.getSort().isSorted() ? sortedIds(rankedIds, pageable.getSort()) : rankedIds;
+        return idOrderedPage(orderedIds, pageable, batchLoader, idOf);
+    }
+
+    // An explicit sort overrides relevance ranking. Only the sort columns of the matches are read, in bounded
+    // IN lists, and they are ordered here, so a broad search term never binds every match in one statement
+    // nor loads more than a page of full rows.
+    private List<UUID> sortedIds(List<UUID> ids, Sort sort) {
+        List<Object[]> rows = new ArrayList<>(IdBatches.query(ids, batch -> artworkRepository.findSortKeys(batch, sort)));
+        rows.sort(SortKeys.comparator(sort));
+        return rows.stream().map(SortKeys::id).toList();
+    }
+
+    // Loads only the requested slice of an already ordered ID list and keeps that order
+    private <T> Page<T> idOrderedPage(List<UUID> orderedIds, Pageable pageable,
+                                      Function<List<UUID>, List<T>> batchLoader,
+                                      Function<T, UUID> idOf) {
+        if (orderedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        List<UUID> pageIds = orderedIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+            int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+            pageIds = orderedIds.subList(from, to);
+        }
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, orderedIds.size());
+        }
+
+        Map<UUID, T> rowsById = IdBatches.query(pageIds, batchLoader).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = pageIds.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, orderedIds.size());
     }
 
     @Override
-    public Optional<Artwork> getArtworkById(UUID artworkId) {
-        return artworkRepository.findById(artworkId);
+    @Cacheable(cacheNames = CacheConfig.ARTWORKS_CACHE, key = "#artworkId", unless = "#result == null")
+    public Optional<ArtworkDetail> getArtworkById(UUID artworkId) {
+        return artworkRepository.findWithArtistById(artworkId).map(ArtworkDetail::from);
     }
 
     @Override
@@ -92,8 +273,26 @@ public class ArtworkServiceImpl implements ArtworkService {
     }
 
     @Override
-    @Transactional
+    public Page<ArtworkCard> getArtworkCardsByArtist(UUID artistId, Pageable pageable) {
+        if (!artistRepository.existsById(artistId)) {
+            throw new EntityNotFoundException("Artist not found with ID: " + artistId);
+        }
+        return artworkRepository.findCardsByArtistId(artistId, pageable);
+    }
+
+    @Override
     public Artwork createArtwork(Artwork artwork, MultipartFile artworkImageFile) throws IOException {
+        // Staged before the transaction opens, so copying and hashing the file doesn't hold a connection
+        StagedUpload image = uploadJobService.stage(artworkImageFile);
+        try {
+            return transactionTemplate.execute(status -> insertArtwork(artwork, image));
+        } catch (RuntimeException e) {
+            uploadJobService.discard(image);
+            throw e;
+        }
+    }
+
+    private Artwork insertArtwork(Artwork artwork, StagedUpload image) {
         // Validate Artist
         if (artwork.getArtist() == null || artwork.getArtist().getId() == null) {
             throw new IllegalArgumentException("Artist ID must be provided for an artwork.");
@@ -102,9 +301,8 @@ public class ArtworkServiceImpl implements ArtworkService {
                 .orElseThrow(() -> new EntityNotFoundException("Artist not found with ID: " + artwork.getArtist().getId()));
         artwork.setArtist(artist); // Ensure the managed artist entity is set
 
-        if (artwork.getId() == null) {
-            artwork.setId(UUID.randomUUID());
-        }
+        // The ID is generated on insert. A preset one makes save() merge instead, which fails for a row that doesn't exist yet.
+        artwork.setId(null);
         artwork.setCreatedAt(OffsetDateTime.now());
         artwork.setUpdatedAt(OffsetDateTime.now());
 
@@ -115,22 +313,27 @@ public class ArtworkServiceImpl implements ArtworkService {
 
         Artwork savedArtwork = artworkRepository.save(artwork); // Save first
 
-        if (artworkImageFile != null && !artworkImageFile.isEmpty()) {
-            String fileName = "artwork_" + savedArtwork.getId() + "_" + artworkImageFile.getOriginalFilename();
-            String filePath = savedArtwork.getId() + "/" + fileName; // Store in a folder per artwork
-
-            storageService.uploadFile(ARTWORK_IMAGES_BUCKET, filePath, artworkImageFile);
-            String fileUrl = storageService.getPublicFileUrl(ARTWORK_IMAGES_BUCKET, filePath);
-            savedArtwork.setArtworkImageUrl(fileUrl);
-            savedArtwork.setUpdatedAt(OffsetDateTime.now());
-            return artworkRepository.save(savedArtwork);
+        if (image != null) {
+            // Uploaded after commit; UploadJobWorker fills in artworkImageUrl and the job's status can be polled via UploadJobService
+            uploadJobService.enqueue(UploadTarget.ARTWORK_IMAGE, savedArtwork.getId(), ARTWORK_IMAGES_BUCKET, image);
         }
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(savedArtwork.getId(), EntityChangeType.CREATED));
         return savedArtwork;
     }
 
     @Override
-    @Transactional
     public Artwork updateArtwork(UUID artworkId, Artwork artworkDetails, MultipartFile artworkImageFile) throws IOException {
+        // Staged before the transaction opens, so copying and hashing the file doesn't hold a connection
+        StagedUpload image = uploadJobService.stage(artworkImageFile);
+        try {
+            return transactionTemplate.execute(status -> saveArtwork(artworkId, artworkDetails, image));
+        } catch (RuntimeException e) {
+            uploadJobService.discard(image);
+            throw e;
+        }
+    }
+
+    private Artwork saveArtwork(UUID artworkId, Artwork artworkDetails, StagedUpload image) {
         Artwork existingArtwork = artworkRepository.findById(artworkId)
                 .orElseThrow(() -> new EntityNotFoundException("Artwork not found with ID: " + artworkId));
 
@@ -157,26 +360,14 @@ public class ArtworkServiceImpl implements ArtworkService {
         }
         existingArtwork.setUpdatedAt(OffsetDateTime.now());
 
-        if (artworkImageFile != null && !artworkImageFile.isEmpty()) {
-            if (existingArtwork.getArtworkImageUrl() != null && !existingArtwork.getArtworkImageUrl().isEmpty()) {
-                try {
-                    String existingFilePath = extractFilePathFromUrl(existingArtwork.getArtworkImageUrl(), ARTWORK_IMAGES_BUCKET);
-                    if (existingFilePath != null) {
-                        storageService.deleteFile(ARTWORK_IMAGES_BUCKET, existingFilePath);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Could not delete old artwork image: " + e.getMessage());
-                }
-            }
-            String fileName = "artwork_" + existingArtwork.getId() + "_" + artworkImageFile.getOriginalFilename();
-            String filePath = existingArtwork.getId() + "/" + fileName;
-
-            storageService.uploadFile(ARTWORK_IMAGES_BUCKET, filePath, artworkImageFile);
-            String fileUrl = storageService.getPublicFileUrl(ARTWORK_IMAGES_BUCKET, filePath);
-            existingArtwork.setArtworkImageUrl(fileUrl);
+        // The current image stays until the new one is in storage; UploadJobWorker then swaps the URL and deletes the old file
+        if (image != null) {
+            uploadJobService.enqueue(UploadTarget.ARTWORK_IMAGE, existingArtwork.getId(), ARTWORK_IMAGES_BUCKET, image);
         }
 
-        return artworkRepository.save(existingArtwork);
+        Artwork savedArtwork = artworkRepository.save(existingArtwork);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(artworkId, EntityChangeType.UPDATED));
+        return savedArtwork;
     }
 
     @Override
@@ -185,18 +376,12 @@ public class ArtworkServiceImpl implements ArtworkService {
         Artwork artwork = artworkRepository.findById(artworkId)
                 .orElseThrow(() -> new EntityNotFoundException("Artwork not found with ID: " + artworkId));
 
-        if (artwork.getArtworkImageUrl() != null && !artwork.getArtworkImageUrl().isEmpty()) {
-            try {
-                String filePath = extractFilePathFromUrl(artwork.getArtworkImageUrl(), ARTWORK_IMAGES_BUCKET);
-                if (filePath != null) {
-                    storageService.deleteFile(ARTWORK_IMAGES_BUCKET, filePath);
-                }
-            } catch (Exception e) {
-                System.err.println("Could not delete artwork image during artwork deletion: " + e.getMessage());
-            }
-        }
+        // The image and its resized copies are deleted from storage in the background once this commits
+        scheduleDeletions(ARTWORK_IMAGES_BUCKET, artwork.getArtworkImageUrl(), artwork.getArtworkThumbnailUrl(),
+                artwork.getArtworkCardUrl(), artwork.getArtworkDetailUrl());
         // Consider handling related entities like PremiumMedia or Favorites if cascading isn't set up in JPA
         artworkRepository.delete(artwork);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(artworkId, EntityChangeType.DELETED));
     }
 
     @Override
@@ -206,11 +391,205 @@ public class ArtworkServiceImpl implements ArtworkService {
                 .orElseThrow(() -> new EntityNotFoundException("Artwork not found with ID: " + artworkId));
         artwork.setAvailabilityStatus(status);
         artwork.setUpdatedAt(OffsetDateTime.now());
-        return artworkRepository.save(artwork);
+        Artwork savedArtwork = artworkRepository.save(artwork);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(artworkId, EntityChangeType.UPDATED));
+        return savedArtwork;
+    }
+
+    @Override
+    @Transactional
+    public int bulkUpdateAvailability(ArtworkSelection selection, ArtworkAvailabilityStatus status) {
+        if (status == null || status == ArtworkAvailabilityStatus.SOLD) {
+            throw new IllegalArgumentException("Bulk updates cannot mark artworks as sold; record a sale instead.");
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> ids = selectForBulkUpdate(selection, ArtworkSpecifications.statusIsNot(status));
+        return bulkUpdate(ids, chunk -> artworkRepository.updateAvailability(chunk, status, now));
+    }
+
+    @Override
+    @Transactional
+    public int bulkSetPrice(ArtworkSelection selection, BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            throw new IllegalArgumentException("Price must be zero or more.");
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> ids = selectForBulkUpdate(selection, ArtworkSpecifications.priceIsNot(price));
+        return bulkUpdate(ids, chunk -> artworkRepository.updatePrice(chunk, price, now));
+    }
+
+    @Override
+    @Transactional
+    public int bulkAdjustPrice(ArtworkSelection selection, BigDecimal percentChange) {
+        if (percentChange == null || percentChange.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            throw new IllegalArgumentException("Price change must be more than -100%.");
+        }
+        if (percentChange.signum() == 0) {
+            return 0;
+        }
+        BigDecimal factor = BigDecimal.ONE.add(percentChange.movePointLeft(2));
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> ids = selectForBulkUpdate(selection, ArtworkSpecifications.hasPrice());
+        return bulkUpdate(ids, chunk -> artworkRepository.scalePrice(chunk, factor, now));
+    }
+
+    // IDs of the selected, unsold artworks the edit would change. Selecting them up front gives the
+    // change event (and so the cache and index invalidation) the exact set of rows being updated.
+    // Explicit and index-matched ID lists are checked in IdBatches, like every other ID lookup.
+    private List<UUID> selectForBulkUpdate(ArtworkSelection selection, Specification<Artwork> changes) {
+        Specification<Artwork> editable = ArtworkSpecifications.statusIsNot(ArtworkAvailabilityStatus.SOLD).and(changes);
+        if (selection.byIds()) {
+            return IdBatches.query(selection.artworkIds(), batch ->
+                    artworkRepository.findIds(ArtworkSpecifications.idIn(batch).and(editable)));
+        }
+        ArtworkFilter filter = ArtworkFilter.fromParams(selection.filters());
+        List<UUID> matchingIds = indexedSearch(filter, selection.searchTerm());
+        if (matchingIds == null) {
+            return artworkRepository.findIds(catalogSpecification(filter, selection.searchTerm()).and(editable));
+        }
+        return IdBatches.query(matchingIds, batch -> artworkRepository.findIds(
+                ArtworkSpecifications.matching(filter).and(ArtworkSpecifications.idIn(batch)).and(editable)));
+    }
+
+    // Chunking keeps each statement's IN list well under the drivers' bind parameter limits;
+    // the chunks share the caller's transaction and one event covers every changed artwork.
+    private int bulkUpdate(List<UUID> ids, ToIntFunction<List<UUID>> update) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = IdBatches.update(ids, update);
+        eventPublisher.publishEvent(new ArtworkChangedEvent(Set.copyOf(ids), EntityChangeType.UPDATED));
+        return updated;
+    }
+
+    @Override
+    public CursorPage<Artwork> scrollArtworks(Map<String, String> filters, String searchTerm, Sort sort, int limit, String cursor) {
+        ArtworkFilter filter = ArtworkFilter.fromParams(filters);
+        Sort sortToUse = scrollSort(sort);
+        KeysetScrollPosition position = cursorCodec.decode(cursor, CursorCodec.keysFor(sortToUse));
+        requirePositive(limit);
+
+        List<UUID> matchingIds = indexedSearch(filter, searchTerm);
+        if (matchingIds != null) {
+            return cursorCodec.toPage(searchIndexedWindow(matchingIds, sortToUse, position, limit));
+        }
+        return cursorCodec.toPage(keysetWindow(catalogSpecification(filter, searchTerm), sortToUse, position, limit));
+    }
+
+    // Keyset window straight from the database. Spring Data's own keyset scrolling compares the cursor's keys with
+    // "key > ?", which is never true for a null key, so a window ending on an unpriced or undated artwork would
+    // lose every row after it; ArtworkSpecifications.after orders nulls as SortKeys does instead. One row more
+    // than the limit is read to tell whether another window follows.
+    private Window<Artwork> keysetWindow(Specification<Artwork> spec, Sort sort, KeysetScrollPosition position, int limit) {
+        Sort keysetSort = keysetSort(sort);
+        Specification<Artwork> window = position.isInitial() ? spec
+                : spec.and(ArtworkSpecifications.after(keysetSort, position.getKeys()));
+        List<Artwork> rows = artworkRepository.findBy(window, query -> query.sortBy(keysetSort).limit(limit + 1).all());
+        List<Artwork> content = rows.subList(0, Math.min(limit, rows.size()));
+        return Window.from(content, index -> ScrollPosition.forward(keysetOf(content.get(index), sort)), rows.size() > limit);
+    }
+
+    // The sort with the ID appended as the tie-breaker
+    private static Sort keysetSort(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+    }
+
+    // The keyset of an artwork, keyed as CursorCodec.keysFor(sort) expects
+    private static Map<String, Object> keysetOf(Artwork artwork, Sort sort) {
+        BeanWrapper properties = new BeanWrapperImpl(artwork);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (String key : CursorCodec.keysFor(sort)) {
+            keys.put(key, properties.getPropertyValue(key));
+        }
+        return keys;
+    }
+
+    // Keyset window over search hits, in the requested sort. As for sorted search pages, the sort keys are read in
+    // IdBatches and ordered here; the window then starts after the cursor's keys, which are the same keys
+    // Spring Data would use, so a cursor stays valid whether or not the index was ready when it was issued.
+    private Window<Artwork> searchIndexedWindow(List<UUID> matchingIds, Sort sort, KeysetScrollPosition position, int limit) {
+        Comparator<Object[]> order = SortKeys.comparator(sort);
+        List<Object[]> rows = new ArrayList<>(IdBatches.query(matchingIds, batch -> artworkRepository.findSortKeys(batch, sort)));
+        rows.sort(order);
+
+        int from = 0;
+        if (!position.isInitial()) {
+            Object[] cursorRow = sortKeysOf(position.getKeys(), sort);
+            while (from < rows.size() && order.compare(rows.get(from), cursorRow) <= 0) {
+                from++;
+            }
+        }
+        List<Object[]> windowRows = rows.subList(from, Math.min(rows.size(), from + limit));
+        List<UUID> windowIds = windowRows.stream().map(SortKeys::id).toList();
+        Map<UUID, Artwork> artworksById = IdBatches.query(windowIds, artworkRepository::findAllByIdIn).stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+        List<Artwork> content = windowIds.stream().map(artworksById::get).filter(Objects::nonNull).toList();
+        return Window.from(content, index -> ScrollPosition.forward(keysetOf(windowRows.get(index), sort)),
+                from + limit < rows.size());
+    }
+
+    // The keyset of a findSortKeys row, keyed as CursorCodec.keysFor(sort) expects
+    private static Map<String, Object> keysetOf(Object[] row, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        int column = 1;
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), row[column++]);
+        }
+        keys.put("id", row[0]);
+        return keys;
+    }
+
+    // And back: a keyset as a findSortKeys row, so it can be compared with SortKeys.comparator
+    private static Object[] sortKeysOf(Map<String, Object> keys, Sort sort) {
+        List<Object> row = new ArrayList<>();
+        row.add(keys.get("id"));
+        sort.forEach(order -> row.add(keys.get(order.getProperty())));
+        return row.toArray();
+    }
+
+    @Override
+    public CursorPage<Artwork> scrollArtworksByArtist(UUID artistId, Sort sort, int limit, String cursor) {
+        if (!artistRepository.existsById(artistId)) {
+            throw new EntityNotFoundException("Artist not found with ID: " + artistId);
+        }
+        Sort sortToUse = scrollSort(sort);
+        KeysetScrollPosition position = cursorCodec.decode(cursor, CursorCodec.keysFor(sortToUse));
+        return cursorCodec.toPage(keysetWindow(ArtworkSpecifications.byArtist(artistId),
+                sortToUse, position, requirePositive(limit)));
+    }
+
+    // keysetSort appends the primary key, which keeps windows stable on ties. Nulls are left where PostgreSQL puts
+    // them (last ascending, first descending), which is where the keyset predicate expects them: JPA criteria
+    // queries can't ask for NULLS FIRST or LAST, so sorts that do are refused.
+    private static Sort scrollSort(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return DEFAULT_SCROLL_SORT;
+        }
+        for (Sort.Order order : sort) {
+            if (order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                throw new IllegalArgumentException("Scrolling can't place nulls explicitly, sorted by: " + order);
+            }
+        }
+        return sort;
+    }
+
+    private static int requirePositive(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, got: " + limit);
+        }
+        return limit;
+    }
+
+    private void scheduleDeletions(String bucketName, String... fileUrls) {
+        for (String fileUrl : fileUrls) {
+            if (fileUrl != null && !fileUrl.isEmpty()) {
+                storageCleanupService.scheduleDeletion(bucketName, extractFilePathFromUrl(fileUrl, bucketName));
+            }
+        }
     }
 
     private String extractFilePathFromUrl(String fileUrl, String bucketName) {
-        String prefix = supabaseUrl + "/storage/v1/object/public/" + bucketName + "/";
+        String prefix = storageService.getPublicFileUrl(bucketName, "");
         if (fileUrl != null && fileUrl.startsWith(prefix)) {
             return fileUrl.substring(prefix.length());
         }
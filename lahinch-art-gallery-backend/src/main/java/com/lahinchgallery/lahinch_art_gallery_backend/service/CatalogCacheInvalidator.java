@@ -0,0 +1,55 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.config.CacheConfig;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtistChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.PremiumMediaChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+// Evicts cached artworks, artists and premium media once a write has committed.
+// Evicting after commit (rather than with @CacheEvict on the write methods) keeps a concurrent
+// read from re-caching the old row between the eviction and the commit.
+@Component
+public class CatalogCacheInvalidator {
+
+    private final Cache artworksCache;
+    private final Cache artistsCache;
+    private final Cache premiumMediaCache;
+    private final ArtworkRepository artworkRepository;
+
+    @Autowired
+    public CatalogCacheInvalidator(CacheManager cacheManager, ArtworkRepository artworkRepository) {
+        this.artworksCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.ARTWORKS_CACHE));
+        this.artistsCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.ARTISTS_CACHE));
+        this.premiumMediaCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.PREMIUM_MEDIA_CACHE));
+        this.artworkRepository = artworkRepository;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        event.artworkIds().forEach(artworksCache::evict);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtistChanged(ArtistChangedEvent event) {
+        artistsCache.evict(event.artistId());
+        // Cached artworks carry their artist, so an edited artist makes those entries stale as well.
+        // Deletions need no lookup: the cascaded artworks arrive as their own ArtworkChangedEvent.
+        if (event.changeType() == EntityChangeType.UPDATED) {
+            artworkRepository.findIdsByArtistId(event.artistId()).forEach(artworksCache::evict);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPremiumMediaChanged(PremiumMediaChangedEvent event) {
+        premiumMediaCache.evict(event.mediaId());
+    }
+}
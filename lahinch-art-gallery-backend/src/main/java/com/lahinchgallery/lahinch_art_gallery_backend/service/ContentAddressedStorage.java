@@ -0,0 +1,69 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Stores files under the SHA-256 of their content, e.g. "3f/3fa4...9c.jpg". A URL then always refers to the
+// same bytes, so it can be cached for good, and identical files uploaded for different entities are stored once.
+// Because one file can back several rows, StorageDeletionWorker only deletes a path nothing references any more.
+@Component
+public class ContentAddressedStorage {
+
+    private static final Pattern CONTENT_PATH = Pattern.compile("[0-9a-f]{2}/([0-9a-f]{64})(\\.[a-z0-9]+)?");
+
+    private final StorageService storageService;
+
+    @Autowired
+    public ContentAddressedStorage(StorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    // Uploads the content unless its path is already in the bucket. Returns the path either way.
+    public String store(String bucketName, Resource content, String fileName, String contentType) throws IOException {
+        String filePath = path(sha256(content), fileName);
+        if (!storageService.exists(bucketName, filePath)) {
+            storageService.uploadImmutableFile(bucketName, filePath, content, contentType);
+        }
+        return filePath;
+    }
+
+    // Keeps the original extension, which Supabase and browsers use to guess the type
+    public static String path(String sha256, String fileName) {
+        String extension = StringUtils.getFilenameExtension(fileName);
+        return sha256.substring(0, 2) + "/" + sha256
+                + (extension == null || extension.isBlank() ? "" : "." + extension.toLowerCase(Locale.ROOT));
+    }
+
+    // The SHA-256 a path made by path() is named after; null for any other path
+    public static String contentHash(String filePath) {
+        Matcher matcher = CONTENT_PATH.matcher(filePath);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    // Reads the content once, without holding it in memory
+    public static String sha256(Resource content) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(content.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,177 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Turns Spring Data keyset positions into opaque, URL-safe continuation tokens and back.
+// Each key is stored with a type tag so the decoded values bind with the right type in the
+// keyset predicate (an OffsetDateTime must not come back as a String).
+// Tokens are HMAC-signed with a key derived from the project JWT secret, so a client can only hand back
+// a position this server produced; decoding also checks the keys are exactly the ones the listing sorts on.
+// Without supabase.jwt-secret the key is random and cursors only work on the instance that issued them.
+@Component
+public class CursorCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<List<String>>> ENCODED_KEYS = new TypeReference<>() {
+    };
+    // The only enums a cursor may carry: sortable enum columns
+    private static final Map<String, Class<? extends Enum<?>>> ENUM_TYPES = Map.of(
+            ArtworkAvailabilityStatus.class.getName(), ArtworkAvailabilityStatus.class);
+
+    private final SecretKeySpec key;
+
+    public CursorCodec(@Value("${supabase.jwt-secret:}") String jwtSecret) {
+        byte[] secret;
+        if (StringUtils.hasText(jwtSecret)) {
+            secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = Jwts.key(Jwts.hmac(Jwts.key(secret), "keyset-cursor".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // The keys of a keyset position over sort: its properties, then the ID that Spring Data appends as a tie-breaker
+    public static List<String> keysFor(Sort sort) {
+        List<String> keys = new ArrayList<>();
+        sort.forEach(order -> keys.add(order.getProperty()));
+        if (!keys.contains("id")) {
+            keys.add("id");
+        }
+        return keys;
+    }
+
+    public KeysetScrollPosition decode(String cursor, Collection<String> expectedKeys) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = cursor.split("\\.");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            byte[] json = Base64.getUrlDecoder().decode(parts[0]);
+            if (!MessageDigest.isEqual(Jwts.hmac(key, json), Base64.getUrlDecoder().decode(parts[1]))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (List<String> entry : MAPPER.readValue(json, ENCODED_KEYS)) {
+                if (entry.size() != 3) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                keys.put(entry.get(0), decodeValue(entry.get(1), entry.get(2)));
+            }
+            // A cursor from a listing with another sort would otherwise page through this one from the wrong place
+            if (keys.size() != expectedKeys.size() || !keys.keySet().equals(Set.copyOf(expectedKeys))) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded as cursors");
+        }
+        List<List<String>> entries = new ArrayList<>();
+        keyset.getKeys().forEach((key, value) -> entries.add(encodeEntry(key, value)));
+        try {
+            byte[] json = MAPPER.writeValueAsString(entries).getBytes(StandardCharsets.UTF_8);
+            return base64Url(json) + "." + base64Url(Jwts.hmac(key, json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    public <T> CursorPage<T> toPage(Window<T> window) {
+        if (window.isEmpty()) {
+            return CursorPage.empty();
+        }
+        String nextCursor = window.hasNext() ? encode(window.positionAt(window.size() - 1)) : null;
+        return new CursorPage<>(window.getContent(), nextCursor, window.hasNext());
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static List<String> encodeEntry(String key, Object value) {
+        if (value == null) {
+            return List.of(key, "null", "");
+        } else if (value instanceof UUID uuid) {
+            return List.of(key, "uuid", uuid.toString());
+        } else if (value instanceof OffsetDateTime timestamp) {
+            return List.of(key, "ts", timestamp.toString());
+        } else if (value instanceof BigDecimal decimal) {
+            return List.of(key, "dec", decimal.toPlainString());
+        } else if (value instanceof Integer number) {
+            return List.of(key, "int", number.toString());
+        } else if (value instanceof Long number) {
+            return List.of(key, "long", number.toString());
+        } else if (value instanceof Boolean flag) {
+            return List.of(key, "bool", flag.toString());
+        } else if (value instanceof Enum<?> constant && ENUM_TYPES.containsKey(constant.getDeclaringClass().getName())) {
+            return List.of(key, "enum:" + constant.getDeclaringClass().getName(), constant.name());
+        } else if (value instanceof String text) {
+            return List.of(key, "str", text);
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type for '" + key + "': " + value.getClass().getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object decodeValue(String type, String value) {
+        switch (type) {
+            case "null":
+                return null;
+            case "uuid":
+                return UUID.fromString(value);
+            case "ts":
+                return OffsetDateTime.parse(value);
+            case "dec":
+                return new BigDecimal(value);
+            case "int":
+                return Integer.valueOf(value);
+            case "long":
+                return Long.valueOf(value);
+            case "bool":
+                return Boolean.valueOf(value);
+            case "str":
+                return value;
+            default:
+                Class<? extends Enum<?>> enumType = type.startsWith("enum:") ? ENUM_TYPES.get(type.substring(5)) : null;
+                if (enumType != null) {
+                    return Enum.valueOf((Class) enumType, value);
+                }
+                throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Wraps every call to one remote dependency (Supabase Storage, Stripe), so a slow or failing dependency costs
+// its callers a bounded amount of time instead of tying up every request thread:
+// - a bulkhead: at most maxConcurrentCalls at once; a caller waits up to maxWait for a slot, then is rejected;
+// - a deadline of now + timeout, which the HTTP clients use to cap their timeouts (see SupabaseConfig and
+//   StripePayments) and which retries never run past. A guarded call made inside another one keeps the
+//   earlier deadline;
+// - retries with full-jitter exponential backoff, only for operations the caller marks idempotent and only
+//   for failures the retryable predicate calls transient (timeouts, 5xx, 429);
+// - a circuit breaker: once half of the last 20 calls (and at least 10) failed transiently, calls are rejected
+//   for openDuration, then a few trial calls decide whether it closes again. Client errors such as a 404
+//   say nothing about the dependency's health and don't count.
+// Rejections throw DependencyUnavailableException. Metrics: dependency.calls (timer, per operation and
+// outcome), dependency.rejections (per reason), dependency.bulkhead.in-use and dependency.circuit.state.
+public class DependencyGuard {
+
+    private static final int SLIDING_WINDOW = 20;
+    private static final int MINIMUM_CALLS = 10;
+    private static final double FAILURE_RATE_THRESHOLD = 0.5;
+    private static final int HALF_OPEN_CALLS = 2;
+
+    // System.nanoTime() by which the innermost guarded call on this thread has to finish
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private enum State { CLOSED, HALF_OPEN, OPEN }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final String name;
+    private final Semaphore bulkhead;
+    private final Duration maxWait;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration openDuration;
+    private final Predicate<Exception> retryable;
+    private final MeterRegistry meterRegistry;
+
+    // Circuit breaker state, guarded by this
+    private State state = State.CLOSED;
+    private final boolean[] outcomes = new boolean[SLIDING_WINDOW]; // true = failed
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public DependencyGuard(String name, int maxConcurrentCalls, Duration maxWait, Duration timeout, int maxAttempts,
+                           Duration backoff, Duration openDuration, Predicate<Exception> retryable, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWait = maxWait;
+        this.timeout = timeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.openDuration = openDuration;
+        this.retryable = retryable;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("dependency.bulkhead.in-use", bulkhead, slots -> maxConcurrentCalls - slots.availablePermits())
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("dependency.circuit.state", this, guard -> guard.state().ordinal())
+                .description("0 closed, 1 half-open, 2 open")
+                .tag("dependency", name)
+                .register(meterRegistry);
+    }
+
+    // Time left before the current guarded call's deadline; empty outside a guarded call
+    public static Optional<Duration> remaining() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    public <T, E extends Exception> T call(String operation, boolean idempotent, Call<T, E> call) throws E {
+        Long outerDeadline = DEADLINE.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (outerDeadline != null && outerDeadline - deadline < 0) {
+            deadline = outerDeadline;
+        }
+        if (deadline - System.nanoTime() <= 0) {
+            throw reject("deadline-exceeded", operation);
+        }
+        if (!acquirePermission()) {
+            throw reject("circuit-open", operation);
+        }
+        if (!acquireSlot(Math.min(maxWait.toNanos(), deadline - System.nanoTime()))) {
+            releasePermission();
+            throw reject("bulkhead-full", operation);
+        }
+
+        DEADLINE.set(deadline);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    T result = call.call();
+                    record(operation, "success", start);
+                    onResult(false);
+                    return result;
+                } catch (Exception e) {
+                    boolean transientFailure = retryable.test(e);
+                    record(operation, transientFailure ? "failure" : "error", start);
+                    onResult(transientFailure);
+                    if (!transientFailure || !idempotent || attempt >= maxAttempts || !sleepBeforeRetry(attempt, deadline)
+                            || !acquirePermission()) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (outerDeadline == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(outerDeadline);
+            }
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireSlot(long waitNanos) {
+        try {
+            return bulkhead.tryAcquire(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Full jitter: a random delay up to backoff * 2^(attempt - 1), so clients that failed together don't retry together.
+    // False if the retry couldn't start before the deadline.
+    private boolean sleepBeforeRetry(int attempt, long deadline) {
+        long ceiling = backoff.toNanos() << Math.min(attempt - 1, 10);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (System.nanoTime() + delay - deadline >= 0) {
+            return false;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private DependencyUnavailableException reject(String reason, String operation) {
+        Counter.builder("dependency.rejections")
+                .tag("dependency", name)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new DependencyUnavailableException(name + " is unavailable (" + reason + ") for " + operation);
+    }
+
+    private void record(String operation, String outcome, long start) {
+        Timer.builder("dependency.calls")
+                .tag("dependency", name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= HALF_OPEN_CALLS) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    private synchronized void onResult(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else if (++halfOpenSuccesses >= HALF_OPEN_CALLS) {
+                state = State.CLOSED;
+                recorded = 0;
+                failures = 0;
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return; // A call that started before the circuit opened
+        }
+        int slot = recorded % SLIDING_WINDOW;
+        if (recorded >= SLIDING_WINDOW && outcomes[slot]) {
+            failures--;
+        }
+        outcomes[slot] = failed;
+        if (failed) {
+            failures++;
+        }
+        recorded++;
+        int calls = Math.min(recorded, SLIDING_WINDOW);
+        if (calls >= MINIMUM_CALLS && failures >= calls * FAILURE_RATE_THRESHOLD) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        recorded = 0;
+        failures = 0;
+    }
+}
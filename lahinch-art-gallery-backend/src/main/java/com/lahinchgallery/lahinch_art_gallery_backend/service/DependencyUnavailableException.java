@@ -0,0 +1,10 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+// Thrown by DependencyGuard instead of calling a dependency: its circuit is open, all its call slots are taken,
+// or the deadline has already passed
+public class DependencyUnavailableException extends RuntimeException {
+
+    public DependencyUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FavoriteArtworkCard;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtwork;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,5 +12,7 @@ public interface FavoriteArtworkService {
     UserFavoriteArtwork addArtworkToFavorites(UUID userId, UUID artworkId);
     void removeArtworkFromFavorites(UUID userId, UUID artworkId);
     Page<UserFavoriteArtwork> getUserFavoriteArtworks(UUID userId, Pageable pageable);
+    Page<FavoriteArtworkCard> getUserFavoriteArtworkCards(UUID userId, Pageable pageable); // Read-only, newest first by default
+    CursorPage<UserFavoriteArtwork> scrollUserFavoriteArtworks(UUID userId, int limit, String cursor); // Most recent first
     boolean isArtworkFavoritedByUser(UUID userId, UUID artworkId);
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FavoriteArtworkCard;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.Profile;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtwork;
@@ -10,12 +12,20 @@ import com.lahinchgallery.lahinch_art_gallery_backend.repository.UserFavoriteArt
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -24,14 +34,19 @@ public class FavoriteArtworkServiceImpl implements FavoriteArtworkService {
     private final UserFavoriteArtworkRepository userFavoriteArtworkRepository;
     private final ProfileRepository profileRepository;
     private final ArtworkRepository artworkRepository;
+    private final CursorCodec cursorCodec;
+
+    private static final List<String> CURSOR_KEYS = List.of("favoritedAt", "artworkId");
 
     @Autowired
     public FavoriteArtworkServiceImpl(UserFavoriteArtworkRepository userFavoriteArtworkRepository,
                                       ProfileRepository profileRepository,
-                                      ArtworkRepository artworkRepository) {
+                                      ArtworkRepository artworkRepository,
+                                      CursorCodec cursorCodec) {
         this.userFavoriteArtworkRepository = userFavoriteArtworkRepository;
         this.profileRepository = profileRepository;
         this.artworkRepository = artworkRepository;
+        this.cursorCodec = cursorCodec;
     }
 
     @Override
@@ -76,6 +91,55 @@ public class FavoriteArtworkServiceImpl implements FavoriteArtworkService {
         return userFavoriteArtworkRepository.findByIdUserId(userId, pageable);
     }
 
+    @Override
+    public Page<FavoriteArtworkCard> getUserFavoriteArtworkCards(UUID userId, Pageable pageable) {
+        if (!profileRepository.existsById(userId)) {
+            throw new EntityNotFoundException("Profile not found with ID: " + userId);
+        }
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("favoritedAt").descending());
+        }
+        return userFavoriteArtworkRepository.findCardsByUserId(userId, pageable);
+    }
+
+    @Override
+    public CursorPage<UserFavoriteArtwork> scrollUserFavoriteArtworks(UUID userId, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, got: " + limit);
+        }
+        if (!profileRepository.existsById(userId)) {
+            throw new EntityNotFoundException("Profile not found with ID: " + userId);
+        }
+
+        // Fetch one extra row to learn whether another window follows, without a count query
+        Limit fetchLimit = Limit.of(limit + 1);
+        KeysetScrollPosition position = cursorCodec.decode(cursor, CURSOR_KEYS);
+        List<UserFavoriteArtwork> favorites;
+        if (position.isInitial()) {
+            favorites = userFavoriteArtworkRepository.findLatestByUserId(userId, fetchLimit);
+        } else {
+            Object favoritedAt = position.getKeys().get("favoritedAt");
+            Object artworkId = position.getKeys().get("artworkId");
+            if (!(favoritedAt instanceof OffsetDateTime) || !(artworkId instanceof UUID)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            favorites = userFavoriteArtworkRepository.findLatestByUserIdBefore(userId,
+                    (OffsetDateTime) favoritedAt, (UUID) artworkId, fetchLimit);
+        }
+
+        boolean hasNext = favorites.size() > limit;
+        if (!hasNext) {
+            return new CursorPage<>(favorites, null, false);
+        }
+        List<UserFavoriteArtwork> content = favorites.subList(0, limit);
+        UserFavoriteArtwork last = content.get(limit - 1);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("favoritedAt", last.getFavoritedAt());
+        keys.put("artworkId", last.getId().getArtworkId());
+        String nextCursor = cursorCodec.encode(ScrollPosition.forward(keys));
+        return new CursorPage<>(List.copyOf(content), nextCursor, true);
+    }
+
     @Override
     public boolean isArtworkFavoritedByUser(UUID userId, UUID artworkId) {
         UserFavoriteArtworkId favoriteId = new UserFavoriteArtworkId(userId, artworkId);
@@ -0,0 +1,92 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.FeaturedArtist;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtistChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Copy-on-write snapshot of the featured artists shown on the homepage.
+// Readers get the same immutable list until an artist change affects it; writers build a new
+// list and publish it through the volatile field, so reads take no lock and allocate nothing.
+@Component
+public class FeaturedArtistsSnapshot {
+
+    private static final Comparator<FeaturedArtist> DISPLAY_ORDER =
+            Comparator.comparing(FeaturedArtist::name, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(FeaturedArtist::id);
+
+    private final ArtistRepository artistRepository;
+    private volatile List<FeaturedArtist> featuredArtists = null; // null until built at startup
+
+    @Autowired
+    public FeaturedArtistsSnapshot(ArtistRepository artistRepository) {
+        this.artistRepository = artistRepository;
+    }
+
+    public List<FeaturedArtist> get() {
+        List<FeaturedArtist> current = featuredArtists;
+        if (current == null) {
+            // Only before the application is ready
+            return sorted(artistRepository.findFeaturedArtists());
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        featuredArtists = sorted(artistRepository.findFeaturedArtists());
+    }
+
+    // Patches the snapshot for the one artist that changed. Artists that are not featured
+    // before or after the change, and edits to columns the snapshot doesn't hold (e.g. bio), leave it untouched.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArtistChanged(ArtistChangedEvent event) {
+        List<FeaturedArtist> current = featuredArtists;
+        if (current == null) {
+            return; // rebuild() will read the committed state
+        }
+
+        Optional<FeaturedArtist> updated = event.changeType() == EntityChangeType.DELETED
+                ? Optional.empty()
+                : artistRepository.findFeaturedArtistById(event.artistId());
+        Optional<FeaturedArtist> previous = find(current, event.artistId());
+        if (previous.equals(updated)) {
+            return;
+        }
+
+        List<FeaturedArtist> next = new ArrayList<>(current.size() + 1);
+        for (FeaturedArtist artist : current) {
+            if (!artist.id().equals(event.artistId())) {
+                next.add(artist);
+            }
+        }
+        updated.ifPresent(next::add);
+        featuredArtists = sorted(next);
+    }
+
+    private static Optional<FeaturedArtist> find(List<FeaturedArtist> artists, UUID artistId) {
+        for (FeaturedArtist artist : artists) {
+            if (artist.id().equals(artistId)) {
+                return Optional.of(artist);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<FeaturedArtist> sorted(List<FeaturedArtist> artists) {
+        List<FeaturedArtist> copy = new ArrayList<>(artists);
+        copy.sort(DISPLAY_ORDER);
+        return List.copyOf(copy);
+    }
+}
@@ -0,0 +1,42 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Opens byte ranges of files on local disk: LocalStorageServiceImpl's buckets and MediaCache's copies
+final class FileRanges {
+
+    private FileRanges() {
+    }
+
+    static StoredFileRange open(Path file, HttpRange range) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException("File not found: " + file.getFileName());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            long start = range == null ? 0 : range.getRangeStart(length);
+            long end = range == null ? length - 1 : range.getRangeEnd(length);
+            if (range != null && (start >= length || start > end)) {
+                throw new RangeNotSatisfiableException("Range " + range + " is past the end of " + file.getFileName(), length);
+            }
+            String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            return new StoredFileRange(Channels.newInputStream(channel.position(start)), start, end, length, contentType);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Runs "where id in (...)" lookups over any number of IDs in IN lists of at most SIZE. PostgreSQL refuses
+// statements with more than 32767 bind parameters, and a few bounded statements are still far cheaper
+// than one per ID.
+final class IdBatches {
+
+    static final int SIZE = 1000;
+
+    private IdBatches() {
+    }
+
+    static <T> List<T> query(Collection<UUID> ids, Function<List<UUID>, List<T>> query) {
+        List<UUID> idList = List.copyOf(ids);
+        List<T> results = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += SIZE) {
+            results.addAll(query.apply(idList.subList(from, Math.min(idList.size(), from + SIZE))));
+        }
+        return results;
+    }
+
+    // For bulk updates: runs the statement once per batch and returns the total of the row counts
+    static int update(Collection<UUID> ids, ToIntFunction<List<UUID>> statement) {
+        List<UUID> idList = List.copyOf(ids);
+        int updated = 0;
+        for (int from = 0; from < idList.size(); from += SIZE) {
+            updated += statement.applyAsInt(idList.subList(from, Math.min(idList.size(), from + SIZE)));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,279 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ImageVariant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Renders the ImageVariant copies of an uploaded image as JPEGs, with the JDK's own ImageIO (JPEG, PNG, GIF, BMP).
+// The original is decoded once, subsampled while reading so a 24-megapixel photo never sits on the heap at full size,
+// and each variant is scaled down from the next larger one, so only the first resize touches the big image.
+// Images smaller than a variant are recompressed but never enlarged. A JPEG's EXIF orientation is applied to the pixels
+// (the copies carry no EXIF, so a camera's sideways photo would otherwise show sideways) and its embedded ICC profile,
+// if any, converted to sRGB, the space browsers assume for an untagged JPEG.
+@Component
+public class ImageDerivatives {
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+    private static final int EXIF_ORIENTATION = 0x0112;
+
+    private final float quality;
+
+    @Autowired
+    public ImageDerivatives(@Value("${images.derivatives.quality:0.82}") float quality) {
+        this.quality = quality;
+    }
+
+    // Empty if the file isn't an image ImageIO can read (e.g. HEIC or WebP); the original is then used everywhere
+    public Map<ImageVariant, byte[]> render(Path image) throws IOException {
+        Decoded source = read(image, largest().maxEdge());
+        Map<ImageVariant, byte[]> derivatives = new EnumMap<>(ImageVariant.class);
+        if (source == null) {
+            return derivatives;
+        }
+        BufferedImage current = orient(toSrgb(source.image(), source.iccProfile()), source.orientation());
+        for (ImageVariant variant : largestFirst()) {
+            current = scaleDown(current, variant.maxEdge());
+            derivatives.put(variant, encodeJpeg(current));
+        }
+        return derivatives;
+    }
+
+    private static Decoded read(Path image, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                // Keeps at least twice the largest variant's resolution, so the final resize still has detail to average
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longEdge / (2 * maxEdge));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                IIOMetadata metadata = reader.getImageMetadata(0);
+                if (metadata == null || !Arrays.asList(metadata.getMetadataFormatNames()).contains(JPEG_METADATA)) {
+                    return new Decoded(decoded, 1, null);
+                }
+                IIOMetadataNode tree = (IIOMetadataNode) metadata.getAsTree(JPEG_METADATA);
+                return new Decoded(decoded, exifOrientation(tree), iccProfile(tree));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // The APP1 segment holds "Exif\0\0" and then a TIFF structure, whose first directory (IFD0) has the Orientation tag
+    private static int exifOrientation(IIOMetadataNode tree) {
+        for (byte[] app1 : markers(tree, 0xE1)) {
+            if (app1.length < 14 || !new String(app1, 0, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+                continue;
+            }
+            ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            if (ifd < 8 || ifd > tiff.limit() - 2) {
+                return 1;
+            }
+            int entries = tiff.getShort(ifd) & 0xFFFF;
+            for (int i = 0; i < entries && ifd + 2 + (i + 1) * 12 <= tiff.limit(); i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((tiff.getShort(entry) & 0xFFFF) == EXIF_ORIENTATION) {
+                    int orientation = tiff.getShort(entry + 8) & 0xFFFF; // A single SHORT sits at the start of the value field
+                    return orientation >= 1 && orientation <= 8 ? orientation : 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // A JFIF file's profile is parsed by the reader; otherwise it is in APP2 segments ("ICC_PROFILE\0", sequence
+    // number, count, data), which a large profile spreads over several
+    private static ICC_Profile iccProfile(IIOMetadataNode tree) {
+        NodeList jfifIcc = tree.getElementsByTagName("app2ICC");
+        if (jfifIcc.getLength() > 0 && ((IIOMetadataNode) jfifIcc.item(0)).getUserObject() instanceof ICC_Profile profile) {
+            return profile;
+        }
+        Map<Integer, byte[]> chunks = new TreeMap<>();
+        for (byte[] app2 : markers(tree, 0xE2)) {
+            if (app2.length > 14 && new String(app2, 0, 12, StandardCharsets.ISO_8859_1).equals("ICC_PROFILE\0")) {
+                chunks.put(app2[12] & 0xFF, Arrays.copyOfRange(app2, 14, app2.length));
+            }
+        }
+        if (chunks.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        chunks.values().forEach(data::writeBytes);
+        try {
+            return ICC_Profile.getInstance(data.toByteArray());
+        } catch (IllegalArgumentException e) {
+            return null; // A corrupt profile; the pixels are taken as sRGB
+        }
+    }
+
+    // Payloads of the segments the JPEG reader doesn't interpret itself, e.g. APP1 (0xE1) or APP2 (0xE2)
+    private static List<byte[]> markers(IIOMetadataNode tree, int markerTag) {
+        List<byte[]> payloads = new ArrayList<>();
+        NodeList unknown = tree.getElementsByTagName("unknown");
+        for (int i = 0; i < unknown.getLength(); i++) {
+            IIOMetadataNode marker = (IIOMetadataNode) unknown.item(i);
+            if (String.valueOf(markerTag).equals(marker.getAttribute("MarkerTag")) && marker.getUserObject() instanceof byte[] payload) {
+                payloads.add(payload);
+            }
+        }
+        return payloads;
+    }
+
+    // The reader either decodes into the profile's color space already, or leaves the profile's values in an sRGB
+    // image; both end up as sRGB pixels. Profiles that don't describe the image's bands (e.g. CMYK) are left alone.
+    private static BufferedImage toSrgb(BufferedImage image, ICC_Profile profile) {
+        ColorSpace srgb = ColorSpace.getInstance(ColorSpace.CS_sRGB);
+        ColorSpace imageSpace = image.getColorModel().getColorSpace();
+        if (!imageSpace.isCS_sRGB() && imageSpace.getType() == ColorSpace.TYPE_RGB) {
+            BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            return new ColorConvertOp(imageSpace, srgb, null).filter(image, converted);
+        }
+        if (profile == null || !imageSpace.isCS_sRGB() || image.getColorModel().hasAlpha()
+                || profile.getColorSpaceType() != ColorSpace.TYPE_RGB || isSrgb(profile)) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        new ColorConvertOp(new ICC_ColorSpace(profile), srgb, null).filter(image.getRaster(), converted.getRaster());
+        return converted;
+    }
+
+    // Most cameras and editors embed sRGB itself, which needs no conversion; the header's profile ID is not always
+    // filled in, so the profile is recognised by its description
+    private static boolean isSrgb(ICC_Profile profile) {
+        byte[] description = profile.getData(ICC_Profile.icSigProfileDescriptionTag);
+        return description != null && new String(description, StandardCharsets.ISO_8859_1).contains("sRGB");
+    }
+
+    // Orientations 5 to 8 swap width and height; 2, 4, 5 and 7 mirror the image
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation == 1) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w); // 8
+        };
+        boolean swapped = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swapped ? h : w, swapped ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    // Halves the image until it is within a factor of two of the target, then scales the rest of the way.
+    // A single bilinear step from far above the target skips most source pixels and looks noisy.
+    private static BufferedImage scaleDown(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = resize(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Always draws into an opaque RGB image: JPEG has no alpha, so transparent areas become white
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT); // Progressive JPEGs render a preview before they finish loading
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private record Decoded(BufferedImage image, int orientation, ICC_Profile iccProfile) {
+    }
+
+    private static ImageVariant largest() {
+        return largestFirst()[0];
+    }
+
+    private static ImageVariant[] largestFirst() {
+        ImageVariant[] variants = ImageVariant.values();
+        Arrays.sort(variants, Comparator.comparingInt(ImageVariant::maxEdge).reversed());
+        return variants;
+    }
+}
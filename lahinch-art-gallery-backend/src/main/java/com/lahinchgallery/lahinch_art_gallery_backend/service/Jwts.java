@@ -0,0 +1,77 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+// The HS256 JWTs Supabase uses: storage signed URLs, user access tokens, and the premium stream sessions
+// minted from the same secret
+final class Jwts {
+
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Jwts() {
+    }
+
+    static SecretKeySpec key(byte[] secret) {
+        return new SecretKeySpec(secret, "HmacSHA256");
+    }
+
+    static String sign(SecretKeySpec key, Map<String, Object> claims) {
+        String payload;
+        try {
+            payload = base64Url(MAPPER.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write JWT claims", e);
+        }
+        String signingInput = HEADER + "." + payload;
+        return signingInput + "." + base64Url(hmac(key, signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    // The claims of a token signed with key that hasn't expired; null for anything else, including other algorithms
+    static Map<String, Object> verify(SecretKeySpec key, String token) {
+        String[] parts = token == null ? new String[0] : token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            Map<String, Object> header = MAPPER.readValue(Base64.getUrlDecoder().decode(parts[0]), new TypeReference<>() {});
+            byte[] signature = hmac(key, (parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!"HS256".equals(header.get("alg")) || !MessageDigest.isEqual(signature, Base64.getUrlDecoder().decode(parts[2]))) {
+                return null;
+            }
+            Map<String, Object> claims = MAPPER.readValue(Base64.getUrlDecoder().decode(parts[1]), new TypeReference<>() {});
+            if (!(claims.get("exp") instanceof Number expiresAt) || expiresAt.longValue() <= Instant.now().getEpochSecond()) {
+                return null;
+            }
+            return claims;
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // Not Base64 or not JSON
+        }
+    }
+
+    static byte[] hmac(SecretKeySpec key, byte[] input) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256"); // Not thread-safe, and cheap to create
+            mac.init(key);
+            return mac.doFinal(input);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
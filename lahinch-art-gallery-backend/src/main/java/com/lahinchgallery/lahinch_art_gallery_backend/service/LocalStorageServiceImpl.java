@@ -0,0 +1,202 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Storage on local disk instead of Supabase, for on-prem deployments, integration tests and offline load tests.
+// Active with the "local-storage" profile, which also leaves out SupabaseConfig. Each bucket is a directory
+// under storage.local.root. A file is written to a temp file next to its destination and renamed into place,
+// so a reader never sees half a file; copies between files go through FileChannel.transferTo, which the
+// kernel does without passing the bytes through this process.
+// URLs point at storage.local.base-url, which defaults to LocalStorageFileController's /api/files. getFileUrl adds
+// an expiring ?token= from LocalStorageUrlSigner, which the controller accepts for premium-media-files in place of
+// the caller's access token.
+@Service
+@Profile("local-storage")
+public class LocalStorageServiceImpl implements StorageService {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final Path root;
+    private final String baseUrl;
+    private final LocalStorageUrlSigner urlSigner;
+
+    @Autowired
+    public LocalStorageServiceImpl(@Value("${storage.local.root:${java.io.tmpdir}/lahinch-storage}") Path root,
+                                   @Value("${storage.local.base-url:http://localhost:8080/api/files}") String baseUrl,
+                                   LocalStorageUrlSigner urlSigner) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.urlSigner = urlSigner;
+    }
+
+    @Override
+    public String uploadFile(String bucketName, String filePath, MultipartFile file) throws IOException {
+        return uploadFile(bucketName, filePath, file.getResource(), file.getContentType());
+    }
+
+    @Override
+    public String uploadFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+        Path target = resolve(bucketName, filePath);
+        Files.createDirectories(target.getParent());
+        Path part = Files.createTempFile(target.getParent(), target.getFileName().toString(), PART_SUFFIX);
+        try {
+            if (content.isFile()) {
+                copy(content.getFile().toPath(), part);
+            } else {
+                try (InputStream in = content.getInputStream()) {
+                    Files.copy(in, part, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+        return filePath;
+    }
+
+    @Override
+    public String uploadImmutableFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+        // Whatever is already at a content-addressed path has the same bytes
+        if (exists(bucketName, filePath)) {
+            return filePath;
+        }
+        return uploadFile(bucketName, filePath, content, contentType);
+    }
+
+    @Override
+    public boolean exists(String bucketName, String filePath) {
+        return Files.isRegularFile(resolve(bucketName, filePath));
+    }
+
+    @Override
+    public void downloadFile(String bucketName, String filePath, Path target) throws IOException {
+        Path source = resolve(bucketName, filePath);
+        if (!Files.isRegularFile(source)) {
+            throw new FileNotFoundException("File not found: " + bucketName + "/" + filePath);
+        }
+        copy(source, target);
+    }
+
+    @Override
+    public StoredFileRange openFile(String bucketName, String filePath, HttpRange range) throws IOException {
+        return FileRanges.open(resolve(bucketName, filePath), range);
+    }
+
+    @Override
+    public void listFiles(String bucketName, Consumer<List<StoredFile>> page) throws IOException {
+        Path bucket = root.resolve(bucketName).normalize();
+        if (!bucket.getParent().equals(root)) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucketName);
+        }
+        if (!Files.isDirectory(bucket)) {
+            return;
+        }
+        List<StoredFile> files = new ArrayList<>();
+        listDirectory(bucket, bucket, files, page);
+        if (!files.isEmpty()) {
+            page.accept(files);
+        }
+    }
+
+    // Depth-first, with each directory entered where "name/" sorts among its siblings, so the paths come out in
+    // String order (e.g. "a-b", then "a/c", then "a0")
+    private static void listDirectory(Path bucket, Path directory, List<StoredFile> files, Consumer<List<StoredFile>> page) throws IOException {
+        Map<String, Path> children = new TreeMap<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) list::iterator) {
+                children.put(child.getFileName() + (Files.isDirectory(child) ? "/" : ""), child);
+            }
+        }
+        for (Path child : children.values()) {
+            BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+            if (attributes.isDirectory()) {
+                listDirectory(bucket, child, files, page);
+            } else if (attributes.isRegularFile() && !child.getFileName().toString().endsWith(PART_SUFFIX)) {
+                files.add(new StoredFile(bucket.relativize(child).toString().replace(File.separatorChar, '/'), attributes.size(),
+                        OffsetDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneOffset.UTC)));
+                if (files.size() == LIST_PAGE_SIZE) {
+                    page.accept(List.copyOf(files));
+                    files.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void deleteFile(String bucketName, String filePath) throws IOException {
+        deleteFiles(bucketName, List.of(filePath));
+    }
+
+    // A path naming a directory removes everything under it, the way a prefix would in an object store
+    @Override
+    public void deleteFiles(String bucketName, List<String> filePaths) throws IOException {
+        for (String filePath : filePaths) {
+            FileSystemUtils.deleteRecursively(resolve(bucketName, filePath));
+        }
+    }
+
+    @Override
+    public String getFileUrl(String bucketName, String filePath) {
+        return getPublicFileUrl(bucketName, filePath) + "?token=" + urlSigner.sign(bucketName, filePath);
+    }
+
+    @Override
+    public String getPublicFileUrl(String bucketName, String filePath) {
+        return baseUrl + "/" + bucketName + "/" + filePath;
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    break; // Only if the source shrank underneath us
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    // Paths come from requests as well as from this application, so ".." can't be allowed to leave the bucket
+    private Path resolve(String bucketName, String filePath) {
+        Path bucket = root.resolve(bucketName).normalize();
+        Path file = bucket.resolve(filePath).normalize();
+        if (!bucket.getParent().equals(root) || !file.startsWith(bucket) || file.equals(bucket)) {
+            throw new IllegalArgumentException("Invalid storage path: " + bucketName + "/" + filePath);
+        }
+        return file;
+    }
+}
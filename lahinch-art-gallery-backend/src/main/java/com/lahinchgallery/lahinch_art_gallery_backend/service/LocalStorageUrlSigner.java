@@ -0,0 +1,63 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The ?token= of LocalStorageServiceImpl's signed URLs, which LocalStorageFileController checks: <img> and <video>
+// can't send an Authorization header, so the URL itself carries the access. Same claims and issue windows as
+// StorageUrlSigner, so a URL stays the same for a window and browsers can cache the file. The key is derived
+// from supabase.jwt-secret; without it the key is random and URLs only work on the instance that signed them.
+@Component
+@Profile("local-storage")
+public class LocalStorageUrlSigner {
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration window;
+
+    @Autowired
+    public LocalStorageUrlSigner(@Value("${supabase.jwt-secret:}") String jwtSecret,
+                                 @Value("${storage.signed-urls.ttl:1h}") Duration ttl,
+                                 @Value("${storage.signed-urls.window:15m}") Duration window) {
+        if (window.isZero() || window.isNegative() || window.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("storage.signed-urls.window must be positive and shorter than the ttl");
+        }
+        byte[] secret;
+        if (StringUtils.hasText(jwtSecret)) {
+            secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = Jwts.key(Jwts.hmac(Jwts.key(secret), "local-storage-url".getBytes(StandardCharsets.UTF_8)));
+        this.ttl = ttl;
+        this.window = window;
+    }
+
+    public String sign(String bucketName, String filePath) {
+        long now = Instant.now().getEpochSecond();
+        long windowStart = now - Math.floorMod(now, window.toSeconds());
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("url", bucketName + "/" + filePath);
+        claims.put("iat", windowStart);
+        claims.put("exp", windowStart + ttl.toSeconds());
+        return Jwts.sign(key, claims);
+    }
+
+    // Whether token was signed here for this file and hasn't expired
+    public boolean verify(String bucketName, String filePath, String token) {
+        Map<String, Object> claims = Jwts.verify(key, token);
+        return claims != null && (bucketName + "/" + filePath).equals(claims.get("url"));
+    }
+}
@@ -0,0 +1,180 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+// Read-through copy of storage files on the backend's local disk, so repeat views are served from this host
+// instead of costing Supabase egress and a round trip to its region. Files are named after the SHA-256 of
+// "bucket/path", which also keeps request paths out of the file system, and the least recently used ones are
+// deleted once the cache grows past maxSize. Concurrent misses for the same file share one download.
+// Off unless media.cache.enabled is set; read by MediaFileController and the premium media streams.
+@Component
+@ConditionalOnProperty(name = "media.cache.enabled", havingValue = "true")
+public class MediaCache {
+
+    private static final String PART_SUFFIX = ".part";
+
+    private final StorageService storageService;
+    private final Path cacheDir;
+    private final long maxSize;
+    // File sizes by key, in access order: iteration starts at the least recently used file. Guarded by this.
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize;
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MediaCache(StorageService storageService,
+                      @Value("${media.cache.dir:${java.io.tmpdir}/lahinch-media-cache}") Path cacheDir,
+                      @Value("${media.cache.max-size:10GB}") DataSize maxSize) throws IOException {
+        this.storageService = storageService;
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.maxSize = maxSize.toBytes();
+        load();
+    }
+
+    // The local copy of the file, downloaded first if it isn't cached. Open it right away: it can be evicted
+    // at any time afterwards, though a file that is already open keeps its content until it is closed.
+    public Path get(String bucketName, String filePath) throws IOException {
+        String key = key(bucketName, filePath);
+        Path file = cacheDir.resolve(key);
+        if (touch(key)) {
+            return file;
+        }
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> inProgress = downloads.putIfAbsent(key, download);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        try {
+            if (!touch(key)) { // Another download may have finished between the first check and putIfAbsent
+                Path part = Files.createTempFile(cacheDir, key, PART_SUFFIX);
+                try {
+                    storageService.downloadFile(bucketName, filePath, part);
+                    Files.move(part, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(part);
+                }
+                add(key, Files.size(file));
+            }
+            download.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(key, download);
+        }
+    }
+
+    // The local copy if the file is cached, without downloading it
+    public Optional<Path> find(String bucketName, String filePath) {
+        String key = key(bucketName, filePath);
+        return touch(key) ? Optional.of(cacheDir.resolve(key)) : Optional.empty();
+    }
+
+    // Starts caching the file in the background, for callers that serve this request some other way
+    public void prefetch(String bucketName, String filePath) {
+        Thread.ofVirtual().start(() -> {
+            try {
+                get(bucketName, filePath);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not cache media file " + bucketName + "/" + filePath + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static Path await(CompletableFuture<Path> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a media download");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to download file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private synchronized boolean touch(String key) {
+        return sizes.get(key) != null;
+    }
+
+    private synchronized void add(String key, long size) {
+        Long previous = sizes.put(key, size);
+        totalSize += size - (previous == null ? 0 : previous);
+        // The file just added is never evicted, even if it alone is over the limit
+        Iterator<Map.Entry<String, Long>> leastRecentlyUsed = sizes.entrySet().iterator();
+        while (totalSize > maxSize && sizes.size() > 1) {
+            Map.Entry<String, Long> eldest = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            totalSize -= eldest.getValue();
+            try {
+                Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                System.err.println("Could not evict cached media file " + eldest.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Picks up what an earlier run left behind. Hits don't touch the files, so the order after a restart is
+    // download order rather than access order, which is close enough.
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(cacheDir)) {
+            files = listing.toList();
+        }
+        for (Path file : files.stream()
+                .sorted(Comparator.comparing(MediaCache::lastModified))
+                .toList()) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(PART_SUFFIX)) {
+                Files.deleteIfExists(file); // A download interrupted by the shutdown
+            } else {
+                add(name, Files.size(file));
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String key(String bucketName, String filePath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((bucketName + "/" + filePath).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,19 +1,51 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaUpload;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PremiumMediaService {
     List<PremiumMedia> getMediaForArtist(UUID artistId);
     List<PremiumMedia> getMediaForArtwork(UUID artworkId);
-    Optional<PremiumMedia> getMediaById(UUID mediaId);
+    // Read-only card rows for the listings above, with signed thumbnail URLs; no file URLs or descriptions
+    List<PremiumMediaCard> getMediaCardsForArtist(UUID artistId);
+    List<PremiumMediaCard> getMediaCardsForArtwork(UUID artworkId);
+    // Batch versions of the above for listings that show media on every card, each answered with one query.
+    // Every requested ID is a key, in the order given, mapped to an empty list or 0 if it has no media.
+    Map<UUID, List<PremiumMedia>> getMediaForArtists(Collection<UUID> artistIds);
+    Map<UUID, List<PremiumMedia>> getMediaForArtworks(Collection<UUID> artworkIds);
+    Map<UUID, List<PremiumMediaCard>> getMediaCardsForArtists(Collection<UUID> artistIds);
+    Map<UUID, List<PremiumMediaCard>> getMediaCardsForArtworks(Collection<UUID> artworkIds);
+    Map<UUID, Long> countMediaForArtists(Collection<UUID> artistIds);
+    Map<UUID, Long> countMediaForArtworks(Collection<UUID> artworkIds);
+    Optional<PremiumMediaDetail> getMediaById(UUID mediaId); // Cached, hence a read-only copy
+    // The premium buckets are private: the stored URLs only identify the files, and clients get these
+    // short-lived signed URLs instead. Null if the media has no such file.
+    String getSignedFileUrl(PremiumMediaDetail media);
+    String getSignedThumbnailUrl(PremiumMediaDetail media);
+    // Where the media file is in the premium-media-files bucket; null if it has none
+    String getMediaFilePath(PremiumMediaDetail media);
     PremiumMedia createMedia(PremiumMedia media, MultipartFile mediaFile, MultipartFile thumbnailFile) throws IOException;
     PremiumMedia updateMedia(UUID mediaId, PremiumMedia mediaDetails, MultipartFile mediaFile, MultipartFile thumbnailFile) throws IOException;
     void deleteMedia(UUID mediaId) throws IOException;
+
+    // Resumable upload for large media files: initiate with the media's details, upload numbered parts
+    // (in any order, in parallel, re-sending any that failed), then complete. The PremiumMedia row is only
+    // created on completion; until then getUpload reports which parts have arrived.
+    PremiumMediaUpload initiateUpload(PremiumMedia media, String fileName, String contentType) throws IOException;
+    void uploadPart(UUID uploadId, int partNumber, InputStream content) throws IOException;
+    PremiumMediaUpload getUpload(UUID uploadId) throws IOException;
+    PremiumMedia completeUpload(UUID uploadId, MultipartFile thumbnailFile) throws IOException;
+    void abortUpload(UUID uploadId) throws IOException;
 }
\ No newline at end of file
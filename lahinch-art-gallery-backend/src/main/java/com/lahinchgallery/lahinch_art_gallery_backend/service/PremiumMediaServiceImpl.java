@@ -1,22 +1,46 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.config.CacheConfig;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.RelatedPremiumMediaCard;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StagedUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.PremiumMediaChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
 import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
 import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 public class PremiumMediaServiceImpl implements PremiumMediaService {
@@ -25,7 +49,12 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
     private final ArtistRepository artistRepository;
     private final ArtworkRepository artworkRepository;
     private final StorageService storageService;
-    private final String supabaseUrl;
+    private final UploadJobService uploadJobService;
+    private final StorageCleanupService storageCleanupService;
+    private final PremiumMediaUploadStaging uploadStaging;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String PREMIUM_MEDIA_FILES_BUCKET = "premium-media-files";
     private static final String PREMIUM_MEDIA_THUMBNAILS_BUCKET = "premium-media-thumbnails";
@@ -35,12 +64,22 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
                                    ArtistRepository artistRepository,
                                    ArtworkRepository artworkRepository,
                                    StorageService storageService,
-                                   @Qualifier("supabaseUrl") String supabaseUrl) {
+                                   UploadJobService uploadJobService,
+                                   StorageCleanupService storageCleanupService,
+                                   PremiumMediaUploadStaging uploadStaging,
+                                   EntityManager entityManager,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher) {
         this.premiumMediaRepository = premiumMediaRepository;
         this.artistRepository = artistRepository;
         this.artworkRepository = artworkRepository;
         this.storageService = storageService;
-        this.supabaseUrl = supabaseUrl;
+        this.uploadJobService = uploadJobService;
+        this.storageCleanupService = storageCleanupService;
+        this.uploadStaging = uploadStaging;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -54,52 +93,146 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
     }
 
     @Override
-    public Optional<PremiumMedia> getMediaById(UUID mediaId) {
-        return premiumMediaRepository.findById(mediaId);
+    public List<PremiumMediaCard> getMediaCardsForArtist(UUID artistId) {
+        return withSignedThumbnails(premiumMediaRepository.findCardsByRelatedEntity(RelatedEntityType.ARTIST, artistId));
     }
 
     @Override
-    @Transactional
-    public PremiumMedia createMedia(PremiumMedia media, MultipartFile mediaFile, MultipartFile thumbnailFile) throws IOException {
-        validateRelatedEntity(media.getRelatedToEntityType(), media.getRelatedEntityId());
+    public List<PremiumMediaCard> getMediaCardsForArtwork(UUID artworkId) {
+        return withSignedThumbnails(premiumMediaRepository.findCardsByRelatedEntity(RelatedEntityType.ARTWORK, artworkId));
+    }
+
+    @Override
+    public Map<UUID, List<PremiumMedia>> getMediaForArtists(Collection<UUID> artistIds) {
+        return groupByEntity(artistIds, ids -> premiumMediaRepository.findByRelatedEntities(RelatedEntityType.ARTIST, ids),
+                PremiumMedia::getRelatedEntityId, Function.identity());
+    }
+
+    @Override
+    public Map<UUID, List<PremiumMedia>> getMediaForArtworks(Collection<UUID> artworkIds) {
+        return groupByEntity(artworkIds, ids -> premiumMediaRepository.findByRelatedEntities(RelatedEntityType.ARTWORK, ids),
+                PremiumMedia::getRelatedEntityId, Function.identity());
+    }
+
+    @Override
+    public Map<UUID, List<PremiumMediaCard>> getMediaCardsForArtists(Collection<UUID> artistIds) {
+        return groupByEntity(artistIds, ids -> premiumMediaRepository.findCardsByRelatedEntities(RelatedEntityType.ARTIST, ids),
+                RelatedPremiumMediaCard::relatedEntityId, related -> withSignedThumbnail(related.card()));
+    }
 
-        if (media.getId() == null) {
-            media.setId(UUID.randomUUID());
+    @Override
+    public Map<UUID, List<PremiumMediaCard>> getMediaCardsForArtworks(Collection<UUID> artworkIds) {
+        return groupByEntity(artworkIds, ids -> premiumMediaRepository.findCardsByRelatedEntities(RelatedEntityType.ARTWORK, ids),
+                RelatedPremiumMediaCard::relatedEntityId, related -> withSignedThumbnail(related.card()));
+    }
+
+    @Override
+    public Map<UUID, Long> countMediaForArtists(Collection<UUID> artistIds) {
+        return countByEntity(artistIds, RelatedEntityType.ARTIST);
+    }
+
+    @Override
+    public Map<UUID, Long> countMediaForArtworks(Collection<UUID> artworkIds) {
+        return countByEntity(artworkIds, RelatedEntityType.ARTWORK);
+    }
+
+    // Rows come back in query order (oldest first), so each entity's list keeps that order
+    private static <R, T> Map<UUID, List<T>> groupByEntity(Collection<UUID> entityIds, Function<Set<UUID>, List<R>> query,
+                                                           Function<R, UUID> entityId, Function<R, T> value) {
+        Set<UUID> ids = new LinkedHashSet<>(entityIds);
+        Map<UUID, List<T>> grouped = new LinkedHashMap<>();
+        ids.forEach(id -> grouped.put(id, new ArrayList<>()));
+        if (!ids.isEmpty()) { // "in ()" is not valid SQL
+            query.apply(ids).forEach(row -> grouped.get(entityId.apply(row)).add(value.apply(row)));
         }
-        media.setCreatedAt(OffsetDateTime.now());
-        media.setUpdatedAt(OffsetDateTime.now());
+        return grouped;
+    }
 
-        PremiumMedia savedMedia = premiumMediaRepository.save(media); // Save first to use ID in paths
+    private Map<UUID, Long> countByEntity(Collection<UUID> entityIds, RelatedEntityType entityType) {
+        Set<UUID> ids = new LinkedHashSet<>(entityIds);
+        Map<UUID, Long> counts = new LinkedHashMap<>();
+        ids.forEach(id -> counts.put(id, 0L));
+        if (!ids.isEmpty()) {
+            premiumMediaRepository.countByRelatedEntities(entityType, ids)
+                    .forEach(count -> counts.put(count.relatedEntityId(), count.mediaCount()));
+        }
+        return counts;
+    }
 
-        // Handle media file upload
-        if (mediaFile != null && !mediaFile.isEmpty()) {
-            String mediaFileName = "media_" + savedMedia.getId() + "_" + mediaFile.getOriginalFilename();
-            String mediaFilePath = savedMedia.getRelatedToEntityType().name().toLowerCase() + "/" +
-                    savedMedia.getRelatedEntityId() + "/" +
-                    savedMedia.getId() + "/file/" + mediaFileName;
-            storageService.uploadFile(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath, mediaFile);
-            savedMedia.setFileUrl(storageService.getPublicFileUrl(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath));
-        } else {
+    @Override
+    public String getSignedFileUrl(PremiumMediaDetail media) {
+        return signedUrl(media.fileUrl(), PREMIUM_MEDIA_FILES_BUCKET);
+    }
+
+    @Override
+    public String getSignedThumbnailUrl(PremiumMediaDetail media) {
+        return signedUrl(media.thumbnailUrl(), PREMIUM_MEDIA_THUMBNAILS_BUCKET);
+    }
+
+    @Override
+    public String getMediaFilePath(PremiumMediaDetail media) {
+        return media.fileUrl() == null ? null : extractFilePathFromUrl(media.fileUrl(), PREMIUM_MEDIA_FILES_BUCKET);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PREMIUM_MEDIA_CACHE, key = "#mediaId", unless = "#result == null")
+    public Optional<PremiumMediaDetail> getMediaById(UUID mediaId) {
+        return premiumMediaRepository.findById(mediaId).map(PremiumMediaDetail::from);
+    }
+
+    @Override
+    public PremiumMedia createMedia(PremiumMedia media, MultipartFile mediaFile, MultipartFile thumbnailFile) throws IOException {
+        if (mediaFile == null || mediaFile.isEmpty()) {
             throw new IllegalArgumentException("Media file must be provided for PremiumMedia creation.");
         }
+        // Staged before the transaction opens, so copying and hashing the files doesn't hold a connection
+        StagedUpload file = uploadJobService.stage(mediaFile);
+        StagedUpload thumbnail = null;
+        try {
+            thumbnail = uploadJobService.stage(thumbnailFile);
+            StagedUpload stagedThumbnail = thumbnail;
+            return transactionTemplate.execute(status -> insertMedia(media, file, stagedThumbnail));
+        } catch (IOException | RuntimeException e) {
+            uploadJobService.discard(file);
+            uploadJobService.discard(thumbnail);
+            throw e;
+        }
+    }
+
+    private PremiumMedia insertMedia(PremiumMedia media, StagedUpload file, StagedUpload thumbnail) {
+        validateRelatedEntity(media.getRelatedToEntityType(), media.getRelatedEntityId());
 
-        // Handle thumbnail upload (optional, typically for videos)
-        if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
-            String thumbFileName = "thumb_" + savedMedia.getId() + "_" + thumbnailFile.getOriginalFilename();
-            String thumbFilePath = savedMedia.getRelatedToEntityType().name().toLowerCase() + "/" +
-                    savedMedia.getRelatedEntityId() + "/" +
-                    savedMedia.getId() + "/thumb/" + thumbFileName;
-            storageService.uploadFile(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath, thumbnailFile);
-            savedMedia.setThumbnailUrl(storageService.getPublicFileUrl(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath));
+        // Both files are uploaded after commit by UploadJobWorker, which fills in fileUrl and thumbnailUrl as each is
+        // stored; until then fileUrl is null and the job's status says how the upload is going.
+        PremiumMedia created = persistMedia(null, media.getTitle(), media.getDescription(), media.getMediaType(),
+                media.getDurationSeconds(), media.getRelatedToEntityType(), media.getRelatedEntityId(), null, null);
+        UUID mediaId = created.getId();
+        uploadJobService.enqueue(UploadTarget.PREMIUM_MEDIA_FILE, mediaId, PREMIUM_MEDIA_FILES_BUCKET, file);
+        if (thumbnail != null) {
+            uploadJobService.enqueue(UploadTarget.PREMIUM_MEDIA_THUMBNAIL, mediaId, PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbnail);
         }
 
-        savedMedia.setUpdatedAt(OffsetDateTime.now());
-        return premiumMediaRepository.save(savedMedia);
+        eventPublisher.publishEvent(new PremiumMediaChangedEvent(mediaId, EntityChangeType.CREATED));
+        return created;
     }
 
     @Override
-    @Transactional
     public PremiumMedia updateMedia(UUID mediaId, PremiumMedia mediaDetails, MultipartFile mediaFile, MultipartFile thumbnailFile) throws IOException {
+        // Staged before the transaction opens, so copying and hashing the files doesn't hold a connection
+        StagedUpload file = uploadJobService.stage(mediaFile);
+        StagedUpload thumbnail = null;
+        try {
+            thumbnail = uploadJobService.stage(thumbnailFile);
+            StagedUpload stagedThumbnail = thumbnail;
+            return transactionTemplate.execute(status -> saveMedia(mediaId, mediaDetails, file, stagedThumbnail));
+        } catch (IOException | RuntimeException e) {
+            uploadJobService.discard(file);
+            uploadJobService.discard(thumbnail);
+            throw e;
+        }
+    }
+
+    private PremiumMedia saveMedia(UUID mediaId, PremiumMedia mediaDetails, StagedUpload file, StagedUpload thumbnail) {
         PremiumMedia existingMedia = premiumMediaRepository.findById(mediaId)
                 .orElseThrow(() -> new EntityNotFoundException("PremiumMedia not found with ID: " + mediaId));
 
@@ -113,34 +246,22 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
         existingMedia.setRelatedEntityId(mediaDetails.getRelatedEntityId());
         existingMedia.setUpdatedAt(OffsetDateTime.now());
 
-        // Handle media file update
-        if (mediaFile != null && !mediaFile.isEmpty()) {
-            deleteOldFileFromStorage(existingMedia.getFileUrl(), PREMIUM_MEDIA_FILES_BUCKET);
-            String mediaFileName = "media_" + existingMedia.getId() + "_" + mediaFile.getOriginalFilename();
-            String mediaFilePath = existingMedia.getRelatedToEntityType().name().toLowerCase() + "/" +
-                    existingMedia.getRelatedEntityId() + "/" +
-                    existingMedia.getId() + "/file/" + mediaFileName;
-            storageService.uploadFile(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath, mediaFile);
-            existingMedia.setFileUrl(storageService.getPublicFileUrl(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath));
+        // New files replace the current ones once they are in storage; UploadJobWorker swaps the URLs and deletes the old files
+        if (file != null) {
+            uploadJobService.enqueue(UploadTarget.PREMIUM_MEDIA_FILE, existingMedia.getId(), PREMIUM_MEDIA_FILES_BUCKET, file);
         }
 
-        // Handle thumbnail file update
-        if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
-            deleteOldFileFromStorage(existingMedia.getThumbnailUrl(), PREMIUM_MEDIA_THUMBNAILS_BUCKET);
-            String thumbFileName = "thumb_" + existingMedia.getId() + "_" + thumbnailFile.getOriginalFilename();
-            String thumbFilePath = existingMedia.getRelatedToEntityType().name().toLowerCase() + "/" +
-                    existingMedia.getRelatedEntityId() + "/" +
-                    existingMedia.getId() + "/thumb/" + thumbFileName;
-            storageService.uploadFile(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath, thumbnailFile);
-            existingMedia.setThumbnailUrl(storageService.getPublicFileUrl(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath));
+        if (thumbnail != null) {
+            uploadJobService.enqueue(UploadTarget.PREMIUM_MEDIA_THUMBNAIL, existingMedia.getId(), PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbnail);
         } else if (mediaDetails.getThumbnailUrl() == null && existingMedia.getThumbnailUrl() != null) {
             // If thumbnail URL is explicitly set to null in details, delete existing thumbnail
             deleteOldFileFromStorage(existingMedia.getThumbnailUrl(), PREMIUM_MEDIA_THUMBNAILS_BUCKET);
             existingMedia.setThumbnailUrl(null);
         }
 
-
-        return premiumMediaRepository.save(existingMedia);
+        PremiumMedia savedMedia = premiumMediaRepository.save(existingMedia);
+        eventPublisher.publishEvent(new PremiumMediaChangedEvent(mediaId, EntityChangeType.UPDATED));
+        return savedMedia;
     }
 
     @Override
@@ -155,6 +276,123 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
         }
 
         premiumMediaRepository.delete(media);
+        eventPublisher.publishEvent(new PremiumMediaChangedEvent(mediaId, EntityChangeType.DELETED));
+    }
+
+    @Override
+    public PremiumMediaUpload initiateUpload(PremiumMedia media, String fileName, String contentType) throws IOException {
+        // Everything the row needs is checked now, not after the client has sent several GB of parts
+        validateRelatedEntity(media.getRelatedToEntityType(), media.getRelatedEntityId());
+        if (!StringUtils.hasText(media.getTitle()) || media.getMediaType() == null) {
+            throw new IllegalArgumentException("Title and media type must be provided.");
+        }
+        String baseName = StringUtils.getFilename(fileName);
+        if (!StringUtils.hasText(baseName)) {
+            throw new IllegalArgumentException("A file name must be provided for the upload.");
+        }
+        return uploadStaging.create(new PremiumMediaUploadStaging.UploadDetails(media.getTitle(), media.getDescription(),
+                media.getMediaType(), media.getDurationSeconds(), media.getRelatedToEntityType(), media.getRelatedEntityId(),
+                baseName, contentType));
+    }
+
+    @Override
+    public void uploadPart(UUID uploadId, int partNumber, InputStream content) throws IOException {
+        uploadStaging.writePart(uploadId, partNumber, content);
+    }
+
+    @Override
+    public PremiumMediaUpload getUpload(UUID uploadId) throws IOException {
+        return uploadStaging.get(uploadId);
+    }
+
+    // Streams the staged parts to storage as one file, then inserts the row. Not @Transactional: the
+    // upload can take minutes and must not hold a connection, so only the insert runs in a transaction.
+    // If anything fails the uploaded files are removed and the staged parts kept, so the client can retry.
+    @Override
+    public PremiumMedia completeUpload(UUID uploadId, MultipartFile thumbnailFile) throws IOException {
+        PremiumMediaUploadStaging.ClaimedUpload upload = uploadStaging.claim(uploadId);
+        PremiumMediaUploadStaging.UploadDetails details = upload.details();
+        // The row takes the upload's ID, so its storage paths are known before it exists
+        UUID mediaId = uploadId;
+        String mediaFilePath = null;
+        String thumbFilePath = null;
+        PremiumMedia created = null;
+        boolean completed = false;
+        try {
+            validateRelatedEntity(details.relatedToEntityType(), details.relatedEntityId());
+
+            String path = mediaFilePath(details.relatedToEntityType(), details.relatedEntityId(), mediaId, details.fileName());
+            storageService.uploadFile(PREMIUM_MEDIA_FILES_BUCKET, path, upload.content(), details.contentType());
+            mediaFilePath = path;
+
+            if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
+                path = thumbnailFilePath(details.relatedToEntityType(), details.relatedEntityId(), mediaId,
+                        thumbnailFile.getOriginalFilename());
+                storageService.uploadFile(PREMIUM_MEDIA_THUMBNAILS_BUCKET, path, thumbnailFile);
+                thumbFilePath = path;
+            }
+
+            String fileUrl = storageService.getPublicFileUrl(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath);
+            String thumbnailUrl = thumbFilePath == null ? null : storageService.getPublicFileUrl(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath);
+            created = transactionTemplate.execute(status -> persistMedia(mediaId, details.title(), details.description(),
+                    details.mediaType(), details.durationSeconds(), details.relatedToEntityType(), details.relatedEntityId(),
+                    fileUrl, thumbnailUrl));
+            completed = true;
+        } catch (DataAccessException e) {
+            throw new IOException("Could not save premium media for upload " + uploadId + ": " + e.getMostSpecificCause().getMessage(), e);
+        } catch (PersistenceException e) {
+            throw new IOException("Could not save premium media for upload " + uploadId + ": " + e.getMessage(), e);
+        } finally {
+            if (!completed) {
+                deleteUploadedFile(PREMIUM_MEDIA_FILES_BUCKET, mediaFilePath);
+                deleteUploadedFile(PREMIUM_MEDIA_THUMBNAILS_BUCKET, thumbFilePath);
+            }
+            // Failing here must not hide the outcome above; a claim left behind is swept once it expires
+            try {
+                if (completed) {
+                    upload.discard();
+                } else {
+                    upload.release();
+                }
+            } catch (IOException e) {
+                System.err.println("Could not clean up staged upload " + uploadId + ": " + e.getMessage());
+            }
+        }
+
+        eventPublisher.publishEvent(new PremiumMediaChangedEvent(mediaId, EntityChangeType.CREATED));
+        return created;
+    }
+
+    @Override
+    public void abortUpload(UUID uploadId) throws IOException {
+        uploadStaging.delete(uploadId);
+    }
+
+    // persist() rather than save(): with an ID already set, save() would take the row for an existing one and merge it.
+    // A null mediaId gets a generated one.
+    private PremiumMedia persistMedia(UUID mediaId, String title, String description, MediaType mediaType, Integer durationSeconds,
+                                      RelatedEntityType entityType, UUID entityId, String fileUrl, String thumbnailUrl) {
+        PremiumMedia media = new PremiumMedia();
+        media.setId(mediaId);
+        media.setTitle(title);
+        media.setDescription(description);
+        media.setMediaType(mediaType);
+        media.setDurationSeconds(durationSeconds);
+        media.setRelatedToEntityType(entityType);
+        media.setRelatedEntityId(entityId);
+        media.setFileUrl(fileUrl);
+        media.setThumbnailUrl(thumbnailUrl);
+        entityManager.persist(media);
+        entityManager.flush(); // Constraint violations surface here, inside the caller's error handling
+        return media;
+    }
+
+    private static String mediaFilePath(RelatedEntityType entityType, UUID entityId, UUID mediaId, String fileName) {
+        return entityType.name().toLowerCase() + "/" + entityId + "/" + mediaId + "/file/media_" + mediaId + "_" + fileName;
+    }
+
+    private static String thumbnailFilePath(RelatedEntityType entityType, UUID entityId, UUID mediaId, String fileName) {
+        return entityType.name().toLowerCase() + "/" + entityId + "/" + mediaId + "/thumb/thumb_" + mediaId + "_" + fileName;
     }
 
     private void validateRelatedEntity(RelatedEntityType entityType, UUID entityId) {
@@ -174,22 +412,43 @@ public class PremiumMediaServiceImpl implements PremiumMediaService {
         }
     }
 
-    private void deleteOldFileFromStorage(String fileUrl, String bucketName) throws IOException {
+    // Queued in the caller's transaction and deleted from storage in the background once it commits
+    private void deleteOldFileFromStorage(String fileUrl, String bucketName) {
         if (fileUrl != null && !fileUrl.isEmpty()) {
-            try {
-                String filePath = extractFilePathFromUrl(fileUrl, bucketName);
-                if (filePath != null) {
-                    storageService.deleteFile(bucketName, filePath);
-                }
-            } catch (Exception e) {
-                System.err.println("Could not delete old file from " + bucketName + ": " + fileUrl + ". Error: " + e.getMessage());
-                // Decide if this should be a fatal error or just logged
-            }
+            storageCleanupService.scheduleDeletion(bucketName, extractFilePathFromUrl(fileUrl, bucketName));
+        }
+    }
+
+    // Queues a file uploaded by a completion that then failed; if even that fails, the leftover file is only logged
+    private void deleteUploadedFile(String bucketName, String filePath) {
+        try {
+            storageCleanupService.scheduleDeletion(bucketName, filePath);
+        } catch (RuntimeException e) {
+            System.err.println("Could not queue deletion of orphaned upload " + bucketName + "/" + filePath + ": " + e.getMessage());
+        }
+    }
+
+    // Signing is local and cached per time window (see StorageUrlSigner), so a long listing costs no requests
+    private List<PremiumMediaCard> withSignedThumbnails(List<PremiumMediaCard> cards) {
+        return cards.stream().map(this::withSignedThumbnail).toList();
+    }
+
+    private PremiumMediaCard withSignedThumbnail(PremiumMediaCard card) {
+        return new PremiumMediaCard(card.id(), card.title(), card.mediaType(),
+                signedUrl(card.thumbnailUrl(), PREMIUM_MEDIA_THUMBNAILS_BUCKET), card.durationSeconds(), card.createdAt());
+    }
+
+    // The stored URL names the file; the signed one is what a client can actually fetch from a private bucket
+    private String signedUrl(String fileUrl, String bucketName) {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            return null;
         }
+        String filePath = extractFilePathFromUrl(fileUrl, bucketName);
+        return filePath == null ? null : storageService.getFileUrl(bucketName, filePath);
     }
 
     private String extractFilePathFromUrl(String fileUrl, String bucketName) {
-        String prefix = supabaseUrl + "/storage/v1/object/public/" + bucketName + "/";
+        String prefix = storageService.getPublicFileUrl(bucketName, "");
         if (fileUrl != null && fileUrl.startsWith(prefix)) {
             return fileUrl.substring(prefix.length());
         }
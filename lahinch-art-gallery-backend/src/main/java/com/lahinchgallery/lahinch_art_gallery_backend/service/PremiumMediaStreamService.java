@@ -0,0 +1,19 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaStreamSession;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.http.HttpRange;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public interface PremiumMediaStreamService {
+    // Checks the caller's Supabase access token and entitlement (a subscription, or the admin role) once per
+    // session. BadCredentialsException without a valid token, AccessDeniedException without entitlement.
+    PremiumMediaStreamSession startSession(UUID mediaId, String accessToken);
+    // The same check on its own, for reads of premium files that don't go through a session; returns the user's ID
+    UUID checkAccess(String accessToken);
+    // Opens the session's media file, all of it or one range; the range served may be shorter than the one asked
+    // for. Costs no database query once the media is cached. BadCredentialsException if the session has expired.
+    StoredFileRange openStream(String sessionToken, HttpRange range) throws IOException;
+}
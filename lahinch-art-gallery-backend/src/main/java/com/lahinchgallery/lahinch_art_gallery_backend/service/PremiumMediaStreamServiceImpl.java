@@ -0,0 +1,167 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaStreamSession;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Profile;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UserRole;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ProfileRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRange;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Premium files are only readable through stream sessions. Starting one checks the user's Supabase access token
+// and subscription; the session token that comes back is an HS256 JWT {media, sub, exp} under a key derived
+// from the project JWT secret (so it is no use anywhere else in Supabase), and checking it costs one HMAC.
+// A player's many range requests therefore never touch the subscription tables.
+// Files come from MediaCache when it holds them. Otherwise the range is proxied from storage, and open-ended
+// ranges ("bytes=N-", which players send) are cut to media.streaming.max-range: each proxied response then holds
+// a pooled storage connection for a few MB rather than for the rest of the video, and the player simply asks
+// for the next range.
+@Service
+public class PremiumMediaStreamServiceImpl implements PremiumMediaStreamService {
+
+    private static final String PREMIUM_MEDIA_FILES_BUCKET = "premium-media-files";
+
+    private final PremiumMediaService premiumMediaService;
+    private final SubscriptionService subscriptionService;
+    private final ProfileRepository profileRepository;
+    private final StorageService storageService;
+    private final ObjectProvider<MediaCache> mediaCache;
+    private final SecretKeySpec accessTokenKey; // Null without supabase.jwt-secret: no sessions can be started
+    private final SecretKeySpec sessionKey;
+    private final Duration sessionTtl;
+    private final long maxRange;
+    private final String baseUrl;
+
+    @Autowired
+    public PremiumMediaStreamServiceImpl(PremiumMediaService premiumMediaService,
+                                         SubscriptionService subscriptionService,
+                                         ProfileRepository profileRepository,
+                                         StorageService storageService,
+                                         ObjectProvider<MediaCache> mediaCache,
+                                         @Value("${supabase.jwt-secret:}") String jwtSecret,
+                                         @Value("${media.streaming.session-ttl:4h}") Duration sessionTtl,
+                                         @Value("${media.streaming.max-range:8MB}") DataSize maxRange,
+                                         @Value("${media.streaming.base-url:/api/premium-media/streams}") String baseUrl) {
+        this.premiumMediaService = premiumMediaService;
+        this.subscriptionService = subscriptionService;
+        this.profileRepository = profileRepository;
+        this.storageService = storageService;
+        this.mediaCache = mediaCache;
+        if (StringUtils.hasText(jwtSecret)) {
+            this.accessTokenKey = Jwts.key(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            this.sessionKey = Jwts.key(Jwts.hmac(accessTokenKey, "premium-media-stream".getBytes(StandardCharsets.UTF_8)));
+        } else {
+            byte[] unusable = new byte[32];
+            new SecureRandom().nextBytes(unusable);
+            this.accessTokenKey = null;
+            this.sessionKey = Jwts.key(unusable);
+        }
+        this.sessionTtl = sessionTtl;
+        this.maxRange = maxRange.toBytes();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public PremiumMediaStreamSession startSession(UUID mediaId, String accessToken) {
+        UUID userId = checkAccess(accessToken);
+        PremiumMediaDetail media = premiumMediaService.getMediaById(mediaId)
+                .orElseThrow(() -> new EntityNotFoundException("PremiumMedia not found with ID: " + mediaId));
+
+        Instant expiresAt = Instant.now().plus(sessionTtl);
+        String token = Jwts.sign(sessionKey, Map.of("media", mediaId.toString(), "sub", userId.toString(),
+                "exp", expiresAt.getEpochSecond()));
+        return new PremiumMediaStreamSession(baseUrl + "/" + token, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC),
+                media.mediaType(), media.durationSeconds());
+    }
+
+    @Override
+    public UUID checkAccess(String accessToken) {
+        UUID userId = userId(accessTokenKey == null ? null : Jwts.verify(accessTokenKey, accessToken));
+        if (userId == null) {
+            throw new BadCredentialsException("A valid access token is required");
+        }
+        if (!subscriptionService.checkUserSubscription(userId) && !isAdmin(userId)) {
+            throw new AccessDeniedException("Premium media is only available to subscribers");
+        }
+        return userId;
+    }
+
+    @Override
+    public StoredFileRange openStream(String sessionToken, HttpRange range) throws IOException {
+        Map<String, Object> claims = Jwts.verify(sessionKey, sessionToken);
+        UUID mediaId = claims == null ? null : uuid(claims.get("media"));
+        if (mediaId == null) {
+            throw new BadCredentialsException("The stream session is invalid or has expired");
+        }
+        PremiumMediaDetail media = premiumMediaService.getMediaById(mediaId)
+                .orElseThrow(() -> new FileNotFoundException("PremiumMedia not found with ID: " + mediaId));
+        String filePath = premiumMediaService.getMediaFilePath(media);
+        if (filePath == null) {
+            throw new FileNotFoundException("PremiumMedia " + mediaId + " has no file");
+        }
+
+        MediaCache cache = mediaCache.getIfAvailable();
+        if (cache != null) {
+            Optional<Path> cached = cache.find(PREMIUM_MEDIA_FILES_BUCKET, filePath);
+            if (cached.isPresent()) {
+                return FileRanges.open(cached.get(), range);
+            }
+            cache.prefetch(PREMIUM_MEDIA_FILES_BUCKET, filePath); // This viewer doesn't wait for the whole file
+        }
+        return storageService.openFile(PREMIUM_MEDIA_FILES_BUCKET, filePath, capped(range));
+    }
+
+    private HttpRange capped(HttpRange range) {
+        if (range == null) {
+            return null; // A request without a Range header gets the whole file, as HTTP requires
+        }
+        // Resolved against an unknown, huge length: "bytes=N-" ends at Long.MAX_VALUE - 1, and a suffix
+        // range ("bytes=-N") stays N bytes long
+        long start = range.getRangeStart(Long.MAX_VALUE);
+        long end = range.getRangeEnd(Long.MAX_VALUE);
+        return end - start >= maxRange ? HttpRange.createByteRange(start, start + maxRange - 1) : range;
+    }
+
+    private boolean isAdmin(UUID userId) {
+        return profileRepository.findById(userId).map(Profile::getRole).orElse(null) == UserRole.ADMIN;
+    }
+
+    // Supabase access tokens name the user in "sub"; the anon and service role keys have none
+    private static UUID userId(Map<String, Object> claims) {
+        return claims == null ? null : uuid(claims.get("sub"));
+    }
+
+    private static UUID uuid(Object claim) {
+        if (!(claim instanceof String value)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
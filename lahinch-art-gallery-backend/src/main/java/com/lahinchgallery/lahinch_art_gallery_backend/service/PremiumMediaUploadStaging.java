@@ -0,0 +1,298 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+// Local disk staging for resumable premium media uploads. Each upload is a directory holding the
+// metadata the row will be created from plus one file per numbered part, so the state survives restarts
+// and parts can arrive in any order and in parallel. A part is written to a temp file and renamed into
+// place, so a dropped connection never leaves a partial part that looks complete.
+// Completing an upload first renames its directory, which claims it: parts arriving afterwards fail
+// instead of being silently left out of the assembled file.
+@Component
+public class PremiumMediaUploadStaging {
+
+    static final int MAX_PARTS = 10_000;
+
+    private static final String DETAILS_FILE = "upload.json";
+    private static final String CLAIMED_SUFFIX = ".completing";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path stagingDir;
+    private final long maxPartSize;
+    private final Duration expireAfter;
+
+    @Autowired
+    public PremiumMediaUploadStaging(@Value("${premium-media.upload.staging-dir:${java.io.tmpdir}/premium-media-uploads}") Path stagingDir,
+                                     @Value("${premium-media.upload.max-part-size:64MB}") DataSize maxPartSize,
+                                     @Value("${premium-media.upload.expire-after:24h}") Duration expireAfter) throws IOException {
+        this.stagingDir = Files.createDirectories(stagingDir);
+        this.maxPartSize = maxPartSize.toBytes();
+        this.expireAfter = expireAfter;
+        sweepExpired();
+    }
+
+    // What the PremiumMedia row is created from once the upload completes
+    public record UploadDetails(String title, String description, MediaType mediaType, Integer durationSeconds,
+                                RelatedEntityType relatedToEntityType, UUID relatedEntityId,
+                                String fileName, String contentType) {
+    }
+
+    public PremiumMediaUpload create(UploadDetails details) throws IOException {
+        sweepExpired();
+        UUID uploadId = UUID.randomUUID();
+        Path dir = Files.createDirectory(uploadDir(uploadId));
+        Path temp = Files.createTempFile(dir, DETAILS_FILE, ".tmp");
+        MAPPER.writeValue(temp.toFile(), details);
+        Files.move(temp, dir.resolve(DETAILS_FILE), StandardCopyOption.ATOMIC_MOVE);
+        return describe(uploadId, dir, details);
+    }
+
+    public PremiumMediaUpload get(UUID uploadId) throws IOException {
+        Path dir = activeDir(uploadId);
+        return describe(uploadId, dir, readDetails(dir));
+    }
+
+    // Stores one part, replacing any earlier copy of it (e.g. a retry after a timeout). Returns its size.
+    public long writePart(UUID uploadId, int partNumber, InputStream content) throws IOException {
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + MAX_PARTS + ".");
+        }
+        Path dir = activeDir(uploadId);
+        Path temp = Files.createTempFile(dir, partName(partNumber), ".tmp");
+        try {
+            long size;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                size = copyPart(content, out);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Part " + partNumber + " is empty.");
+            }
+            Files.move(temp, dir.resolve(partName(partNumber)), StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("Upload " + uploadId + " is already being completed.", e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Takes the upload out of circulation and checks that parts 1..n are all present.
+    // The caller must either discard() the claim once the media row exists, or release() it so the client can retry.
+    public ClaimedUpload claim(UUID uploadId) throws IOException {
+        Path dir = activeDir(uploadId);
+        Path claimedDir = stagingDir.resolve(uploadId + CLAIMED_SUFFIX);
+        try {
+            Files.move(dir, claimedDir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            throw new EntityNotFoundException("Upload not found with ID: " + uploadId);
+        }
+
+        ClaimedUpload claimed = new ClaimedUpload(dir, claimedDir);
+        try {
+            claimed.details = readDetails(claimedDir);
+            List<Integer> parts = partNumbers(claimedDir);
+            if (parts.isEmpty()) {
+                throw new IllegalArgumentException("Upload " + uploadId + " has no parts.");
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                if (parts.get(i) != i + 1) {
+                    throw new IllegalArgumentException("Upload " + uploadId + " is missing part " + (i + 1) + ".");
+                }
+                Path part = claimedDir.resolve(partName(i + 1));
+                claimed.parts.add(part);
+                claimed.contentLength += Files.size(part);
+            }
+            return claimed;
+        } catch (IOException | RuntimeException e) {
+            claimed.release();
+            throw e;
+        }
+    }
+
+    public void delete(UUID uploadId) throws IOException {
+        if (!FileSystemUtils.deleteRecursively(activeDir(uploadId))) {
+            throw new EntityNotFoundException("Upload not found with ID: " + uploadId);
+        }
+    }
+
+    // Removes uploads nobody has touched for expireAfter, including claims left behind by a crash mid-completion
+    void sweepExpired() {
+        Instant cutoff = Instant.now().minus(expireAfter);
+        try (DirectoryStream<Path> uploads = Files.newDirectoryStream(stagingDir, Files::isDirectory)) {
+            for (Path dir : uploads) {
+                try {
+                    if (Files.getLastModifiedTime(dir).toInstant().isBefore(cutoff)) {
+                        FileSystemUtils.deleteRecursively(dir);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not remove expired upload " + dir + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not sweep expired uploads in " + stagingDir + ": " + e.getMessage());
+        }
+    }
+
+    private Path activeDir(UUID uploadId) throws IOException {
+        Path dir = uploadDir(uploadId);
+        if (!Files.isDirectory(dir) || isExpired(dir)) {
+            throw new EntityNotFoundException("Upload not found with ID: " + uploadId);
+        }
+        return dir;
+    }
+
+    private Path uploadDir(UUID uploadId) {
+        return stagingDir.resolve(uploadId.toString());
+    }
+
+    private boolean isExpired(Path dir) throws IOException {
+        return expiresAt(dir).isBefore(Instant.now());
+    }
+
+    // Renaming a part into place updates the directory's modification time, so every part extends the upload's life
+    private Instant expiresAt(Path dir) throws IOException {
+        return Files.getLastModifiedTime(dir).toInstant().plus(expireAfter);
+    }
+
+    private PremiumMediaUpload describe(UUID uploadId, Path dir, UploadDetails details) throws IOException {
+        List<Integer> parts = partNumbers(dir);
+        long uploadedBytes = 0;
+        for (int part : parts) {
+            uploadedBytes += Files.size(dir.resolve(partName(part)));
+        }
+        return new PremiumMediaUpload(uploadId, details.fileName(), parts, uploadedBytes,
+                OffsetDateTime.ofInstant(expiresAt(dir), ZoneOffset.UTC));
+    }
+
+    private static UploadDetails readDetails(Path dir) throws IOException {
+        return MAPPER.readValue(dir.resolve(DETAILS_FILE).toFile(), UploadDetails.class);
+    }
+
+    private static List<Integer> partNumbers(Path dir) throws IOException {
+        List<Integer> parts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "part-[0-9][0-9][0-9][0-9][0-9]")) {
+            for (Path file : files) {
+                parts.add(Integer.parseInt(file.getFileName().toString().substring("part-".length())));
+            }
+        }
+        parts.sort(null);
+        return parts;
+    }
+
+    private static String partName(int partNumber) {
+        return String.format("part-%05d", partNumber);
+    }
+
+    // Copies the part, failing as soon as it grows past the limit rather than after filling the disk
+    private long copyPart(InputStream content, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            size += read;
+            if (size > maxPartSize) {
+                throw new IllegalArgumentException("Parts cannot be larger than " + maxPartSize + " bytes.");
+            }
+            out.write(buffer, 0, read);
+        }
+        return size;
+    }
+
+    public static final class ClaimedUpload {
+
+        private final Path activeDir;
+        private final Path claimedDir;
+        private final List<Path> parts = new ArrayList<>();
+        private UploadDetails details;
+        private long contentLength;
+
+        private ClaimedUpload(Path activeDir, Path claimedDir) {
+            this.activeDir = activeDir;
+            this.claimedDir = claimedDir;
+        }
+
+        public UploadDetails details() {
+            return details;
+        }
+
+        // The parts read back to back, so the assembled file is streamed to storage without being written out again
+        public Resource content() {
+            return new AbstractResource() {
+                @Override
+                public String getDescription() {
+                    return "staged upload [" + claimedDir + "]";
+                }
+
+                @Override
+                public String getFilename() {
+                    return details.fileName();
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    Iterator<Path> remaining = parts.iterator();
+                    return new SequenceInputStream(new Enumeration<>() {
+                        @Override
+                        public boolean hasMoreElements() {
+                            return remaining.hasNext();
+                        }
+
+                        @Override
+                        public InputStream nextElement() {
+                            try {
+                                return Files.newInputStream(remaining.next());
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    });
+                }
+
+                @Override
+                public long contentLength() {
+                    return contentLength;
+                }
+            };
+        }
+
+        // Puts the upload back as it was, e.g. after the storage upload failed
+        public void release() throws IOException {
+            Files.move(claimedDir, activeDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        public void discard() throws IOException {
+            FileSystemUtils.deleteRecursively(claimedDir);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import java.io.IOException;
+
+// A byte range that starts past the end of the file; length is the file's size, or -1 if storage didn't say
+public class RangeNotSatisfiableException extends IOException {
+
+    private final long length;
+
+    public RangeNotSatisfiableException(String message, long length) {
+        super(message);
+        this.length = length;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
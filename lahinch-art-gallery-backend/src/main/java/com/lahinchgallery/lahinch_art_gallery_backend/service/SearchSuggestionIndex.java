@@ -0,0 +1,460 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.SearchSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Type-ahead suggestions over artist names, artwork titles and mediums.
+// Suggestions are stored in a radix trie under their normalised text, once per word start (up to
+// MAX_INDEXED_WORDS) so "light" also finds "Burren Light". Each node records the best score beneath it,
+// so the top suggestions for a prefix are found best-first without visiting the whole subtree.
+// Typos are tolerated by walking the trie with an edit-distance row per character (a swap of adjacent
+// letters counts as one edit): one edit from four typed characters, two from eight. The first character
+// must be right, as in most fuzzy type-ahead, which keeps the walk to a single branch of the root.
+// Popularity is how much of the catalog a suggestion leads to, i.e. an artist's or a medium's artwork
+// count; artists show up once they have at least one artwork.
+@Component
+public class SearchSuggestionIndex implements ArtworkIndex {
+
+    private static final float ARTIST_WEIGHT = 3.0f;
+    private static final float MEDIUM_WEIGHT = 2.0f;
+    private static final float TITLE_WEIGHT = 1.0f;
+    // A match further into the text, or one needing an edit, ranks below a clean match at its start
+    private static final float LATER_WORD_FACTOR = 0.7f;
+    private static final float PER_EDIT_FACTOR = 0.4f;
+    private static final int MAX_INDEXED_WORDS = 6;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>(); // suggestion key -> its entry at the first word
+    private final Map<UUID, IndexedArtwork> artworks = new HashMap<>();
+    private final Map<UUID, Counted> artists = new HashMap<>();
+    private final Map<String, Counted> mediums = new HashMap<>(); // lower-cased medium -> first-seen label
+    private volatile boolean ready = false;
+
+    private record IndexedArtwork(UUID artistId, String mediumKey) {
+    }
+
+    private record Counted(String text, int artworkCount) {
+    }
+
+    // One suggestion under one of its keys; key is the suggestion's identity (e.g. "artist:<id>")
+    private record Entry(String key, SearchSuggestion suggestion, float score) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void rebuild(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            root.children = NO_CHILDREN;
+            root.entries = NO_ENTRIES;
+            root.maxScore = 0;
+            entries.clear();
+            artworks.clear();
+            artists.clear();
+            mediums.clear();
+            Set<UUID> touchedArtists = new HashSet<>();
+            Set<String> touchedMediums = new HashSet<>();
+            rows.forEach(row -> index(row, touchedArtists, touchedMediums));
+            refresh(touchedArtists, touchedMediums);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Collection<ArtworkIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            // Artist and medium counts are settled first and their suggestions re-scored once per batch
+            Set<UUID> touchedArtists = new HashSet<>();
+            Set<String> touchedMediums = new HashSet<>();
+            for (ArtworkIndexRow row : rows) {
+                unindex(row.id(), touchedArtists, touchedMediums);
+                index(row, touchedArtists, touchedMediums);
+            }
+            refresh(touchedArtists, touchedMediums);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> artworkIds) {
+        lock.writeLock().lock();
+        try {
+            Set<UUID> touchedArtists = new HashSet<>();
+            Set<String> touchedMediums = new HashSet<>();
+            artworkIds.forEach(id -> unindex(id, touchedArtists, touchedMediums));
+            refresh(touchedArtists, touchedMediums);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The best suggestions for what has been typed so far, best first
+    public List<SearchSuggestion> suggest(String prefix, int limit) {
+        String query = String.join(" ", SearchTokenizer.tokenize(prefix));
+        if (query.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        int maxEdits = query.length() >= 8 ? 2 : query.length() >= 4 ? 1 : 0;
+
+        lock.readLock().lock();
+        try {
+            // Subtrees whose path matches the query as a prefix, with the fewest edits needed to get there
+            Map<Node, Integer> matches = new IdentityHashMap<>();
+            int first = childIndex(root, query.charAt(0));
+            if (first < 0) {
+                return List.of();
+            }
+            Node start = new Node("");
+            start.children = new Node[]{root.children[first]};
+            int[] initialRow = new int[query.length() + 1];
+            Arrays.setAll(initialRow, i -> i);
+            collectMatches(start, null, initialRow, '\0', query, maxEdits, matches);
+            return topSuggestions(matches, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best-first over the matched subtrees: a node's bound is its best score times its edit penalty, so
+    // suggestions come off the queue in final order and the search stops after limit distinct ones.
+    private List<SearchSuggestion> topSuggestions(Map<Node, Integer> matches, int limit) {
+        record Candidate(float bound, Node node, Entry entry, float factor) {
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>((a, b) -> Float.compare(b.bound(), a.bound()));
+        matches.forEach((node, edits) -> {
+            float factor = (float) Math.pow(PER_EDIT_FACTOR, edits);
+            queue.add(new Candidate(node.maxScore * factor, node, null, factor));
+        });
+
+        Map<String, SearchSuggestion> results = new LinkedHashMap<>();
+        Set<Node> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!queue.isEmpty() && results.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry() != null) {
+                results.putIfAbsent(candidate.entry().key(), candidate.entry().suggestion());
+                continue;
+            }
+            // The same node reached under a worse edit penalty can only add duplicates
+            if (!expanded.add(candidate.node())) {
+                continue;
+            }
+            for (Entry entry : candidate.node().entries) {
+                queue.add(new Candidate(entry.score() * candidate.factor(), null, entry, candidate.factor()));
+            }
+            for (Node child : candidate.node().children) {
+                queue.add(new Candidate(child.maxScore * candidate.factor(), child, null, candidate.factor()));
+            }
+        }
+        return List.copyOf(results.values());
+    }
+
+    // row[j] is the edit distance between the first j query characters and the path to node; previousRow and
+    // previousChar belong to the path one character shorter and let an adjacent swap count as a single edit
+    private static void collectMatches(Node node, int[] previousRow, int[] row, char previousChar,
+                                       String query, int maxEdits, Map<Node, Integer> matches) {
+        int queryLength = query.length();
+        for (Node child : node.children) {
+            int[] before = previousRow;
+            int[] current = row;
+            char last = previousChar;
+            int best = Integer.MAX_VALUE;
+            boolean pruned = false;
+            for (int i = 0; i < child.label.length(); i++) {
+                char c = child.label.charAt(i);
+                int[] next = nextRow(before, current, last, c, query);
+                before = current;
+                current = next;
+                last = c;
+                best = Math.min(best, current[queryLength]);
+                if (min(current) > maxEdits) {
+                    pruned = true;
+                    break;
+                }
+            }
+            if (best <= maxEdits) {
+                // Every key below this point extends a path that matches the whole query
+                matches.merge(child, best, Math::min);
+            }
+            if (!pruned && best > 0) {
+                collectMatches(child, before, current, last, query, maxEdits, matches);
+            }
+        }
+    }
+
+    // One row of the optimal string alignment distance (Levenshtein plus adjacent transpositions)
+    private static int[] nextRow(int[] previousRow, int[] row, char previousChar, char c, String query) {
+        int[] next = new int[row.length];
+        next[0] = row[0] + 1;
+        for (int j = 1; j < next.length; j++) {
+            char queryChar = query.charAt(j - 1);
+            int cost = Math.min(row[j - 1] + (queryChar == c ? 0 : 1), Math.min(next[j - 1] + 1, row[j] + 1));
+            if (previousRow != null && j > 1 && queryChar == previousChar && query.charAt(j - 2) == c) {
+                cost = Math.min(cost, previousRow[j - 2] + 1);
+            }
+            next[j] = cost;
+        }
+        return next;
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private void index(ArtworkIndexRow row, Set<UUID> touchedArtists, Set<String> touchedMediums) {
+        String medium = row.medium() == null ? "" : row.medium().trim();
+        String mediumKey = medium.isEmpty() ? null : medium.toLowerCase(Locale.ROOT);
+        artworks.put(row.id(), new IndexedArtwork(row.artistId(), mediumKey));
+
+        put("artwork:" + row.id(), new SearchSuggestion(SearchSuggestion.Type.ARTWORK, row.title(), row.id()), TITLE_WEIGHT);
+
+        // The artist name comes with every row, so a rename reaches the index with the artist's artworks
+        Counted artist = artists.get(row.artistId());
+        artists.put(row.artistId(), new Counted(row.artistName(), artist == null ? 1 : artist.artworkCount() + 1));
+        touchedArtists.add(row.artistId());
+
+        if (mediumKey != null) {
+            Counted counted = mediums.get(mediumKey);
+            mediums.put(mediumKey, counted == null ? new Counted(medium, 1) : new Counted(counted.text(), counted.artworkCount() + 1));
+            touchedMediums.add(mediumKey);
+        }
+    }
+
+    private void unindex(UUID artworkId, Set<UUID> touchedArtists, Set<String> touchedMediums) {
+        IndexedArtwork existing = artworks.remove(artworkId);
+        if (existing == null) {
+            return;
+        }
+        removeSuggestion("artwork:" + artworkId);
+        decrement(artists, existing.artistId());
+        touchedArtists.add(existing.artistId());
+        if (existing.mediumKey() != null) {
+            decrement(mediums, existing.mediumKey());
+            touchedMediums.add(existing.mediumKey());
+        }
+    }
+
+    private static <K> void decrement(Map<K, Counted> counts, K key) {
+        Counted counted = counts.get(key);
+        if (counted == null) {
+            return;
+        }
+        if (counted.artworkCount() <= 1) {
+            counts.remove(key);
+        } else {
+            counts.put(key, new Counted(counted.text(), counted.artworkCount() - 1));
+        }
+    }
+
+    private void refresh(Set<UUID> touchedArtists, Set<String> touchedMediums) {
+        for (UUID artistId : touchedArtists) {
+            Counted artist = artists.get(artistId);
+            if (artist == null) {
+                removeSuggestion("artist:" + artistId);
+            } else {
+                put("artist:" + artistId, new SearchSuggestion(SearchSuggestion.Type.ARTIST, artist.text(), artistId),
+                        ARTIST_WEIGHT * popularity(artist.artworkCount()));
+            }
+        }
+        for (String mediumKey : touchedMediums) {
+            Counted medium = mediums.get(mediumKey);
+            if (medium == null) {
+                removeSuggestion("medium:" + mediumKey);
+            } else {
+                put("medium:" + mediumKey, new SearchSuggestion(SearchSuggestion.Type.MEDIUM, medium.text(), null),
+                        MEDIUM_WEIGHT * popularity(medium.artworkCount()));
+            }
+        }
+    }
+
+    private static float popularity(int artworkCount) {
+        return 1.0f + (float) Math.log(artworkCount);
+    }
+
+    // (Re)indexes a suggestion under each of its word starts
+    private void put(String key, SearchSuggestion suggestion, float score) {
+        Entry existing = entries.get(key);
+        if (existing != null && existing.suggestion().equals(suggestion) && existing.score() == score) {
+            return;
+        }
+        removeSuggestion(key);
+        List<String> words = SearchTokenizer.tokenize(suggestion.text());
+        if (words.isEmpty()) {
+            return;
+        }
+        Entry first = new Entry(key, suggestion, score);
+        entries.put(key, first);
+        for (int i = 0; i < Math.min(words.size(), MAX_INDEXED_WORDS); i++) {
+            String text = String.join(" ", words.subList(i, words.size()));
+            insert(text, i == 0 ? first : new Entry(key, suggestion, score * LATER_WORD_FACTOR));
+        }
+    }
+
+    private void removeSuggestion(String key) {
+        Entry existing = entries.remove(key);
+        if (existing == null) {
+            return;
+        }
+        List<String> words = SearchTokenizer.tokenize(existing.suggestion().text());
+        for (int i = 0; i < Math.min(words.size(), MAX_INDEXED_WORDS); i++) {
+            delete(root, String.join(" ", words.subList(i, words.size())), 0, key);
+        }
+    }
+
+    private void insert(String text, Entry entry) {
+        Node node = root;
+        int position = 0;
+        while (true) {
+            node.maxScore = Math.max(node.maxScore, entry.score());
+            if (position == text.length()) {
+                node.entries = append(node.entries, entry);
+                return;
+            }
+            int index = childIndex(node, text.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(text.substring(position));
+                leaf.entries = new Entry[]{entry};
+                leaf.maxScore = entry.score();
+                node.children = insertChild(node.children, -index - 1, leaf);
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, text, position);
+            if (common < child.label.length()) {
+                // Split the edge where the new text diverges from it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[]{child};
+                middle.maxScore = child.maxScore;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            position += common;
+        }
+    }
+
+    // Returns whether node is now empty and should be unlinked from its parent
+    private boolean delete(Node node, String text, int position, String key) {
+        if (position == text.length()) {
+            node.entries = Arrays.stream(node.entries).filter(entry -> !entry.key().equals(key)).toArray(Entry[]::new);
+        } else {
+            int index = childIndex(node, text.charAt(position));
+            if (index < 0 || !text.startsWith(node.children[index].label, position)) {
+                return false;
+            }
+            Node child = node.children[index];
+            if (delete(child, text, position + child.label.length(), key)) {
+                node.children = removeChild(node.children, index);
+            } else if (child.entries.length == 0 && child.children.length == 1) {
+                // Merge a pass-through node back into its only child
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.children[index] = grandchild;
+            }
+        }
+        float maxScore = 0;
+        for (Entry entry : node.entries) {
+            maxScore = Math.max(maxScore, entry.score());
+        }
+        for (Node child : node.children) {
+            maxScore = Math.max(maxScore, child.maxScore);
+        }
+        node.maxScore = maxScore;
+        return node != root && node.entries.length == 0 && node.children.length == 0;
+    }
+
+    // Children are kept sorted by the first character of their label; returns -(insertion point) - 1 if absent
+    private static int childIndex(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = node.children[mid].label.charAt(0);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefixLength(String label, String text, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < text.length()
+                && label.charAt(length) == text.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] result = Arrays.copyOf(entries, entries.length + 1);
+        result[entries.length] = entry;
+        return result;
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static Node[] removeChild(Node[] children, int index) {
+        if (children.length == 1) {
+            return NO_CHILDREN;
+        }
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static final class Node {
+        String label; // edge label from the parent; empty only for the root
+        Node[] children = NO_CHILDREN;
+        Entry[] entries = NO_ENTRIES; // suggestions whose key ends exactly here
+        float maxScore; // best score in this subtree
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
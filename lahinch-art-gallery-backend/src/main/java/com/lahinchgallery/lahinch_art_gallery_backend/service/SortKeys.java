@@ -0,0 +1,55 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+// Orders rows from ArtworkRepository.findSortKeys ([id, value per sort property]) the way the database
+// would order the artworks: by each Sort.Order in turn, then by ID so ties always come out the same way.
+// Nulls follow PostgreSQL's defaults unless the order asks otherwise: last ascending, first descending.
+final class SortKeys {
+
+    private SortKeys() {
+    }
+
+    static Comparator<Object[]> comparator(Sort sort) {
+        Comparator<Object[]> comparator = (first, second) -> 0;
+        int column = 1;
+        for (Sort.Order order : sort) {
+            int index = column++;
+            comparator = comparator.thenComparing(row -> row[index], valueOrder(order));
+        }
+        return comparator.thenComparing(row -> row[0], SortKeys::compare);
+    }
+
+    static UUID id(Object[] row) {
+        return (UUID) row[0];
+    }
+
+    private static Comparator<Object> valueOrder(Sort.Order order) {
+        Comparator<Object> values = order.isIgnoreCase()
+                ? (first, second) -> first instanceof String a && second instanceof String b
+                        ? a.compareToIgnoreCase(b) : compare(first, second)
+                : SortKeys::compare;
+        if (order.isDescending()) {
+            values = values.reversed();
+        }
+        boolean nullsFirst = switch (order.getNullHandling()) {
+            case NULLS_FIRST -> true;
+            case NULLS_LAST -> false;
+            case NATIVE -> order.isDescending();
+        };
+        return nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object first, Object second) {
+        if (first instanceof UUID a && second instanceof UUID b) {
+            // UUID.compareTo compares signed halves; PostgreSQL compares the bytes unsigned
+            int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+            return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        }
+        return ((Comparable) first).compareTo(second);
+    }
+}
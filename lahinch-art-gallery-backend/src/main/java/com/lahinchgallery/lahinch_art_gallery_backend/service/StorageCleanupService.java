@@ -0,0 +1,13 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import java.time.OffsetDateTime;
+
+public interface StorageCleanupService {
+    // Queues a file for deletion; StorageDeletionWorker removes it in a later batch. Call it inside the transaction
+    // that drops the reference to the file, so the file is only deleted if that commits. A null path is ignored.
+    void scheduleDeletion(String bucketName, String filePath);
+    // Called when a file is written to a path again, so a deletion queued for the earlier file can't remove the new one.
+    // Returns null, or if a delete request for the path may already be in flight, the time by which it will have finished:
+    // the new file has to be checked for (and written again) after that.
+    OffsetDateTime cancelDeletion(String bucketName, String filePath);
+}
@@ -0,0 +1,51 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.StorageDeletion;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.StorageDeletionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Service
+public class StorageCleanupServiceImpl implements StorageCleanupService {
+
+    private final StorageDeletionRepository storageDeletionRepository;
+
+    @Autowired
+    public StorageCleanupServiceImpl(StorageDeletionRepository storageDeletionRepository) {
+        this.storageDeletionRepository = storageDeletionRepository;
+    }
+
+    @Override
+    @Transactional
+    public void scheduleDeletion(String bucketName, String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            return;
+        }
+        StorageDeletion deletion = new StorageDeletion();
+        deletion.setBucketName(bucketName);
+        deletion.setFilePath(filePath);
+        deletion.setNextAttemptAt(OffsetDateTime.now());
+        storageDeletionRepository.save(deletion);
+    }
+
+    @Override
+    @Transactional
+    public OffsetDateTime cancelDeletion(String bucketName, String filePath) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime inFlightUntil = null;
+        List<StorageDeletion> queued = storageDeletionRepository.findByBucketNameAndFilePath(bucketName, filePath);
+        for (StorageDeletion deletion : queued) {
+            OffsetDateTime claimedUntil = deletion.getClaimedUntil();
+            if (claimedUntil != null && claimedUntil.isAfter(now) && (inFlightUntil == null || claimedUntil.isAfter(inFlightUntil))) {
+                inFlightUntil = claimedUntil;
+            }
+        }
+        // A claimed row can go too: the worker's own delete of it afterwards simply finds nothing
+        storageDeletionRepository.deleteAllInBatch(queued);
+        return inFlightUntil;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.StorageDeletion;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.StorageDeletionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Drains the storage_deletions queue in the background, one delete request per bucket for up to batchSize files.
+// A failed batch stays queued and is retried with exponential backoff (capped at an hour) until it succeeds,
+// so an outage delays deletes instead of leaking the files. Content-addressed files can be shared, so paths a row
+// or an unfinished upload still refers to are dropped from the queue instead of deleted. The rest of a batch is
+// claimed (claimed_until) and committed before the delete request goes out, so no transaction or row lock is held
+// across it. An upload that re-uses a claimed path learns from cancelDeletion that a delete may be in flight, and
+// UploadJobWorker checks for its file again once the claim has run out.
+@Component
+public class StorageDeletionWorker {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final StorageService storageService;
+    private final StorageReferences storageReferences;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final Duration claimTimeout; // Longer than any delete request can take
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public StorageDeletionWorker(StorageDeletionRepository storageDeletionRepository,
+                                 StorageService storageService,
+                                 StorageReferences storageReferences,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${storage.deletions.interval:10s}") Duration interval,
+                                 @Value("${storage.deletions.batch-size:100}") int batchSize,
+                                 @Value("${storage.deletions.retry-delay:1m}") Duration retryDelay,
+                                 @Value("${storage.deletions.claim-timeout:5m}") Duration claimTimeout) {
+        this.storageDeletionRepository = storageDeletionRepository;
+        this.storageService = storageService;
+        this.storageReferences = storageReferences;
+        this.transactionTemplate = transactionTemplate;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void drain() {
+        try {
+            int processed;
+            do {
+                processed = deleteBatch();
+            } while (processed == batchSize && !Thread.currentThread().isInterrupted()); // A full batch means more may be due
+        } catch (RuntimeException e) {
+            // Thrown out of the scheduled task it would cancel every later run
+            System.err.println("Could not process queued storage deletions: " + e.getMessage());
+        }
+    }
+
+    private int deleteBatch() {
+        List<StorageDeletion> due = new ArrayList<>();
+        Map<String, List<StorageDeletion>> claimed = transactionTemplate.execute(status -> claimBatch(due));
+        if (claimed != null) {
+            claimed.forEach(this::deleteFiles);
+        }
+        return due.size();
+    }
+
+    // Short transaction: queue entries for paths still referenced are dropped, the rest claimed by bucket
+    private Map<String, List<StorageDeletion>> claimBatch(List<StorageDeletion> due) {
+        OffsetDateTime now = OffsetDateTime.now();
+        due.addAll(storageDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAt(now, Limit.of(batchSize)));
+
+        Map<String, List<StorageDeletion>> byBucket = new LinkedHashMap<>();
+        for (StorageDeletion deletion : due) {
+            byBucket.computeIfAbsent(deletion.getBucketName(), bucket -> new ArrayList<>()).add(deletion);
+        }
+        Map<String, List<StorageDeletion>> claimed = new LinkedHashMap<>();
+        List<UUID> dropped = new ArrayList<>();
+        byBucket.forEach((bucketName, deletions) -> {
+            Set<String> referenced = storageReferences.referenced(bucketName,
+                    deletions.stream().map(StorageDeletion::getFilePath).distinct().toList());
+            for (StorageDeletion deletion : deletions) {
+                if (referenced.contains(deletion.getFilePath())) {
+                    dropped.add(deletion.getId());
+                } else {
+                    claimed.computeIfAbsent(bucketName, bucket -> new ArrayList<>()).add(deletion);
+                }
+            }
+        });
+        if (!dropped.isEmpty()) {
+            storageDeletionRepository.deleteAllByIdInBatch(dropped);
+        }
+        List<UUID> claimedIds = claimed.values().stream().flatMap(List::stream).map(StorageDeletion::getId).toList();
+        if (!claimedIds.isEmpty()) {
+            storageDeletionRepository.claim(claimedIds, now.plus(claimTimeout));
+        }
+        return claimed;
+    }
+
+    // Outside any transaction; the claimed rows are removed or rescheduled in a short one afterwards
+    private void deleteFiles(String bucketName, List<StorageDeletion> deletions) {
+        List<UUID> ids = deletions.stream().map(StorageDeletion::getId).toList();
+        try {
+            // The same path can be queued twice (e.g. a retried compensation); it only needs sending once
+            storageService.deleteFiles(bucketName, deletions.stream().map(StorageDeletion::getFilePath).distinct().toList());
+        } catch (IOException | RuntimeException e) {
+            int attempts = deletions.stream().mapToInt(StorageDeletion::getAttempts).max().orElse(0);
+            Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts, 10));
+            OffsetDateTime nextAttemptAt = OffsetDateTime.now().plus(delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay);
+            transactionTemplate.executeWithoutResult(status -> storageDeletionRepository.recordFailure(ids, nextAttemptAt, e.getMessage()));
+            System.err.println("Could not delete " + deletions.size() + " files from " + bucketName + ", retrying at " + nextAttemptAt + ": " + e.getMessage());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> storageDeletionRepository.deleteAllByIdInBatch(ids));
+    }
+}
@@ -0,0 +1,201 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StorageReconciliationReport;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+// Compares each bucket with the columns that point into it, every storage.reconciliation.interval:
+// - orphaned files, which nothing refers to (e.g. left by deletes that failed before the deletion queue existed),
+//   are reported and, with storage.reconciliation.purge on, queued for StorageDeletionWorker, which checks the
+//   references again under its row locks and deletes them in batches;
+// - missing files, which a row refers to but the bucket doesn't have, are only reported, since the row's owner
+//   has to upload the file again.
+// The listing arrives a page at a time in path order, and StorageReferences streams the referenced paths in the
+// same order, so the two are merged and both kinds are found in one pass without a storage request per row.
+// Memory holds a page of each, however big the bucket and tables are.
+// Files the merge finds unreferenced are checked once more with one query per column and page, which also sees
+// rows and upload jobs that appeared during the pass. Files younger than min-age are never orphans, because an
+// upload reaches storage a little before the row that refers to it commits.
+// The last report of each bucket is published as storage.reconciliation.* gauges, tagged with the bucket.
+@Component
+public class StorageReconciler {
+
+    private final StorageService storageService;
+    private final StorageReferences storageReferences;
+    private final StorageCleanupService storageCleanupService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration interval;
+    private final Duration minAge;
+    private final boolean purge;
+    private final int pageSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<String, StorageReconciliationReport> lastReports = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageReconciler(StorageService storageService,
+                             StorageReferences storageReferences,
+                             StorageCleanupService storageCleanupService,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${storage.reconciliation.enabled:true}") boolean enabled,
+                             @Value("${storage.reconciliation.interval:24h}") Duration interval,
+                             @Value("${storage.reconciliation.min-age:24h}") Duration minAge,
+                             @Value("${storage.reconciliation.purge:false}") boolean purge,
+                             @Value("${storage.reconciliation.page-size:500}") int pageSize) {
+        this.storageService = storageService;
+        this.storageReferences = storageReferences;
+        this.storageCleanupService = storageCleanupService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.minAge = minAge;
+        this.purge = purge;
+        this.pageSize = pageSize;
+        for (String bucketName : storageReferences.buckets()) {
+            gauge(meterRegistry, "storage.reconciliation.files", bucketName, StorageReconciliationReport::files);
+            gauge(meterRegistry, "storage.reconciliation.orphaned.files", bucketName, StorageReconciliationReport::orphanedFiles);
+            gauge(meterRegistry, "storage.reconciliation.orphaned.bytes", bucketName, StorageReconciliationReport::orphanedBytes);
+            gauge(meterRegistry, "storage.reconciliation.missing.files", bucketName, StorageReconciliationReport::missingFiles);
+        }
+    }
+
+    // NaN until the bucket has been reconciled once
+    private void gauge(MeterRegistry meterRegistry, String name, String bucketName, ToLongFunction<StorageReconciliationReport> value) {
+        Gauge.builder(name, lastReports, reports -> {
+                    StorageReconciliationReport report = reports.get(bucketName);
+                    return report == null ? Double.NaN : value.applyAsLong(report);
+                })
+                .tag("bucket", bucketName)
+                .register(meterRegistry);
+    }
+
+    // The first run waits a full interval, so restarts don't each trigger a pass over every bucket
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::reconcileAll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public List<StorageReconciliationReport> reconcileAll() {
+        List<StorageReconciliationReport> reports = new ArrayList<>();
+        for (String bucketName : storageReferences.buckets()) {
+            try {
+                StorageReconciliationReport report = reconcile(bucketName);
+                reports.add(report);
+                lastReports.put(bucketName, report);
+                System.err.println("Reconciled storage bucket " + bucketName + ": " + report.files() + " files, "
+                        + report.orphanedFiles() + " orphaned (" + report.orphanedBytes() + " bytes"
+                        + (report.purged() ? ", queued for deletion" : "") + "), " + report.missingFiles() + " missing");
+            } catch (IOException | RuntimeException e) {
+                // Thrown out of the scheduled task it would cancel every later run
+                System.err.println("Could not reconcile storage bucket " + bucketName + ": " + e.getMessage());
+            }
+        }
+        return reports;
+    }
+
+    public StorageReconciliationReport reconcile(String bucketName) throws IOException {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(minAge);
+        ReferenceCursor references = new ReferenceCursor(bucketName, storageReferences.referencedPaths(bucketName, pageSize));
+        AtomicLong files = new AtomicLong();
+        AtomicLong orphanedFiles = new AtomicLong();
+        AtomicLong orphanedBytes = new AtomicLong();
+        List<StoredFile> candidates = new ArrayList<>();
+        storageService.listFiles(bucketName, page -> {
+            files.addAndGet(page.size());
+            for (StoredFile file : page) {
+                if (!references.advanceTo(file.path()) && file.updatedAt() != null && !file.updatedAt().isAfter(cutoff)) {
+                    candidates.add(file);
+                    if (candidates.size() == pageSize) {
+                        collectOrphans(bucketName, candidates, orphanedFiles, orphanedBytes);
+                    }
+                }
+            }
+        });
+        collectOrphans(bucketName, candidates, orphanedFiles, orphanedBytes);
+        references.advanceTo(null);
+        return new StorageReconciliationReport(bucketName, files.get(), orphanedFiles.get(), orphanedBytes.get(),
+                references.missingFiles, purge);
+    }
+
+    // Walks the referenced paths (path -> the first column found naming it) alongside the listing
+    private static final class ReferenceCursor {
+
+        private final String bucketName;
+        private final Iterator<Map.Entry<String, String>> references;
+        private Map.Entry<String, String> next;
+        private String previousPath;
+        private long missingFiles;
+
+        ReferenceCursor(String bucketName, Iterator<Map.Entry<String, String>> referencedPaths) {
+            this.bucketName = bucketName;
+            this.references = referencedPaths;
+            this.next = references.hasNext() ? references.next() : null;
+        }
+
+        // Reports every referenced path that sorts before the listed path as missing, and tells whether the listed
+        // path is referenced itself. Null reports all the rest, at the end of the listing.
+        boolean advanceTo(String path) {
+            if (path != null && previousPath != null && previousPath.compareTo(path) >= 0) {
+                throw new IllegalStateException("The listing of " + bucketName + " is not in path order at " + path);
+            }
+            previousPath = path;
+            while (next != null && (path == null || next.getKey().compareTo(path) < 0)) {
+                missingFiles++;
+                System.err.println("Missing file " + bucketName + "/" + next.getKey() + " referenced by " + next.getValue());
+                next = references.hasNext() ? references.next() : null;
+            }
+            if (next == null || !next.getKey().equals(path)) {
+                return false;
+            }
+            next = references.hasNext() ? references.next() : null;
+            return true;
+        }
+    }
+
+    // Checks the unreferenced files against the database again and clears the list
+    private void collectOrphans(String bucketName, List<StoredFile> candidates, AtomicLong orphanedFiles, AtomicLong orphanedBytes) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = storageReferences.referenced(bucketName, candidates.stream().map(StoredFile::path).toList());
+        List<StoredFile> orphans = candidates.stream().filter(file -> !referenced.contains(file.path())).toList();
+        candidates.clear();
+        orphanedFiles.addAndGet(orphans.size());
+        orphanedBytes.addAndGet(orphans.stream().mapToLong(StoredFile::size).sum());
+        if (purge && !orphans.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> orphans.forEach(orphan ->
+                    storageCleanupService.scheduleDeletion(bucketName, orphan.path())));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// The columns that point at files in each bucket. Content-addressed files can back several rows, so
+// StorageDeletionWorker asks this before deleting anything: a file still named by a row, or by an upload job
+// that hasn't finished, stays.
+@Component
+public class StorageReferences {
+
+    private static final Map<String, List<String>> URL_COLUMNS = Map.of(
+            "artwork-images", List.of("artworks.artwork_image_url", "artworks.artwork_thumbnail_url",
+                    "artworks.artwork_card_url", "artworks.artwork_detail_url"),
+            "artist-images", List.of("artists.profile_image_url", "artists.profile_thumbnail_url",
+                    "artists.profile_card_url", "artists.profile_detail_url"),
+            "premium-media-files", List.of("premium_media.file_url"),
+            "premium-media-thumbnails", List.of("premium_media.thumbnail_url"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageService storageService;
+    private volatile String textOrder; // the clause that makes comparisons follow String order, once known
+
+    @Autowired
+    public StorageReferences(JdbcTemplate jdbcTemplate, StorageService storageService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storageService = storageService;
+    }
+
+    public Set<String> buckets() {
+        return URL_COLUMNS.keySet();
+    }
+
+    // Every path the bucket's columns point at, once each and in String order, with the first column ("table.column")
+    // found naming it. Each column is read in keyset pages of up to pageSize distinct URLs, so no transaction or
+    // cursor stays open between pages, and the columns are merged as they are read: memory holds a page per column,
+    // whatever the number of rows. The URLs share the bucket's prefix, so the ones with it sort together and reading
+    // stops past them; URLs that aren't this storage backend's (e.g. entered by hand) are skipped.
+    public Iterator<Map.Entry<String, String>> referencedPaths(String bucketName, int pageSize) {
+        String prefix = storageService.getPublicFileUrl(bucketName, "");
+        PriorityQueue<ColumnPaths> columns = new PriorityQueue<>(Comparator.comparing(ColumnPaths::head));
+        for (String column : URL_COLUMNS.getOrDefault(bucketName, List.of())) {
+            ColumnPaths paths = new ColumnPaths(column, prefix, pageSize);
+            if (paths.head() != null) {
+                columns.add(paths);
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !columns.isEmpty();
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                if (columns.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                ColumnPaths first = columns.peek();
+                Map.Entry<String, String> path = Map.entry(first.head(), first.column);
+                // Every column naming the path moves past it
+                List<ColumnPaths> naming = new ArrayList<>();
+                while (!columns.isEmpty() && columns.peek().head().equals(path.getKey())) {
+                    naming.add(columns.poll());
+                }
+                for (ColumnPaths paths : naming) {
+                    if (paths.advance() != null) {
+                        columns.add(paths);
+                    }
+                }
+                return path;
+            }
+        };
+    }
+
+    // One column's distinct paths in the bucket, read a page at a time in String order
+    private final class ColumnPaths {
+
+        private final String column;
+        private final String prefix;
+        private final int pageSize;
+        private final String sql;
+        private final Deque<String> page = new ArrayDeque<>();
+        private String lastUrl;
+        private boolean exhausted;
+
+        ColumnPaths(String column, String prefix, int pageSize) {
+            this.column = column;
+            this.prefix = prefix;
+            this.pageSize = pageSize;
+            String table = column.substring(0, column.indexOf('.'));
+            String url = column + textOrder();
+            this.sql = "select distinct " + url + " from " + table + " where " + url + " > ? order by 1 limit ?";
+            this.lastUrl = prefix; // The bucket's URLs sort after the bare prefix
+            fill();
+        }
+
+        String head() {
+            return page.peekFirst();
+        }
+
+        // Drops the head and returns the next path, or null after the last
+        String advance() {
+            page.pollFirst();
+            if (page.isEmpty()) {
+                fill();
+            }
+            return page.peekFirst();
+        }
+
+        private void fill() {
+            while (page.isEmpty() && !exhausted) {
+                List<String> urls = jdbcTemplate.queryForList(sql, String.class, lastUrl, pageSize);
+                exhausted = urls.size() < pageSize;
+                for (String url : urls) {
+                    if (!url.startsWith(prefix)) {
+                        exhausted = true;
+                        break;
+                    }
+                    if (url.compareTo(lastUrl) <= 0) {
+                        throw new IllegalStateException(column + " is not read in String order at " + url);
+                    }
+                    lastUrl = url;
+                    page.addLast(url.substring(prefix.length()));
+                }
+            }
+        }
+    }
+
+    // PostgreSQL orders text by the database's collation, which isn't String order; "C" compares the bytes, which
+    // for UTF-8 is code point order and matches String.compareTo outside the surrogate range. H2 already compares
+    // strings with String.compareTo. A "C"-collated index on a column turns its page reads into range scans.
+    private String textOrder() {
+        if (textOrder == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            textOrder = "PostgreSQL".equals(database) ? " collate \"C\"" : "";
+        }
+        return textOrder;
+    }
+
+    // The subset of filePaths that something still refers to
+    public Set<String> referenced(String bucketName, Collection<String> filePaths) {
+        if (filePaths.isEmpty()) {
+            return Set.of();
+        }
+        Map<String, String> pathsByUrl = new HashMap<>();
+        for (String filePath : filePaths) {
+            pathsByUrl.put(storageService.getPublicFileUrl(bucketName, filePath), filePath);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(filePaths.size(), "?"));
+
+        Set<String> referenced = new HashSet<>();
+        for (String column : URL_COLUMNS.getOrDefault(bucketName, List.of())) {
+            String table = column.substring(0, column.indexOf('.'));
+            for (String url : jdbcTemplate.queryForList("select " + column + " from " + table + " where " + column +
+                    " in (" + placeholders + ")", String.class, pathsByUrl.keySet().toArray())) {
+                referenced.add(pathsByUrl.get(url));
+            }
+        }
+        List<Object> args = new ArrayList<>(filePaths);
+        args.add(0, bucketName);
+        referenced.addAll(jdbcTemplate.queryForList("select file_path from upload_jobs where bucket_name = ? and file_path in (" +
+                placeholders + ") and status in ('PENDING', 'UPLOADING')", String.class, args.toArray()));
+        return referenced;
+    }
+}
@@ -1,11 +1,35 @@
 package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpRange;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface StorageService {
     String uploadFile(String bucketName, String filePath, MultipartFile file) throws IOException;
+    // For content that doesn't arrive as a multipart upload (e.g. entries of an import zip).
+    // The resource must report its content length; contentType may be null.
+    String uploadFile(String bucketName, String filePath, Resource content, String contentType) throws IOException;
+    // For content-addressed paths (see ContentAddressedStorage): never overwrites an existing file, which already holds
+    // the same bytes, and lets browsers and CDNs cache the file for a year
+    String uploadImmutableFile(String bucketName, String filePath, Resource content, String contentType) throws IOException;
+    boolean exists(String bucketName, String filePath) throws IOException;
+    // Streams the file to target, replacing it; throws FileNotFoundException if the bucket has no such file
+    void downloadFile(String bucketName, String filePath, Path target) throws IOException;
+    // Opens the file for streaming to a client: all of it, or just range. FileNotFoundException if the bucket
+    // has no such file, RangeNotSatisfiableException if the range starts past its end.
+    StoredFileRange openFile(String bucketName, String filePath, HttpRange range) throws IOException;
+    // Lists every file in the bucket, handing them to page a few hundred at a time, in path order (String.compareTo)
+    void listFiles(String bucketName, Consumer<List<StoredFile>> page) throws IOException;
     void deleteFile(String bucketName, String filePath) throws IOException;
+    // Deletes all the given files in one request; files that don't exist are skipped
+    void deleteFiles(String bucketName, List<String> filePaths) throws IOException;
+    // A short-lived signed URL, for files in private buckets
     String getFileUrl(String bucketName, String filePath);
     String getPublicFileUrl(String bucketName, String filePath);
 }
\ No newline at end of file
@@ -2,63 +2,227 @@ package com.lahinchgallery.lahinch_art_gallery_backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.ByteArrayResource;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+// Supabase Storage over its REST API; LocalStorageServiceImpl takes over with the "local-storage" profile.
+// Every request goes through the storageGuard. Reads, listings and deletes are retried on transient failures;
+// uploads aren't, since UploadJobWorker already retries them with the staged file.
 @Service
+@Profile("!local-storage")
 public class StorageServiceImpl implements StorageService {
 
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+    private static final int LIST_PAGE_SIZE = 1000;
+
     private final RestTemplate supabaseRestTemplate;
     private final String supabaseUrl;
+    private final StorageUrlSigner urlSigner;
+    private final DependencyGuard storageGuard;
 
     @Autowired
     public StorageServiceImpl(@Qualifier("supabaseRestTemplate") RestTemplate supabaseRestTemplate,
-                              @Qualifier("supabaseUrl") String supabaseUrl) {
+                              @Qualifier("supabaseUrl") String supabaseUrl,
+                              StorageUrlSigner urlSigner,
+                              @Qualifier("storageGuard") DependencyGuard storageGuard) {
         this.supabaseRestTemplate = supabaseRestTemplate;
         this.supabaseUrl = supabaseUrl;
+        this.urlSigner = urlSigner;
+        this.storageGuard = storageGuard;
     }
 
     @Override
     public String uploadFile(String bucketName, String filePath, MultipartFile file) throws IOException {
+        // Streamed from the upload's own input stream (a temp file once it is past the multipart size threshold)
+        // rather than file.getBytes(), so a large video never sits on the heap. The resource also reports the
+        // original filename, which Supabase uses to recognise the file.
+        return uploadFile(bucketName, filePath, file.getResource(), file.getContentType());
+    }
+
+    @Override
+    public String uploadFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+        return upload(bucketName, filePath, content, contentType, false);
+    }
+
+    @Override
+    public String uploadImmutableFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+        try {
+            return upload(bucketName, filePath, content, contentType, true);
+        } catch (IOException e) {
+            // Uploaded by someone else in the meantime; the path says it holds the same bytes
+            if (e.getCause() instanceof HttpClientErrorException error && isDuplicate(error)) {
+                return filePath;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(String bucketName, String filePath) throws IOException {
+        String infoUrl = supabaseUrl + "/storage/v1/object/authenticated/" + bucketName + "/" + filePath;
+        try {
+            return storageGuard.call("exists", true, () ->
+                    supabaseRestTemplate.exchange(infoUrl, HttpMethod.HEAD, null, Void.class).getStatusCode().is2xxSuccessful());
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.BadRequest e) {
+            return false; // Older Storage versions answer a missing object with 400
+        } catch (Exception e) {
+            throw new IOException("Failed to check file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void downloadFile(String bucketName, String filePath, Path target) throws IOException {
+        String downloadUrl = supabaseUrl + "/storage/v1/object/authenticated/" + bucketName + "/" + filePath;
+        try {
+            // Copied straight from the response stream, so a large video never sits on the heap
+            storageGuard.call("download", true, () -> supabaseRestTemplate.execute(downloadUrl, HttpMethod.GET, null, response -> {
+                try (InputStream in = response.getBody()) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return null;
+            }));
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.BadRequest e) {
+            throw new FileNotFoundException("File not found: " + bucketName + "/" + filePath);
+        } catch (HttpClientErrorException e) {
+            throw new IOException("Failed to download file: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (Exception e) {
+            throw new IOException("Failed to download file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StoredFileRange openFile(String bucketName, String filePath, HttpRange range) throws IOException {
+        URI fileUrl = URI.create(supabaseUrl + "/storage/v1/object/authenticated/" + bucketName + "/" + filePath);
+        ClientHttpResponse response;
+        try {
+            // Only the wait for the response head is guarded; the body is streamed by the caller after the
+            // guard's slot is released. Its request goes out by hand so the body can outlive this method.
+            response = storageGuard.call("open", true, () -> {
+                ClientHttpRequest request = supabaseRestTemplate.getRequestFactory().createRequest(fileUrl, HttpMethod.GET);
+                supabaseRestTemplate.getClientHttpRequestInitializers().forEach(initializer -> initializer.initialize(request));
+                if (range != null) {
+                    request.getHeaders().set(HttpHeaders.RANGE, HttpRange.toString(List.of(range)));
+                }
+                ClientHttpResponse opened;
+                try {
+                    opened = request.execute();
+                } catch (IOException e) {
+                    throw new ResourceAccessException("Failed to open file: " + e.getMessage(), e);
+                }
+                HttpStatusCode status = opened.getStatusCode();
+                if (status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    opened.close();
+                    throw status.is5xxServerError() ? new HttpServerErrorException(status) : new HttpClientErrorException(status);
+                }
+                return opened;
+            });
+        } catch (RestClientException | DependencyUnavailableException e) {
+            throw new IOException("Failed to open file: " + e.getMessage(), e);
+        }
+
+        try {
+            HttpStatusCode status = response.getStatusCode();
+            HttpHeaders headers = response.getHeaders();
+            if (status.value() == HttpStatus.NOT_FOUND.value() || status.value() == HttpStatus.BAD_REQUEST.value()) {
+                throw new FileNotFoundException("File not found: " + bucketName + "/" + filePath);
+            }
+            if (status.value() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                throw new RangeNotSatisfiableException("Range " + range + " is past the end of " + bucketName + "/" + filePath,
+                        contentRangeLength(headers.getFirst(HttpHeaders.CONTENT_RANGE)));
+            }
+            String contentType = headers.getContentType() == null ? null : headers.getContentType().toString();
+            if (status.value() == HttpStatus.OK.value()) {
+                long length = headers.getContentLength();
+                return new StoredFileRange(response.getBody(), 0, length - 1, length, contentType);
+            }
+            if (status.value() == HttpStatus.PARTIAL_CONTENT.value()) {
+                // bytes <start>-<end>/<length>
+                String contentRange = headers.getFirst(HttpHeaders.CONTENT_RANGE);
+                String[] bounds = contentRange.substring(contentRange.indexOf(' ') + 1, contentRange.indexOf('/')).split("-");
+                return new StoredFileRange(response.getBody(), Long.parseLong(bounds[0]), Long.parseLong(bounds[1]),
+                        contentRangeLength(contentRange), contentType);
+            }
+            throw new IOException("Failed to open file: " + status);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    // The <length> of "bytes <start>-<end>/<length>" or "bytes */<length>"; -1 if it is missing or "*"
+    private static long contentRangeLength(String contentRange) {
+        try {
+            return contentRange == null ? -1 : Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String upload(String bucketName, String filePath, Resource content, String contentType, boolean immutable) throws IOException {
         String uploadUrl = supabaseUrl + "/storage/v1/object/" + bucketName + "/" + filePath;
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         // The apikey and Authorization headers are already added by the RestTemplate interceptor in SupabaseConfig
 
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        // Without an explicit part type the converter guesses one from the resource's filename
+        HttpHeaders partHeaders = new HttpHeaders();
+        if (contentType != null && !contentType.isBlank()) {
+            partHeaders.setContentType(MediaType.parseMediaType(contentType));
+        }
 
-        // Spring's RestTemplate needs a Resource that can describe the content length for multipart.
-        // A ByteArrayResource is suitable here.
-        ByteArrayResource fileResource = new ByteArrayResource(file.getBytes()) {
-            @Override
-            public String getFilename() {
-                return file.getOriginalFilename(); // Important for Supabase to recognize the file
-            }
-        };
-        body.add("file", fileResource); // "file" is the typical field name, Supabase might just take the raw body if Content-Type is set
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        if (immutable) {
+            body.add("cacheControl", String.valueOf(IMMUTABLE_MAX_AGE.toSeconds())); // Served as Cache-Control: max-age=<seconds>
+        }
+        body.add("file", new HttpEntity<>(content, partHeaders)); // "file" is the typical field name, Supabase might just take the raw body if Content-Type is set
 
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
         try {
-            // Setting upsert to true by default using x-upsert header for Supabase Storage
-            headers.set("x-upsert", "true");
-            ResponseEntity<String> response = supabaseRestTemplate.exchange(
+            // Setting upsert to true by default using x-upsert header for Supabase Storage.
+            // A content-addressed file is never replaced: whatever is at its path already has the same bytes.
+            headers.set("x-upsert", String.valueOf(!immutable));
+            ResponseEntity<String> response = storageGuard.call("upload", false, () -> supabaseRestTemplate.exchange(
                     uploadUrl,
                     HttpMethod.POST,
                     requestEntity,
                     String.class
-            );
+            ));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 // The response body for a successful upload might contain information like the key or path.
@@ -75,39 +239,124 @@ public class StorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public void listFiles(String bucketName, Consumer<List<StoredFile>> page) throws IOException {
+        String listUrl = supabaseUrl + "/storage/v1/object/list/" + bucketName;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Storage lists one folder level at a time, sorted by the database's collation rather than by String
+        // order, so each folder is read whole and sorted here. A subfolder is walked where "name/" sorts among its
+        // siblings, which puts the whole walk in path order; only the folders on the current path are held.
+        Deque<Iterator<ListEntry>> folders = new ArrayDeque<>();
+        List<StoredFile> files = new ArrayList<>();
+        try {
+            folders.push(listFolder(listUrl, headers, "").iterator());
+            while (!folders.isEmpty()) {
+                Iterator<ListEntry> folder = folders.peek();
+                if (!folder.hasNext()) {
+                    folders.pop();
+                } else {
+                    ListEntry entry = folder.next();
+                    if (entry.file() == null) {
+                        folders.push(listFolder(listUrl, headers, entry.path()).iterator());
+                    } else {
+                        files.add(entry.file());
+                        if (files.size() == LIST_PAGE_SIZE) {
+                            page.accept(List.copyOf(files));
+                            files.clear();
+                        }
+                    }
+                }
+            }
+            if (!files.isEmpty()) {
+                page.accept(files);
+            }
+        } catch (HttpClientErrorException e) {
+            throw new IOException("Failed to list files: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (RestClientException | DependencyUnavailableException e) {
+            throw new IOException("Failed to list files: " + e.getMessage(), e);
+        }
+    }
+
+    // One folder level, sorted by sortKey; entries without an id are subfolders, which have no file
+    private List<ListEntry> listFolder(String listUrl, HttpHeaders headers, String prefix) {
+        List<ListEntry> listed = new ArrayList<>();
+        for (int offset = 0; ; offset += LIST_PAGE_SIZE) {
+            Map<String, Object> body = Map.of("prefix", prefix, "limit", LIST_PAGE_SIZE, "offset", offset,
+                    "sortBy", Map.of("column", "name", "order", "asc"));
+            JsonNode entries = storageGuard.call("list", true, () ->
+                    supabaseRestTemplate.postForObject(listUrl, new HttpEntity<>(body, headers), JsonNode.class));
+            if (entries == null) {
+                break;
+            }
+            for (JsonNode entry : entries) {
+                String path = prefix.isEmpty() ? entry.path("name").asText() : prefix + "/" + entry.path("name").asText();
+                if (entry.path("id").isNull()) {
+                    listed.add(new ListEntry(path + "/", path, null));
+                } else {
+                    String updatedAt = entry.path("updated_at").asText(null);
+                    listed.add(new ListEntry(path, path, new StoredFile(path, entry.path("metadata").path("size").asLong(),
+                            updatedAt == null ? null : OffsetDateTime.parse(updatedAt))));
+                }
+            }
+            if (entries.size() < LIST_PAGE_SIZE) {
+                break;
+            }
+        }
+        listed.sort(Comparator.comparing(ListEntry::sortKey));
+        return listed;
+    }
+
+    private record ListEntry(String sortKey, String path, StoredFile file) {
+    }
+
     @Override
     public void deleteFile(String bucketName, String filePath) throws IOException {
-        String deleteUrl = supabaseUrl + "/storage/v1/object/" + bucketName; // Note: path is in the body
+        deleteFiles(bucketName, List.of(filePath));
+    }
+
+    @Override
+    public void deleteFiles(String bucketName, List<String> filePaths) throws IOException {
+        if (filePaths.isEmpty()) {
+            return;
+        }
+        String deleteUrl = supabaseUrl + "/storage/v1/object/" + bucketName; // Note: paths are in the body
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        // apikey and Authorization headers are added by the interceptor
+        // apikey and Authorization headers are added by the request initializer (see SupabaseConfig)
 
-        Map<String, Object> body = Collections.singletonMap("prefixes", Collections.singletonList(filePath));
+        Map<String, Object> body = Collections.singletonMap("prefixes", filePaths);
         HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
         try {
-            ResponseEntity<String> response = supabaseRestTemplate.exchange(
+            // Deleting a path that is already gone succeeds, so a retry is safe
+            ResponseEntity<String> response = storageGuard.call("delete", true, () -> supabaseRestTemplate.exchange(
                     deleteUrl,
                     HttpMethod.DELETE,
                     requestEntity,
                     String.class
-            );
+            ));
             if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new IOException("Failed to delete file: " + response.getStatusCode() + " " + response.getBody());
+                throw new IOException("Failed to delete files: " + response.getStatusCode() + " " + response.getBody());
             }
         } catch (HttpClientErrorException e) {
-            throw new IOException("Failed to delete file: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+            throw new IOException("Failed to delete files: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
         } catch (Exception e) {
-            throw new IOException("Failed to delete file: " + e.getMessage(), e);
+            throw new IOException("Failed to delete files: " + e.getMessage(), e);
         }
     }
 
+    private static boolean isDuplicate(HttpClientErrorException e) {
+        return e.getStatusCode() == HttpStatus.CONFLICT
+                || (e.getStatusCode() == HttpStatus.BAD_REQUEST && e.getResponseBodyAsString().contains("Duplicate"));
+    }
+
     @Override
     public String getFileUrl(String bucketName, String filePath) {
-        // This method might be intended for signed URLs if RLS is restrictive.
-        // For now, let's make it return the same as public URL, consistent with your interface update.
-        return getPublicFileUrl(bucketName, filePath);
+        // Signed here rather than through Storage's /object/sign endpoint, so a listing costs no extra requests
+        return urlSigner.sign(bucketName, filePath);
     }
 
     @Override
@@ -0,0 +1,72 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Builds Supabase Storage signed URLs without calling Supabase. The token Storage checks on
+// /object/sign/... is an HS256 JWT over {"url": "<bucket>/<path>", "iat", "exp"} signed with the project's
+// JWT secret, so it can be made here.
+// Issue times are rounded down to the start of a window, so every request within one window gets the same
+// URL: browsers can cache the file, and the URL itself is cached until the window ends. A URL handed out at
+// the end of a window is still valid for ttl - window.
+@Component
+@Profile("!local-storage")
+public class StorageUrlSigner {
+
+    private final String supabaseUrl;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration window;
+    private final Cache<SignedObject, String> urls;
+
+    private record SignedObject(String bucketName, String filePath, long windowStart) {
+    }
+
+    @Autowired
+    public StorageUrlSigner(@Qualifier("supabaseUrl") String supabaseUrl,
+                            @Value("${supabase.jwt-secret}") String jwtSecret,
+                            @Value("${storage.signed-urls.ttl:1h}") Duration ttl,
+                            @Value("${storage.signed-urls.window:15m}") Duration window,
+                            @Value("${storage.signed-urls.cache-size:10000}") long cacheSize) {
+        if (window.isZero() || window.isNegative() || window.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("storage.signed-urls.window must be positive and shorter than the ttl");
+        }
+        this.supabaseUrl = supabaseUrl;
+        this.key = Jwts.key(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.ttl = ttl;
+        this.window = window;
+        this.urls = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public String sign(String bucketName, String filePath) {
+        long now = Instant.now().getEpochSecond();
+        long windowStart = now - Math.floorMod(now, window.toSeconds());
+        return urls.get(new SignedObject(bucketName, filePath, windowStart), this::signedUrl);
+    }
+
+    // The claims are written in a fixed order: Map.of's iteration order changes from one JVM to the next, so
+    // every node behind the load balancer would sign a different URL for the same file and window
+    private String signedUrl(SignedObject object) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("url", object.bucketName() + "/" + object.filePath());
+        claims.put("iat", object.windowStart());
+        claims.put("exp", object.windowStart() + ttl.toSeconds());
+        String token = Jwts.sign(key, claims);
+        return supabaseUrl + "/storage/v1/object/sign/" + object.bucketName() + "/" + object.filePath() + "?token=" + token;
+    }
+}
@@ -0,0 +1,42 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Stripe calls go through the stripeGuard. The guard does the retrying, so the Stripe client's own network
+// retries are off, and each attempt's timeouts are cut down to what is left of the guard's deadline.
+@Component
+public class StripePayments {
+
+    private final DependencyGuard stripeGuard;
+
+    @Autowired
+    public StripePayments(@Qualifier("stripeGuard") DependencyGuard stripeGuard) {
+        this.stripeGuard = stripeGuard;
+    }
+
+    public PaymentIntent createPaymentIntent(PaymentIntentCreateParams params) throws StripeException {
+        // Every attempt sends the same idempotency key, so a retry after a lost response returns the intent
+        // the first attempt created instead of creating a second one
+        String idempotencyKey = UUID.randomUUID().toString();
+        return stripeGuard.call("createPaymentIntent", true, () -> PaymentIntent.create(params, requestOptions(idempotencyKey)));
+    }
+
+    private static RequestOptions requestOptions(String idempotencyKey) {
+        int timeoutMillis = (int) Math.max(1, DependencyGuard.remaining().map(Duration::toMillis).orElse(10_000L));
+        return RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .setConnectTimeout(Math.min(timeoutMillis, 5_000))
+                .setReadTimeout(timeoutMillis)
+                .setMaxNetworkRetries(0)
+                .build();
+    }
+}
@@ -23,6 +23,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     private final UserSubscriptionRepository userSubscriptionRepository;
     private final ProfileRepository profileRepository;
     private final UserService userService; // For granting subscriber role
+    private final StripePayments stripePayments;
 
     // The subscription amount in cents (e.g., €1.99 = 199 cents)
     private static final long SUBSCRIPTION_AMOUNT_CENTS = 199;
@@ -31,10 +32,12 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     @Autowired
     public SubscriptionServiceImpl(UserSubscriptionRepository userSubscriptionRepository,
                                    ProfileRepository profileRepository,
-                                   UserService userService) {
+                                   UserService userService,
+                                   StripePayments stripePayments) {
         this.userSubscriptionRepository = userSubscriptionRepository;
         this.profileRepository = profileRepository;
         this.userService = userService;
+        this.stripePayments = stripePayments;
     }
 
     @Override
@@ -51,7 +54,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 // .addPaymentMethodType("card") // Or let Stripe decide based on your dashboard settings
                 .build();
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        PaymentIntent paymentIntent = stripePayments.createPaymentIntent(params);
         return paymentIntent.getClientSecret();
     }
 
@@ -0,0 +1,24 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StagedUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadJob;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadJobService {
+    // Copies the file to local disk and hashes it for its content-addressed path (see ContentAddressedStorage); null
+    // when there is no file. Call it before the transaction that writes the target entity, so the copy and the hash
+    // don't hold a connection, and discard the result if that write fails.
+    StagedUpload stage(MultipartFile file) throws IOException;
+    // Queues a staged file for upload to bucketName at its filePath. Call it inside the transaction that writes the
+    // target entity: the upload starts once that commits, and is dropped with the staged file if it rolls back.
+    UploadJob enqueue(UploadTarget target, UUID targetId, String bucketName, StagedUpload upload);
+    void discard(StagedUpload upload); // Deletes a staged file that won't be enqueued; null is ignored
+    Optional<UploadJob> getUpload(UUID jobId);
+    List<UploadJob> getUploadsFor(UploadTarget target, UUID targetId); // Newest first; the frontend polls the first one's status
+}
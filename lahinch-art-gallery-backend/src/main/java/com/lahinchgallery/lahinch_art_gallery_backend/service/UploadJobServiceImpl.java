@@ -0,0 +1,105 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StagedUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.UploadJobCreatedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadJob;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.UploadJobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class UploadJobServiceImpl implements UploadJobService {
+
+    private final UploadJobRepository uploadJobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path stagingDir;
+    private final String nodeId;
+
+    @Autowired
+    public UploadJobServiceImpl(UploadJobRepository uploadJobRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${uploads.staging-dir:${java.io.tmpdir}/lahinch-uploads}") Path stagingDir,
+                                @Value("${uploads.node-id:${HOSTNAME:local}}") String nodeId) throws IOException {
+        this.uploadJobRepository = uploadJobRepository;
+        this.eventPublisher = eventPublisher;
+        this.stagingDir = Files.createDirectories(stagingDir);
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public StagedUpload stage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        // A multipart file past the size threshold is already on disk, so this is usually a move rather than a copy
+        Path stagedPath = stagingDir.resolve(UUID.randomUUID().toString());
+        file.transferTo(stagedPath);
+        try {
+            String filePath = ContentAddressedStorage.path(ContentAddressedStorage.sha256(new FileSystemResource(stagedPath)),
+                    file.getOriginalFilename());
+            return new StagedUpload(stagedPath, filePath, file.getOriginalFilename(), file.getContentType());
+        } catch (IOException e) {
+            Files.deleteIfExists(stagedPath);
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadJob enqueue(UploadTarget target, UUID targetId, String bucketName, StagedUpload upload) {
+        UploadJob job = new UploadJob();
+        job.setTargetType(target);
+        job.setTargetId(targetId);
+        job.setBucketName(bucketName);
+        job.setFilePath(upload.filePath());
+        job.setFileName(upload.fileName());
+        job.setContentType(upload.contentType());
+        job.setStagedPath(upload.stagedPath().toString());
+        job.setOwner(nodeId); // The staged file is on this node's disk
+        job.setStatus(UploadStatus.PENDING);
+        job.setNextAttemptAt(OffsetDateTime.now());
+        try {
+            job = uploadJobRepository.save(job);
+        } catch (RuntimeException e) {
+            discard(upload);
+            throw e;
+        }
+        eventPublisher.publishEvent(new UploadJobCreatedEvent(job.getId(), upload.stagedPath()));
+        return job;
+    }
+
+    @Override
+    public void discard(StagedUpload upload) {
+        if (upload == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(upload.stagedPath());
+        } catch (IOException e) {
+            System.err.println("Could not delete staged upload " + upload.stagedPath() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<UploadJob> getUpload(UUID jobId) {
+        return uploadJobRepository.findById(jobId);
+    }
+
+    @Override
+    public List<UploadJob> getUploadsFor(UploadTarget target, UUID targetId) {
+        return uploadJobRepository.findByTargetTypeAndTargetIdOrderByCreatedAtDesc(target, targetId);
+    }
+}
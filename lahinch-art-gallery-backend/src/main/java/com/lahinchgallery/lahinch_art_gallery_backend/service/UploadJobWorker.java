@@ -0,0 +1,415 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtistChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.ArtworkChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.EntityChangeType;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.PremiumMediaChangedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.event.UploadJobCreatedEvent;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ImageVariant;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadJob;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.UploadJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Copies staged files to Supabase Storage on virtual threads, outside any request or database transaction,
+// so a slow upload holds neither a pooled connection nor a request thread. The semaphore caps concurrent uploads.
+// Once a file is in storage, the entity's URL column is set and the job completed in one short transaction;
+// the file it replaces is queued for deletion in that same transaction. Failed uploads are retried with exponential backoff.
+// Staged files live on one node's disk, so a job is owned by the node that staged it (uploads.node-id, which must
+// stay the same across restarts) and only that node runs it. At startup, this node's jobs still UPLOADING were
+// interrupted by a shutdown and go back to PENDING; while running, a claim its worker gave up on is released by a sweep.
+// Artwork and artist images also get their ImageVariant copies rendered and stored here, off the request path.
+@Component
+public class UploadJobWorker {
+
+    private final UploadJobRepository uploadJobRepository;
+    private final StorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final ImageDerivatives imageDerivatives;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration staleClaimSweep;
+    private final String nodeId;
+    private final Semaphore uploadPermits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UploadJobWorker(UploadJobRepository uploadJobRepository,
+                           StorageService storageService,
+                           StorageCleanupService storageCleanupService,
+                           ImageDerivatives imageDerivatives,
+                           ContentAddressedStorage contentAddressedStorage,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${uploads.concurrency:8}") int concurrency,
+                           @Value("${uploads.max-attempts:5}") int maxAttempts,
+                           @Value("${uploads.retry-delay:30s}") Duration retryDelay,
+                           @Value("${uploads.stale-claim-sweep:1m}") Duration staleClaimSweep,
+                           @Value("${uploads.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.uploadJobRepository = uploadJobRepository;
+        this.storageService = storageService;
+        this.storageCleanupService = storageCleanupService;
+        this.imageDerivatives = imageDerivatives;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.staleClaimSweep = staleClaimSweep;
+        this.nodeId = nodeId;
+        this.uploadPermits = new Semaphore(concurrency);
+    }
+
+    // Other nodes' jobs are left to them: their staged files aren't on this disk
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUploads() {
+        transactionTemplate.executeWithoutResult(status ->
+                uploadJobRepository.updateStatus(nodeId, UploadStatus.UPLOADING, UploadStatus.PENDING, OffsetDateTime.now()));
+        for (UploadJob job : uploadJobRepository.findByStatusAndOwner(UploadStatus.PENDING, nodeId)) {
+            schedule(job.getId(), job.getNextAttemptAt());
+        }
+        retryScheduler.scheduleWithFixedDelay(this::releaseStaleClaims, staleClaimSweep.toMillis(), staleClaimSweep.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    // A job stays UPLOADING if its worker stopped without settling it, e.g. the database was unreachable when the
+    // upload finished. Any of this node's claims no worker holds goes back to PENDING, or to FAILED once its attempts
+    // are used up; a job touched within the last sweep interval is left alone, as it may have just moved on.
+    private void releaseStaleClaims() {
+        try {
+            OffsetDateTime staleBefore = OffsetDateTime.now().minus(staleClaimSweep);
+            for (UploadJob job : uploadJobRepository.findByStatusAndOwner(UploadStatus.UPLOADING, nodeId)) {
+                if (inFlight.contains(job.getId()) || !job.getUpdatedAt().isBefore(staleBefore)) {
+                    continue;
+                }
+                boolean retry = job.getAttempts() < maxAttempts && Files.exists(Path.of(job.getStagedPath()));
+                Integer released = transactionTemplate.execute(status -> uploadJobRepository.releaseClaim(job.getId(),
+                        retry ? UploadStatus.PENDING : UploadStatus.FAILED, "The upload was abandoned by its worker",
+                        staleBefore, OffsetDateTime.now()));
+                if (released == null || released == 0) {
+                    continue;
+                }
+                if (retry) {
+                    schedule(job.getId(), OffsetDateTime.now());
+                } else {
+                    deleteStagedFile(Path.of(job.getStagedPath()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of here, it would cancel the sweep for good
+            System.err.println("Could not release stale upload claims: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUploadJobCreated(UploadJobCreatedEvent event) {
+        submit(event.jobId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onUploadJobRolledBack(UploadJobCreatedEvent event) {
+        deleteStagedFile(event.stagedPath());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdownNow(); // Interrupted uploads are picked up again by resumeUploads on the next start
+    }
+
+    private void schedule(UUID jobId, OffsetDateTime at) {
+        long delayMillis = Math.max(0, Duration.between(OffsetDateTime.now(), at).toMillis());
+        retryScheduler.schedule(() -> submit(jobId), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void submit(UUID jobId) {
+        if (inFlight.add(jobId)) {
+            executor.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void process(UUID jobId) {
+        try {
+            uploadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            Integer claimed = transactionTemplate.execute(status -> uploadJobRepository.claim(jobId, OffsetDateTime.now()));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+            UploadJob job = uploadJobRepository.findById(jobId).orElseThrow();
+            Map<ImageVariant, String> derivativePaths;
+            try {
+                // The path is the content's hash, so a file already there is this one, uploaded before
+                if (!storageService.exists(job.getBucketName(), job.getFilePath())) {
+                    storageService.uploadImmutableFile(job.getBucketName(), job.getFilePath(), stagedResource(job), job.getContentType());
+                }
+                derivativePaths = uploadDerivatives(job);
+            } catch (IOException | RuntimeException e) {
+                failed(job, e);
+                return;
+            }
+            complete(job, derivativePaths);
+        } catch (RuntimeException e) {
+            // Left UPLOADING; releaseStaleClaims returns it to PENDING
+            System.err.println("Upload job " + jobId + " could not be completed: " + e.getMessage());
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    // Renders the image's variants and stores them side by side, content-addressed like the original;
+    // a variant column is cleared if its copy couldn't be made
+    private Map<ImageVariant, String> uploadDerivatives(UploadJob job) throws IOException {
+        Map<ImageVariant, String> paths = new EnumMap<>(ImageVariant.class);
+        if (targetColumn(job).variantColumns().isEmpty()) {
+            return paths;
+        }
+        Map<ImageVariant, byte[]> rendered;
+        try {
+            rendered = imageDerivatives.render(Path.of(job.getStagedPath()));
+        } catch (IOException | RuntimeException e) {
+            // A corrupt image won't decode on a retry either; the original alone is still usable
+            System.err.println("Could not render resized copies for upload job " + job.getId() + ": " + e.getMessage());
+            return paths;
+        }
+
+        Map<ImageVariant, Future<String>> uploads = new EnumMap<>(ImageVariant.class);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            rendered.forEach((variant, bytes) -> uploads.put(variant, executor.submit(() ->
+                    contentAddressedStorage.store(job.getBucketName(), jpegResource(bytes), "image.jpg", "image/jpeg"))));
+        }
+        for (Map.Entry<ImageVariant, Future<String>> upload : uploads.entrySet()) {
+            try {
+                paths.put(upload.getKey(), upload.getValue().get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while uploading resized copies", e);
+            }
+        }
+        return paths;
+    }
+
+    private void complete(UploadJob job, Map<ImageVariant, String> derivativePaths) {
+        TargetColumn target = targetColumn(job);
+        // Column -> new URL, and the storage paths written for them
+        Map<String, String> urls = new LinkedHashMap<>();
+        urls.put(target.column(), storageService.getPublicFileUrl(job.getBucketName(), job.getFilePath()));
+        target.variantColumns().forEach((variant, column) -> urls.put(column, derivativePaths.containsKey(variant)
+                ? storageService.getPublicFileUrl(job.getBucketName(), derivativePaths.get(variant)) : null));
+        List<String> writtenPaths = new ArrayList<>(derivativePaths.values());
+        writtenPaths.add(0, job.getFilePath());
+
+        AtomicReference<OffsetDateTime> deleteInFlightUntil = new AtomicReference<>();
+        Boolean applied = transactionTemplate.execute(status -> {
+            // Locks the entity row, so a concurrent edit or delete can't interleave with the URL update
+            List<Map<String, Object>> current = jdbcTemplate.queryForList("select " + String.join(", ", urls.keySet()) +
+                    " from " + target.table() + " where id = ? for update", job.getTargetId());
+            boolean superseded = uploadJobRepository.existsByTargetTypeAndTargetIdAndCreatedAtAfter(
+                    job.getTargetType(), job.getTargetId(), job.getCreatedAt());
+            if (current.isEmpty() || superseded) {
+                finish(job.getId(), UploadStatus.CANCELLED);
+                if (!sharesPathWithLaterUpload(job)) {
+                    writtenPaths.forEach(path -> storageCleanupService.scheduleDeletion(job.getBucketName(), path));
+                }
+                return false;
+            }
+            List<Object> args = new ArrayList<>(urls.values());
+            args.add(OffsetDateTime.now());
+            args.add(job.getTargetId());
+            jdbcTemplate.update("update " + target.table() + " set " + String.join(" = ?, ", urls.keySet()) +
+                    " = ?, updated_at = ? where id = ?", args.toArray());
+            finish(job.getId(), UploadStatus.COMPLETED);
+            publishChange(job);
+            // The files just written may sit at paths an earlier delete queued for removal
+            writtenPaths.forEach(path -> {
+                OffsetDateTime until = storageCleanupService.cancelDeletion(job.getBucketName(), path);
+                if (until != null) {
+                    deleteInFlightUntil.accumulateAndGet(until, (a, b) -> a == null || b.isAfter(a) ? b : a);
+                }
+            });
+            // An upload to the same path has already overwritten the old file in place
+            urls.forEach((column, url) -> {
+                String replacedUrl = (String) current.get(0).get(column);
+                if (replacedUrl != null && !replacedUrl.equals(url)) {
+                    storageCleanupService.scheduleDeletion(job.getBucketName(), pathOf(job.getBucketName(), replacedUrl));
+                }
+            });
+            return true;
+        });
+        if (Boolean.TRUE.equals(applied) && (deleteInFlightUntil.get() != null || !stillStored(job, writtenPaths))) {
+            // Runs the job again: it uploads whatever is missing and sets the same URLs. After an in-flight delete,
+            // only once that delete has certainly finished.
+            OffsetDateTime rerunAt = Objects.requireNonNullElseGet(deleteInFlightUntil.get(), OffsetDateTime::now);
+            transactionTemplate.executeWithoutResult(status -> uploadJobRepository.findById(job.getId()).ifPresent(current -> {
+                current.setStatus(UploadStatus.PENDING);
+                current.setNextAttemptAt(rerunAt);
+            }));
+            schedule(job.getId(), rerunAt);
+            return;
+        }
+        deleteStagedFile(Path.of(job.getStagedPath()));
+    }
+
+    // Content-addressed files are shared, so a deletion queued by another row can be draining one of these paths while
+    // this job reuses it. StorageDeletionWorker skips referenced paths when it claims a batch, and cancelDeletion reports
+    // a claimed one (complete() then waits it out), so once the commit above is through, a file that is still missing
+    // was deleted in that window and has to go up again.
+    private boolean stillStored(UploadJob job, List<String> paths) {
+        try {
+            for (String path : paths) {
+                if (!storageService.exists(job.getBucketName(), path)) {
+                    System.err.println("Upload job " + job.getId() + ": " + path + " was deleted concurrently, uploading again");
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not verify the files of upload job " + job.getId() + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void failed(UploadJob job, Exception e) {
+        boolean retry = job.getAttempts() < maxAttempts && Files.exists(Path.of(job.getStagedPath()));
+        OffsetDateTime nextAttemptAt = OffsetDateTime.now().plus(retryDelay.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10)));
+        transactionTemplate.executeWithoutResult(status ->
+                uploadJobRepository.findById(job.getId()).ifPresent(current -> {
+                    current.setStatus(retry ? UploadStatus.PENDING : UploadStatus.FAILED);
+                    current.setLastError(e.getMessage());
+                    current.setNextAttemptAt(nextAttemptAt);
+                }));
+        if (retry) {
+            schedule(job.getId(), nextAttemptAt);
+        } else {
+            System.err.println("Giving up on upload job " + job.getId() + " after " + job.getAttempts() + " attempts: " + e.getMessage());
+            deleteStagedFile(Path.of(job.getStagedPath()));
+        }
+    }
+
+    private void finish(UUID jobId, UploadStatus status) {
+        uploadJobRepository.findById(jobId).ifPresent(job -> job.setStatus(status));
+    }
+
+    // The caches and read models pick up the new URL through the usual change events
+    private void publishChange(UploadJob job) {
+        switch (job.getTargetType()) {
+            case ARTWORK_IMAGE -> eventPublisher.publishEvent(ArtworkChangedEvent.of(job.getTargetId(), EntityChangeType.UPDATED));
+            case ARTIST_IMAGE -> eventPublisher.publishEvent(new ArtistChangedEvent(job.getTargetId(), EntityChangeType.UPDATED));
+            case PREMIUM_MEDIA_FILE, PREMIUM_MEDIA_THUMBNAIL ->
+                    eventPublisher.publishEvent(new PremiumMediaChangedEvent(job.getTargetId(), EntityChangeType.UPDATED));
+        }
+    }
+
+    private static TargetColumn targetColumn(UploadJob job) {
+        return switch (job.getTargetType()) {
+            case ARTWORK_IMAGE -> new TargetColumn("artworks", "artwork_image_url", variantColumns("artwork"));
+            case ARTIST_IMAGE -> new TargetColumn("artists", "profile_image_url", variantColumns("profile"));
+            case PREMIUM_MEDIA_FILE -> new TargetColumn("premium_media", "file_url", Map.of());
+            case PREMIUM_MEDIA_THUMBNAIL -> new TargetColumn("premium_media", "thumbnail_url", Map.of());
+        };
+    }
+
+    // e.g. "artwork" -> artwork_thumbnail_url, artwork_card_url, artwork_detail_url
+    private static Map<ImageVariant, String> variantColumns(String prefix) {
+        Map<ImageVariant, String> columns = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            columns.put(variant, prefix + "_" + variant.name().toLowerCase() + "_url");
+        }
+        return columns;
+    }
+
+    // A cancelled upload's files are only removed if no newer upload for the same column wrote to the same path
+    private boolean sharesPathWithLaterUpload(UploadJob job) {
+        return uploadJobRepository.findByTargetTypeAndTargetIdOrderByCreatedAtDesc(job.getTargetType(), job.getTargetId()).stream()
+                .anyMatch(other -> !other.getId().equals(job.getId()) && other.getFilePath().equals(job.getFilePath()));
+    }
+
+    private String pathOf(String bucketName, String fileUrl) {
+        String prefix = storageService.getPublicFileUrl(bucketName, "");
+        return fileUrl.startsWith(prefix) ? fileUrl.substring(prefix.length()) : null;
+    }
+
+    private static void deleteStagedFile(Path stagedPath) {
+        try {
+            Files.deleteIfExists(stagedPath);
+        } catch (IOException e) {
+            System.err.println("Could not delete staged upload " + stagedPath + ": " + e.getMessage());
+        }
+    }
+
+    // Reports the original file name, which Supabase records with the object
+    private static FileSystemResource stagedResource(UploadJob job) {
+        return new FileSystemResource(job.getStagedPath()) {
+            @Override
+            public String getFilename() {
+                return Objects.requireNonNullElse(job.getFileName(), super.getFilename());
+            }
+        };
+    }
+
+    private static ByteArrayResource jpegResource(byte[] bytes) {
+        return new ByteArrayResource(bytes) {
+            @Override
+            public String getFilename() {
+                return "image.jpg"; // Without one, the part isn't sent as a file
+            }
+        };
+    }
+
+    private record TargetColumn(String table, String column, Map<ImageVariant, String> variantColumns) {
+    }
+}
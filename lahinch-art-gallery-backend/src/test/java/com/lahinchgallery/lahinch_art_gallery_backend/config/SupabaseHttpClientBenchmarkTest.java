@@ -0,0 +1,156 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Uploads through the storage RestTemplate against a local stub of the Storage API. The default suite only checks
+// that the pooled client from SupabaseConfig stays within its per-route limit, over a few uploads. The benchmark
+// also runs the plain HttpURLConnection factory it replaced and publishes the throughput and the connections the
+// server saw to the test report; only the connection counts are asserted, since timings vary by machine. It runs
+// on request: mvn test -Dtest=SupabaseHttpClientBenchmarkTest -Dbenchmark=true -Dbenchmark.uploads=4000
+class SupabaseHttpClientBenchmarkTest {
+
+	private static final int UPLOADS = Integer.getInteger("benchmark.uploads", 800);
+	private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 32);
+	private static final int BODY_SIZE = 32 * 1024;
+	private static final int CHECKED_UPLOADS = 4 * CONCURRENCY; // Enough to keep every caller busy at once
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private final Set<Integer> connections = ConcurrentHashMap.newKeySet(); // client ports, one per TCP connection
+
+	private SupabaseConfig config;
+	private PoolingHttpClientConnectionManager connectionManager;
+	private CloseableHttpClient httpClient;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+		serverThreads = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(serverThreads);
+		server.createContext("/storage/v1/object/", exchange -> {
+			connections.add(exchange.getRemoteAddress().getPort());
+			try (InputStream body = exchange.getRequestBody()) {
+				body.transferTo(OutputStream.nullOutputStream());
+			}
+			byte[] response = "{\"Key\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, response.length);
+			exchange.getResponseBody().write(response);
+			exchange.close();
+		});
+		server.start();
+
+		config = new SupabaseConfig();
+		ReflectionTestUtils.setField(config, "supabaseUrl", "http://localhost:" + server.getAddress().getPort());
+		ReflectionTestUtils.setField(config, "supabaseServiceRoleKey", "test");
+		// Sized to the callers, as supabase.http.max-connections-per-route should be for the expected concurrency
+		ReflectionTestUtils.setField(config, "maxConnections", Math.max(50, CONCURRENCY));
+		ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", CONCURRENCY);
+		ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(5));
+		ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(30));
+		ReflectionTestUtils.setField(config, "connectionRequestTimeout", Duration.ofSeconds(10));
+		ReflectionTestUtils.setField(config, "idleTimeout", Duration.ofSeconds(30));
+	}
+
+	@AfterEach
+	void stopStub() throws Exception {
+		if (httpClient != null) {
+			httpClient.close();
+		}
+		if (connectionManager != null) {
+			connectionManager.close();
+		}
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	void pooledClientOpensNoMoreConnectionsThanItsPerRouteLimit() throws Exception {
+		upload(pooledRestTemplate(), CHECKED_UPLOADS);
+
+		assertThat(connections.size()).isLessThanOrEqualTo(CONCURRENCY);
+		assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void pooledClientAgainstHttpUrlConnection(TestReporter reporter) throws Exception {
+		Result baseline = run(reporter, "HttpURLConnection", new RestTemplate(new SimpleClientHttpRequestFactory()));
+		Result pooled = run(reporter, "pooled HttpClient 5", pooledRestTemplate());
+
+		// HttpURLConnection keeps only a few idle connections per host and reopens the rest
+		assertThat(baseline.connections()).isGreaterThanOrEqualTo(pooled.connections());
+		assertThat(pooled.connections()).isLessThanOrEqualTo(CONCURRENCY);
+		assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+	}
+
+	private RestTemplate pooledRestTemplate() {
+		connectionManager = config.supabaseConnectionManager();
+		httpClient = config.supabaseHttpClient(connectionManager);
+		return config.supabaseRestTemplate(httpClient);
+	}
+
+	// A warm-up pass of a quarter of the uploads (not timed) first, so JIT compilation doesn't count against
+	// either client; the connections are counted over both passes, so they include the cold start
+	private Result run(TestReporter reporter, String name, RestTemplate restTemplate) throws Exception {
+		connections.clear();
+		upload(restTemplate, UPLOADS / 4);
+		long started = System.nanoTime();
+		upload(restTemplate, UPLOADS);
+		double seconds = (System.nanoTime() - started) / 1e9;
+		Result result = new Result(UPLOADS / seconds, connections.size());
+		reporter.publishEntry(name, String.format("%d uploads of %d KiB at %d concurrent callers, %.0f/s, %d server-side connections",
+				UPLOADS, BODY_SIZE / 1024, CONCURRENCY, result.uploadsPerSecond(), result.connections()));
+		return result;
+	}
+
+	private void upload(RestTemplate restTemplate, int uploads) throws Exception {
+		String url = config.supabaseUrl() + "/storage/v1/object/artwork-images/";
+		byte[] body = new byte[BODY_SIZE];
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+
+		try (ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY)) {
+			List<Future<?>> calls = new ArrayList<>();
+			for (int i = 0; i < uploads; i++) {
+				String path = url + "bench/" + i + ".bin";
+				calls.add(callers.submit(() -> restTemplate.postForEntity(path, new HttpEntity<>(body, headers), String.class)));
+			}
+			for (Future<?> call : calls) {
+				call.get();
+			}
+		}
+	}
+
+	private record Result(double uploadsPerSecond, int connections) {
+	}
+}
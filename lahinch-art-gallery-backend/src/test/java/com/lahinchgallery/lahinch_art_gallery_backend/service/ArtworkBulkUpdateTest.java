@@ -0,0 +1,130 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkSelection;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Selections larger than one IdBatches batch are selected, updated and re-indexed in bounded IN lists,
+// and the in-memory indexes answer with the new values straight after the commit
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:artwork-bulk-update;MODE=PostgreSQL;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+class ArtworkBulkUpdateTest {
+
+	private static final int ARTWORKS = IdBatches.SIZE + 205;
+
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtworkIndexMaintainer artworkIndexMaintainer;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private List<UUID> ids;
+
+	@BeforeEach
+	void seed() {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artistRepository.save(artist);
+		List<Artwork> artworks = new ArrayList<>();
+		for (int i = 0; i < ARTWORKS; i++) {
+			Artwork artwork = new Artwork();
+			artwork.setTitle("Burren Light " + i);
+			artwork.setArtist(artist);
+			artwork.setMedium("Oil");
+			artwork.setPrice(new BigDecimal("450.00"));
+			artwork.setYearCreated(2000 + i % 7);
+			artworks.add(artwork);
+		}
+		ids = artworkRepository.saveAll(artworks).stream().map(Artwork::getId).toList();
+		artworkIndexMaintainer.buildIndexes();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+	}
+
+	@Test
+	void largeSelectionsAreUpdatedInBatchesAndReindexed() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		int updated = artworkService.bulkSetPrice(ArtworkSelection.ofIds(ids), new BigDecimal("999.00"));
+
+		assertThat(updated).isEqualTo(ARTWORKS);
+		// Two batches each to select the editable rows, update them, and reload them for the indexes
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+		assertThat(artworkService.getAllArtworks(PageRequest.of(0, 1), Map.of("minPrice", "999", "maxPrice", "999"), null)
+				.getTotalElements()).isEqualTo(ARTWORKS);
+		assertThat(artworkService.getArtworkCatalog(PageRequest.of(0, 1), Map.of(), null).facets().priceRanges())
+				.containsExactly(Map.entry("500-1000", (long) ARTWORKS));
+
+		// A selection by search term goes through the index's matches in batches as well
+		int held = artworkService.bulkUpdateAvailability(ArtworkSelection.matching(Map.of(), "burren light"),
+				ArtworkAvailabilityStatus.ON_HOLD);
+		assertThat(held).isEqualTo(ARTWORKS);
+		assertThat(artworkService.getArtworkCatalog(PageRequest.of(0, 1), Map.of(), "burren").facets().availabilityStatuses())
+				.containsExactly(Map.entry("ON_HOLD", (long) ARTWORKS));
+		assertThat(artworkService.bulkUpdateAvailability(ArtworkSelection.ofIds(ids), ArtworkAvailabilityStatus.ON_HOLD)).isZero();
+	}
+
+	@Test
+	void searchScrollsPageThroughEveryMatchInSortOrder() {
+		Sort sort = Sort.by(Sort.Direction.DESC, "yearCreated");
+		Set<UUID> seen = new HashSet<>();
+		List<Integer> years = new ArrayList<>();
+		String cursor = null;
+		int windows = 0;
+		do {
+			CursorPage<Artwork> page = artworkService.scrollArtworks(Map.of(), "burren", sort, 500, cursor);
+			page.content().forEach(artwork -> {
+				assertThat(seen.add(artwork.getId())).isTrue();
+				years.add(artwork.getYearCreated());
+			});
+			cursor = page.nextCursor();
+			windows++;
+		} while (cursor != null);
+
+		assertThat(windows).isEqualTo(3);
+		assertThat(seen).hasSize(ARTWORKS);
+		assertThat(years).isSortedAccordingTo((a, b) -> Integer.compare(b, a));
+		assertThat(artworkService.scrollArtworks(Map.of("maxYear", "2000"), "burren", sort, 1_000, null).content())
+				.hasSize((ARTWORKS + 6) / 7);
+	}
+}
@@ -0,0 +1,175 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkCatalogPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.CursorPage;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkSpecifications;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The SQL filters (used while the indexes are cold) and the facet index must select the same artworks,
+// and a catalog page's facets must be counted over the same matches as the page itself
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:artwork-catalog;MODE=PostgreSQL;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+class ArtworkCatalogTest {
+
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtworkFacetIndex artworkFacetIndex;
+	@Autowired
+	private ArtworkIndexMaintainer artworkIndexMaintainer;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+
+	private UUID artistId;
+	private List<UUID> allIds;
+
+	@BeforeEach
+	void seed() {
+		Artist artist = artistRepository.save(newArtist("Aoife Ní Bhriain"));
+		Artist other = artistRepository.save(newArtist("Seán Ó Riada"));
+		artistId = artist.getId();
+		artworkRepository.save(newArtwork("Burren Light", artist, "Oil", "450.00", 2021, ArtworkAvailabilityStatus.AVAILABLE));
+		artworkRepository.save(newArtwork("Burren Rain", artist, " oil", "1200.00", 1998, ArtworkAvailabilityStatus.SOLD));
+		artworkRepository.save(newArtwork("Burren Mist", artist, "Watercolour", "500.00", 2020, ArtworkAvailabilityStatus.ON_HOLD));
+		artworkRepository.save(newArtwork("Burren Stone", other, "Bronze", null, null, ArtworkAvailabilityStatus.AVAILABLE));
+		artworkRepository.save(newArtwork("Atlantic Swell", other, "Oil", "9999.99", 2024, ArtworkAvailabilityStatus.AVAILABLE));
+		allIds = artworkRepository.findAll().stream().map(Artwork::getId).toList();
+		artworkIndexMaintainer.buildIndexes();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+	}
+
+	@Test
+	void specificationsSelectWhatTheFacetIndexSelects() {
+		List<Map<String, String>> filters = List.of(
+				Map.of(),
+				Map.of("artistId", artistId.toString()),
+				Map.of("medium", "OIL,bronze"),
+				Map.of("minPrice", "500", "maxPrice", "9999.99"),
+				Map.of("minYear", "2000", "availabilityStatus", "available,on_hold"),
+				Map.of("artistId", artistId.toString(), "medium", "oil", "maxYear", "2020"),
+				Map.of("maxPrice", "100"));
+		for (Map<String, String> params : filters) {
+			ArtworkFilter filter = ArtworkFilter.fromParams(params);
+			List<UUID> fromSql = artworkRepository.findIds(ArtworkSpecifications.matching(filter));
+			assertThat(fromSql).as("%s", params).containsExactlyInAnyOrderElementsOf(artworkFacetIndex.filter(allIds, filter));
+		}
+		assertThat(artworkRepository.findIds(ArtworkSpecifications.matching(ArtworkFilter.NONE))).hasSameSizeAs(allIds);
+		assertThat(artworkRepository.findIds(ArtworkSpecifications.matching(ArtworkFilter.fromParams(
+				Map.of("artistId", artistId.toString(), "medium", "oil", "maxYear", "2020"))))).hasSize(1);
+	}
+
+	@Test
+	void catalogFacetsCountTheSearchMatchesBehindThePage() {
+		ArtworkCatalogPage catalog = artworkService.getArtworkCatalog(PageRequest.of(0, 2), Map.of("medium", "oil"), "burren");
+
+		assertThat(catalog.artworks().getTotalElements()).isEqualTo(2);
+		assertThat(catalog.artworks().getContent()).extracting(Artwork::getTitle)
+				.containsExactlyInAnyOrder("Burren Light", "Burren Rain");
+		// The medium facet ignores the medium filter but not the search, so Atlantic Swell is never counted
+		assertThat(catalog.facets().mediums())
+				.containsExactly(Map.entry("Bronze", 1L), Map.entry("Oil", 2L), Map.entry("Watercolour", 1L));
+		assertThat(catalog.facets().availabilityStatuses()).containsExactly(Map.entry("AVAILABLE", 1L), Map.entry("SOLD", 1L));
+
+		ArtworkCatalogPage unsearched = artworkService.getArtworkCatalog(PageRequest.of(0, 10), Map.of("medium", "oil"), null);
+		assertThat(unsearched.artworks().getTotalElements()).isEqualTo(3);
+		assertThat(unsearched.facets().mediums()).containsEntry("Oil", 3L);
+	}
+
+	private static Artist newArtist(String name) {
+		Artist artist = new Artist();
+		artist.setName(name);
+		return artist;
+	}
+
+	@Test
+	void scrollingPassesThroughNullSortKeysOnTheSqlAndIndexPaths() {
+		Artist artist = artistRepository.findById(artistId).orElseThrow();
+		artworkRepository.save(newArtwork("Burren Dusk", artist, "Oil", null, null, ArtworkAvailabilityStatus.AVAILABLE));
+		artworkRepository.save(newArtwork("Burren Frost", artist, "Oil", null, 2019, ArtworkAvailabilityStatus.AVAILABLE));
+		List<Artwork> all = artworkRepository.findAll();
+		artworkIndexMaintainer.buildIndexes();
+
+		for (Sort sort : List.of(Sort.by("price"), Sort.by(Sort.Direction.DESC, "price"), Sort.by("yearCreated"),
+				Sort.by(Sort.Direction.DESC, "yearCreated", "price"), Sort.by(Sort.Order.asc("yearCreated"), Sort.Order.desc("price")))) {
+			// Windows of one and two rows end on null keys as well as between them
+			for (int limit : new int[]{1, 2}) {
+				List<UUID> sql = scrollAll(sort, null, null, limit);
+				assertThat(sql).as("%s, limit %d", sort, limit).doesNotHaveDuplicates().hasSameSizeAs(all);
+				// The search index path orders nulls the same way, so it yields the Burren artworks in the same order
+				List<UUID> burren = all.stream().filter(artwork -> artwork.getTitle().startsWith("Burren")).map(Artwork::getId).toList();
+				assertThat(scrollAll(sort, "burren", null, limit)).as("%s, limit %d", sort, limit)
+						.containsExactlyElementsOf(sql.stream().filter(burren::contains).toList());
+				assertThat(scrollAll(sort, null, artistId, limit)).as("%s, limit %d", sort, limit)
+						.containsExactlyElementsOf(sql.stream().filter(id -> artworkRepository.findById(id).orElseThrow()
+								.getArtist().getId().equals(artistId)).toList());
+			}
+		}
+		// Ascending price puts the unpriced artworks last, descending puts them first
+		List<UUID> byPrice = scrollAll(Sort.by("price"), null, null, 2);
+		assertThat(byPrice.subList(byPrice.size() - 3, byPrice.size()))
+				.allMatch(id -> artworkRepository.findById(id).orElseThrow().getPrice() == null);
+		assertThat(scrollAll(Sort.by(Sort.Direction.DESC, "price"), null, null, 2).subList(0, 3))
+				.allMatch(id -> artworkRepository.findById(id).orElseThrow().getPrice() == null);
+		assertThatThrownBy(() -> scrollAll(Sort.by(Sort.Order.asc("price").nullsFirst()), null, null, 2))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private List<UUID> scrollAll(Sort sort, String searchTerm, UUID artist, int limit) {
+		List<UUID> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPage<Artwork> page = artist == null
+					? artworkService.scrollArtworks(Map.of(), searchTerm, sort, limit, cursor)
+					: artworkService.scrollArtworksByArtist(artist, sort, limit, cursor);
+			page.content().forEach(artwork -> ids.add(artwork.getId()));
+			cursor = page.nextCursor();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private static Artwork newArtwork(String title, Artist artist, String medium, String price, Integer year,
+			ArtworkAvailabilityStatus status) {
+		Artwork artwork = new Artwork();
+		artwork.setTitle(title);
+		artwork.setArtist(artist);
+		artwork.setMedium(medium);
+		artwork.setPrice(price == null ? null : new BigDecimal(price));
+		artwork.setYearCreated(year);
+		artwork.setAvailabilityStatus(status);
+		return artwork;
+	}
+}
@@ -0,0 +1,101 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFacets;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtworkFacetIndexTest {
+
+	private static final UUID ARTIST = UUID.randomUUID();
+	private static final UUID OTHER_ARTIST = UUID.randomUUID();
+
+	private final ArtworkFacetIndex index = new ArtworkFacetIndex();
+
+	@Test
+	void eachFacetIsCountedWithoutItsOwnFilter() {
+		ArtworkIndexRow oil = row(ARTIST, "Oil", "450.00", 2021, ArtworkAvailabilityStatus.AVAILABLE);
+		ArtworkIndexRow oilSold = row(ARTIST, " oil ", "1200.00", 1998, ArtworkAvailabilityStatus.SOLD);
+		ArtworkIndexRow watercolour = row(ARTIST, "Watercolour", "300.00", 2023, ArtworkAvailabilityStatus.AVAILABLE);
+		ArtworkIndexRow elsewhere = row(OTHER_ARTIST, "Oil", "80.00", 2020, ArtworkAvailabilityStatus.AVAILABLE);
+		index.rebuild(List.of(oil, oilSold, watercolour, elsewhere));
+
+		ArtworkFilter filter = ArtworkFilter.fromParams(Map.of("artistId", ARTIST.toString(), "medium", "OIL"));
+		ArtworkFacets facets = index.facets(filter, null);
+
+		// Selecting Oil still shows Watercolour, and the first-seen spelling is the label
+		assertThat(facets.mediums()).containsExactly(Map.entry("Oil", 2L), Map.entry("Watercolour", 1L));
+		assertThat(facets.availabilityStatuses()).containsExactly(Map.entry("AVAILABLE", 1L), Map.entry("SOLD", 1L));
+		assertThat(facets.priceRanges()).containsExactly(Map.entry("0-500", 1L), Map.entry("1000-2500", 1L));
+		assertThat(facets.yearRanges()).containsExactly(Map.entry("1990s", 1L), Map.entry("2020s", 1L));
+
+		// Search hits restrict every facet
+		ArtworkFacets searched = index.facets(ArtworkFilter.NONE, List.of(watercolour.id(), elsewhere.id()));
+		assertThat(searched.mediums()).containsExactly(Map.entry("Oil", 1L), Map.entry("Watercolour", 1L));
+		assertThat(searched.availabilityStatuses()).containsExactly(Map.entry("AVAILABLE", 2L));
+	}
+
+	@Test
+	void filterKeepsCandidateOrderAndAppliesEveryRange() {
+		ArtworkIndexRow cheap = row(ARTIST, "Oil", "499.99", 2019, ArtworkAvailabilityStatus.AVAILABLE);
+		ArtworkIndexRow edge = row(ARTIST, "Oil", "500.00", 2020, ArtworkAvailabilityStatus.ON_HOLD);
+		ArtworkIndexRow unpriced = row(ARTIST, "Oil", null, null, ArtworkAvailabilityStatus.AVAILABLE);
+		ArtworkIndexRow top = row(ARTIST, "Bronze", "10000.00", 2024, ArtworkAvailabilityStatus.AVAILABLE);
+		index.rebuild(List.of(cheap, edge, unpriced, top));
+
+		List<UUID> candidates = List.of(top.id(), unpriced.id(), edge.id(), cheap.id(), UUID.randomUUID());
+		assertThat(index.filter(candidates, ArtworkFilter.NONE)).containsExactly(top.id(), unpriced.id(), edge.id(), cheap.id());
+		// Ranges are inclusive and unpriced or undated artworks never fall inside one
+		assertThat(index.filter(candidates, ArtworkFilter.fromParams(Map.of("minPrice", "500", "maxPrice", "10000"))))
+				.containsExactly(top.id(), edge.id());
+		assertThat(index.filter(candidates, ArtworkFilter.fromParams(Map.of("maxYear", "2020"))))
+				.containsExactly(edge.id(), cheap.id());
+		assertThat(index.filter(candidates, ArtworkFilter.fromParams(Map.of("availabilityStatus", "on_hold,sold"))))
+				.containsExactly(edge.id());
+		assertThat(index.facets(ArtworkFilter.NONE, null).priceRanges())
+				.containsExactly(Map.entry("0-500", 1L), Map.entry("500-1000", 1L), Map.entry("10000+", 1L));
+	}
+
+	@Test
+	void upsertMovesAnArtworkBetweenValuesAndRemoveReusesItsSlot() {
+		ArtworkIndexRow original = row(ARTIST, "Oil", "450.00", 2021, ArtworkAvailabilityStatus.AVAILABLE);
+		index.rebuild(List.of(original));
+		assertThat(index.isReady()).isTrue();
+
+		index.upsert(List.of(new ArtworkIndexRow(original.id(), "Harbour", "", "Charcoal", OTHER_ARTIST, "Seán",
+				new BigDecimal("3000.00"), 2001, ArtworkAvailabilityStatus.SOLD)));
+		ArtworkFacets facets = index.facets(ArtworkFilter.NONE, null);
+		assertThat(facets.mediums()).containsExactly(Map.entry("Charcoal", 1L));
+		assertThat(facets.availabilityStatuses()).containsExactly(Map.entry("SOLD", 1L));
+		assertThat(index.filter(List.of(original.id()), ArtworkFilter.fromParams(Map.of("artistId", ARTIST.toString())))).isEmpty();
+
+		index.remove(List.of(original.id(), UUID.randomUUID()));
+		assertThat(index.facets(ArtworkFilter.NONE, null)).isEqualTo(ArtworkFacets.empty());
+
+		// Slots freed by removals are handed out again, and the arrays grow past their initial size
+		List<UUID> added = new ArrayList<>();
+		List<ArtworkIndexRow> rows = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			ArtworkIndexRow row = row(ARTIST, i % 2 == 0 ? "Oil" : "Ink", "100.00", 2000 + i % 30, ArtworkAvailabilityStatus.AVAILABLE);
+			rows.add(row);
+			added.add(row.id());
+		}
+		index.upsert(rows);
+		assertThat(index.facets(ArtworkFilter.NONE, null).mediums()).containsExactly(Map.entry("Ink", 1_000L), Map.entry("Oil", 1_000L));
+		assertThat(index.filter(added, ArtworkFilter.fromParams(Map.of("medium", "ink", "minYear", "2020")))).hasSize(330);
+	}
+
+	private static ArtworkIndexRow row(UUID artistId, String medium, String price, Integer year, ArtworkAvailabilityStatus status) {
+		return new ArtworkIndexRow(UUID.randomUUID(), "Untitled", "", medium, artistId, "Aoife",
+				price == null ? null : new BigDecimal(price), year, status);
+	}
+}
@@ -0,0 +1,195 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkImportResult;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkImportRowResult;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Every manifest row is validated on its own: bad rows are reported with their row number and skipped,
+// the rest are imported. A batch size of 2 makes the manifest span several chunks.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:artwork-import;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"import.batch-size=2",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@Import(InMemoryStorageService.class)
+class ArtworkImportTest {
+
+	@Autowired
+	private ArtworkImportService artworkImportService;
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private InMemoryStorageService storage;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private UUID artistId;
+
+	@BeforeEach
+	void seed() {
+		artistId = artistRepository.save(newArtist("Aoife Ní Bhriain")).getId();
+		artistRepository.save(newArtist("Seán Ó Riada"));
+		artistRepository.save(newArtist("seán ó riada"));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+		storage.reset();
+	}
+
+	@Test
+	void badRowsAreReportedAndTheRestImported() throws Exception {
+		String csv = """
+				artistId,artistName,title,medium,yearCreated,price,availabilityStatus,imageFile
+				,aoife ní bhriain,Burren Light,Oil,2021,450.00,,burren.jpg
+				%s,,Atlantic Swell,Oil,,1200,sold,
+				,Aoife Ní Bhriain,,Oil,2021,450,,
+				,Aoife Ní Bhriain,Cliffs,Oil,twenty,450,,
+				,Aoife Ní Bhriain,Harbour,Oil,2020,-5,,
+				,Seán Ó Riada,Gorse,Ink,2019,80,,
+				,Nobody,Limestone,Oil,2019,80,,
+				%s,,Dunes,Oil,2019,80,,
+				,Aoife Ní Bhriain,Rain,Oil,2019,80,reserved,
+				,Aoife Ní Bhriain,Mist,Oil,2019,80,,missing.jpg
+				""".formatted(artistId, UUID.randomUUID());
+		ArtworkImportResult result = artworkImportService.importArtworks(
+				new MockMultipartFile("manifest", "artworks.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)),
+				zip(Map.of("burren.jpg", "burren image")));
+
+		assertThat(result.importedRows()).isEqualTo(2);
+		assertThat(result.failedRows()).isEqualTo(8);
+		assertThat(result.rows()).extracting(ArtworkImportRowResult::rowNumber).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		Map<Integer, String> errors = result.rows().stream().filter(row -> !row.imported())
+				.collect(Collectors.toMap(ArtworkImportRowResult::rowNumber, ArtworkImportRowResult::error));
+		assertThat(errors).containsOnlyKeys(3, 4, 5, 6, 7, 8, 9, 10);
+		assertThat(errors.get(3)).isEqualTo("Title is required.");
+		assertThat(errors.get(4)).isEqualTo("Invalid yearCreated: twenty");
+		assertThat(errors.get(5)).isEqualTo("Price cannot be negative.");
+		assertThat(errors.get(6)).startsWith("Artist name is ambiguous");
+		assertThat(errors.get(7)).isEqualTo("Artist not found with name: Nobody");
+		assertThat(errors.get(8)).startsWith("Artist not found with ID: ");
+		assertThat(errors.get(9)).isEqualTo("Invalid availabilityStatus: reserved");
+		assertThat(errors.get(10)).isEqualTo("Image not found in the zip: missing.jpg");
+
+		List<Artwork> imported = artworkRepository.findAll();
+		assertThat(imported).extracting(Artwork::getTitle).containsExactlyInAnyOrder("Burren Light", "Atlantic Swell");
+		Artwork burren = imported.stream().filter(artwork -> artwork.getTitle().equals("Burren Light")).findFirst().orElseThrow();
+		assertThat(burren.getAvailabilityStatus()).isEqualTo(ArtworkAvailabilityStatus.AVAILABLE);
+		assertThat(burren.getPrice()).isEqualByComparingTo(new BigDecimal("450.00"));
+		assertThat(burren.getArtworkImageUrl()).startsWith("http://localhost/storage/v1/object/public/artwork-images/");
+		assertThat(storage.files()).containsValue("burren image");
+		assertThat(result.rows().get(1).artworkId()).isNotNull();
+
+		// The imported rows are announced, so the search index picks them up
+		assertThat(artworkService.getArtworkCards(PageRequest.of(0, 10), Map.of(), "atlantic"))
+				.extracting(card -> card.title()).containsExactly("Atlantic Swell");
+	}
+
+	@Test
+	void valuesTheColumnsCantHoldAreRejectedAndAFailedBatchIsRetriedRowByRow() throws Exception {
+		String csv = """
+				artistName,title,price
+				Aoife Ní Bhriain,%s,80
+				Aoife Ní Bhriain,Cliffs,12.345
+				Aoife Ní Bhriain,Harbour,123456789
+				Aoife Ní Bhriain,Burren Light,99999999.990
+				Aoife Ní Bhriain,Rejected,80
+				Aoife Ní Bhriain,Atlantic Swell,80
+				""".formatted("a".repeat(256));
+		// Stands in for a row the database refuses although parsing accepted it; it shares a batch with row 6
+		jdbcTemplate.execute("alter table artworks add constraint artworks_not_rejected check (title <> 'Rejected')");
+		ArtworkImportResult result;
+		try {
+			result = artworkImportService.importArtworks(
+					new MockMultipartFile("manifest", "artworks.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)), null);
+		} finally {
+			jdbcTemplate.execute("alter table artworks drop constraint artworks_not_rejected");
+		}
+
+		Map<Integer, String> errors = result.rows().stream().filter(row -> !row.imported())
+				.collect(Collectors.toMap(ArtworkImportRowResult::rowNumber, ArtworkImportRowResult::error));
+		assertThat(errors).containsOnlyKeys(1, 2, 3, 5);
+		assertThat(errors.get(1)).isEqualTo("title cannot be longer than 255 characters.");
+		assertThat(errors.get(2)).isEqualTo("Price cannot have more than 2 decimal places.");
+		assertThat(errors.get(3)).isEqualTo("Price cannot have more than 8 digits before the decimal point.");
+		assertThat(errors.get(5)).startsWith("Could not save artwork: ");
+		assertThat(artworkRepository.findAll()).extracting(Artwork::getTitle)
+				.containsExactlyInAnyOrder("Burren Light", "Atlantic Swell");
+	}
+
+	@Test
+	void jsonManifestsAreReadAndMalformedInputStopsTheImport() throws Exception {
+		String ndjson = """
+				{"artistName": "Aoife Ní Bhriain", "title": "Burren Light"}
+				{"artistName": "Aoife Ní Bhriain", "title": "Atlantic Swell", "unknownColumn": 1}
+				{"artistName": "Aoife Ní Bhriain", "title":
+				""";
+		ArtworkImportResult result = artworkImportService.importArtworks(
+				new MockMultipartFile("manifest", "artworks.ndjson", "application/x-ndjson", ndjson.getBytes(StandardCharsets.UTF_8)),
+				null);
+
+		assertThat(result.importedRows()).isEqualTo(2);
+		assertThat(result.rows()).hasSize(3);
+		assertThat(result.rows().get(2).rowNumber()).isEqualTo(3);
+		assertThat(result.rows().get(2).error()).startsWith("Malformed manifest");
+
+		assertThatThrownBy(() -> artworkImportService.importArtworks(
+				new MockMultipartFile("manifest", "artworks.xlsx", "application/octet-stream", new byte[]{1}), null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static MockMultipartFile zip(Map<String, String> entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		}
+		return new MockMultipartFile("images", "images.zip", "application/zip", bytes.toByteArray());
+	}
+
+	private static Artist newArtist(String name) {
+		Artist artist = new Artist();
+		artist.setName(name);
+		return artist;
+	}
+}
@@ -0,0 +1,274 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkSale;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Profile;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UserFavoriteArtworkId;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkSaleRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ProfileRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.UserFavoriteArtworkRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Listings must run a fixed number of statements however many rows a page holds.
+// Every row's associations are touched inside the transaction, so any lazy load would be counted.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:listing-query-count;MODE=PostgreSQL;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+class ArtworkListingQueryCountTest {
+
+	private static final int ARTWORKS_PER_ARTIST = 10;
+	private static final int OTHER_ARTISTS = 10;
+
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private FavoriteArtworkService favoriteArtworkService;
+	@Autowired
+	private ArtworkSalesService artworkSalesService;
+	@Autowired
+	private PremiumMediaService premiumMediaService;
+	@Autowired
+	private ArtworkIndexMaintainer artworkIndexMaintainer;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private ArtworkSaleRepository artworkSaleRepository;
+	@Autowired
+	private ProfileRepository profileRepository;
+	@Autowired
+	private PremiumMediaRepository premiumMediaRepository;
+	@Autowired
+	private UserFavoriteArtworkRepository userFavoriteArtworkRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private UUID artistId;
+	private UUID userId;
+
+	@BeforeEach
+	void seed() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// One artist with a full page of work, plus one artwork each from several others,
+		// so catalog pages span many distinct artists
+		Artist artist = artistRepository.save(newArtist("Aoife Ní Bhriain"));
+		artistId = artist.getId();
+		for (int i = 0; i < ARTWORKS_PER_ARTIST; i++) {
+			artworkRepository.save(newArtwork("Burren Light " + i, artist));
+		}
+		for (int i = 0; i < OTHER_ARTISTS; i++) {
+			artworkRepository.save(newArtwork("Atlantic Study " + i, artistRepository.save(newArtist("Artist " + i))));
+		}
+
+		Artwork sold = artworkRepository.findAll().get(0);
+		ArtworkSale sale = new ArtworkSale();
+		sale.setArtwork(sold);
+		sale.setSalePrice(sold.getPrice());
+		sale.setSaleDate(OffsetDateTime.now());
+		artworkSaleRepository.save(sale);
+
+		Profile profile = new Profile();
+		profile.setUserId(UUID.randomUUID());
+		userId = profileRepository.save(profile).getUserId();
+		for (Artwork artwork : artworkRepository.findAll()) {
+			UserFavoriteArtwork favorite = new UserFavoriteArtwork();
+			favorite.setId(new UserFavoriteArtworkId(userId, artwork.getId()));
+			favorite.setProfile(profile);
+			favorite.setArtwork(artwork);
+			userFavoriteArtworkRepository.save(favorite);
+		}
+
+		artworkIndexMaintainer.buildIndexes();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		premiumMediaRepository.deleteAll();
+		userFavoriteArtworkRepository.deleteAll();
+		artworkSaleRepository.deleteAll();
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+		profileRepository.deleteAll();
+	}
+
+	@Test
+	void catalogPageRunsFixedNumberOfStatements() {
+		assertFixedStatementCount(pageSize -> artworkService.getAllArtworks(PageRequest.of(0, pageSize), Map.of(), null)
+				.forEach(this::touchArtwork), 2); // page + count
+	}
+
+	@Test
+	void searchResultsRunFixedNumberOfStatements() {
+		assertFixedStatementCount(pageSize -> artworkService.getAllArtworks(PageRequest.of(0, pageSize), Map.of(), "burren light")
+				.forEach(this::touchArtwork), 1);
+		assertFixedStatementCount(pageSize -> artworkService.getAllArtworks(PageRequest.of(0, pageSize), Map.of(), "atlantic")
+				.forEach(this::touchArtwork), 1);
+	}
+
+	@Test
+	void sortedSearchResultsLoadOnlyThePage() {
+		assertFixedStatementCount(pageSize -> artworkService.getAllArtworks(
+				PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "title")), Map.of(), "burren light")
+				.forEach(this::touchArtwork), 2); // sort keys + page
+
+		statistics.clear();
+		Page<Artwork> secondPage = artworkService.getAllArtworks(
+				PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "title")), Map.of(), "burren light");
+		assertThat(statistics.getEntityStatistics(Artwork.class.getName()).getLoadCount()).isEqualTo(3);
+		assertThat(secondPage.getTotalElements()).isEqualTo(ARTWORKS_PER_ARTIST);
+		assertThat(secondPage.getContent()).extracting(Artwork::getTitle)
+				.containsExactly("Burren Light 6", "Burren Light 5", "Burren Light 4");
+		assertThat(artworkService.getArtworkCards(PageRequest.of(0, 2, Sort.by("artist.name")), Map.of(), "study"))
+				.extracting(card -> card.artistName()).containsExactly("Artist 0", "Artist 1");
+	}
+
+	@Test
+	void catalogScrollRunsFixedNumberOfStatements() {
+		assertFixedStatementCount(pageSize -> artworkService.scrollArtworks(Map.of(), null, null, pageSize, null)
+				.content().forEach(this::touchArtwork), 1);
+	}
+
+	@Test
+	void artistPageRunsFixedNumberOfStatements() {
+		assertFixedStatementCount(pageSize -> artworkService.getArtworksByArtist(artistId, PageRequest.of(0, pageSize))
+				.forEach(this::touchArtwork), 3); // artist check + page + count
+		assertFixedStatementCount(pageSize -> artworkService.scrollArtworksByArtist(artistId, null, pageSize, null)
+				.content().forEach(this::touchArtwork), 2); // artist check + window
+	}
+
+	@Test
+	void favoritesRunFixedNumberOfStatements() {
+		assertFixedStatementCount(pageSize -> favoriteArtworkService.getUserFavoriteArtworks(userId, PageRequest.of(0, pageSize))
+				.forEach(favorite -> touchArtwork(favorite.getArtwork())), 3); // profile check + page + count
+		assertFixedStatementCount(pageSize -> favoriteArtworkService.scrollUserFavoriteArtworks(userId, pageSize, null)
+				.content().forEach(favorite -> touchArtwork(favorite.getArtwork())), 2); // profile check + window
+	}
+
+	@Test
+	void cardListingsRunFixedNumberOfStatementsWithoutLoadingEntities() {
+		assertFixedStatementCount(pageSize -> artworkService.getArtworkCards(PageRequest.of(0, pageSize), Map.of(), null), 2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertFixedStatementCount(pageSize -> artworkService.getArtworkCards(PageRequest.of(0, pageSize), Map.of(), "burren"), 1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertFixedStatementCount(pageSize -> artworkService.getArtworkCardsByArtist(artistId, PageRequest.of(0, pageSize)), 3);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertFixedStatementCount(pageSize -> favoriteArtworkService.getUserFavoriteArtworkCards(userId, PageRequest.of(0, pageSize)), 3);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertFixedStatementCount(pageSize -> artworkSalesService.getRecentSaleSummaries(PageRequest.of(0, pageSize)), 1); // single sale, no count
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void batchPremiumMediaLookupsRunOneStatementForAPage() {
+		List<UUID> artistIds = new ArrayList<>(artistRepository.findAll().stream().map(Artist::getId).toList());
+		for (UUID id : artistIds) {
+			premiumMediaRepository.save(newMedia("Studio visit", id));
+			premiumMediaRepository.save(newMedia("Artist talk", id));
+		}
+		UUID withoutMedia = UUID.randomUUID();
+		artistIds.add(0, withoutMedia);
+
+		assertFixedStatementCount(pageSize -> premiumMediaService.getMediaForArtists(artistIds.subList(0, pageSize))
+				.values().forEach(media -> media.forEach(item -> assertThat(item.toString()).isNotBlank())), 1);
+		assertFixedStatementCount(pageSize -> premiumMediaService.getMediaCardsForArtists(artistIds.subList(0, pageSize)), 1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertFixedStatementCount(pageSize -> premiumMediaService.countMediaForArtists(artistIds.subList(0, pageSize)), 1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+
+		Map<UUID, Long> counts = premiumMediaService.countMediaForArtists(artistIds);
+		assertThat(counts.keySet()).containsExactlyElementsOf(artistIds);
+		assertThat(counts).containsEntry(withoutMedia, 0L).containsEntry(artistId, 2L);
+		assertThat(premiumMediaService.getMediaCardsForArtists(artistIds).get(artistId))
+				.extracting(card -> card.title()).containsExactly("Studio visit", "Artist talk");
+		assertThat(premiumMediaService.getMediaForArtworks(List.of(artistId))).containsEntry(artistId, List.of());
+		assertThat(premiumMediaService.getMediaForArtworks(List.of())).isEmpty();
+	}
+
+	// Runs the listing with a small and a large page and expects the same, small statement count for both.
+	// The large page is exactly full on every listing, so Spring Data never gets to skip the count query.
+	private void assertFixedStatementCount(IntConsumer listing, long expectedStatements) {
+		long smallPage = statementsFor(listing, 3);
+		long largePage = statementsFor(listing, ARTWORKS_PER_ARTIST);
+		assertThat(smallPage).isEqualTo(expectedStatements);
+		assertThat(largePage).isEqualTo(expectedStatements);
+	}
+
+	private long statementsFor(IntConsumer listing, int pageSize) {
+		statistics.clear();
+		transactionTemplate.executeWithoutResult(status -> listing.accept(pageSize));
+		return statistics.getPrepareStatementCount();
+	}
+
+	// What a listing card renders, plus the lazy association Lombok's toString would otherwise walk
+	private void touchArtwork(Artwork artwork) {
+		assertThat(artwork.getArtist().getName()).isNotBlank();
+		assertThat(artwork.toString()).isNotBlank();
+	}
+
+	private static Artist newArtist(String name) {
+		Artist artist = new Artist();
+		artist.setName(name);
+		return artist;
+	}
+
+	private static PremiumMedia newMedia(String title, UUID artistId) {
+		PremiumMedia media = new PremiumMedia();
+		media.setTitle(title);
+		media.setMediaType(MediaType.VIDEO);
+		media.setFileUrl("http://localhost/storage/v1/object/public/premium-media-files/" + UUID.randomUUID() + ".mp4");
+		media.setThumbnailUrl("http://localhost/storage/v1/object/public/premium-media-thumbnails/" + UUID.randomUUID() + ".jpg");
+		media.setRelatedToEntityType(RelatedEntityType.ARTIST);
+		media.setRelatedEntityId(artistId);
+		return media;
+	}
+
+	private static Artwork newArtwork(String title, Artist artist) {
+		Artwork artwork = new Artwork();
+		artwork.setTitle(title);
+		artwork.setArtist(artist);
+		artwork.setMedium("Oil on canvas");
+		artwork.setPrice(new BigDecimal("450.00"));
+		artwork.setYearCreated(2021);
+		return artwork;
+	}
+}
@@ -0,0 +1,128 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkFilter;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtworkRangeIndexTest {
+
+	private final ArtworkRangeIndex index = new ArtworkRangeIndex();
+
+	@Test
+	void sortsPutArtworksWithoutAValueLastAscendingAndFirstDescending() {
+		ArtworkIndexRow cheap = row(UUID.randomUUID(), "80.00", 2021);
+		ArtworkIndexRow dear = row(UUID.randomUUID(), "1200.00", 1998);
+		ArtworkIndexRow unpriced = row(UUID.randomUUID(), null, 2010);
+		ArtworkIndexRow middle = row(UUID.randomUUID(), "450.50", null);
+		index.rebuild(List.of(dear, unpriced, middle, cheap));
+
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false))
+				.containsExactly(cheap.id(), middle.id(), dear.id(), unpriced.id());
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, true))
+				.containsExactly(unpriced.id(), dear.id(), middle.id(), cheap.id());
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.YEAR, false))
+				.containsExactly(dear.id(), unpriced.id(), cheap.id(), middle.id());
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.YEAR, true))
+				.containsExactly(middle.id(), cheap.id(), unpriced.id(), dear.id());
+	}
+
+	@Test
+	void rangesAreInclusiveAndCanBeSortedByTheOtherColumn() {
+		ArtworkIndexRow a = row(UUID.randomUUID(), "500.00", 2001);
+		ArtworkIndexRow b = row(UUID.randomUUID(), "499.99", 2005);
+		ArtworkIndexRow c = row(UUID.randomUUID(), "1000.00", 1999);
+		ArtworkIndexRow d = row(UUID.randomUUID(), "750.00", null);
+		ArtworkIndexRow sold = new ArtworkIndexRow(UUID.randomUUID(), "Sold", "", "Oil", UUID.randomUUID(), "Aoife",
+				new BigDecimal("600.00"), 2003, ArtworkAvailabilityStatus.SOLD);
+		index.rebuild(List.of(a, b, c, d, sold));
+
+		ArtworkFilter price = ArtworkFilter.fromParams(Map.of("minPrice", "500", "maxPrice", "1000"));
+		assertThat(index.select(price, null, false)).containsExactly(a.id(), sold.id(), d.id(), c.id());
+		// Sorted by year inside a price range: the undated artwork goes last, as in Postgres
+		assertThat(index.select(price, ArtworkRangeIndex.SortBy.YEAR, false)).containsExactly(c.id(), a.id(), sold.id(), d.id());
+		assertThat(index.select(ArtworkFilter.fromParams(Map.of("minPrice", "500", "maxYear", "2003", "availabilityStatus", "available")),
+				ArtworkRangeIndex.SortBy.PRICE, true)).containsExactly(c.id(), a.id());
+		assertThat(index.select(ArtworkFilter.fromParams(Map.of("minYear", "2010")), null, false)).isEmpty();
+	}
+
+	@Test
+	void upsertMovesKeysAndRemoveFreesOrdinalsWhileTheArraysGrow() {
+		List<ArtworkIndexRow> rows = new ArrayList<>();
+		for (int i = 0; i < 3_000; i++) {
+			rows.add(row(UUID.randomUUID(), i + ".00", 2000 + i % 20));
+		}
+		index.rebuild(List.of());
+		index.upsert(rows); // past the initial 1024 columns and 2048 table slots
+
+		List<UUID> ascending = index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false);
+		assertThat(ascending).hasSize(3_000);
+		assertThat(ascending.get(0)).isEqualTo(rows.get(0).id());
+		assertThat(ascending.get(2_999)).isEqualTo(rows.get(2_999).id());
+
+		// Repricing the cheapest moves it to the top instead of adding a second key
+		ArtworkIndexRow first = rows.get(0);
+		index.upsert(List.of(row(first.id(), "5000.00", 2000)));
+		ascending = index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false);
+		assertThat(ascending).hasSize(3_000);
+		assertThat(ascending.get(2_999)).isEqualTo(first.id());
+
+		index.remove(rows.subList(0, 1_500).stream().map(ArtworkIndexRow::id).toList());
+		index.remove(List.of(UUID.randomUUID()));
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.YEAR, false)).hasSize(1_500)
+				.doesNotContain(first.id());
+		ArtworkIndexRow added = row(UUID.randomUUID(), "1.00", null);
+		index.upsert(List.of(added));
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false).get(0)).isEqualTo(added.id());
+	}
+
+	@Test
+	void deletingInsideAProbeRunKeepsTheRestOfTheRunReachable() {
+		// IDs with the same high ^ low hash to the same slot, so they form one probe run; the run starts in
+		// the table's last slots and wraps around to the front
+		long shared = collidingNearTheEnd();
+		List<ArtworkIndexRow> rows = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			rows.add(row(new UUID(i, i ^ shared), (100 + i) + ".00", 2000));
+		}
+		index.rebuild(rows);
+
+		index.remove(List.of(rows.get(1).id(), rows.get(4).id()));
+		List<UUID> remaining = List.of(rows.get(0).id(), rows.get(2).id(), rows.get(3).id(),
+				rows.get(5).id(), rows.get(6).id(), rows.get(7).id());
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false)).containsExactlyElementsOf(remaining);
+
+		// Every shifted entry is still found: repricing it moves it rather than indexing it twice
+		for (int i : new int[]{0, 2, 3, 5, 6, 7}) {
+			index.upsert(List.of(row(rows.get(i).id(), (200 - i) + ".00", 2000)));
+		}
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false))
+				.containsExactly(rows.get(7).id(), rows.get(6).id(), rows.get(5).id(), rows.get(3).id(), rows.get(2).id(), rows.get(0).id());
+		index.remove(remaining);
+		assertThat(index.select(ArtworkFilter.NONE, ArtworkRangeIndex.SortBy.PRICE, false)).isEmpty();
+	}
+
+	// A high ^ low value whose home is one of the last slots of the table rebuild() sizes for a few rows
+	private static long collidingNearTheEnd() {
+		int mask = 2048 - 1;
+		for (long candidate = 1; ; candidate++) {
+			long hash = candidate * 0x9E3779B97F4A7C15L;
+			if (((int) (hash >>> 32) & mask) == mask - 2) {
+				return candidate;
+			}
+		}
+	}
+
+	private static ArtworkIndexRow row(UUID id, String price, Integer year) {
+		return new ArtworkIndexRow(id, "Untitled", "", "Oil", UUID.randomUUID(), "Aoife",
+				price == null ? null : new BigDecimal(price), year, ArtworkAvailabilityStatus.AVAILABLE);
+	}
+}
@@ -0,0 +1,81 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtworkSearchIndexTest {
+
+	private static final UUID ARTIST = UUID.randomUUID();
+	private static final UUID OTHER_ARTIST = UUID.randomUUID();
+
+	private final ArtworkSearchIndex index = new ArtworkSearchIndex();
+
+	@Test
+	void tokensAreAccentFoldedLowerCasedAndSplitOnPunctuation() {
+		assertThat(SearchTokenizer.tokenize("Ó Súilleabháin: Cliffs-of-MOHER, 1998")).containsExactly("o", "suilleabhain", "cliffs", "of", "moher", "1998");
+		assertThat(SearchTokenizer.tokenize("  ")).isEmpty();
+		assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+
+		ArtworkIndexRow cliffs = row("Cliffs of Moher", "", "Oil", ARTIST, "Máire Ó Súilleabháin");
+		index.rebuild(List.of(cliffs));
+		assertThat(index.search("maire o'suilleabhain", null)).containsExactly(cliffs.id());
+	}
+
+	@Test
+	void matchesAreRankedByFieldAndExactness() {
+		ArtworkIndexRow inTitle = row("Burren Light", "", "Oil", ARTIST, "Aoife");
+		ArtworkIndexRow inDescription = row("Limestone", "Evening light over the burren", "Oil", ARTIST, "Aoife");
+		ArtworkIndexRow prefixOnly = row("Townland", "Painted at Burrenbeg", "Oil", ARTIST, "Aoife");
+		ArtworkIndexRow unrelated = row("Atlantic Study", "", "Watercolour", ARTIST, "Aoife");
+		index.rebuild(List.of(inDescription, prefixOnly, unrelated, inTitle));
+
+		// A title hit outranks a description hit, and in the same field an exact token outranks a prefix expansion
+		assertThat(index.search("burren", null)).containsExactly(inTitle.id(), inDescription.id(), prefixOnly.id());
+		// Every query token must match
+		assertThat(index.search("burren light", null)).containsExactly(inTitle.id(), inDescription.id());
+		assertThat(index.search("burren watercolour", null)).isEmpty();
+		assertThat(index.search("?!", null)).isEmpty();
+	}
+
+	@Test
+	void searchesCanBeNarrowedToOneArtist() {
+		ArtworkIndexRow mine = row("Harbour", "", "Oil", ARTIST, "Aoife");
+		ArtworkIndexRow theirs = row("Harbour at Dusk", "", "Oil", OTHER_ARTIST, "Seán");
+		index.rebuild(List.of(mine, theirs));
+
+		assertThat(index.search("harbour", null)).containsExactlyInAnyOrder(mine.id(), theirs.id());
+		assertThat(index.search("harbour", OTHER_ARTIST)).containsExactly(theirs.id());
+	}
+
+	@Test
+	void upsertReplacesTheOldTermsAndRemoveDropsThem() {
+		ArtworkIndexRow original = row("Burren Light", "", "Oil", ARTIST, "Aoife");
+		index.rebuild(List.of(original));
+		assertThat(index.isReady()).isTrue();
+
+		ArtworkIndexRow renamed = new ArtworkIndexRow(original.id(), "Atlantic Swell", "", "Oil", ARTIST, "Aoife",
+				null, null, ArtworkAvailabilityStatus.AVAILABLE);
+		index.upsert(List.of(renamed));
+		assertThat(index.search("burren", null)).isEmpty();
+		assertThat(index.search("atlantic", null)).containsExactly(original.id());
+
+		ArtworkIndexRow added = row("Atlantic Calm", "", "Oil", ARTIST, "Aoife");
+		index.upsert(List.of(added));
+		assertThat(index.search("atlantic", null)).containsExactlyInAnyOrder(original.id(), added.id());
+
+		index.remove(List.of(original.id(), UUID.randomUUID()));
+		assertThat(index.search("atlantic", null)).containsExactly(added.id());
+		assertThat(index.search("swell", null)).isEmpty();
+	}
+
+	private static ArtworkIndexRow row(String title, String description, String medium, UUID artistId, String artistName) {
+		return new ArtworkIndexRow(UUID.randomUUID(), title, description, medium, artistId, artistName,
+				null, null, ArtworkAvailabilityStatus.AVAILABLE);
+	}
+}
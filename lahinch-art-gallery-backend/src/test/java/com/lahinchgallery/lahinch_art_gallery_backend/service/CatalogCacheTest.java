@@ -0,0 +1,129 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.config.CacheConfig;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtistDetail;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By-ID lookups are served from the catalog caches as read-only copies, and CatalogCacheInvalidator
+// evicts them once a write through the services has committed
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:catalog-cache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@Import(InMemoryStorageService.class)
+class CatalogCacheTest {
+
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtistService artistService;
+	@Autowired
+	private PremiumMediaService premiumMediaService;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private PremiumMediaRepository premiumMediaRepository;
+	@Autowired
+	private CacheManager cacheManager;
+
+	private UUID artistId;
+	private UUID artworkId;
+	private UUID mediaId;
+
+	@BeforeEach
+	void seed() {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artistId = artistRepository.save(artist).getId();
+
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Burren Light");
+		artwork.setArtist(artist);
+		artworkId = artworkRepository.save(artwork).getId();
+
+		PremiumMedia media = new PremiumMedia();
+		media.setTitle("Studio visit");
+		media.setMediaType(MediaType.VIDEO);
+		media.setFileUrl("http://localhost/storage/v1/object/public/premium-media-files/ab/studio.mp4");
+		media.setRelatedToEntityType(RelatedEntityType.ARTIST);
+		media.setRelatedEntityId(artistId);
+		mediaId = premiumMediaRepository.save(media).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		premiumMediaRepository.deleteAll();
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+	}
+
+	@Test
+	void artworkEntriesAreEvictedByArtworkAndArtistWrites() throws Exception {
+		assertThat(artworkService.getArtworkById(artworkId)).hasValueSatisfying(detail -> {
+			assertThat(detail.availabilityStatus()).isEqualTo(ArtworkAvailabilityStatus.AVAILABLE);
+			assertThat(detail.artist().name()).isEqualTo("Aoife Ní Bhriain");
+		});
+		assertThat(cacheManager.getCache(CacheConfig.ARTWORKS_CACHE).get(artworkId)).isNotNull();
+
+		artworkService.updateArtworkAvailability(artworkId, ArtworkAvailabilityStatus.ON_HOLD);
+		assertThat(cacheManager.getCache(CacheConfig.ARTWORKS_CACHE).get(artworkId)).isNull();
+		assertThat(artworkService.getArtworkById(artworkId).orElseThrow().availabilityStatus())
+				.isEqualTo(ArtworkAvailabilityStatus.ON_HOLD);
+
+		// Renaming the artist also evicts the artworks that carry the old name
+		Artist renamed = artistRepository.findById(artistId).orElseThrow();
+		renamed.setName("Aoife Ní Bhriain-Walsh");
+		artistService.updateArtist(artistId, renamed, null);
+		assertThat(cacheManager.getCache(CacheConfig.ARTWORKS_CACHE).get(artworkId)).isNull();
+		assertThat(artworkService.getArtworkById(artworkId).orElseThrow().artist().name()).isEqualTo("Aoife Ní Bhriain-Walsh");
+	}
+
+	@Test
+	void artistAndMediaEntriesAreServedFromTheCacheUntilEvicted() throws Exception {
+		ArtistDetail cached = artistService.getArtistById(artistId).orElseThrow();
+		assertThat(premiumMediaService.getMediaById(mediaId).orElseThrow().title()).isEqualTo("Studio visit");
+
+		// A change that bypasses the services is not seen until the entry is evicted or expires
+		Artist edited = artistRepository.findById(artistId).orElseThrow();
+		edited.setLocation("Lahinch");
+		artistRepository.save(edited);
+		assertThat(artistService.getArtistById(artistId)).contains(cached);
+
+		artistService.updateArtist(artistId, edited, null);
+		assertThat(artistService.getArtistById(artistId).orElseThrow().location()).isEqualTo("Lahinch");
+
+		PremiumMedia mediaDetails = premiumMediaRepository.findById(mediaId).orElseThrow();
+		mediaDetails.setTitle("Artist talk");
+		premiumMediaService.updateMedia(mediaId, mediaDetails, null, null);
+		assertThat(premiumMediaService.getMediaById(mediaId).orElseThrow().title()).isEqualTo("Artist talk");
+
+		assertThat(artistService.getArtistById(UUID.randomUUID())).isEmpty();
+		assertThat(cacheManager.getCache(CacheConfig.ARTISTS_CACHE).get(artistId)).isNotNull();
+	}
+}
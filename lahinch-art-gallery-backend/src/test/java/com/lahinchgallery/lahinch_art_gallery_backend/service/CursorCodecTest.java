@@ -0,0 +1,73 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+	private static final Sort SORT = Sort.by("availabilityStatus", "createdAt");
+
+	private final CursorCodec codec = new CursorCodec("test");
+
+	@Test
+	void positionsRoundTripWithTheirTypes() {
+		Map<String, Object> keys = keys(ArtworkAvailabilityStatus.SOLD, OffsetDateTime.parse("2025-01-01T10:00:00Z"), UUID.randomUUID());
+		KeysetScrollPosition decoded = codec.decode(codec.encode(ScrollPosition.forward(keys)), CursorCodec.keysFor(SORT));
+		assertThat(decoded.getKeys()).isEqualTo(keys);
+		assertThat(codec.decode(null, CursorCodec.keysFor(SORT)).isInitial()).isTrue();
+		assertThat(CursorCodec.keysFor(SORT)).containsExactly("availabilityStatus", "createdAt", "id");
+	}
+
+	@Test
+	void editedOrForeignCursorsAreRejected() {
+		String cursor = codec.encode(ScrollPosition.forward(keys(ArtworkAvailabilityStatus.AVAILABLE, OffsetDateTime.now(), UUID.randomUUID())));
+		String[] parts = cursor.split("\\.");
+		String json = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+		String edited = Base64.getUrlEncoder().withoutPadding().encodeToString(json.replace("AVAILABLE", "SOLD").getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(() -> codec.decode(edited + "." + parts[1], CursorCodec.keysFor(SORT)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> codec.decode(parts[0], CursorCodec.keysFor(SORT)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CursorCodec("other-secret").decode(cursor, CursorCodec.keysFor(SORT)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void cursorsOnlyFitTheSortTheyCameFrom() {
+		String cursor = codec.encode(ScrollPosition.forward(keys(ArtworkAvailabilityStatus.AVAILABLE, OffsetDateTime.now(), UUID.randomUUID())));
+		assertThatThrownBy(() -> codec.decode(cursor, CursorCodec.keysFor(Sort.by("createdAt"))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> codec.decode(cursor, List.of("availabilityStatus", "createdAt", "id", "title")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void onlyAllowListedEnumsCanBeEncoded() {
+		assertThatThrownBy(() -> codec.encode(ScrollPosition.forward(Map.of("mediaType", MediaType.VIDEO))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static Map<String, Object> keys(ArtworkAvailabilityStatus status, OffsetDateTime createdAt, UUID id) {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("availabilityStatus", status);
+		keys.put("createdAt", createdAt);
+		keys.put("id", id);
+		return keys;
+	}
+}
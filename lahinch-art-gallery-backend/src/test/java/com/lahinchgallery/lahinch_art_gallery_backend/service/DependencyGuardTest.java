@@ -0,0 +1,124 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyGuardTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	// IOExceptions stand in for timeouts and 5xx, IllegalArgumentExceptions for client errors
+	private DependencyGuard guard(int maxConcurrentCalls, Duration timeout, Duration openDuration) {
+		return new DependencyGuard("test", maxConcurrentCalls, Duration.ofMillis(50), timeout, 3, Duration.ofMillis(1),
+				openDuration, e -> e instanceof IOException, meterRegistry);
+	}
+
+	@Test
+	void onlyIdempotentCallsAreRetriedAndOnlyOnTransientFailures() throws Exception {
+		DependencyGuard guard = guard(4, Duration.ofSeconds(5), Duration.ofSeconds(30));
+		AtomicInteger attempts = new AtomicInteger();
+
+		String result = guard.call("read", true, () -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new IOException("connection reset");
+			}
+			return "ok";
+		});
+		assertThat(result).isEqualTo("ok");
+		assertThat(attempts).hasValue(3);
+
+		attempts.set(0);
+		assertThatThrownBy(() -> guard.call("write", false, () -> {
+			attempts.incrementAndGet();
+			throw new IOException("connection reset");
+		})).isInstanceOf(IOException.class);
+		assertThat(attempts).hasValue(1);
+
+		attempts.set(0);
+		assertThatThrownBy(() -> guard.call("read", true, () -> {
+			attempts.incrementAndGet();
+			throw new IllegalArgumentException("not found");
+		})).isInstanceOf(IllegalArgumentException.class);
+		assertThat(attempts).hasValue(1);
+
+		assertThat(meterRegistry.get("dependency.calls").tag("operation", "read").tag("outcome", "failure").timer().count()).isEqualTo(2);
+		assertThat(DependencyGuard.remaining()).isEmpty();
+	}
+
+	@Test
+	void theCircuitOpensOnTransientFailuresAndClosesAfterSuccessfulTrialCalls() throws Exception {
+		DependencyGuard guard = guard(4, Duration.ofSeconds(5), Duration.ofMillis(100));
+		for (int i = 0; i < 10; i++) {
+			assertThatThrownBy(() -> guard.call("write", false, () -> {
+				throw new IOException("503");
+			})).isInstanceOf(IOException.class);
+		}
+
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatThrownBy(() -> guard.call("write", false, attempts::incrementAndGet))
+				.isInstanceOf(DependencyUnavailableException.class);
+		assertThat(attempts).hasValue(0);
+		assertThat(meterRegistry.get("dependency.rejections").tag("reason", "circuit-open").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("dependency.circuit.state").gauge().value()).isEqualTo(2);
+
+		Thread.sleep(150);
+		guard.call("write", false, attempts::incrementAndGet);
+		guard.call("write", false, attempts::incrementAndGet);
+		assertThat(attempts).hasValue(2);
+		assertThat(meterRegistry.get("dependency.circuit.state").gauge().value()).isEqualTo(0);
+	}
+
+	@Test
+	void aFullBulkheadRejectsInsteadOfQueueing() throws Exception {
+		DependencyGuard guard = guard(1, Duration.ofSeconds(5), Duration.ofSeconds(30));
+		CountDownLatch inCall = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread slow = Thread.ofVirtual().start(() -> {
+			try {
+				guard.call("read", true, () -> {
+					inCall.countDown();
+					return release.await(5, TimeUnit.SECONDS);
+				});
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() -> guard.call("read", true, () -> "never"))
+				.isInstanceOf(DependencyUnavailableException.class);
+		assertThat(meterRegistry.get("dependency.bulkhead.in-use").gauge().value()).isEqualTo(1);
+		assertThat(meterRegistry.get("dependency.rejections").tag("reason", "bulkhead-full").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		slow.join();
+		assertThat(guard.call("read", true, () -> "ok")).isEqualTo("ok");
+	}
+
+	@Test
+	void nestedCallsKeepTheEarlierDeadline() throws Exception {
+		DependencyGuard outer = guard(4, Duration.ofMillis(500), Duration.ofSeconds(30));
+		DependencyGuard inner = new DependencyGuard("inner", 4, Duration.ofMillis(50), Duration.ofSeconds(30), 3,
+				Duration.ofMillis(1), Duration.ofSeconds(30), e -> e instanceof IOException, meterRegistry);
+
+		Duration remaining = outer.call("outer", true, () -> inner.call("inner", true, () -> DependencyGuard.remaining().orElseThrow()));
+		assertThat(remaining).isPositive().isLessThanOrEqualTo(Duration.ofMillis(500));
+
+		// Once the deadline has passed, retries stop and nested calls are refused outright
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatThrownBy(() -> outer.call("outer", true, () -> {
+			Thread.sleep(600);
+			return inner.call("inner", true, attempts::incrementAndGet);
+		})).isInstanceOf(DependencyUnavailableException.class);
+		assertThat(attempts).hasValue(0);
+	}
+}
@@ -0,0 +1,118 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ImageVariant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The source JPEGs are written by ImageIO, which never writes EXIF or a foreign profile, so the APP1 and APP2
+// segments a camera or editor would add are spliced in after the JFIF header
+class ImageDerivativesTest {
+
+	private final ImageDerivatives imageDerivatives = new ImageDerivatives(0.9f);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void exifOrientationIsAppliedBeforeResizing() throws IOException {
+		BufferedImage landscape = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = landscape.createGraphics();
+		g.setColor(Color.RED);
+		g.fillRect(0, 0, 20, 20);
+		g.setColor(Color.BLUE);
+		g.fillRect(20, 0, 20, 20);
+		g.dispose();
+		// Orientation 6: the camera was turned clockwise, so the stored left edge is the top of the picture
+		Path image = write(landscape, segment(0xE1, exif(6)));
+
+		Map<ImageVariant, byte[]> derivatives = imageDerivatives.render(image);
+
+		assertThat(derivatives).containsOnlyKeys(ImageVariant.values());
+		BufferedImage thumbnail = decode(derivatives.get(ImageVariant.THUMBNAIL));
+		assertThat(thumbnail.getWidth()).isEqualTo(20);
+		assertThat(thumbnail.getHeight()).isEqualTo(40);
+		assertThat(new Color(thumbnail.getRGB(10, 8)).getRed()).isGreaterThan(200);
+		assertThat(new Color(thumbnail.getRGB(10, 32)).getBlue()).isGreaterThan(200);
+	}
+
+	@Test
+	void embeddedProfilesAreConvertedToSrgb() throws IOException {
+		BufferedImage gray = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = gray.createGraphics();
+		g.setColor(new Color(128, 128, 128));
+		g.fillRect(0, 0, 16, 16);
+		g.dispose();
+		byte[] linear = ICC_Profile.getInstance(ColorSpace.CS_LINEAR_RGB).getData();
+		ByteBuffer chunk = ByteBuffer.allocate(14 + linear.length)
+				.put("ICC_PROFILE\0".getBytes(StandardCharsets.ISO_8859_1)).put((byte) 1).put((byte) 1).put(linear);
+
+		Map<ImageVariant, byte[]> derivatives = imageDerivatives.render(write(gray, segment(0xE2, chunk.array())));
+
+		// Half intensity in linear light is about 188 in sRGB; left unconverted it would stay at 128
+		int converted = new Color(decode(derivatives.get(ImageVariant.THUMBNAIL)).getRGB(8, 8)).getGreen();
+		assertThat(converted).isBetween(175, 200);
+		assertThat(new Color(decode(imageDerivatives.render(write(gray)).get(ImageVariant.THUMBNAIL)).getRGB(8, 8)).getGreen())
+				.isBetween(120, 136);
+	}
+
+	@Test
+	void unreadableFilesHaveNoDerivatives() throws IOException {
+		Path text = directory.resolve("notes.txt");
+		Files.writeString(text, "not an image");
+
+		assertThat(imageDerivatives.render(text)).isEmpty();
+	}
+
+	private Path write(BufferedImage image, byte[]... segments) throws IOException {
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", encoded);
+		byte[] jpeg = encoded.toByteArray();
+		int afterApp0 = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF); // SOI, then the APP0 marker and its length
+		ByteArrayOutputStream spliced = new ByteArrayOutputStream();
+		spliced.write(jpeg, 0, afterApp0);
+		for (byte[] segment : segments) {
+			spliced.write(segment);
+		}
+		spliced.write(jpeg, afterApp0, jpeg.length - afterApp0);
+		Path path = Files.createTempFile(directory, "source", ".jpg");
+		Files.write(path, spliced.toByteArray());
+		return path;
+	}
+
+	private static byte[] segment(int marker, byte[] payload) {
+		return ByteBuffer.allocate(4 + payload.length)
+				.put((byte) 0xFF).put((byte) marker).putShort((short) (payload.length + 2)).put(payload).array();
+	}
+
+	// "Exif\0\0", a big-endian TIFF header, and an IFD0 holding only the Orientation tag (a SHORT)
+	private static byte[] exif(int orientation) {
+		return ByteBuffer.allocate(6 + 8 + 2 + 12 + 4)
+				.put("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1))
+				.put("MM".getBytes(StandardCharsets.ISO_8859_1)).putShort((short) 42).putInt(8)
+				.putShort((short) 1)
+				.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0)
+				.putInt(0)
+				.array();
+	}
+
+	private static BufferedImage decode(byte[] jpeg) throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(jpeg));
+	}
+}
@@ -0,0 +1,184 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFileRange;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Stand-in for Supabase Storage that keeps files in memory as text. It also checks that no upload
+// runs inside a database transaction, where it would hold a pooled connection for its whole duration.
+// Tests @Import it, and it takes precedence over StorageServiceImpl.
+@Primary
+class InMemoryStorageService implements StorageService {
+
+	private static final OffsetDateTime UPLOADED_AT = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+	private final Map<String, String> files = new ConcurrentHashMap<>();
+	private final AtomicBoolean failNextUpload = new AtomicBoolean();
+	private final AtomicBoolean failNextDelete = new AtomicBoolean();
+	private final AtomicReference<Runnable> beforeNextDelete = new AtomicReference<>();
+	private final AtomicInteger deleteRequests = new AtomicInteger();
+	private final AtomicInteger downloadRequests = new AtomicInteger();
+
+	Map<String, String> files() {
+		return files;
+	}
+
+	void failNextUpload() {
+		failNextUpload.set(true);
+	}
+
+	void failNextDelete() {
+		failNextDelete.set(true);
+	}
+
+	// Runs on the caller's thread while the next delete request is "in flight"
+	void beforeNextDelete(Runnable action) {
+		beforeNextDelete.set(action);
+	}
+
+	int deleteRequests() {
+		return deleteRequests.get();
+	}
+
+	int downloadRequests() {
+		return downloadRequests.get();
+	}
+
+	void reset() {
+		files.clear();
+		failNextUpload.set(false);
+		failNextDelete.set(false);
+		beforeNextDelete.set(null);
+		deleteRequests.set(0);
+		downloadRequests.set(0);
+	}
+
+	@Override
+	public String uploadFile(String bucketName, String filePath, MultipartFile file) throws IOException {
+		return uploadFile(bucketName, filePath, file.getResource(), file.getContentType());
+	}
+
+	@Override
+	public String uploadFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream in = content.getInputStream()) {
+			in.transferTo(bytes);
+		}
+		assertThat((long) bytes.size()).isEqualTo(content.contentLength());
+		if (failNextUpload.getAndSet(false)) {
+			throw new IOException("Failed to upload file: 503 SERVICE_UNAVAILABLE");
+		}
+		files.put(bucketName + "/" + filePath, bytes.toString(StandardCharsets.UTF_8));
+		return filePath;
+	}
+
+	// Like Supabase without upsert, an existing path keeps its content
+	@Override
+	public String uploadImmutableFile(String bucketName, String filePath, Resource content, String contentType) throws IOException {
+		if (exists(bucketName, filePath)) {
+			return filePath;
+		}
+		return uploadFile(bucketName, filePath, content, contentType);
+	}
+
+	@Override
+	public boolean exists(String bucketName, String filePath) {
+		return files.containsKey(bucketName + "/" + filePath);
+	}
+
+	@Override
+	public void downloadFile(String bucketName, String filePath, Path target) throws IOException {
+		downloadRequests.incrementAndGet();
+		String content = files.get(bucketName + "/" + filePath);
+		if (content == null) {
+			throw new FileNotFoundException("File not found: " + bucketName + "/" + filePath);
+		}
+		Files.writeString(target, content);
+	}
+
+	@Override
+	public StoredFileRange openFile(String bucketName, String filePath, HttpRange range) throws IOException {
+		String content = files.get(bucketName + "/" + filePath);
+		if (content == null) {
+			throw new FileNotFoundException("File not found: " + bucketName + "/" + filePath);
+		}
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		long start = range == null ? 0 : range.getRangeStart(bytes.length);
+		long end = range == null ? bytes.length - 1 : range.getRangeEnd(bytes.length);
+		if (start >= bytes.length || start > end) {
+			throw new RangeNotSatisfiableException("Range not satisfiable: " + bucketName + "/" + filePath, bytes.length);
+		}
+		String contentType = MediaTypeFactory.getMediaType(filePath).map(MediaType::toString).orElse(null);
+		return new StoredFileRange(new ByteArrayInputStream(bytes, (int) start, bytes.length - (int) start),
+				start, end, bytes.length, contentType);
+	}
+
+	@Override
+	public void listFiles(String bucketName, Consumer<List<StoredFile>> page) {
+		String prefix = bucketName + "/";
+		List<StoredFile> listed = files.entrySet().stream()
+				.filter(file -> file.getKey().startsWith(prefix))
+				// No upload times are kept, so every file looks old enough for the reconciler to consider
+				.map(file -> new StoredFile(file.getKey().substring(prefix.length()), file.getValue().length(), UPLOADED_AT))
+				.sorted(Comparator.comparing(StoredFile::path))
+				.toList();
+		if (!listed.isEmpty()) {
+			page.accept(listed);
+		}
+	}
+
+	@Override
+	public void deleteFile(String bucketName, String filePath) throws IOException {
+		deleteFiles(bucketName, List.of(filePath));
+	}
+
+	@Override
+	public void deleteFiles(String bucketName, List<String> filePaths) throws IOException {
+		deleteRequests.incrementAndGet();
+		Runnable action = beforeNextDelete.getAndSet(null);
+		if (action != null) {
+			action.run();
+		}
+		if (failNextDelete.getAndSet(false)) {
+			throw new IOException("Failed to delete files: 503 SERVICE_UNAVAILABLE");
+		}
+		filePaths.forEach(filePath -> files.remove(bucketName + "/" + filePath));
+	}
+
+	@Override
+	public String getFileUrl(String bucketName, String filePath) {
+		return "http://localhost/storage/v1/object/sign/" + bucketName + "/" + filePath + "?token=test";
+	}
+
+	@Override
+	public String getPublicFileUrl(String bucketName, String filePath) {
+		return "http://localhost/storage/v1/object/public/" + bucketName + "/" + filePath;
+	}
+}
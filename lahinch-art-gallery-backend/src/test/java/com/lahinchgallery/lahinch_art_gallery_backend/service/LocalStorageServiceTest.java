@@ -0,0 +1,159 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StoredFile;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With the local-storage profile the application runs without Supabase: note there are no supabase.* properties
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:local-storage;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"uploads.staging-dir=target/local-storage-uploads",
+		"storage.local.root=target/local-storage",
+		"stripe.secret-key=test"
+})
+@ActiveProfiles("local-storage")
+@AutoConfigureMockMvc
+class LocalStorageServiceTest {
+
+	private static final Path ROOT = Path.of("target/local-storage");
+
+	@Autowired
+	private StorageService storageService;
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void filesAreWrittenReadAndDeletedOnLocalDisk() throws Exception {
+		assertThat(storageService).isInstanceOf(LocalStorageServiceImpl.class);
+		storageService.uploadFile("premium-media-files", "uploads/1/video.mp4", bytes("first"), "video/mp4");
+		storageService.uploadFile("premium-media-files", "uploads/1/video.mp4", bytes("second"), "video/mp4");
+		storageService.uploadFile("premium-media-files", "uploads/2/video.mp4", bytes("other"), "video/mp4");
+		assertThat(Files.readString(ROOT.resolve("premium-media-files/uploads/1/video.mp4"))).isEqualTo("second");
+		try (var leftovers = Files.list(ROOT.resolve("premium-media-files/uploads/1"))) {
+			assertThat(leftovers.toList()).hasSize(1); // No temp files left behind
+		}
+
+		Path copy = Files.createTempFile("download", ".mp4");
+		storageService.downloadFile("premium-media-files", "uploads/2/video.mp4", copy);
+		assertThat(Files.readString(copy)).isEqualTo("other");
+
+		storageService.deleteFiles("premium-media-files", List.of("uploads/1"));
+		assertThat(storageService.exists("premium-media-files", "uploads/1/video.mp4")).isFalse();
+		assertThat(storageService.exists("premium-media-files", "uploads/2/video.mp4")).isTrue();
+		List<StoredFile> listed = new ArrayList<>();
+		storageService.listFiles("premium-media-files", listed::addAll);
+		assertThat(listed).extracting(StoredFile::path).containsExactly("uploads/2/video.mp4");
+
+		// Listed in String order, which puts "a/" between "a-" and "a0"
+		for (String path : List.of("a0.jpg", "a/c.jpg", "a-b.jpg", "a/b/d.jpg")) {
+			storageService.uploadFile("artist-images", path, bytes(path), "image/jpeg");
+		}
+		listed.clear();
+		storageService.listFiles("artist-images", listed::addAll);
+		assertThat(listed).extracting(StoredFile::path).containsExactly("a-b.jpg", "a/b/d.jpg", "a/c.jpg", "a0.jpg");
+		storageService.deleteFiles("artist-images", List.of("a0.jpg", "a", "a-b.jpg"));
+
+		assertThatThrownBy(() -> storageService.exists("premium-media-files", "../artist-images/a.jpg"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> storageService.downloadFile("..", "etc/passwd", copy))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void uploadsFromTheJobQueueLandOnLocalDisk() throws Exception {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artist = artistRepository.save(artist);
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Burren Light");
+		artwork.setArtist(artist);
+		Artwork created = artworkService.createArtwork(artwork,
+				new MockMultipartFile("file", "burren.jpg", "image/jpeg", "burren".getBytes(StandardCharsets.UTF_8)));
+
+		for (int i = 0; i < 200 && artworkRepository.findById(created.getId()).orElseThrow().getArtworkImageUrl() == null; i++) {
+			Thread.sleep(25);
+		}
+		String url = artworkRepository.findById(created.getId()).orElseThrow().getArtworkImageUrl();
+		assertThat(url).startsWith("http://localhost:8080/api/files/artwork-images/");
+		String filePath = url.substring(storageService.getPublicFileUrl("artwork-images", "").length());
+		assertThat(Files.readString(ROOT.resolve("artwork-images").resolve(filePath))).isEqualTo("burren");
+	}
+
+	@Test
+	void fileUrlsAreServedAndPremiumFilesNeedASignedUrlOrAnEntitledUser() throws Exception {
+		storageService.uploadFile("artwork-images", "ab/burren.jpg", bytes("0123456789"), "image/jpeg");
+		storageService.uploadFile("premium-media-files", "ab/studio.mp4", bytes("0123456789"), "video/mp4");
+
+		String url = storageService.getPublicFileUrl("artwork-images", "ab/burren.jpg");
+		mvc.perform(get(url.substring("http://localhost:8080".length())))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+				.andExpect(content().string("0123456789"));
+		mvc.perform(get("/api/files/artwork-images/ab/burren.jpg").header(HttpHeaders.RANGE, "bytes=2-4"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10"))
+				.andExpect(content().string("234"));
+		mvc.perform(get("/api/files/artwork-images/ab/burren.jpg").header(HttpHeaders.RANGE, "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable());
+		mvc.perform(get("/api/files/artwork-images/ab/missing.jpg"))
+				.andExpect(status().isNotFound());
+		mvc.perform(get("/api/files/artwork-images/ab/../../premium-media-files/ab/studio.mp4"))
+				.andExpect(status().isBadRequest()); // Turned away by the firewall before the controller checks it
+
+		// No session here: without supabase.jwt-secret no access token can be checked, so no one is entitled
+		mvc.perform(get("/api/files/premium-media-files/ab/studio.mp4"))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/api/files/premium-media-files/ab/studio.mp4").header(HttpHeaders.AUTHORIZATION, "Bearer x.y.z"))
+				.andExpect(status().isUnauthorized());
+		// A signed URL carries its own access, for <video> elements that can't send a header; only for its own file
+		String signed = storageService.getFileUrl("premium-media-files", "ab/studio.mp4");
+		assertThat(signed).contains("?token=");
+		mvc.perform(get(signed.substring("http://localhost:8080".length())).header(HttpHeaders.RANGE, "bytes=0-3"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-store"))
+				.andExpect(content().string("0123"));
+		String token = signed.substring(signed.indexOf("?token=") + "?token=".length());
+		mvc.perform(get("/api/files/premium-media-files/ab/other.mp4").param("token", token))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/api/files/premium-media-files/ab/studio.mp4").param("token", token + "x"))
+				.andExpect(status().isUnauthorized());
+
+		storageService.deleteFiles("artwork-images", List.of("ab"));
+		storageService.deleteFiles("premium-media-files", List.of("ab"));
+	}
+
+	private static ByteArrayResource bytes(String content) {
+		return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
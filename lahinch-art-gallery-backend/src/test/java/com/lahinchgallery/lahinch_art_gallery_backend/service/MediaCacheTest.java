@@ -0,0 +1,136 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.controller.MediaFileController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Files are fetched from storage once and then served from local disk, least recently used first out
+class MediaCacheTest {
+
+	@TempDir
+	private Path cacheDir;
+
+	private final InMemoryStorageService storage = new InMemoryStorageService();
+
+	@Test
+	void concurrentMissesShareOneDownload() throws Exception {
+		storage.files().put("premium-media-files/ab/abcd.mp4", "0123456789");
+		MediaCache cache = new MediaCache(storage, cacheDir, DataSize.ofMegabytes(1));
+
+		List<Future<Path>> reads = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Callable<Path> read = () -> cache.get("premium-media-files", "ab/abcd.mp4");
+			for (int i = 0; i < 16; i++) {
+				reads.add(executor.submit(read));
+			}
+		}
+		for (Future<Path> read : reads) {
+			assertThat(Files.readString(read.get())).isEqualTo("0123456789");
+		}
+		assertThat(storage.downloadRequests()).isEqualTo(1);
+	}
+
+	@Test
+	void leastRecentlyUsedFilesAreEvictedPastTheSizeLimit() throws Exception {
+		storage.files().put("artwork-images/a.jpg", "aaaaa");
+		storage.files().put("artwork-images/b.jpg", "bbbbb");
+		storage.files().put("artwork-images/c.jpg", "ccccc");
+		MediaCache cache = new MediaCache(storage, cacheDir, DataSize.ofBytes(10));
+
+		cache.get("artwork-images", "a.jpg");
+		cache.get("artwork-images", "b.jpg");
+		cache.get("artwork-images", "a.jpg");
+		cache.get("artwork-images", "c.jpg"); // Evicts b, the least recently used
+		assertThat(storage.downloadRequests()).isEqualTo(3);
+		cache.get("artwork-images", "a.jpg");
+		assertThat(storage.downloadRequests()).isEqualTo(3);
+		cache.get("artwork-images", "b.jpg");
+		assertThat(storage.downloadRequests()).isEqualTo(4);
+
+		// A restart keeps what is on disk
+		new MediaCache(storage, cacheDir, DataSize.ofBytes(10)).get("artwork-images", "b.jpg");
+		assertThat(storage.downloadRequests()).isEqualTo(4);
+	}
+
+	@Test
+	void rangeRequestsGetPartialContent() throws Exception {
+		storage.files().put("artwork-images/ab/abcd.mp4", "0123456789");
+		MockMvc mvc = MockMvcBuilders
+				.standaloneSetup(new MediaFileController(new MediaCache(storage, cacheDir, DataSize.ofMegabytes(1))))
+				.build();
+
+		mvc.perform(get("/api/files/artwork-images/ab/abcd.mp4").header(HttpHeaders.RANGE, "bytes=2-4"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10"))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "video/mp4"))
+				.andExpect(content().string("234"));
+		mvc.perform(get("/api/files/artwork-images/ab/abcd.mp4").header(HttpHeaders.RANGE, "bytes=7-"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string("789"));
+		mvc.perform(get("/api/files/artwork-images/ab/abcd.mp4").header(HttpHeaders.RANGE, "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+		mvc.perform(get("/api/files/artwork-images/ab/abcd.mp4"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("0123456789"));
+		mvc.perform(get("/api/files/artwork-images/ab/missing.mp4"))
+				.andExpect(status().isNotFound());
+		storage.files().put("premium-media-files/ab/abcd.mp4", "0123456789");
+		mvc.perform(get("/api/files/premium-media-files/ab/abcd.mp4"))
+				.andExpect(status().isNotFound());
+		assertThat(storage.downloadRequests()).isEqualTo(2);
+	}
+
+	@Test
+	void contentAddressedFilesAreCachedForGoodAndOthersRevalidated() throws Exception {
+		String hash = "3f".repeat(32);
+		String contentPath = "3f/" + hash + ".jpg";
+		storage.files().put("artwork-images/" + contentPath, "burren");
+		storage.files().put("artwork-images/legacy/burren.jpg", "burren");
+		MockMvc mvc = MockMvcBuilders
+				.standaloneSetup(new MediaFileController(new MediaCache(storage, cacheDir, DataSize.ofMegabytes(1))))
+				.build();
+
+		String lastModified = mvc.perform(get("/api/files/artwork-images/" + contentPath))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+				.andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+		assertThat(lastModified).isNotNull();
+		mvc.perform(get("/api/files/artwork-images/" + contentPath).header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		String etag = mvc.perform(get("/api/files/artwork-images/legacy/burren.jpg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, no-cache"))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("W/\"6-");
+		mvc.perform(get("/api/files/artwork-images/legacy/burren.jpg").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/api/files/artwork-images/legacy/burren.jpg").header(HttpHeaders.IF_NONE_MATCH, "W/\"0-0\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string("burren"));
+		assertThat(storage.downloadRequests()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,130 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.PremiumMediaUpload;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Drives the resumable upload protocol end to end against an in-memory stand-in for Supabase Storage
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:premium-media-upload;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"premium-media.upload.staging-dir=target/premium-media-uploads",
+		"premium-media.upload.max-part-size=16B",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@Import(InMemoryStorageService.class)
+class PremiumMediaResumableUploadTest {
+
+	@Autowired
+	private PremiumMediaService premiumMediaService;
+	@Autowired
+	private PremiumMediaRepository premiumMediaRepository;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private InMemoryStorageService storage;
+
+	private UUID artistId;
+
+	@BeforeEach
+	void seed() {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artistId = artistRepository.save(artist).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		premiumMediaRepository.deleteAll();
+		artistRepository.deleteAll();
+		storage.reset();
+	}
+
+	@Test
+	void partsArriveInAnyOrderAndTheRowIsOnlyCreatedOnCompletion() throws Exception {
+		UUID uploadId = premiumMediaService.initiateUpload(newMedia(), "masterclass.mp4", "video/mp4").uploadId();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			executor.submit(() -> uploadPart(uploadId, 3, "the Burren."));
+			executor.submit(() -> uploadPart(uploadId, 1, "Light over "));
+		}
+		PremiumMediaUpload upload = premiumMediaService.getUpload(uploadId);
+		assertThat(upload.uploadedParts()).containsExactly(1, 3);
+		assertThat(upload.uploadedBytes()).isEqualTo(22);
+
+		assertThatThrownBy(() -> premiumMediaService.completeUpload(uploadId, null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("missing part 2");
+		assertThat(premiumMediaRepository.count()).isZero();
+
+		uploadPart(uploadId, 2, "the fields of ");
+		uploadPart(uploadId, 1, "Evening over "); // a retried part replaces the earlier copy
+		assertThatThrownBy(() -> uploadPart(uploadId, 4, "a part past the limit"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(premiumMediaService.getUpload(uploadId).uploadedParts()).containsExactly(1, 2, 3);
+
+		PremiumMedia media = premiumMediaService.completeUpload(uploadId, null);
+		assertThat(media.getId()).isEqualTo(uploadId);
+		assertThat(media.getFileUrl()).endsWith("/file/media_" + uploadId + "_masterclass.mp4");
+		assertThat(storage.files()).containsOnlyKeys("premium-media-files/" + filePath(media));
+		assertThat(storage.files().values()).containsExactly("Evening over the fields of the Burren.");
+		assertThatThrownBy(() -> premiumMediaService.getUpload(uploadId)).isInstanceOf(EntityNotFoundException.class);
+	}
+
+	@Test
+	void failedCompletionKeepsThePartsForARetry() throws Exception {
+		UUID uploadId = premiumMediaService.initiateUpload(newMedia(), "masterclass.mp4", "video/mp4").uploadId();
+		uploadPart(uploadId, 1, "Atlantic study");
+
+		storage.failNextUpload();
+		assertThatThrownBy(() -> premiumMediaService.completeUpload(uploadId, null)).isInstanceOf(IOException.class);
+		assertThat(premiumMediaRepository.count()).isZero();
+		assertThat(premiumMediaService.getUpload(uploadId).uploadedParts()).containsExactly(1);
+
+		premiumMediaService.completeUpload(uploadId, null);
+		assertThat(premiumMediaRepository.count()).isOne();
+		assertThat(storage.files().values()).containsExactly("Atlantic study");
+	}
+
+	private Void uploadPart(UUID uploadId, int partNumber, String content) throws IOException {
+		premiumMediaService.uploadPart(uploadId, partNumber, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		return null;
+	}
+
+	private PremiumMedia newMedia() {
+		PremiumMedia media = new PremiumMedia();
+		media.setTitle("Painting the Burren");
+		media.setMediaType(MediaType.VIDEO);
+		media.setRelatedToEntityType(RelatedEntityType.ARTIST);
+		media.setRelatedEntityId(artistId);
+		return media;
+	}
+
+	private static String filePath(PremiumMedia media) {
+		return media.getFileUrl().substring(media.getFileUrl().indexOf("premium-media-files/") + "premium-media-files/".length());
+	}
+}
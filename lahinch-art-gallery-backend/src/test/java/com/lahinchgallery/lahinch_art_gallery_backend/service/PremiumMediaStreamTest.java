@@ -0,0 +1,181 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Profile;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UserSubscription;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ProfileRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.UserSubscriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Subscribers start a stream session with their Supabase access token and then read the file by byte range
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:premium-media-stream;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"media.streaming.max-range=4B",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@AutoConfigureMockMvc
+@Import(InMemoryStorageService.class)
+class PremiumMediaStreamTest {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private PremiumMediaRepository premiumMediaRepository;
+	@Autowired
+	private ProfileRepository profileRepository;
+	@Autowired
+	private UserSubscriptionRepository userSubscriptionRepository;
+	@Autowired
+	private InMemoryStorageService storage;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private UUID mediaId;
+	private UUID subscriberId;
+	private UUID visitorId;
+
+	@BeforeEach
+	void seed() {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		UUID artistId = artistRepository.save(artist).getId();
+
+		PremiumMedia media = new PremiumMedia();
+		media.setTitle("Studio visit");
+		media.setMediaType(MediaType.VIDEO);
+		media.setFileUrl("http://localhost/storage/v1/object/public/premium-media-files/ab/studio.mp4");
+		media.setRelatedToEntityType(RelatedEntityType.ARTIST);
+		media.setRelatedEntityId(artistId);
+		mediaId = premiumMediaRepository.save(media).getId();
+		storage.files().put("premium-media-files/ab/studio.mp4", "0123456789");
+
+		visitorId = profileRepository.save(newProfile()).getUserId();
+		subscriberId = transactionTemplate.execute(status -> {
+			UserSubscription subscription = new UserSubscription();
+			subscription.setProfile(profileRepository.save(newProfile()));
+			subscription.setPaymentId("pi_test");
+			subscription.setPaymentAmount(new BigDecimal("20.00"));
+			return userSubscriptionRepository.save(subscription).getUserId();
+		});
+	}
+
+	@AfterEach
+	void cleanUp() {
+		userSubscriptionRepository.deleteAll();
+		profileRepository.deleteAll();
+		premiumMediaRepository.deleteAll();
+		artistRepository.deleteAll();
+		storage.reset();
+	}
+
+	@Test
+	void onlySubscribersCanStartASession() throws Exception {
+		mvc.perform(post("/api/premium-media/{id}/stream-sessions", mediaId))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(post("/api/premium-media/{id}/stream-sessions", mediaId)
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken(subscriberId, "other-secret")))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(post("/api/premium-media/{id}/stream-sessions", mediaId)
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken(visitorId, "test")))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/api/premium-media/{id}/stream-sessions", UUID.randomUUID())
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken(subscriberId, "test")))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void aSessionServesByteRanges() throws Exception {
+		String body = mvc.perform(post("/api/premium-media/{id}/stream-sessions", mediaId)
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken(subscriberId, "test")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode session = objectMapper.readTree(body);
+		String streamUrl = session.get("streamUrl").asText();
+
+		mvc.perform(get(streamUrl).header(HttpHeaders.RANGE, "bytes=2-4"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10"))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "video/mp4"))
+				.andExpect(content().string("234"));
+		// Open-ended ranges are cut to media.streaming.max-range, and the player asks for the rest
+		mvc.perform(get(streamUrl).header(HttpHeaders.RANGE, "bytes=0-"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/10"))
+				.andExpect(content().string("0123"));
+		mvc.perform(get(streamUrl).header(HttpHeaders.RANGE, "bytes=-3"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string("789"));
+		mvc.perform(get(streamUrl).header(HttpHeaders.RANGE, "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+		mvc.perform(get(streamUrl))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(content().string("0123456789"));
+
+		mvc.perform(get(streamUrl + "x").header(HttpHeaders.RANGE, "bytes=2-4"))
+				.andExpect(status().isUnauthorized());
+		// A Supabase access token is not a stream session
+		mvc.perform(get("/api/premium-media/streams/{token}", accessToken(subscriberId, "test")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void publicBucketsAreReadableWithoutCredentials() throws Exception {
+		// MediaFileController is off here, so a permitted request finds no handler rather than being challenged
+		mvc.perform(get("/api/files/artwork-images/ab/abcd.jpg"))
+				.andExpect(status().isNotFound());
+		mvc.perform(get("/api/files/premium-media-thumbnails/ab/abcd.jpg"))
+				.andExpect(status().isNotFound());
+		// Premium files are only served there with the local-storage profile, which checks the access token
+		mvc.perform(get("/api/files/premium-media-files/ab/abcd.mp4"))
+				.andExpect(status().isNotFound());
+	}
+
+	private static Profile newProfile() {
+		Profile profile = new Profile();
+		profile.setUserId(UUID.randomUUID());
+		return profile;
+	}
+
+	private static String accessToken(UUID userId, String secret) {
+		return Jwts.sign(Jwts.key(secret.getBytes(StandardCharsets.UTF_8)), Map.of("sub", userId.toString(),
+				"role", "authenticated", "exp", Instant.now().plusSeconds(60).getEpochSecond()));
+	}
+}
@@ -0,0 +1,100 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.ArtworkIndexRow;
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.SearchSuggestion;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.ArtworkAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The radix trie is only observable through suggest(), so splits and merges are checked by what stays reachable
+class SearchSuggestionIndexTest {
+
+	private static final UUID ARTIST = UUID.randomUUID();
+
+	private final SearchSuggestionIndex index = new SearchSuggestionIndex();
+
+	@Test
+	void splitEdgesKeepEveryKeyReachableAndMergedEdgesStayReachable() {
+		ArtworkIndexRow burren = row("Burren", null, ARTIST, "Aoife");
+		ArtworkIndexRow burrow = row("Burrow", null, ARTIST, "Aoife");
+		ArtworkIndexRow burrenbeg = row("Burrenbeg", null, ARTIST, "Aoife");
+		index.rebuild(List.of(burrenbeg));
+		// "burrenbeg" is one edge; "burren" splits it, then "burrow" splits the "burr" edge again
+		index.upsert(List.of(burren, burrow));
+
+		assertThat(titles(index.suggest("burr", 10))).containsExactlyInAnyOrder("Burren", "Burrow", "Burrenbeg");
+		assertThat(titles(index.suggest("burre", 10))).hasSize(3); // "burro" is one edit away
+		assertThat(titles(index.suggest("burren", 10))).containsExactlyInAnyOrder("Burren", "Burrenbeg");
+		// The exact match ranks above "burren", which is one deletion away
+		assertThat(titles(index.suggest("burrenb", 10))).containsExactly("Burrenbeg", "Burren");
+
+		// Removing "burren" leaves a pass-through node that is merged back into "beg"
+		index.remove(List.of(burren.id()));
+		assertThat(titles(index.suggest("burren", 10))).containsExactly("Burrenbeg");
+		assertThat(titles(index.suggest("burrenbe", 10))).containsExactly("Burrenbeg");
+		index.remove(List.of(burrow.id(), burrenbeg.id()));
+		assertThat(index.suggest("b", 10)).isEmpty();
+		// Re-adding after everything under the root was unlinked
+		index.upsert(List.of(burrow));
+		assertThat(titles(index.suggest("bu", 10))).containsExactly("Burrow");
+	}
+
+	@Test
+	void typosAreToleratedByQueryLengthAndSwapsCountOnce() {
+		index.rebuild(List.of(row("Burren Light", null, ARTIST, "Aoife"), row("Limestone", null, ARTIST, "Aoife")));
+
+		assertThat(titles(index.suggest("bruren", 5))).containsExactly("Burren Light"); // one adjacent swap
+		assertThat(titles(index.suggest("burem", 5))).isEmpty(); // two edits from five characters
+		assertThat(titles(index.suggest("bur", 5))).containsExactly("Burren Light");
+		assertThat(titles(index.suggest("bux", 5))).isEmpty(); // no edits under four characters
+		assertThat(titles(index.suggest("lymestane", 5))).containsExactly("Limestone"); // two edits from eight
+		assertThat(titles(index.suggest("vurren", 5))).isEmpty(); // the first character must match
+		assertThat(titles(index.suggest("light", 5))).containsExactly("Burren Light"); // a later word start
+		assertThat(index.suggest("  ", 5)).isEmpty();
+		assertThat(index.suggest("burren", 0)).isEmpty();
+	}
+
+	@Test
+	void suggestionsAreRankedByKindPopularityPositionAndEdits() {
+		UUID burke = UUID.randomUUID();
+		index.rebuild(List.of(
+				row("Harbour", "Oil", burke, "Oisín Burke"),
+				row("Headland", "Oil", burke, "Oisín Burke"),
+				row("Burren Light", "Burnt umber", ARTIST, "Aoife"),
+				row("Limestone", "Limestane wash", ARTIST, "Aoife")));
+
+		// An artist (at its second word) outranks a medium, which outranks a title
+		List<SearchSuggestion> suggestions = index.suggest("bur", 5);
+		assertThat(suggestions).extracting(SearchSuggestion::type)
+				.containsExactly(SearchSuggestion.Type.ARTIST, SearchSuggestion.Type.MEDIUM, SearchSuggestion.Type.ARTWORK);
+		assertThat(suggestions.get(0)).isEqualTo(new SearchSuggestion(SearchSuggestion.Type.ARTIST, "Oisín Burke", burke));
+		assertThat(index.suggest("bur", 2)).hasSize(2);
+
+		// An exact title beats a medium that needs an edit
+		assertThat(index.suggest("limestone", 5)).extracting(SearchSuggestion::text).containsExactly("Limestone", "Limestane wash");
+
+		// Artists and mediums are counted by artwork and drop out with their last one
+		index.remove(List.of(index.suggest("harbour", 1).get(0).id()));
+		assertThat(index.suggest("oisin", 5)).hasSize(1);
+		index.upsert(List.of(new ArtworkIndexRow(index.suggest("headland", 1).get(0).id(), "Headland", "", "Ink",
+				burke, "Oisín de Búrca", null, null, ArtworkAvailabilityStatus.AVAILABLE)));
+		assertThat(index.suggest("oisin", 5)).extracting(SearchSuggestion::text).containsExactly("Oisín de Búrca");
+		assertThat(index.suggest("oil", 5)).isEmpty();
+	}
+
+	private static List<String> titles(List<SearchSuggestion> suggestions) {
+		return suggestions.stream()
+				.filter(suggestion -> suggestion.type() == SearchSuggestion.Type.ARTWORK)
+				.map(SearchSuggestion::text)
+				.toList();
+	}
+
+	private static ArtworkIndexRow row(String title, String medium, UUID artistId, String artistName) {
+		return new ArtworkIndexRow(UUID.randomUUID(), title, "", medium, artistId, artistName,
+				null, null, ArtworkAvailabilityStatus.AVAILABLE);
+	}
+}
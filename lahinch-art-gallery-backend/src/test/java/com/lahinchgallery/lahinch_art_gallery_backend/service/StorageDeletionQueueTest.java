@@ -0,0 +1,176 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.dto.StorageReconciliationReport;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.StorageDeletionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deletes return before their files leave storage; the worker removes them in batches and retries failures.
+// Files nothing refers to any more are found by the reconciler and go through the same queue.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:storage-deletions;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"storage.deletions.interval=50ms",
+		"storage.deletions.retry-delay=50ms",
+		"storage.reconciliation.enabled=false",
+		"storage.reconciliation.purge=true",
+		"storage.reconciliation.page-size=1", // Every column is read over several pages
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@Import(InMemoryStorageService.class)
+class StorageDeletionQueueTest {
+
+	@Autowired
+	private ArtistService artistService;
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private StorageDeletionRepository storageDeletionRepository;
+	@Autowired
+	private StorageCleanupService storageCleanupService;
+	@Autowired
+	private StorageReconciler storageReconciler;
+	@Autowired
+	private InMemoryStorageService storage;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void cleanUp() {
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+		storageDeletionRepository.deleteAll();
+		storage.reset();
+	}
+
+	@Test
+	void deletingAnArtistRemovesItsFilesWithOneRequestPerBucket() throws Exception {
+		Artist artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artist.setProfileImageUrl(stored("artist-images", "aoife/profile.jpg"));
+		artist = artistRepository.save(artist);
+		for (String title : new String[]{"Burren Light", "Atlantic Study", "Moher Evening"}) {
+			Artwork artwork = new Artwork();
+			artwork.setTitle(title);
+			artwork.setArtist(artist);
+			artwork.setArtworkImageUrl(stored("artwork-images", title.toLowerCase().replace(' ', '-') + ".jpg"));
+			artworkRepository.save(artwork);
+		}
+
+		artistService.deleteArtist(artist.getId());
+
+		await(() -> storage.files().isEmpty());
+		assertThat(storage.deleteRequests()).isEqualTo(2);
+		await(() -> storageDeletionRepository.count() == 0);
+	}
+
+	@Test
+	void failedDeletesStayQueuedUntilTheyGoThrough() throws Exception {
+		Artist artist = new Artist();
+		artist.setName("Seán Ó Riada");
+		artist = artistRepository.save(artist);
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Lahinch Surf");
+		artwork.setArtist(artist);
+		artwork.setArtworkImageUrl(stored("artwork-images", "lahinch-surf.jpg"));
+		artwork = artworkRepository.save(artwork);
+
+		storage.failNextDelete();
+		artworkService.deleteArtwork(artwork.getId());
+
+		await(() -> storage.files().isEmpty());
+		assertThat(storage.deleteRequests()).isEqualTo(2);
+		await(() -> storageDeletionRepository.count() == 0);
+	}
+
+	@Test
+	void theDeleteRequestIsSentAfterTheClaimIsCommitted() throws Exception {
+		stored("artwork-images", "burren.jpg");
+		AtomicReference<OffsetDateTime> inFlightUntil = new AtomicReference<>();
+		AtomicBoolean inTransaction = new AtomicBoolean(true);
+		storage.beforeNextDelete(() -> {
+			inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+			// Another transaction can read and remove the queued row straight away: no lock is held on it
+			inFlightUntil.set(storageCleanupService.cancelDeletion("artwork-images", "burren.jpg"));
+		});
+		storageCleanupService.scheduleDeletion("artwork-images", "burren.jpg");
+
+		await(() -> storage.files().isEmpty());
+		assertThat(inTransaction).isFalse();
+		assertThat(inFlightUntil.get()).isAfter(OffsetDateTime.now());
+		await(() -> storageDeletionRepository.count() == 0);
+		assertThat(storageCleanupService.cancelDeletion("artwork-images", "burren.jpg")).isNull();
+	}
+
+	@Test
+	void reconciliationPurgesOrphanedFilesAndReportsMissingOnes() throws Exception {
+		Artist artist = new Artist();
+		artist.setName("Nano Reid");
+		artist.setProfileImageUrl(storage.getPublicFileUrl("artist-images", "nano/profile.jpg")); // Never uploaded
+		artist = artistRepository.save(artist);
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Boyne Evening");
+		artwork.setArtist(artist);
+		artwork.setArtworkImageUrl(stored("artwork-images", "boyne-evening.jpg"));
+		artwork.setArtworkCardUrl(artwork.getArtworkImageUrl()); // Counted once
+		// Missing paths on either side of a listed one, and one inside a folder
+		artwork.setArtworkThumbnailUrl(storage.getPublicFileUrl("artwork-images", "a-missing.jpg"));
+		artwork.setArtworkDetailUrl(storage.getPublicFileUrl("artwork-images", "c/missing.jpg"));
+		artworkRepository.save(artwork);
+		stored("artwork-images", "left-behind.jpg");
+		stored("artwork-images", "z/left-behind.jpg");
+
+		List<StorageReconciliationReport> reports = storageReconciler.reconcileAll();
+
+		assertThat(reports).contains(
+				new StorageReconciliationReport("artwork-images", 3, 2, "left-behind.jpg".length() + "z/left-behind.jpg".length(), 2, true),
+				new StorageReconciliationReport("artist-images", 0, 0, 0, 1, true));
+		assertThat(meterRegistry.get("storage.reconciliation.missing.files").tag("bucket", "artwork-images").gauge().value())
+				.isEqualTo(2);
+		assertThat(meterRegistry.get("storage.reconciliation.orphaned.files").tag("bucket", "artwork-images").gauge().value())
+				.isEqualTo(2);
+		assertThat(meterRegistry.get("storage.reconciliation.files").tag("bucket", "artist-images").gauge().value()).isZero();
+		await(() -> !storage.files().containsKey("artwork-images/left-behind.jpg")
+				&& !storage.files().containsKey("artwork-images/z/left-behind.jpg"));
+		assertThat(storage.files()).containsOnlyKeys("artwork-images/boyne-evening.jpg");
+	}
+
+	private String stored(String bucketName, String filePath) {
+		storage.files().put(bucketName + "/" + filePath, filePath);
+		return storage.getPublicFileUrl(bucketName, filePath);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			if (condition.getAsBoolean()) {
+				return;
+			}
+			Thread.sleep(25);
+		}
+		throw new AssertionError("Timed out waiting for the storage deletion worker");
+	}
+}
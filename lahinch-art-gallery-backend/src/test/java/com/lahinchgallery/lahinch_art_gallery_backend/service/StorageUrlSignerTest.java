@@ -0,0 +1,55 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Signed URLs carry the JWT Supabase Storage checks on /object/sign/..., made without calling Supabase
+class StorageUrlSignerTest {
+
+	private static final String SECRET = "super-secret-jwt-token-with-at-least-32-characters";
+
+	@Test
+	void tokensAreSignedWithTheProjectSecretAndStableWithinAWindow() throws Exception {
+		StorageUrlSigner signer = new StorageUrlSigner("https://project.supabase.co", SECRET,
+				Duration.ofHours(1), Duration.ofMinutes(15), 100);
+
+		String url = signer.sign("premium-media-files", "ab/abcd.mp4");
+		assertThat(url).startsWith("https://project.supabase.co/storage/v1/object/sign/premium-media-files/ab/abcd.mp4?token=");
+		assertThat(signer.sign("premium-media-files", "ab/abcd.mp4")).isEqualTo(url);
+		assertThat(signer.sign("premium-media-files", "cd/cdef.mp4")).isNotEqualTo(url);
+
+		String[] token = url.substring(url.indexOf("?token=") + "?token=".length()).split("\\.");
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+		byte[] signature = mac.doFinal((token[0] + "." + token[1]).getBytes(StandardCharsets.US_ASCII));
+		assertThat(Base64.getUrlDecoder().decode(token[2])).isEqualTo(signature);
+
+		String payload = new String(Base64.getUrlDecoder().decode(token[1]), StandardCharsets.UTF_8);
+		JsonNode claims = new ObjectMapper().readTree(payload);
+		assertThat(claims.get("url").asText()).isEqualTo("premium-media-files/ab/abcd.mp4");
+		long now = Instant.now().getEpochSecond();
+		assertThat(claims.get("iat").asLong()).isBetween(now - Duration.ofMinutes(15).toSeconds(), now);
+		assertThat(claims.get("exp").asLong() - claims.get("iat").asLong()).isEqualTo(Duration.ofHours(1).toSeconds());
+		// Byte for byte what any other node signs for this file and window
+		assertThat(payload).isEqualTo("{\"url\":\"premium-media-files/ab/abcd.mp4\",\"iat\":" + claims.get("iat").asLong()
+				+ ",\"exp\":" + claims.get("exp").asLong() + "}");
+	}
+
+	@Test
+	void theWindowMustBeShorterThanTheTtl() {
+		assertThatThrownBy(() -> new StorageUrlSigner("https://project.supabase.co", SECRET,
+				Duration.ofMinutes(10), Duration.ofMinutes(10), 100))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
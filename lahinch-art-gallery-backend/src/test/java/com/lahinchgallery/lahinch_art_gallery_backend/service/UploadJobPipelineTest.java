@@ -0,0 +1,298 @@
+package com.lahinchgallery.lahinch_art_gallery_backend.service;
+
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artist;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.Artwork;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.MediaType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.PremiumMedia;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.RelatedEntityType;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadJob;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadStatus;
+import com.lahinchgallery.lahinch_art_gallery_backend.model.UploadTarget;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtistRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.ArtworkRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.PremiumMediaRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.StorageDeletionRepository;
+import com.lahinchgallery.lahinch_art_gallery_backend.repository.UploadJobRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Entity writes return before their files reach storage; the worker fills in the URL afterwards
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:upload-jobs;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"uploads.staging-dir=target/upload-jobs",
+		"uploads.retry-delay=50ms",
+		"uploads.stale-claim-sweep=100ms",
+		"uploads.node-id=node-a",
+		"storage.deletions.interval=50ms",
+		"supabase.url=http://localhost",
+		"supabase.service-role-key=test",
+		"supabase.jwt-secret=test",
+		"stripe.secret-key=test"
+})
+@Import(InMemoryStorageService.class)
+class UploadJobPipelineTest {
+
+	@Autowired
+	private ArtworkService artworkService;
+	@Autowired
+	private UploadJobService uploadJobService;
+	@Autowired
+	private ArtistRepository artistRepository;
+	@Autowired
+	private ArtworkRepository artworkRepository;
+	@Autowired
+	private PremiumMediaRepository premiumMediaRepository;
+	@Autowired
+	private PremiumMediaService premiumMediaService;
+	@Autowired
+	private UploadJobRepository uploadJobRepository;
+	@Autowired
+	private StorageDeletionRepository storageDeletionRepository;
+	@Autowired
+	private InMemoryStorageService storage;
+
+	private Artist artist;
+
+	@BeforeEach
+	void seed() {
+		artist = new Artist();
+		artist.setName("Aoife Ní Bhriain");
+		artist = artistRepository.save(artist);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		uploadJobRepository.deleteAll();
+		premiumMediaRepository.deleteAll();
+		artworkRepository.deleteAll();
+		artistRepository.deleteAll();
+		storageDeletionRepository.deleteAll();
+		storage.reset();
+	}
+
+	@Test
+	void imageUrlIsFilledInOnceTheUploadCompletes() throws Exception {
+		Artwork artwork = new Artwork();
+		artwork.setId(UUID.randomUUID()); // ignored: the ID is generated on insert
+		artwork.setTitle("Burren Light");
+		artwork.setArtist(artist);
+		Artwork created = artworkService.createArtwork(artwork, image("burren.jpg", "first"));
+
+		UploadJob job = awaitUpload(UploadTarget.ARTWORK_IMAGE, created.getId());
+		assertThat(job.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		String firstUrl = artworkRepository.findById(created.getId()).orElseThrow().getArtworkImageUrl();
+		assertThat(firstUrl).endsWith("/artwork-images/" + job.getFilePath());
+		assertThat(storage.files()).containsOnlyKeys("artwork-images/" + job.getFilePath());
+		// Cleanup runs just after the job's transaction commits
+		await(() -> !Files.exists(Path.of(job.getStagedPath())));
+
+		// The replaced image is only deleted once its successor is in storage
+		artworkService.updateArtwork(created.getId(), created, image("burren-final.jpg", "second"));
+		UploadJob replacement = awaitUpload(UploadTarget.ARTWORK_IMAGE, created.getId());
+		assertThat(artworkRepository.findById(created.getId()).orElseThrow().getArtworkImageUrl())
+				.endsWith("/artwork-images/" + replacement.getFilePath());
+		await(() -> storage.files().size() == 1);
+		assertThat(storage.files()).containsOnlyKeys("artwork-images/" + replacement.getFilePath());
+	}
+
+	@Test
+	void failedUploadsAreRetried() throws Exception {
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Atlantic Study");
+		artwork.setArtist(artist);
+		storage.failNextUpload();
+		Artwork created = artworkService.createArtwork(artwork, image("atlantic.jpg", "study"));
+
+		UploadJob job = awaitUpload(UploadTarget.ARTWORK_IMAGE, created.getId());
+		assertThat(job.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		assertThat(job.getAttempts()).isEqualTo(2);
+		assertThat(storage.files().values()).containsExactly("study");
+	}
+
+	@Test
+	void imagesGetResizedCopiesNextToTheOriginal() throws Exception {
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Cliffs of Moher");
+		artwork.setArtist(artist);
+		BufferedImage image = new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_ARGB);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", png);
+		Artwork created = artworkService.createArtwork(artwork,
+				new MockMultipartFile("file", "moher.png", "image/png", png.toByteArray()));
+
+		UploadJob job = awaitUpload(UploadTarget.ARTWORK_IMAGE, created.getId());
+		assertThat(job.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		assertThat(storage.files()).hasSize(4).containsKey("artwork-images/" + job.getFilePath());
+		Artwork stored = artworkRepository.findById(created.getId()).orElseThrow();
+		assertThat(List.of(stored.getArtworkThumbnailUrl(), stored.getArtworkCardUrl(), stored.getArtworkDetailUrl()))
+				.doesNotHaveDuplicates()
+				.allSatisfy(url -> assertThat(url).endsWith(".jpg"))
+				.allSatisfy(url -> assertThat(storage.files()).containsKey(url.substring(url.indexOf("artwork-images/"))));
+	}
+
+	@Test
+	void identicalUploadsShareOneFileUntilTheLastReferenceGoes() throws Exception {
+		Artwork first = new Artwork();
+		first.setTitle("Burren Light");
+		first.setArtist(artist);
+		first = artworkService.createArtwork(first, image("burren.jpg", "same bytes"));
+		awaitUpload(UploadTarget.ARTWORK_IMAGE, first.getId());
+		Artwork second = new Artwork();
+		second.setTitle("Burren Light (print)");
+		second.setArtist(artist);
+		second = artworkService.createArtwork(second, image("burren-print.jpg", "same bytes"));
+		awaitUpload(UploadTarget.ARTWORK_IMAGE, second.getId());
+
+		String url = artworkRepository.findById(first.getId()).orElseThrow().getArtworkImageUrl();
+		assertThat(artworkRepository.findById(second.getId()).orElseThrow().getArtworkImageUrl()).isEqualTo(url);
+		assertThat(storage.files()).hasSize(1);
+
+		// The second artwork still shows the file, so the queued delete is dropped
+		artworkService.deleteArtwork(first.getId());
+		await(() -> storageDeletionRepository.count() == 0);
+		assertThat(storage.files()).hasSize(1);
+
+		artworkService.deleteArtwork(second.getId());
+		await(() -> storage.files().isEmpty());
+	}
+
+	@Test
+	void premiumMediaHasNoFileUrlUntilItsFileIsStored() throws Exception {
+		PremiumMedia media = new PremiumMedia();
+		media.setTitle("Studio visit");
+		media.setMediaType(MediaType.VIDEO);
+		media.setRelatedToEntityType(RelatedEntityType.ARTIST);
+		media.setRelatedEntityId(artist.getId());
+		PremiumMedia created = premiumMediaService.createMedia(media,
+				new MockMultipartFile("file", "studio.mp4", "video/mp4", "footage".getBytes(StandardCharsets.UTF_8)), null);
+		assertThat(created.getFileUrl()).isNull();
+
+		UploadJob job = awaitUpload(UploadTarget.PREMIUM_MEDIA_FILE, created.getId());
+		assertThat(job.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		assertThat(job.getOwner()).isEqualTo("node-a");
+		assertThat(premiumMediaRepository.findById(created.getId()).orElseThrow().getFileUrl())
+				.endsWith("/premium-media-files/" + job.getFilePath());
+	}
+
+	@Test
+	void filesAreStagedOutsideTheTransactionAndDiscardedIfTheWriteFails() throws Exception {
+		List<Boolean> readInTransaction = new ArrayList<>();
+		MockMultipartFile file = new MockMultipartFile("file", "burren.jpg", "image/jpeg", "burren".getBytes(StandardCharsets.UTF_8)) {
+			@Override
+			public InputStream getInputStream() throws IOException {
+				readInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+				return super.getInputStream();
+			}
+		};
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Burren Light");
+		artwork.setArtist(artist);
+		Artwork created = artworkService.createArtwork(artwork, file);
+		assertThat(awaitUpload(UploadTarget.ARTWORK_IMAGE, created.getId()).getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		assertThat(readInTransaction).isNotEmpty().containsOnly(false);
+
+		Set<Path> staged = stagedFiles();
+		Artist unknown = new Artist();
+		unknown.setId(UUID.randomUUID());
+		Artwork orphan = new Artwork();
+		orphan.setTitle("Atlantic Swell");
+		orphan.setArtist(unknown);
+		assertThatThrownBy(() -> artworkService.createArtwork(orphan, image("atlantic.jpg", "swell")))
+				.isInstanceOf(EntityNotFoundException.class);
+		assertThat(staged).containsAll(stagedFiles());
+	}
+
+	@Test
+	void abandonedClaimsOfThisNodeAreReleasedAndOtherNodesJobsLeftAlone() throws Exception {
+		Artwork artwork = new Artwork();
+		artwork.setTitle("Burren Light");
+		artwork.setArtist(artist);
+		artwork = artworkRepository.save(artwork);
+		// As left behind by a worker that stopped after claiming the job
+		UploadJob abandoned = uploadJobRepository.save(claimedJob(artwork.getId(), "node-a", "abandoned"));
+		UploadJob elsewhere = uploadJobRepository.save(claimedJob(UUID.randomUUID(), "node-b", "elsewhere"));
+
+		UploadJob job = awaitUpload(UploadTarget.ARTWORK_IMAGE, artwork.getId());
+		assertThat(job.getId()).isEqualTo(abandoned.getId());
+		assertThat(job.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+		assertThat(job.getAttempts()).isEqualTo(2);
+		assertThat(artworkRepository.findById(artwork.getId()).orElseThrow().getArtworkImageUrl()).endsWith(job.getFilePath());
+		Thread.sleep(300);
+		assertThat(uploadJobRepository.findById(elsewhere.getId()).orElseThrow().getStatus()).isEqualTo(UploadStatus.UPLOADING);
+	}
+
+	private static UploadJob claimedJob(UUID artworkId, String owner, String content) throws Exception {
+		Path staged = Files.createDirectories(Path.of("target/upload-jobs")).resolve(UUID.randomUUID().toString());
+		Files.writeString(staged, content);
+		UploadJob job = new UploadJob();
+		job.setTargetType(UploadTarget.ARTWORK_IMAGE);
+		job.setTargetId(artworkId);
+		job.setBucketName("artwork-images");
+		job.setFilePath("ab/" + content + ".jpg");
+		job.setFileName(content + ".jpg");
+		job.setContentType("image/jpeg");
+		job.setStagedPath(staged.toString());
+		job.setOwner(owner);
+		job.setStatus(UploadStatus.UPLOADING);
+		job.setAttempts(1);
+		job.setNextAttemptAt(OffsetDateTime.now());
+		return job;
+	}
+
+	private static Set<Path> stagedFiles() throws IOException {
+		try (Stream<Path> files = Files.list(Path.of("target/upload-jobs"))) {
+			return files.collect(Collectors.toSet());
+		}
+	}
+
+	// Polls the newest job for the target the way the frontend would, until it stops being in progress
+	private UploadJob awaitUpload(UploadTarget target, UUID targetId) throws InterruptedException {
+		await(() -> {
+			UploadStatus status = uploadJobService.getUploadsFor(target, targetId).get(0).getStatus();
+			return status != UploadStatus.PENDING && status != UploadStatus.UPLOADING;
+		});
+		return uploadJobService.getUploadsFor(target, targetId).get(0);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			if (condition.getAsBoolean()) {
+				return;
+			}
+			Thread.sleep(25);
+		}
+		throw new AssertionError("Timed out waiting for the upload worker");
+	}
+
+	private static MockMultipartFile image(String fileName, String content) {
+		return new MockMultipartFile("file", fileName, "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+	}
+}